@@ -0,0 +1,119 @@
+package com.numerical.rootfinder.bench;
+
+import com.numerical.rootfinder.model.NumericalMethods;
+import com.numerical.rootfinder.model.expression.CompiledFunction;
+import com.numerical.rootfinder.model.expression.DifferentiableFunction;
+
+/**
+ * Function evaluations and time per root for Newton-Raphson with the old central-difference
+ * derivative, Newton-Raphson with forward-mode differentiation, and Halley's method.
+ * Run with {@code mvn -Pbench compile exec:java
+ * -Dexec.mainClass=com.numerical.rootfinder.bench.DerivativeBenchmark}.
+ */
+public class DerivativeBenchmark {
+
+    private static final Object[][] CORPUS = {
+            {"x^3 - 2*x - 5", 2.0},
+            {"cos(x) - x", 1.0},
+            {"exp(x) - 3*x^2", 4.0},
+            {"x*log(x) - 1", 2.0},
+            {"atan(x) - 0.5", 3.0},
+            {"x^5 - 3*x^4 + x - 2", 3.5},
+            {"sin(x)^2 - 0.25 + x/100", 1.0},
+            {"sqrt(x) * exp(-x) - 0.1", 3.0},
+    };
+
+    private static final double TOLERANCE = 1e-12;
+    private static final int MAX_ITERATIONS = 100;
+    private static final int REPEATS = 200_000;
+
+    public static void main(String[] args) {
+        System.out.printf("%-26s | %-24s | %-24s | %-24s%n", "equation",
+                "central diff: it/evals/ns", "forward AD: it/evals/ns", "Halley: it/evals/ns");
+        for (Object[] entry : CORPUS) {
+            String equation = (String) entry[0];
+            double x0 = (Double) entry[1];
+            NumericalMethods solver = new NumericalMethods(equation, TOLERANCE, MAX_ITERATIONS);
+            CompiledFunction f = CompiledFunction.compile(equation);
+
+            int centralIterations = centralDifferenceNewton(f, x0);
+            long newtonIterations = solver.newtonRaphson(x0).getTrace().getIterationCount();
+            long halleyIterations = solver.halley(x0).getTrace().getIterationCount();
+
+            double centralNanos = time(() -> centralDifferenceNewton(f, x0));
+            double newtonNanos = time(() -> forwardModeNewton(f, x0));
+            double halleyNanos = time(() -> forwardModeHalley(f, x0));
+
+            // Central differences cost 3 evaluations per iteration, the AD pass is one fused evaluation
+            System.out.printf("%-26s | %4d / %4d / %8.0f | %4d / %4d / %8.0f | %4d / %4d / %8.0f%n", equation,
+                    centralIterations, 3 * centralIterations, centralNanos,
+                    newtonIterations, newtonIterations, newtonNanos,
+                    halleyIterations, halleyIterations, halleyNanos);
+        }
+    }
+
+    // The Newton-Raphson loop before forward-mode differentiation, h = 1e-8
+    private static int centralDifferenceNewton(CompiledFunction f, double x0) {
+        double h = 1e-8;
+        double xPrev = x0;
+        for (int i = 0; i < MAX_ITERATIONS; i++) {
+            double fVal = f.applyAsDouble(xPrev);
+            double fPrimeVal = (f.applyAsDouble(xPrev + h) - f.applyAsDouble(xPrev - h)) / (2 * h);
+            if (Math.abs(fPrimeVal) < 1e-15) {
+                return i + 1;
+            }
+            double xNew = xPrev - fVal / fPrimeVal;
+            if (Math.abs(xNew - xPrev) < TOLERANCE) {
+                return i + 1;
+            }
+            xPrev = xNew;
+        }
+        return MAX_ITERATIONS;
+    }
+
+    // Same loops with derivatives from one forward-mode pass, no trace, so timings compare like for like
+    private static int forwardModeNewton(CompiledFunction f, double x0) {
+        DifferentiableFunction.Evaluator derivatives = f.getDerivatives().firstOrderEvaluator();
+        double xPrev = x0;
+        for (int i = 0; i < MAX_ITERATIONS; i++) {
+            double fVal = derivatives.evaluate(xPrev);
+            double xNew = xPrev - fVal / derivatives.first();
+            if (Math.abs(xNew - xPrev) < TOLERANCE) {
+                return i + 1;
+            }
+            xPrev = xNew;
+        }
+        return MAX_ITERATIONS;
+    }
+
+    private static int forwardModeHalley(CompiledFunction f, double x0) {
+        DifferentiableFunction.Evaluator derivatives = f.getDerivatives().evaluator();
+        double xPrev = x0;
+        for (int i = 0; i < MAX_ITERATIONS; i++) {
+            double fVal = derivatives.evaluate(xPrev);
+            double fPrime = derivatives.first();
+            double xNew = xPrev - 2 * fVal * fPrime / (2 * fPrime * fPrime - fVal * derivatives.second());
+            if (Math.abs(xNew - xPrev) < TOLERANCE) {
+                return i + 1;
+            }
+            xPrev = xNew;
+        }
+        return MAX_ITERATIONS;
+    }
+
+    private static double time(java.util.function.IntSupplier solve) {
+        int sink = 0;
+        for (int i = 0; i < REPEATS; i++) {
+            sink += solve.getAsInt();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < REPEATS; i++) {
+            sink += solve.getAsInt();
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink == 42) {
+            System.out.println();
+        }
+        return (double) elapsed / REPEATS;
+    }
+}
@@ -0,0 +1,90 @@
+package com.numerical.rootfinder.bench;
+
+import com.numerical.rootfinder.model.NumericalMethods;
+import com.numerical.rootfinder.model.expression.CompiledFunction;
+import com.numerical.rootfinder.model.expression.DoubleDouble;
+import com.numerical.rootfinder.model.expression.DoubleDoubleFunction;
+
+import java.math.BigDecimal;
+
+/**
+ * Cost of double-double evaluation against the double path, per evaluation and per root:
+ * a plain Newton-Raphson solve versus the same solve followed by polishing. Also prints how
+ * far the double root is from the polished one. Run with {@code mvn -Pbench compile exec:java
+ * -Dexec.mainClass=com.numerical.rootfinder.bench.DoubleDoubleBenchmark}.
+ */
+public class DoubleDoubleBenchmark {
+
+    private static final Object[][] CORPUS = {
+            {"x^3 - 2*x - 5", 2.0},
+            {"cos(x) - x", 1.0},
+            {"exp(x) - 3*x^2", 4.0},
+            {"x*log(x) - 1", 2.0},
+            {"atan(x) - 0.5", 1.0},
+            {"x^5 - 3*x^4 + x - 2", 3.5},
+            {"sin(x)^2 - 0.25 + x/100", 1.0},
+            {"sqrt(x) * exp(-x) - 0.1", 3.0},
+    };
+
+    private static final double TOLERANCE = 1e-12;
+    private static final int MAX_ITERATIONS = 100;
+    private static final int REPEATS = 200_000;
+    private static final int POINTS = 1024;
+    private static final int SWEEPS = 2_000;
+
+    public static void main(String[] args) {
+        System.out.printf("%-26s | %-20s | %-24s | %s%n", "equation",
+                "ns/eval: double / dd", "ns/root: solve / +polish", "|double root - polished|");
+        for (Object[] entry : CORPUS) {
+            String equation = (String) entry[0];
+            double x0 = (Double) entry[1];
+            CompiledFunction f = CompiledFunction.compile(equation);
+            DoubleDoubleFunction.Evaluator dd = f.getExtendedPrecision().evaluator();
+            double root = new NumericalMethods(equation, TOLERANCE, MAX_ITERATIONS).newtonRaphson(x0).getRoot();
+            double[] xs = new double[POINTS];
+            for (int i = 0; i < POINTS; i++) {
+                xs[i] = root * (0.5 + (double) i / POINTS);
+            }
+
+            double doubleNanos = time(() -> {
+                double sum = 0;
+                for (double x : xs) {
+                    sum += f.applyAsDouble(x);
+                }
+                return sum;
+            }, SWEEPS) / POINTS;
+            double ddNanos = time(() -> {
+                double sum = 0;
+                for (double x : xs) {
+                    sum += dd.evaluate(x).hi();
+                }
+                return sum;
+            }, SWEEPS) / POINTS;
+
+            NumericalMethods solver = new NumericalMethods(equation, TOLERANCE, MAX_ITERATIONS);
+            double solveNanos = time(() -> solver.newtonRaphson(x0).getRoot(), REPEATS);
+            double polishNanos = time(() -> solver.polish(solver.newtonRaphson(x0).getRoot()).hi(), REPEATS);
+
+            DoubleDouble polished = solver.polish(root);
+            BigDecimal gap = polished.toBigDecimal().subtract(new BigDecimal(root)).abs();
+            System.out.printf("%-26s | %8.1f / %9.1f | %10.0f / %11.0f | %.2e%n", equation,
+                    doubleNanos, ddNanos, solveNanos, polishNanos, gap.doubleValue());
+        }
+    }
+
+    private static double time(java.util.function.DoubleSupplier work, int repeats) {
+        double sink = 0;
+        for (int i = 0; i < repeats; i++) {
+            sink += work.getAsDouble();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < repeats; i++) {
+            sink += work.getAsDouble();
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink == 42) {
+            System.out.println();
+        }
+        return (double) elapsed / repeats;
+    }
+}
@@ -0,0 +1,95 @@
+package com.numerical.rootfinder.bench;
+
+import com.numerical.rootfinder.model.expression.CompiledFunction;
+import net.objecthunter.exp4j.Expression;
+import net.objecthunter.exp4j.ExpressionBuilder;
+
+/**
+ * Evaluations per second of the exp4j path NumericalMethods used to take versus the
+ * compiled closure tree. Run with {@code mvn -Pbench compile exec:java
+ * -Dexec.mainClass=com.numerical.rootfinder.bench.EvaluationBenchmark}.
+ */
+public class EvaluationBenchmark {
+
+    private static final String[] EQUATIONS = {
+            "x^3 - 2*x - 5",
+            "sin(x) - x/2",
+            "exp(-x) * cos(3*x) + log(x^2 + 1) - 0.5",
+            "tanh(x) * sqrt(abs(x) + 1) - atan(2x) + sinh(x/4)"
+    };
+
+    private static final int POINTS = 1 << 12;
+    private static final int ROUNDS = 5;
+    private static final long ROUND_NANOS = 500_000_000L;
+
+    public static void main(String[] args) {
+        double[] xs = new double[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            xs[i] = -5 + 10.0 * i / POINTS;
+        }
+
+        System.out.printf("%-52s %16s %16s %8s%n", "equation", "exp4j eval/s", "compiled eval/s", "speedup");
+        for (String equation : EQUATIONS) {
+            Expression expression = new ExpressionBuilder(equation).variables("x").build();
+            CompiledFunction compiled = CompiledFunction.compile(equation);
+            checkAgreement(equation, expression, compiled, xs);
+
+            double exp4j = 0;
+            double fast = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                exp4j = measureExp4j(expression, xs);
+                fast = measureCompiled(compiled, xs);
+            }
+            System.out.printf("%-52s %16.3e %16.3e %7.1fx%n", equation, exp4j, fast, fast / exp4j);
+        }
+    }
+
+    private static double measureExp4j(Expression expression, double[] xs) {
+        long evaluations = 0;
+        double sink = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            for (double x : xs) {
+                sink += expression.setVariable("x", x).evaluate();
+            }
+            evaluations += xs.length;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < ROUND_NANOS);
+        consume(sink);
+        return evaluations * 1e9 / elapsed;
+    }
+
+    private static double measureCompiled(CompiledFunction function, double[] xs) {
+        long evaluations = 0;
+        double sink = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            for (double x : xs) {
+                sink += function.applyAsDouble(x);
+            }
+            evaluations += xs.length;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < ROUND_NANOS);
+        consume(sink);
+        return evaluations * 1e9 / elapsed;
+    }
+
+    private static void checkAgreement(String equation, Expression expression, CompiledFunction compiled, double[] xs) {
+        for (double x : xs) {
+            double expected = expression.setVariable("x", x).evaluate();
+            double actual = compiled.applyAsDouble(x);
+            if (Math.abs(expected - actual) > 1e-12 * Math.max(1.0, Math.abs(expected))
+                    && !(Double.isNaN(expected) && Double.isNaN(actual))) {
+                throw new IllegalStateException(equation + " differs at x=" + x + ": " + expected + " vs " + actual);
+            }
+        }
+    }
+
+    private static void consume(double sink) {
+        if (sink == 42.4242) {
+            System.out.println();
+        }
+    }
+}
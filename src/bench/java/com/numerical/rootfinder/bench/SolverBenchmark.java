@@ -0,0 +1,135 @@
+package com.numerical.rootfinder.bench;
+
+import com.numerical.rootfinder.model.MethodResult;
+import com.numerical.rootfinder.model.NumericalMethods;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH suite for the evaluator and every solver in {@link NumericalMethods}, over a fixed set of
+ * equations and tolerances. Run with {@code mvn -Pbench compile exec:exec@jmh}; the GC profiler
+ * is on and results go to {@code target/jmh-result.json} for diffing between builds. Extra JMH
+ * options go in {@code -Djmh.args}, e.g. {@code -Djmh.args="SolverBenchmark.secant -p equation=TRIG"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolverBenchmark {
+
+    private static final int MAX_ITERATIONS = 1000;
+    private static final int POINTS = 256;
+
+    /** An equation with a bracket, starting points and a convergent g(x) for fixed point. */
+    public enum Case {
+        POLYNOMIAL("x^3 - 2*x - 5", 2, 3, 2, 3, "(2*x + 5)^(1/3)"),
+        TRIG("cos(x) - x", 0, 1, 0.5, 1, "cos(x)"),
+        EXP_LOG("exp(x) + log(x) - 3", 0.5, 2, 1, 2, "log(3 - log(x))"),
+        // Nearly a triple root at 1: f' is 1e-6 there, so every method crawls
+        NEAR_SINGULAR("(x - 1)^3 + 1e-6*(x - 1)", 0, 2.5, 2, 2.5, "x - ((x - 1)^3 + 1e-6*(x - 1))");
+
+        final String equation;
+        final double a;
+        final double b;
+        final double x0;
+        final double x1;
+        final String g;
+
+        Case(String equation, double a, double b, double x0, double x1, String g) {
+            this.equation = equation;
+            this.a = a;
+            this.b = b;
+            this.x0 = x0;
+            this.x1 = x1;
+            this.g = g;
+        }
+    }
+
+    @Param({"POLYNOMIAL", "TRIG", "EXP_LOG", "NEAR_SINGULAR"})
+    public Case equation;
+
+    @Param({"1e-6", "1e-12"})
+    public double tolerance;
+
+    private NumericalMethods solver;
+    private double[] points;
+
+    @Setup
+    public void setup() {
+        solver = new NumericalMethods(equation.equation, tolerance, MAX_ITERATIONS);
+        points = new double[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            points[i] = equation.a + (equation.b - equation.a) * (i + 0.5) / POINTS;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public double evaluate() {
+        double sum = 0;
+        for (double x : points) {
+            sum += solver.evaluate(x);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public MethodResult bisection() {
+        return solver.bisection(equation.a, equation.b);
+    }
+
+    @Benchmark
+    public MethodResult falsePosition() {
+        return solver.falsePosition(equation.a, equation.b);
+    }
+
+    @Benchmark
+    public MethodResult illinois() {
+        return solver.illinois(equation.a, equation.b);
+    }
+
+    @Benchmark
+    public MethodResult ridders() {
+        return solver.ridders(equation.a, equation.b);
+    }
+
+    @Benchmark
+    public MethodResult brent() {
+        return solver.brent(equation.a, equation.b);
+    }
+
+    @Benchmark
+    public MethodResult fixedPoint() {
+        // Includes compiling g(x), which every fixedPoint call does
+        return solver.fixedPoint(equation.x0, equation.g);
+    }
+
+    @Benchmark
+    public MethodResult newtonRaphson() {
+        return solver.newtonRaphson(equation.x0);
+    }
+
+    @Benchmark
+    public MethodResult halley() {
+        return solver.halley(equation.x0);
+    }
+
+    @Benchmark
+    public MethodResult secant() {
+        return solver.secant(equation.x0, equation.x1);
+    }
+}
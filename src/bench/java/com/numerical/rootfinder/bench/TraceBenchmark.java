@@ -0,0 +1,87 @@
+package com.numerical.rootfinder.bench;
+
+import com.numerical.rootfinder.model.IterationResult;
+import com.numerical.rootfinder.model.MethodResult;
+import com.numerical.rootfinder.model.NumericalMethods;
+import com.numerical.rootfinder.model.expression.CompiledFunction;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Allocation and retained heap of a long fixed-point run, recorded as the old
+ * List&lt;IterationResult&gt; of boxed Doubles versus the columnar IterationTrace.
+ * Run with {@code mvn -Pbench compile exec:java
+ * -Dexec.mainClass=com.numerical.rootfinder.bench.TraceBenchmark}.
+ */
+public class TraceBenchmark {
+
+    // Slowly converging map for x^3 - 2x - 5 = 0, so every run goes to maxIterations
+    private static final String G = "x - 0.0000001*(x^3 - 2*x - 5)";
+    private static final int ITERATIONS = 1_000_000;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) {
+        for (int warmup = 0; warmup < 3; warmup++) {
+            boxedList();
+            columnarTrace();
+        }
+
+        System.out.printf("%-22s %14s %14s %12s%n", "representation", "allocated MB", "retained MB", "time ms");
+        measure("List<IterationResult>", TraceBenchmark::boxedList);
+        measure("IterationTrace", TraceBenchmark::columnarTrace);
+    }
+
+    private static void measure(String name, java.util.function.Supplier<Object> run) {
+        long threadId = Thread.currentThread().getId();
+        long heapBefore = usedHeapAfterGc();
+        long allocatedBefore = THREADS.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+
+        Object result = run.get();
+
+        long elapsed = System.nanoTime() - start;
+        long allocated = THREADS.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        long retained = usedHeapAfterGc() - heapBefore;
+        System.out.printf("%-22s %14.1f %14.1f %12.1f%n", name, allocated / 1e6, retained / 1e6, elapsed / 1e6);
+        if (result == null) {
+            throw new IllegalStateException();
+        }
+    }
+
+    private static Object columnarTrace() {
+        MethodResult result = new NumericalMethods("x^3 - 2*x - 5", 0, ITERATIONS).fixedPoint(2, G);
+        return result.getTrace();
+    }
+
+    // The recording loop fixedPoint used before IterationTrace
+    private static Object boxedList() {
+        CompiledFunction g = CompiledFunction.compile(G);
+        List<IterationResult> iterations = new ArrayList<>();
+        double prevX = 2;
+        for (int i = 0; i < ITERATIONS; i++) {
+            double xNew = g.applyAsDouble(prevX);
+            IterationResult iteration = new IterationResult(i + 1);
+            iteration.setX_i(prevX);
+            iteration.setX_i1(xNew);
+            iteration.setG_x(xNew);
+            if (i > 0) {
+                iteration.setError(Math.abs((xNew - prevX) / xNew) * 100);
+            }
+            iterations.add(iteration);
+            prevX = xNew;
+        }
+        return iterations;
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,138 @@
+package com.numerical.rootfinder.batch;
+
+import com.numerical.rootfinder.model.MethodParameters;
+import com.numerical.rootfinder.model.RootFindingMethod;
+import com.numerical.rootfinder.model.SolverOptions;
+
+import java.util.Map;
+
+/**
+ * One line of batch input. Parameters use short generic names and are copied to every method
+ * that takes them, so the same record works for a single method or for {@code ALL}:
+ * <ul>
+ *   <li>{@code a}, {@code b}: bracket for the bracketing methods</li>
+ *   <li>{@code x0}, {@code x1}: starting points for the open methods ({@code x1} for secant)</li>
+ *   <li>{@code g}: g(x) for fixed point iteration</li>
+ *   <li>{@code xmin}, {@code xmax}, {@code intervals}: the range for {@code SCAN_ALL}; {@code xmin}
+ *   and {@code xmax} also for {@code INTERVAL_SEARCH}</li>
+ * </ul>
+ * {@code equation} and {@code method} are required; {@code tolerance} defaults to 1e-6 and
+ * {@code maxIterations} to 100, as in the UI. An optional {@code id} is echoed in the output.
+ * <p>
+ * Optional limits, none by default: {@code timeLimitMs} and {@code maxEvaluations} for each
+ * method, {@code totalTimeLimitMs} and {@code totalEvaluations} for the whole job (all the
+ * methods together for {@code ALL}). {@code polish=true} refines converged roots in
+ * double-double precision.
+ */
+public final class BatchJob {
+
+    private static final double DEFAULT_TOLERANCE = 1e-6;
+    private static final int DEFAULT_MAX_ITERATIONS = 100;
+
+    private final String id;
+    private final String equation;
+    private final RootFindingMethod method;
+    private final MethodParameters parameters;
+    private final double tolerance;
+    private final int maxIterations;
+    private final SolverOptions settings;
+
+    private BatchJob(String id, String equation, RootFindingMethod method, MethodParameters parameters,
+                     double tolerance, int maxIterations, SolverOptions settings) {
+        this.id = id;
+        this.equation = equation;
+        this.method = method;
+        this.parameters = parameters;
+        this.tolerance = tolerance;
+        this.maxIterations = maxIterations;
+        this.settings = settings;
+    }
+
+    public static BatchJob fromFields(String defaultId, Map<String, String> fields) {
+        String equation = fields.get("equation");
+        if (equation == null || equation.isBlank()) {
+            throw new IllegalArgumentException("Missing equation");
+        }
+        String methodName = fields.get("method");
+        if (methodName == null || methodName.isBlank()) {
+            throw new IllegalArgumentException("Missing method");
+        }
+        RootFindingMethod method;
+        try {
+            method = RootFindingMethod.valueOf(methodName.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown method: " + methodName);
+        }
+
+        MethodParameters parameters = new MethodParameters();
+        double a = number(fields, "a", 0);
+        double b = number(fields, "b", 0);
+        parameters.setBisectionA(a);
+        parameters.setBisectionB(b);
+        parameters.setFalsePositionA(a);
+        parameters.setFalsePositionB(b);
+        parameters.setBrentA(a);
+        parameters.setBrentB(b);
+        parameters.setIllinoisA(a);
+        parameters.setIllinoisB(b);
+        parameters.setRiddersA(a);
+        parameters.setRiddersB(b);
+
+        double x0 = number(fields, "x0", 0);
+        parameters.setFixedPointX0(x0);
+        parameters.setNewtonX0(x0);
+        parameters.setSecantX0(x0);
+        parameters.setHalleyX0(x0);
+        parameters.setSecantX1(number(fields, "x1", 0));
+        parameters.setFixedPointG(fields.get("g"));
+
+        parameters.setScanMin(number(fields, "xmin", 0));
+        parameters.setScanMax(number(fields, "xmax", 0));
+        parameters.setScanIntervals((int) number(fields, "intervals", 1000));
+
+        SolverOptions settings = new SolverOptions();
+        settings.setTimeLimitMillis((long) number(fields, "timeLimitMs", 0));
+        settings.setEvaluationLimit((long) number(fields, "maxEvaluations", 0));
+        settings.setTotalTimeLimitMillis((long) number(fields, "totalTimeLimitMs", 0));
+        settings.setTotalEvaluationLimit((long) number(fields, "totalEvaluations", 0));
+        settings.setPolishRoots(Boolean.parseBoolean(fields.get("polish")));
+
+        String id = fields.getOrDefault("id", defaultId);
+        return new BatchJob(id, equation, method, parameters,
+                number(fields, "tolerance", DEFAULT_TOLERANCE),
+                (int) number(fields, "maxIterations", DEFAULT_MAX_ITERATIONS), settings);
+    }
+
+    private static double number(Map<String, String> fields, String name, double defaultValue) {
+        String value = fields.get(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for " + name + ": " + value);
+        }
+    }
+
+    public String getId() { return id; }
+
+    public String getEquation() { return equation; }
+
+    public RootFindingMethod getMethod() { return method; }
+
+    public MethodParameters getParameters() { return parameters; }
+
+    public double getTolerance() { return tolerance; }
+
+    public int getMaxIterations() { return maxIterations; }
+
+    /** Copies the job's time and evaluation limits and polishing flag to the options. */
+    public void applySettings(SolverOptions options) {
+        options.setTimeLimitMillis(settings.getTimeLimitMillis());
+        options.setEvaluationLimit(settings.getEvaluationLimit());
+        options.setTotalTimeLimitMillis(settings.getTotalTimeLimitMillis());
+        options.setTotalEvaluationLimit(settings.getTotalEvaluationLimit());
+        options.setPolishRoots(settings.isPolishRoots());
+    }
+}
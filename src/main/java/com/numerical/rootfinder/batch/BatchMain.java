@@ -0,0 +1,97 @@
+package com.numerical.rootfinder.batch;
+
+import com.numerical.rootfinder.model.expression.ExpressionCache;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Headless entry point: solves jobs from CSV or JSON Lines without starting JavaFX.
+ * <pre>
+ * java -cp root-finder-1.0.0.jar com.numerical.rootfinder.batch.BatchMain
+ *      [--input FILE|-] [--output FILE|-] [--format csv|jsonl] [--output-format csv|jsonl] [--threads N]
+ * </pre>
+ * Input and output default to stdin and stdout. The input format follows the file extension
+ * (JSON Lines for stdin) and the output format follows the input. See {@link BatchJob} for the
+ * fields of a job.
+ */
+public final class BatchMain {
+
+    private static final String USAGE = "Usage: BatchMain [--input FILE|-] [--output FILE|-] "
+            + "[--format csv|jsonl] [--output-format csv|jsonl] [--threads N]";
+
+    private BatchMain() {
+    }
+
+    public static void main(String[] args) {
+        String input = "-";
+        String output = "-";
+        JobFormat format = null;
+        JobFormat outputFormat = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals("--help") || arg.equals("-h")) {
+                    System.out.println(USAGE);
+                    return;
+                }
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + arg);
+                }
+                String value = args[++i];
+                switch (arg) {
+                    case "--input": input = value; break;
+                    case "--output": output = value; break;
+                    case "--format": format = JobFormat.forName(value); break;
+                    case "--output-format": outputFormat = JobFormat.forName(value); break;
+                    case "--threads": threads = Integer.parseInt(value); break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + arg);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        if (format == null) {
+            format = input.equals("-") ? JobFormat.JSONL : JobFormat.fromFileName(input);
+        }
+        if (outputFormat == null) {
+            outputFormat = format;
+        }
+
+        try (BufferedReader in = input.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(input), StandardCharsets.UTF_8);
+             Writer out = output.equals("-")
+                     ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16)
+                     : Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8)) {
+            long start = System.nanoTime();
+            long records = new BatchSolver(threads).run(new JobReader(in, format), new ResultWriter(out, outputFormat));
+            double seconds = (System.nanoTime() - start) / 1e9;
+            ExpressionCache expressions = ExpressionCache.shared();
+            System.err.printf("Solved %d jobs in %.3f s (%.0f jobs/s) on %d threads; "
+                            + "expression cache hit rate %.1f%% (%d parsed)%n",
+                    records, seconds, records / seconds, threads,
+                    expressions.getHitRate() * 100, expressions.getMisses());
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Batch failed: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.numerical.rootfinder.batch;
+
+import com.numerical.rootfinder.model.MethodResult;
+import com.numerical.rootfinder.model.NumericalMethods;
+import com.numerical.rootfinder.model.RootFindingMethod;
+import com.numerical.rootfinder.model.SolverOptions;
+import com.numerical.rootfinder.model.TraceRetention;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Solves a stream of batch jobs on a fixed pool of worker threads. The reading thread blocks
+ * once {@code maxInFlight} jobs are queued or running, so memory stays bounded however long the
+ * input is. Results are written as each job finishes, in completion order; the {@code id} field
+ * ties them back to the input (it defaults to the input line number).
+ * <p>
+ * Jobs keep no iteration history ({@link TraceRetention#none()}), only the counts and the last
+ * step, since the output has no use for the rest.
+ */
+public class BatchSolver {
+
+    private final int threads;
+    private final int maxInFlight;
+
+    public BatchSolver(int threads) {
+        this(threads, threads * 64);
+    }
+
+    public BatchSolver(int threads, int maxInFlight) {
+        if (threads < 1 || maxInFlight < 1) {
+            throw new IllegalArgumentException("Threads and jobs in flight must be at least 1");
+        }
+        this.threads = threads;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /** Solves every job from the reader and returns how many records were read. */
+    public long run(JobReader reader, ResultWriter writer) throws IOException, InterruptedException {
+        AtomicInteger workerId = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "batch-solver-" + workerId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        AtomicInteger pending = new AtomicInteger();
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        long records = 0;
+
+        try {
+            JobReader.Record record;
+            while ((record = reader.next()) != null && failure.get() == null) {
+                records++;
+                if (record.getError() != null) {
+                    writer.writeError(String.valueOf(record.getLine()), null, null,
+                            "Line " + record.getLine() + ": " + record.getError());
+                    continue;
+                }
+                inFlight.acquire();
+                pending.incrementAndGet();
+                JobReader.Record job = record;
+                pool.execute(() -> {
+                    try {
+                        solve(job, writer);
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        inFlight.release();
+                        // Flush when the pool drains, so a slow producer still sees results promptly
+                        if (pending.decrementAndGet() == 0) {
+                            flushQuietly(writer, failure);
+                        }
+                    }
+                });
+            }
+            // Every permit back means every job has finished
+            inFlight.acquire(maxInFlight);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        writer.flush();
+        return records;
+    }
+
+    private static void solve(JobReader.Record record, ResultWriter writer) {
+        Map<String, String> fields = record.getFields();
+        String line = String.valueOf(record.getLine());
+        BatchJob job;
+        try {
+            job = BatchJob.fromFields(line, fields);
+        } catch (IllegalArgumentException e) {
+            writer.writeError(fields.getOrDefault("id", line), fields.get("equation"), fields.get("method"),
+                    "Line " + line + ": " + e.getMessage());
+            return;
+        }
+
+        try {
+            SolverOptions options = new SolverOptions();
+            options.setRetention(TraceRetention.none());
+            job.applySettings(options);
+            NumericalMethods solver = new NumericalMethods(job.getEquation(), job.getTolerance(),
+                    job.getMaxIterations(), options);
+            if (job.getMethod() == RootFindingMethod.ALL) {
+                // Run the methods inline; the pool already spreads jobs over the cores
+                for (MethodResult result : solver.solveAll(job.getParameters(), Runnable::run).values()) {
+                    writer.write(job, result);
+                }
+            } else {
+                writer.write(job, solver.solve(job.getMethod(), job.getParameters()));
+            }
+        } catch (UncheckedIOException e) {
+            // The output failed; stop the batch
+            throw e;
+        } catch (RuntimeException e) {
+            // Parse errors, and evaluation errors the solvers do not catch, e.g. at a bracket endpoint
+            writer.writeError(job.getId(), job.getEquation(), job.getMethod().name(), e.getMessage());
+        }
+    }
+
+    private static void flushQuietly(ResultWriter writer, AtomicReference<RuntimeException> failure) {
+        try {
+            writer.flush();
+        } catch (RuntimeException e) {
+            failure.compareAndSet(null, e);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.numerical.rootfinder.batch;
+
+/**
+ * Record formats for batch input and output. CSV files start with a header row naming the
+ * fields; JSON Lines has one flat object per line.
+ */
+public enum JobFormat {
+    CSV,
+    JSONL;
+
+    /** Guesses the format from a file name, defaulting to JSON Lines. */
+    public static JobFormat fromFileName(String name) {
+        return name.toLowerCase().endsWith(".csv") ? CSV : JSONL;
+    }
+
+    public static JobFormat forName(String name) {
+        switch (name.toLowerCase()) {
+            case "csv": return CSV;
+            case "jsonl":
+            case "json": return JSONL;
+            default:
+                throw new IllegalArgumentException("Unknown format: " + name + " (expected csv or jsonl)");
+        }
+    }
+}
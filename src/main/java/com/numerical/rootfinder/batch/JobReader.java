@@ -0,0 +1,204 @@
+package com.numerical.rootfinder.batch;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads batch records one line at a time, so input of any size is streamed. CSV fields may be
+ * quoted (with {@code ""} for a quote), which equations containing commas need. JSON Lines
+ * records are flat objects of strings, numbers, booleans and nulls; values are kept as text.
+ * Blank lines are skipped.
+ */
+public class JobReader {
+
+    /** A record, or the reason it could not be parsed. */
+    public static final class Record {
+        private final long line;
+        private final Map<String, String> fields;
+        private final String error;
+
+        private Record(long line, Map<String, String> fields, String error) {
+            this.line = line;
+            this.fields = fields;
+            this.error = error;
+        }
+
+        public long getLine() { return line; }
+
+        public Map<String, String> getFields() { return fields; }
+
+        public String getError() { return error; }
+    }
+
+    private final BufferedReader in;
+    private final JobFormat format;
+    private List<String> header;
+    private long line;
+
+    public JobReader(BufferedReader in, JobFormat format) {
+        this.in = in;
+        this.format = format;
+    }
+
+    /** The next record, or null at the end of the input. */
+    public Record next() throws IOException {
+        String text;
+        while ((text = in.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            try {
+                if (format == JobFormat.JSONL) {
+                    return new Record(line, parseJson(text), null);
+                }
+                List<String> values = parseCsv(text);
+                if (header == null) {
+                    header = values;
+                    continue;
+                }
+                Map<String, String> fields = new HashMap<>();
+                for (int i = 0; i < header.size() && i < values.size(); i++) {
+                    fields.put(header.get(i).trim(), values.get(i));
+                }
+                return new Record(line, fields, null);
+            } catch (IllegalArgumentException e) {
+                return new Record(line, null, e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    static List<String> parseCsv(String text) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quote");
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    static Map<String, String> parseJson(String text) {
+        Map<String, String> fields = new HashMap<>();
+        int[] pos = {skipSpace(text, 0)};
+        expect(text, pos, '{');
+        if (peek(text, pos) == '}') {
+            pos[0]++;
+        } else {
+            while (true) {
+                String key = readString(text, pos);
+                expect(text, pos, ':');
+                fields.put(key, readValue(text, pos));
+                char c = peek(text, pos);
+                pos[0]++;
+                if (c == '}') {
+                    break;
+                }
+                if (c != ',') {
+                    throw new IllegalArgumentException("Expected , or } at column " + pos[0]);
+                }
+            }
+        }
+        if (skipSpace(text, pos[0]) != text.length()) {
+            throw new IllegalArgumentException("Unexpected text after object at column " + (pos[0] + 1));
+        }
+        return fields;
+    }
+
+    private static String readValue(String text, int[] pos) {
+        char c = peek(text, pos);
+        if (c == '"') {
+            return readString(text, pos);
+        }
+        int start = pos[0];
+        while (pos[0] < text.length() && ",} \t".indexOf(text.charAt(pos[0])) < 0) {
+            pos[0]++;
+        }
+        String literal = text.substring(start, pos[0]);
+        if (literal.isEmpty() || literal.charAt(0) == '{' || literal.charAt(0) == '[') {
+            throw new IllegalArgumentException("Expected a string, number, boolean or null at column " + (start + 1));
+        }
+        return literal.equals("null") ? null : literal;
+    }
+
+    private static String readString(String text, int[] pos) {
+        expect(text, pos, '"');
+        StringBuilder value = new StringBuilder();
+        while (pos[0] < text.length()) {
+            char c = text.charAt(pos[0]++);
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            if (pos[0] >= text.length()) {
+                break;
+            }
+            char escape = text.charAt(pos[0]++);
+            switch (escape) {
+                case 'n': value.append('\n'); break;
+                case 't': value.append('\t'); break;
+                case 'r': value.append('\r'); break;
+                case 'b': value.append('\b'); break;
+                case 'f': value.append('\f'); break;
+                case 'u':
+                    if (pos[0] + 4 > text.length()) {
+                        throw new IllegalArgumentException("Bad \\u escape");
+                    }
+                    value.append((char) Integer.parseInt(text.substring(pos[0], pos[0] + 4), 16));
+                    pos[0] += 4;
+                    break;
+                default: value.append(escape); break;
+            }
+        }
+        throw new IllegalArgumentException("Unterminated string");
+    }
+
+    private static void expect(String text, int[] pos, char expected) {
+        if (peek(text, pos) != expected) {
+            throw new IllegalArgumentException("Expected " + expected + " at column " + (pos[0] + 1));
+        }
+        pos[0]++;
+    }
+
+    // Skips whitespace and returns the next character, or 0 at the end
+    private static char peek(String text, int[] pos) {
+        pos[0] = skipSpace(text, pos[0]);
+        return pos[0] < text.length() ? text.charAt(pos[0]) : 0;
+    }
+
+    private static int skipSpace(String text, int pos) {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+}
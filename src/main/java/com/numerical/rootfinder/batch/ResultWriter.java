@@ -0,0 +1,156 @@
+package com.numerical.rootfinder.batch;
+
+import com.numerical.rootfinder.model.MethodResult;
+import com.numerical.rootfinder.model.RootFindingMethod;
+import com.numerical.rootfinder.model.StopReason;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Writes one output record per solved method, from any worker thread. Lines are written whole
+ * under the writer's lock; output is buffered and flushed by {@link #flush()}.
+ */
+public class ResultWriter {
+
+    private static final String[] COLUMNS = {
+            "id", "equation", "method", "root", "converged", "iterations", "evaluations", "durationNanos",
+            "stopReason", "bestRoot", "polishedRoot", "error", "roots"
+    };
+
+    private final Writer out;
+    private final JobFormat format;
+
+    public ResultWriter(Writer out, JobFormat format) throws IOException {
+        this.out = out;
+        this.format = format;
+        if (format == JobFormat.CSV) {
+            out.write(String.join(",", COLUMNS));
+            out.write('\n');
+        }
+    }
+
+    public void write(BatchJob job, MethodResult result) {
+        Double root = result.getRoot();
+        Double bestRoot = result.getBestRoot();
+        writeRecord(new Object[]{
+                job.getId(), job.getEquation(), result.getMethod().name(),
+                root != null && Double.isFinite(root) ? root : null,
+                result.isConverged(), result.getTrace().getIterationCount(), result.getFunctionEvaluations(),
+                result.getDurationNanos(), result.getStopReason().name(),
+                bestRoot != null && Double.isFinite(bestRoot) ? bestRoot : null,
+                // As text: a JSON number would be read back as a double
+                result.getPolishedRoot() != null ? result.getPolishedRoot().toString() : null,
+                result.getErrorMessage(),
+                result.getMethod() == RootFindingMethod.SCAN_ALL || result.getMethod() == RootFindingMethod.POLYNOMIAL_ROOTS
+                        || result.getMethod() == RootFindingMethod.INTERVAL_SEARCH ? result.getRoots() : null
+        });
+    }
+
+    /** A record for input that could not be parsed or solved. */
+    public void writeError(String id, String equation, String method, String error) {
+        writeRecord(new Object[]{id, equation, method, null, false, null, null, null,
+                StopReason.ERROR.name(), null, null, error, null});
+    }
+
+    public void flush() {
+        synchronized (out) {
+            try {
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void writeRecord(Object[] values) {
+        StringBuilder line = new StringBuilder(128);
+        if (format == JobFormat.CSV) {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    line.append(',');
+                }
+                appendCsv(line, values[i]);
+            }
+        } else {
+            line.append('{');
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    line.append(',');
+                }
+                appendJsonString(line, COLUMNS[i]);
+                line.append(':');
+                appendJson(line, values[i]);
+            }
+            line.append('}');
+        }
+        line.append('\n');
+        synchronized (out) {
+            try {
+                out.write(line.toString());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static void appendCsv(StringBuilder line, Object value) {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof List) {
+            // Root lists are ;-separated so they stay in one column
+            List<?> list = (List<?>) value;
+            for (int i = 0; i < list.size(); i++) {
+                line.append(i > 0 ? ";" : "").append(list.get(i));
+            }
+            return;
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0) {
+            line.append(text);
+            return;
+        }
+        line.append('"').append(text.replace("\"", "\"\"")).append('"');
+    }
+
+    private static void appendJson(StringBuilder line, Object value) {
+        if (value == null) {
+            line.append("null");
+        } else if (value instanceof String) {
+            appendJsonString(line, (String) value);
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            line.append('[');
+            for (int i = 0; i < list.size(); i++) {
+                line.append(i > 0 ? "," : "").append(list.get(i));
+            }
+            line.append(']');
+        } else {
+            line.append(value);
+        }
+    }
+
+    private static void appendJsonString(StringBuilder line, String text) {
+        line.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"': line.append("\\\""); break;
+                case '\\': line.append("\\\\"); break;
+                case '\n': line.append("\\n"); break;
+                case '\r': line.append("\\r"); break;
+                case '\t': line.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+            }
+        }
+        line.append('"');
+    }
+}
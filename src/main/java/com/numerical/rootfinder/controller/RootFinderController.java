@@ -1,11 +1,12 @@
 package com.numerical.rootfinder.controller;
-import javafx.scene.chart.LineChart;
-import javafx.scene.chart.NumberAxis;
-import javafx.scene.chart.XYChart;
 import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
 import com.numerical.rootfinder.model.*;
+import com.numerical.rootfinder.view.FunctionPlot;
+import com.numerical.rootfinder.view.FxBatcher;
+import com.numerical.rootfinder.view.TraceTableModel;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
@@ -14,10 +15,19 @@ import javafx.scene.layout.HBox;  // Add this import
 import javafx.scene.text.Text;
 import javafx.beans.property.SimpleStringProperty;  // Add this import
 import javafx.collections.FXCollections;
+import javafx.concurrent.Task;
 import javafx.collections.ObservableList;
 import javafx.scene.control.ScrollPane;
+import javafx.stage.FileChooser;
+import java.io.File;
+import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 public class RootFinderController implements Initializable {
@@ -26,9 +36,19 @@ public class RootFinderController implements Initializable {
     @FXML private TextField equationField;
     @FXML private TextField toleranceField;
     @FXML private TextField maxIterationsField;
+    @FXML private TextField timeLimitField;
+    @FXML private TextField maxEvaluationsField;
     @FXML private ComboBox<RootFindingMethod> methodComboBox;
+    @FXML private ComboBox<TraceRetention.Mode> retentionComboBox;
+    @FXML private CheckBox iterationTimesCheckBox;
+    @FXML private CheckBox polishRootsCheckBox;
+    @FXML private CheckBox iterationPathsCheckBox;
     @FXML private VBox methodParamsContainer;
     @FXML private Button calculateButton;
+    @FXML private Button cancelButton;
+    @FXML private ProgressBar progressBar;
+    @FXML private Button openSessionButton;
+    @FXML private Button saveSessionButton;
 
     // Results tab components
     @FXML private TabPane resultsTabPane;
@@ -36,7 +56,8 @@ public class RootFinderController implements Initializable {
     @FXML private Tab plotTab;
     @FXML private Tab comparisonTab;
 
-    @FXML private TableView<IterationResult> resultsTable;
+    // Items are row numbers of the displayed trace; see TraceTableModel
+    @FXML private TableView<Integer> resultsTable;
     @FXML private Text resultsSummary;
 
     @FXML private TableView<ComparisonData> comparisonTable;  // Changed from Map to ComparisonData
@@ -47,12 +68,71 @@ public class RootFinderController implements Initializable {
     private TextField fixedPointX0, fixedPointG;
     private TextField newtonX0;
     private TextField secantX0, secantX1;
+    private TextField halleyX0;
+    private TextField brentA, brentB;
+    private TextField illinoisA, illinoisB;
+    private TextField riddersA, riddersB;
+    private TextField scanMin, scanMax, scanIntervals;
+
+    // Solves run here so the FX thread never waits on NumericalMethods
+    private final ExecutorService solveExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "root-finder-solve");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // The methods of an "All Methods" solve, one thread each. They block while the FX thread
+    // catches up with their events, so they stay off the pool the model computes on
+    private final AtomicInteger methodThreads = new AtomicInteger();
+    private final ExecutorService methodExecutor = Executors.newFixedThreadPool(NumericalMethods.ALL_METHODS.size(), r -> {
+        Thread thread = new Thread(r, "root-finder-method-" + methodThreads.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Task<?> runningTask;
+    // Plot samples are computed here, so zooming stays responsive while a solve runs
+    private final ExecutorService plotExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "root-finder-plot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Finished results are written to the result cache here, after they are on screen
+    private final ExecutorService cacheExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "root-finder-cache");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private LiveSolve liveSolve;
+    private FunctionPlot functionPlot;
+    private TraceTableModel traceTable;
+    // The run on display, solved or opened from a file; null until there is one
+    private Session session;
+
+    // Ring size for the bounded iteration history modes
+    private static final int HISTORY_LIMIT = 1000;
+    // Iterations queued between a running solve and the FX thread before the solver waits
+    private static final int STREAM_CAPACITY = 4096;
+    // Path points a batch of iterations adds to the live plot at most
+    private static final int LIVE_PATH_POINTS_PER_BATCH = 64;
+    // f(x) cache entries shared by the methods of one solve
+    private static final int EVALUATION_CACHE_SIZE = 4096;
+    // Heap for finished results kept in memory, and bytes of them kept on disk across restarts
+    private static final long RESULT_CACHE_MEMORY = 64L << 20;
+    private static final long RESULT_CACHE_BYTES = 256L << 20;
+
+    // Answers repeated solves without solving; see ResultCache for what makes two solves the same.
+    // Opened on first use, by a background thread, since opening reads and may truncate files.
+    private ResultCache resultCache;
 
     // Inner class for comparison data
     public static class ComparisonData {
         private String method;
         private String root;
         private String iterations;
+        private String evaluations;
+        private String time;
+        private String firstIteration;
+        private String derivativeEvaluations;
+        private String allocated;
         private String error;
         private String status;
 
@@ -66,6 +146,21 @@ public class RootFinderController implements Initializable {
         public String getIterations() { return iterations; }
         public void setIterations(String iterations) { this.iterations = iterations; }
 
+        public String getEvaluations() { return evaluations; }
+        public void setEvaluations(String evaluations) { this.evaluations = evaluations; }
+
+        public String getTime() { return time; }
+        public void setTime(String time) { this.time = time; }
+
+        public String getFirstIteration() { return firstIteration; }
+        public void setFirstIteration(String firstIteration) { this.firstIteration = firstIteration; }
+
+        public String getDerivativeEvaluations() { return derivativeEvaluations; }
+        public void setDerivativeEvaluations(String derivativeEvaluations) { this.derivativeEvaluations = derivativeEvaluations; }
+
+        public String getAllocated() { return allocated; }
+        public void setAllocated(String allocated) { this.allocated = allocated; }
+
         public String getError() { return error; }
         public void setError(String error) { this.error = error; }
 
@@ -76,6 +171,7 @@ public class RootFinderController implements Initializable {
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         setupMethodComboBox();
+        setupRetentionComboBox();
         setupResultsTable();
         setupComparisonTable();
         setupEventHandlers();
@@ -87,6 +183,11 @@ public class RootFinderController implements Initializable {
         methodComboBox.setValue(RootFindingMethod.ALL);
     }
 
+    private void setupRetentionComboBox() {
+        retentionComboBox.setItems(FXCollections.observableArrayList(TraceRetention.Mode.values()));
+        retentionComboBox.setValue(TraceRetention.Mode.ALL);
+    }
+
     private void setupResultsTable() {
         // Columns will be dynamically set based on the method
     }
@@ -102,13 +203,29 @@ public class RootFinderController implements Initializable {
         TableColumn<ComparisonData, String> iterationsCol = new TableColumn<>("Iterations");
         iterationsCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getIterations()));
 
+        TableColumn<ComparisonData, String> evaluationsCol = new TableColumn<>("f Evaluations");
+        evaluationsCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getEvaluations()));
+
+        TableColumn<ComparisonData, String> derivativeEvaluationsCol = new TableColumn<>("f' Evaluations");
+        derivativeEvaluationsCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getDerivativeEvaluations()));
+
+        TableColumn<ComparisonData, String> timeCol = new TableColumn<>("Time (ms)");
+        timeCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getTime()));
+
+        TableColumn<ComparisonData, String> firstIterationCol = new TableColumn<>("First Iteration (µs)");
+        firstIterationCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getFirstIteration()));
+
+        TableColumn<ComparisonData, String> allocatedCol = new TableColumn<>("Allocated (KB)");
+        allocatedCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getAllocated()));
+
         TableColumn<ComparisonData, String> errorCol = new TableColumn<>("Final Error %");
         errorCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getError()));
 
         TableColumn<ComparisonData, String> statusCol = new TableColumn<>("Status");
         statusCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getStatus()));
 
-        comparisonTable.getColumns().addAll(methodCol, rootCol, iterationsCol, errorCol, statusCol);
+        comparisonTable.getColumns().addAll(methodCol, rootCol, iterationsCol, evaluationsCol, derivativeEvaluationsCol,
+                timeCol, firstIterationCol, allocatedCol, errorCol, statusCol);
     }
 
     private void setupEventHandlers() {
@@ -117,6 +234,14 @@ public class RootFinderController implements Initializable {
         });
 
         calculateButton.setOnAction(e -> calculateRoots());
+        iterationPathsCheckBox.selectedProperty().addListener((obs, oldVal, newVal) -> {
+            if (functionPlot != null) {
+                functionPlot.setShowPaths(newVal);
+            }
+        });
+        cancelButton.setOnAction(e -> cancelCalculation());
+        openSessionButton.setOnAction(e -> openSession());
+        saveSessionButton.setOnAction(e -> saveSession());
     }
 
     private void setDefaultValues() {
@@ -200,23 +325,42 @@ public class RootFinderController implements Initializable {
                 createLabeledField("x₁:", secantX1)
         );
         methodParamsContainer.getChildren().add(secantBox);
+
+        // Halley parameters
+        Label halleyLabel = new Label("Halley's Method:");
+        halleyLabel.setStyle("-fx-font-weight: bold; -fx-padding: 5 0 0 0;");
+        methodParamsContainer.getChildren().add(halleyLabel);
+
+        halleyX0 = createTextField("2", "Initial guess");
+        methodParamsContainer.getChildren().add(createLabeledField("Initial guess (x₀):", halleyX0));
+
+        // Brent parameters
+        Label brentLabel = new Label("Brent's Method:");
+        brentLabel.setStyle("-fx-font-weight: bold; -fx-padding: 5 0 0 0;");
+        methodParamsContainer.getChildren().add(brentLabel);
+        createBrentParameters();
+
+        // Illinois parameters
+        Label illinoisLabel = new Label("Illinois Method:");
+        illinoisLabel.setStyle("-fx-font-weight: bold; -fx-padding: 5 0 0 0;");
+        methodParamsContainer.getChildren().add(illinoisLabel);
+        createIllinoisParameters();
+
+        // Ridders parameters
+        Label riddersLabel = new Label("Ridders' Method:");
+        riddersLabel.setStyle("-fx-font-weight: bold; -fx-padding: 5 0 0 0;");
+        methodParamsContainer.getChildren().add(riddersLabel);
+        createRiddersParameters();
     }
-    private void plotFunction(String equation, List<Double> roots) {
+    private void plotFunction(String equation, NumericalMethods solver, List<Double> roots,
+                              Map<RootFindingMethod, MethodResult> results) {
         plotContainer.getChildren().clear();
+        if (functionPlot != null) {
+            functionPlot.dispose();
+            functionPlot = null;
+        }
 
         try {
-            // Create axes
-            final NumberAxis xAxis = new NumberAxis();
-            final NumberAxis yAxis = new NumberAxis();
-            xAxis.setLabel("x");
-            yAxis.setLabel("f(x)");
-
-            // Create line chart
-            final LineChart<Number, Number> lineChart = new LineChart<>(xAxis, yAxis);
-            lineChart.setTitle("Function: " + equation);
-            lineChart.setCreateSymbols(true);
-            lineChart.setLegendVisible(true);
-
             // Determine plot range
             double xMin = -5, xMax = 5;
             if (roots != null && !roots.isEmpty()) {
@@ -226,57 +370,179 @@ public class RootFinderController implements Initializable {
                 xMax = maxRoot + 2;
             }
 
-            // Create function series
-            XYChart.Series<Number, Number> functionSeries = new XYChart.Series<>();
-            functionSeries.setName("f(x)");
+            // Samples come from the plot executor, so the FX thread only draws
+            FunctionPlot plot = new FunctionPlot(equation, solver::samplePlot, plotExecutor);
+            plot.setRoots(roots == null ? List.of() : roots);
+            if (!results.isEmpty()) {
+                // Built on the plot executor: methods that do not record f need it evaluated
+                plotExecutor.execute(() -> {
+                    List<FunctionPlot.Path> paths = iterationPaths(solver, results);
+                    Platform.runLater(() -> plot.setPaths(paths));
+                });
+            }
+            plot.setShowPaths(iterationPathsCheckBox.isSelected());
+            plot.setView(xMin, xMax);
+            functionPlot = plot;
+            plotContainer.getChildren().add(plot);
 
-            NumericalMethods tempSolver = new NumericalMethods(equation, 0.0001, 100);
-            int points = 100;
-            double step = (xMax - xMin) / points;
+        } catch (Exception e) {
+            // Fallback to simple text display if the plot fails
+            showSimplePlot(equation, roots);
+        }
+    }
 
-            for (int i = 0; i <= points; i++) {
-                double x = xMin + i * step;
-                try {
-                    double y = tempSolver.evaluate(x);
-                    if (!Double.isNaN(y) && !Double.isInfinite(y) && Math.abs(y) < 1e6) {
-                        functionSeries.getData().add(new XYChart.Data<>(x, y));
+    // The points each method evaluated, in order, with f as the method recorded it. Where it did
+    // not, f comes from the solve's evaluation cache, which still holds most of those points.
+    private static List<FunctionPlot.Path> iterationPaths(NumericalMethods solver, Map<RootFindingMethod, MethodResult> results) {
+        List<FunctionPlot.Path> paths = new ArrayList<>();
+        for (MethodResult result : results.values()) {
+            IterationTrace trace = result.getTrace();
+            if (result.getMethod() == RootFindingMethod.SCAN_ALL || result.getMethod() == RootFindingMethod.POLYNOMIAL_ROOTS
+                    || result.getMethod() == RootFindingMethod.INTERVAL_SEARCH || trace == null || trace.isEmpty()) {
+                continue;
+            }
+            // Bracketing methods record each new point as ROOT. The open methods record it as
+            // X_I, except that Newton, Halley and fixed point store the final step only in X_I1.
+            TraceColumn column = trace.hasColumn(TraceColumn.ROOT) ? TraceColumn.ROOT : TraceColumn.X_I;
+            int rows = trace.size();
+            boolean last = column == TraceColumn.X_I && result.getMethod() != RootFindingMethod.SECANT;
+            double[] xs = new double[rows + (last ? 1 : 0)];
+            for (int i = 0; i < rows; i++) {
+                xs[i] = trace.get(i, column);
+            }
+            if (last) {
+                xs[rows] = trace.get(rows - 1, TraceColumn.X_I1);
+            }
+            TraceColumn f = null;
+            for (TraceColumn candidate : new TraceColumn[] {TraceColumn.F_ROOT, TraceColumn.F_X, TraceColumn.F_X_I}) {
+                if (f == null && trace.hasColumn(candidate)) {
+                    f = candidate;
+                }
+            }
+            double[] ys = new double[xs.length];
+            for (int i = 0; i < xs.length; i++) {
+                ys[i] = f == null || i == rows ? Double.NaN : trace.get(i, f);
+                if (Double.isNaN(ys[i])) {
+                    try {
+                        ys[i] = solver.evaluate(xs[i]);
+                    } catch (RuntimeException e) {
+                        ys[i] = Double.NaN;
                     }
-                } catch (Exception e) {
-                    // Skip points where function is undefined
                 }
             }
+            paths.add(new FunctionPlot.Path(result.getMethod().getDisplayName(), xs, ys));
+        }
+        return paths;
+    }
 
-            lineChart.getData().add(functionSeries);
+    // Where an iteration put its estimate, and f there; null when the method does not record f, as
+    // evaluating it here would hold up the FX thread and with it the solver
+    private static double[] pathPoint(IterationEvent event) {
+        double x = event.get(TraceColumn.ROOT);
+        if (Double.isNaN(x)) {
+            x = event.get(TraceColumn.X_I);
+        }
+        for (TraceColumn column : new TraceColumn[] {TraceColumn.F_ROOT, TraceColumn.F_X, TraceColumn.F_X_I}) {
+            if (!Double.isNaN(event.get(column))) {
+                return new double[] {x, event.get(column)};
+            }
+        }
+        return null;
+    }
 
-            // Add zero line
-            XYChart.Series<Number, Number> zeroSeries = new XYChart.Series<>();
-            zeroSeries.setName("y = 0");
-            zeroSeries.getData().add(new XYChart.Data<>(xMin, 0));
-            zeroSeries.getData().add(new XYChart.Data<>(xMax, 0));
-            lineChart.getData().add(zeroSeries);
+    /**
+     * The results table and plot of a solve in progress. Iterations arrive in batches on the FX
+     * thread; the table grows row by row for a single method and the plot extends the path of
+     * each method. The finished results replace both.
+     */
+    private final class LiveSolve {
+        private final String equation;
+        private final RootFindingMethod method;
+        private final TraceRetention retention;
+        private final boolean iterationTimes;
+        private final FxBatcher<IterationEvent> stream = new FxBatcher<>(STREAM_CAPACITY, this::show);
+        // Set once constructed, before the first iteration can arrive
+        private NumericalMethods solver;
+        private TraceTableModel table;
+
+        LiveSolve(String equation, RootFindingMethod method, TraceRetention retention, boolean iterationTimes) {
+            this.equation = equation;
+            this.method = method;
+            this.retention = retention;
+            this.iterationTimes = iterationTimes;
+        }
 
-            // Add root markers
-            if (roots != null && !roots.isEmpty()) {
-                for (int i = 0; i < roots.size(); i++) {
-                    Double root = roots.get(i);
-                    if (root != null) {
-                        XYChart.Series<Number, Number> rootSeries = new XYChart.Series<>();
-                        rootSeries.setName("Root " + (i + 1));
-                        rootSeries.getData().add(new XYChart.Data<>(root, 0.0));
-                        lineChart.getData().add(rootSeries);
-                    }
+        void start() {
+            resultsTable.getColumns().clear();
+            resultsTable.setItems(FXCollections.observableArrayList());
+            if (method != RootFindingMethod.ALL && method != RootFindingMethod.SCAN_ALL
+                    && method != RootFindingMethod.POLYNOMIAL_ROOTS && method != RootFindingMethod.INTERVAL_SEARCH) {
+                table = TraceTableModel.live(retention);
+                traceTable = table;
+                setupResultsTableColumns(method);
+                if (iterationTimes) {
+                    addColumn("Time (µs)", TraceColumn.ITERATION_TIME, "%.1f");
                 }
+                resultsTable.setItems(table.getRows());
+            }
+            resultsSummary.setText("Solving...");
+            plotContainer.getChildren().clear();
+            if (functionPlot != null) {
+                functionPlot.dispose();
+                functionPlot = null;
             }
+        }
 
-            // Style the chart
-            lineChart.setPrefSize(600, 400);
-            lineChart.setStyle("-fx-background-color: white;");
+        void stop() {
+            stream.close();
+            if (liveSolve == this) {
+                liveSolve = null;
+            }
+        }
 
-            plotContainer.getChildren().add(lineChart);
+        private void show(List<IterationEvent> batch) {
+            if (table != null) {
+                table.append(batch);
+                resultsSummary.setText(String.format("Solving... iteration %d",
+                        batch.get(batch.size() - 1).getIteration()));
+            }
+            if (functionPlot == null) {
+                functionPlot = new FunctionPlot(equation, solver::samplePlot, plotExecutor);
+                functionPlot.setShowPaths(true);
+                setLiveView(functionPlot, batch);
+                plotContainer.getChildren().add(functionPlot);
+            }
+            // Every step-th event, ending with the latest, so a batch costs the plot a bounded amount
+            int step = (batch.size() + LIVE_PATH_POINTS_PER_BATCH - 1) / LIVE_PATH_POINTS_PER_BATCH;
+            for (int i = (batch.size() - 1) % step; i < batch.size(); i += step) {
+                IterationEvent event = batch.get(i);
+                double[] point = pathPoint(event);
+                if (point != null) {
+                    functionPlot.addPathPoint(event.getMethod().getDisplayName(), point[0], point[1]);
+                }
+            }
+        }
 
-        } catch (Exception e) {
-            // Fallback to simple text display if chart fails
-            showSimplePlot(equation, roots);
+        // Frames the points of the first batch: brackets, estimates and steps
+        private void setLiveView(FunctionPlot plot, List<IterationEvent> batch) {
+            double lo = Double.POSITIVE_INFINITY;
+            double hi = Double.NEGATIVE_INFINITY;
+            TraceColumn[] columns = {TraceColumn.A, TraceColumn.B, TraceColumn.ROOT, TraceColumn.X_I, TraceColumn.X_I1};
+            for (IterationEvent event : batch) {
+                for (TraceColumn column : columns) {
+                    double x = event.get(column);
+                    if (Double.isFinite(x)) {
+                        lo = Math.min(lo, x);
+                        hi = Math.max(hi, x);
+                    }
+                }
+            }
+            if (lo > hi) {
+                lo = -5;
+                hi = 5;
+            }
+            double pad = Math.max((hi - lo) * 0.5, 1);
+            plot.setView(lo - pad, hi + pad);
         }
     }
 
@@ -334,6 +600,28 @@ public class RootFinderController implements Initializable {
             case SECANT:
                 createSecantParameters();
                 break;
+            case HALLEY:
+                createHalleyParameters();
+                break;
+            case BRENT:
+                createBrentParameters();
+                break;
+            case ILLINOIS:
+                createIllinoisParameters();
+                break;
+            case RIDDERS:
+                createRiddersParameters();
+                break;
+            case SCAN_ALL:
+                createScanParameters();
+                break;
+            case POLYNOMIAL_ROOTS:
+                methodParamsContainer.getChildren().add(
+                        new Label("Finds every real and complex root of a polynomial; no starting values needed."));
+                break;
+            case INTERVAL_SEARCH:
+                createIntervalSearchParameters();
+                break;
         }
     }
 
@@ -369,6 +657,56 @@ public class RootFinderController implements Initializable {
         methodParamsContainer.getChildren().add(createLabeledField("Initial guess (x₀):", newtonX0));
     }
 
+    private void createHalleyParameters() {
+        halleyX0 = createTextField("2", "Initial guess");
+        methodParamsContainer.getChildren().add(createLabeledField("Initial guess (x₀):", halleyX0));
+    }
+
+    private void createBrentParameters() {
+        HBox paramsBox = new HBox(10);
+        brentA = createTextField("-2", "Lower bound");
+        brentB = createTextField("3", "Upper bound");
+        paramsBox.getChildren().addAll(createLabeledField("a:", brentA), createLabeledField("b:", brentB));
+        methodParamsContainer.getChildren().add(paramsBox);
+    }
+
+    private void createIllinoisParameters() {
+        HBox paramsBox = new HBox(10);
+        illinoisA = createTextField("-2", "Lower bound");
+        illinoisB = createTextField("3", "Upper bound");
+        paramsBox.getChildren().addAll(createLabeledField("a:", illinoisA), createLabeledField("b:", illinoisB));
+        methodParamsContainer.getChildren().add(paramsBox);
+    }
+
+    private void createRiddersParameters() {
+        HBox paramsBox = new HBox(10);
+        riddersA = createTextField("-2", "Lower bound");
+        riddersB = createTextField("3", "Upper bound");
+        paramsBox.getChildren().addAll(createLabeledField("a:", riddersA), createLabeledField("b:", riddersB));
+        methodParamsContainer.getChildren().add(paramsBox);
+    }
+
+    private void createIntervalSearchParameters() {
+        HBox paramsBox = new HBox(10);
+        scanMin = createTextField("-10", "Search from");
+        scanMax = createTextField("10", "Search to");
+        paramsBox.getChildren().addAll(createLabeledField("x min:", scanMin), createLabeledField("x max:", scanMax));
+        methodParamsContainer.getChildren().add(paramsBox);
+    }
+
+    private void createScanParameters() {
+        HBox paramsBox = new HBox(10);
+        scanMin = createTextField("-10", "Scan from");
+        scanMax = createTextField("10", "Scan to");
+        scanIntervals = createTextField("1000", "Sample subintervals");
+        paramsBox.getChildren().addAll(
+                createLabeledField("x min:", scanMin),
+                createLabeledField("x max:", scanMax),
+                createLabeledField("Subintervals:", scanIntervals)
+        );
+        methodParamsContainer.getChildren().add(paramsBox);
+    }
+
     private void createSecantParameters() {
         HBox paramsBox = new HBox(10);
         secantX0 = createTextField("2", "First initial guess");
@@ -400,151 +738,472 @@ public class RootFinderController implements Initializable {
             int maxIterations = Integer.parseInt(maxIterationsField.getText());
             RootFindingMethod method = methodComboBox.getValue();
 
-            NumericalMethods solver = new NumericalMethods(equation, tolerance, maxIterations);
-            Map<RootFindingMethod, MethodResult> results = new HashMap<>();
-
-            if (method == RootFindingMethod.ALL) {
-                results.put(RootFindingMethod.BISECTION,
-                        solver.bisection(Double.parseDouble(bisectionA.getText()),
-                                Double.parseDouble(bisectionB.getText())));
-                results.put(RootFindingMethod.FALSE_POSITION,
-                        solver.falsePosition(Double.parseDouble(falsePositionA.getText()),
-                                Double.parseDouble(falsePositionB.getText())));
-                results.put(RootFindingMethod.FIXED_POINT,
-                        solver.fixedPoint(Double.parseDouble(fixedPointX0.getText()),
-                                fixedPointG.getText()));
-                results.put(RootFindingMethod.NEWTON_RAPHSON,
-                        solver.newtonRaphson(Double.parseDouble(newtonX0.getText())));
-                results.put(RootFindingMethod.SECANT,
-                        solver.secant(Double.parseDouble(secantX0.getText()),
-                                Double.parseDouble(secantX1.getText())));
-
-                displayComparison(results);
-
-            } else {
-                MethodResult result = calculateSingleMethod(solver, method);
-                results.put(method, result);
-                displaySingleMethodResult(result);
+            CancellationToken cancellation = new CancellationToken();
+            SolverOptions options = new SolverOptions();
+            options.setCancellation(cancellation);
+            options.setRetention(TraceRetention.of(retentionComboBox.getValue(), HISTORY_LIMIT));
+            options.setEvaluationCacheSize(EVALUATION_CACHE_SIZE);
+            options.setRecordIterationTimes(iterationTimesCheckBox.isSelected());
+            options.setPolishRoots(polishRootsCheckBox.isSelected());
+            // Limits for the whole run; with All Methods the methods share them
+            options.setTotalTimeLimitMillis(parseLimit(timeLimitField.getText()));
+            options.setTotalEvaluationLimit(parseLimit(maxEvaluationsField.getText()));
+            MethodParameters parameters = readMethodParameters(method);
+
+            // A solve that was run before is answered from the cache. The lookup may read the disk,
+            // so like the solve it happens in the task; cachedNote is set when it answered.
+            Map<RootFindingMethod, String> keys = new LinkedHashMap<>();
+            for (RootFindingMethod m : method == RootFindingMethod.ALL ? NumericalMethods.ALL_METHODS : Set.of(method)) {
+                keys.put(m, ResultCache.key(equation, m, parameters, tolerance, maxIterations, options));
             }
+            AtomicReference<String> cachedNote = new AtomicReference<>();
 
-            // -------------------------
-            // 5. Plotting (stream version)
-            // -------------------------
-            List<Double> roots = results.values().stream()
-                    .map(MethodResult::getRoot)
-                    .filter(Objects::nonNull)
-                    .distinct()
-                    .collect(Collectors.toList());
+            // Iterations stream to the table and plot while the methods run. The scan is left
+            // out; its iterations are Brent refinements of many brackets at once. So are the
+            // polynomial roots, which all move at once, and the interval search, which has no iterates.
+            if (liveSolve != null) {
+                liveSolve.stop();
+            }
+            LiveSolve live = new LiveSolve(equation, method, options.getRetention(), iterationTimesCheckBox.isSelected());
+            if (method != RootFindingMethod.SCAN_ALL && method != RootFindingMethod.POLYNOMIAL_ROOTS
+                    && method != RootFindingMethod.INTERVAL_SEARCH) {
+                options.setIterationListener(live.stream::offer);
+            }
+            NumericalMethods solver = new NumericalMethods(equation, tolerance, maxIterations, options);
+            live.solver = solver;
+
+            Task<Map<RootFindingMethod, MethodResult>> task = new Task<>() {
+                @Override
+                protected Map<RootFindingMethod, MethodResult> call() {
+                    ResultCache cache = resultCache();
+                    Map<RootFindingMethod, MethodResult> cached = cachedResults(cache, keys);
+                    if (cached != null) {
+                        cachedNote.set(String.format("Answered from the result cache (%d hits, %d misses, %d results on disk).",
+                                cache.getMemoryHits() + cache.getDiskHits(), cache.getMisses(), cache.getDiskSize()));
+                        return cached;
+                    }
+                    if (method == RootFindingMethod.ALL) {
+                        int total = NumericalMethods.ALL_METHODS.size();
+                        AtomicInteger done = new AtomicInteger();
+                        updateProgress(0, total);
+                        return solver.solveAll(parameters, methodExecutor,
+                                result -> updateProgress(done.incrementAndGet(), total));
+                    }
+                    return Collections.singletonMap(method, solver.solve(method, parameters));
+                }
 
-            plotFunction(equation, roots);
-            // Switch to results tab
-            resultsTabPane.getSelectionModel().select(resultsTab);
+                @Override
+                public boolean cancel(boolean mayInterruptIfRunning) {
+                    cancellation.cancel();
+                    return super.cancel(mayInterruptIfRunning);
+                }
+            };
+
+            // All UI updates for a finished solve happen together, on the FX thread
+            task.setOnSucceeded(e -> {
+                live.stop();
+                Map<RootFindingMethod, MethodResult> results = task.getValue();
+                String note = cachedNote.get();
+                // Results found on disk map their traces; drawing paths would page every row in
+                boolean paths = note == null || results.values().stream().noneMatch(result -> result.getTrace().isMapped());
+                showResults(equation, solver, method, results, paths);
+                if (note != null) {
+                    resultsSummary.setText(method == RootFindingMethod.ALL ? note : resultsSummary.getText() + " " + note);
+                }
+                session = new Session(equation, method, tolerance, maxIterations, parameters, results);
+                setCalculating(null);
+                if (note == null) {
+                    // Storing writes whole traces to disk, so the results are shown first
+                    cacheExecutor.execute(() -> results.forEach((m, result) -> resultCache().put(keys.get(m), result)));
+                }
+            });
+            task.setOnFailed(e -> {
+                live.stop();
+                setCalculating(null);
+                showError("Calculation Error", task.getException().getMessage());
+            });
+            task.setOnCancelled(e -> {
+                live.stop();
+                setCalculating(null);
+                resultsSummary.setText("Calculation cancelled.");
+            });
+
+            setCalculating(task);
+            liveSolve = live;
+            live.start();
+            solveExecutor.execute(task);
 
         } catch (Exception e) {
             showError("Calculation Error", e.getMessage());
         }
     }
 
+    private void showResults(String equation, NumericalMethods solver, RootFindingMethod method,
+                             Map<RootFindingMethod, MethodResult> results, boolean paths) {
+        if (method == RootFindingMethod.ALL) {
+            displayComparison(results);
+        } else {
+            displaySingleMethodResult(results.get(method));
+        }
 
+        List<Double> roots = results.values().stream()
+                .flatMap(result -> result.getRoots().stream())
+                .distinct()
+                .collect(Collectors.toList());
 
-    private MethodResult calculateSingleMethod(NumericalMethods solver, RootFindingMethod method) {
-        switch (method) {
-            case BISECTION:
-                return solver.bisection(Double.parseDouble(bisectionA.getText()),
-                        Double.parseDouble(bisectionB.getText()));
-            case FALSE_POSITION:
-                return solver.falsePosition(Double.parseDouble(falsePositionA.getText()),
-                        Double.parseDouble(falsePositionB.getText()));
-            case FIXED_POINT:
-                return solver.fixedPoint(Double.parseDouble(fixedPointX0.getText()),
-                        fixedPointG.getText());
-            case NEWTON_RAPHSON:
-                return solver.newtonRaphson(Double.parseDouble(newtonX0.getText()));
-            case SECANT:
-                return solver.secant(Double.parseDouble(secantX0.getText()),
-                        Double.parseDouble(secantX1.getText()));
-            default:
-                throw new IllegalArgumentException("Unsupported method: " + method);
+        // Paths read every row, which an opened session's traces would have to page in
+        plotFunction(equation, solver, roots, paths ? results : Collections.emptyMap());
+        // Switch to results tab
+        resultsTabPane.getSelectionModel().select(resultsTab);
+    }
+
+    // Every method's result if all of them are cached, else null; may read the disk
+    private static Map<RootFindingMethod, MethodResult> cachedResults(ResultCache cache, Map<RootFindingMethod, String> keys) {
+        Map<RootFindingMethod, MethodResult> results = new LinkedHashMap<>();
+        for (Map.Entry<RootFindingMethod, String> entry : keys.entrySet()) {
+            MethodResult result = cache.get(entry.getValue());
+            if (result == null) {
+                return null;
+            }
+            results.put(entry.getKey(), result);
         }
+        return results;
     }
 
-    private void displaySingleMethodResult(MethodResult result) {
-        resultsTable.getColumns().clear();
-        resultsTable.getItems().clear();
+    // The result cache, opened by the first caller; never called on the FX thread
+    private synchronized ResultCache resultCache() {
+        if (resultCache == null) {
+            resultCache = openResultCache();
+        }
+        return resultCache;
+    }
 
-        if (result.getErrorMessage() != null) {
-            resultsSummary.setText("Error: " + result.getErrorMessage());
+    // On disk in the user's home directory, or in memory only if that can not be opened or another
+    // copy of the application has it. The log is forced to disk when the JVM exits.
+    private static ResultCache openResultCache() {
+        try {
+            ResultCache cache = new ResultCache(RESULT_CACHE_MEMORY,
+                    Paths.get(System.getProperty("user.home"), ".rootfinder", "results"), RESULT_CACHE_BYTES);
+            Runtime.getRuntime().addShutdownHook(new Thread(cache::close, "root-finder-cache-close"));
+            return cache;
+        } catch (IOException | RuntimeException e) {
+            return new ResultCache(RESULT_CACHE_MEMORY);
+        }
+    }
+
+    private void setCalculating(Task<?> task) {
+        runningTask = task;
+        boolean running = task != null;
+        calculateButton.setDisable(running);
+        cancelButton.setDisable(!running);
+        openSessionButton.setDisable(running);
+        saveSessionButton.setDisable(running || session == null);
+        progressBar.setVisible(running);
+        progressBar.progressProperty().unbind();
+        if (running) {
+            progressBar.progressProperty().bind(task.progressProperty());
+        }
+    }
+
+    private void cancelCalculation() {
+        if (runningTask != null) {
+            runningTask.cancel();
+        }
+    }
+
+    private void saveSession() {
+        FileChooser chooser = sessionChooser("Save Session");
+        File file = chooser.showSaveDialog(resultsTable.getScene().getWindow());
+        if (file == null) {
             return;
         }
+        Session saved = session;
+        Task<Void> task = new Task<>() {
+            @Override
+            protected Void call() throws Exception {
+                SessionFile.save(saved, file.toPath());
+                return null;
+            }
+        };
+        task.setOnSucceeded(e -> setCalculating(null));
+        task.setOnFailed(e -> {
+            setCalculating(null);
+            showError("Save Error", task.getException().getMessage());
+        });
+        setCalculating(task);
+        solveExecutor.execute(task);
+    }
 
-        if (result.getRoot() != null) {
-            resultsSummary.setText(String.format("Root found: %.8f (Converged in %d iterations)",
-                    result.getRoot(), result.getIterations().size()));
+    private void openSession() {
+        FileChooser chooser = sessionChooser("Open Session");
+        File file = chooser.showOpenDialog(resultsTable.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        Task<Session> task = new Task<>() {
+            @Override
+            protected Session call() throws Exception {
+                return SessionFile.open(file.toPath());
+            }
+        };
+        task.setOnSucceeded(e -> {
+            Session opened = task.getValue();
+            equationField.setText(opened.getEquation());
+            toleranceField.setText(String.valueOf(opened.getTolerance()));
+            maxIterationsField.setText(String.valueOf(opened.getMaxIterations()));
+            methodComboBox.setValue(opened.getMethod());
+            writeMethodParameters(opened.getMethod(), opened.getParameters());
+            try {
+                // Only plots; the results come from the file
+                NumericalMethods solver = new NumericalMethods(opened.getEquation(), opened.getTolerance(),
+                        opened.getMaxIterations(), new SolverOptions());
+                showResults(opened.getEquation(), solver, opened.getMethod(), opened.getResults(), false);
+            } catch (Exception ex) {
+                showError("Open Error", ex.getMessage());
+            }
+            session = opened;
+            setCalculating(null);
+        });
+        task.setOnFailed(e -> {
+            setCalculating(null);
+            showError("Open Error", task.getException().getMessage());
+        });
+        setCalculating(task);
+        solveExecutor.execute(task);
+    }
+
+    private static FileChooser sessionChooser(String title) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle(title);
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Root finder sessions", "*.rfs"));
+        return chooser;
+    }
+
+    // The inverse of readMethodParameters, for the fields of the method now selected
+    private void writeMethodParameters(RootFindingMethod method, MethodParameters parameters) {
+        boolean all = method == RootFindingMethod.ALL;
+
+        if (all || method == RootFindingMethod.BISECTION) {
+            bisectionA.setText(String.valueOf(parameters.getBisectionA()));
+            bisectionB.setText(String.valueOf(parameters.getBisectionB()));
+        }
+        if (all || method == RootFindingMethod.FALSE_POSITION) {
+            falsePositionA.setText(String.valueOf(parameters.getFalsePositionA()));
+            falsePositionB.setText(String.valueOf(parameters.getFalsePositionB()));
+        }
+        if (all || method == RootFindingMethod.FIXED_POINT) {
+            fixedPointX0.setText(String.valueOf(parameters.getFixedPointX0()));
+            fixedPointG.setText(parameters.getFixedPointG());
+        }
+        if (all || method == RootFindingMethod.NEWTON_RAPHSON) {
+            newtonX0.setText(String.valueOf(parameters.getNewtonX0()));
+        }
+        if (all || method == RootFindingMethod.SECANT) {
+            secantX0.setText(String.valueOf(parameters.getSecantX0()));
+            secantX1.setText(String.valueOf(parameters.getSecantX1()));
+        }
+        if (all || method == RootFindingMethod.HALLEY) {
+            halleyX0.setText(String.valueOf(parameters.getHalleyX0()));
+        }
+        if (all || method == RootFindingMethod.BRENT) {
+            brentA.setText(String.valueOf(parameters.getBrentA()));
+            brentB.setText(String.valueOf(parameters.getBrentB()));
+        }
+        if (all || method == RootFindingMethod.ILLINOIS) {
+            illinoisA.setText(String.valueOf(parameters.getIllinoisA()));
+            illinoisB.setText(String.valueOf(parameters.getIllinoisB()));
+        }
+        if (all || method == RootFindingMethod.RIDDERS) {
+            riddersA.setText(String.valueOf(parameters.getRiddersA()));
+            riddersB.setText(String.valueOf(parameters.getRiddersB()));
+        }
+        if (method == RootFindingMethod.INTERVAL_SEARCH || method == RootFindingMethod.SCAN_ALL) {
+            scanMin.setText(String.valueOf(parameters.getScanMin()));
+            scanMax.setText(String.valueOf(parameters.getScanMax()));
+        }
+        if (method == RootFindingMethod.SCAN_ALL) {
+            scanIntervals.setText(String.valueOf(parameters.getScanIntervals()));
+        }
+    }
+
+    private MethodParameters readMethodParameters(RootFindingMethod method) {
+        MethodParameters parameters = new MethodParameters();
+        boolean all = method == RootFindingMethod.ALL;
+
+        if (all || method == RootFindingMethod.BISECTION) {
+            parameters.setBisectionA(Double.parseDouble(bisectionA.getText()));
+            parameters.setBisectionB(Double.parseDouble(bisectionB.getText()));
+        }
+        if (all || method == RootFindingMethod.FALSE_POSITION) {
+            parameters.setFalsePositionA(Double.parseDouble(falsePositionA.getText()));
+            parameters.setFalsePositionB(Double.parseDouble(falsePositionB.getText()));
+        }
+        if (all || method == RootFindingMethod.FIXED_POINT) {
+            parameters.setFixedPointX0(Double.parseDouble(fixedPointX0.getText()));
+            parameters.setFixedPointG(fixedPointG.getText());
+        }
+        if (all || method == RootFindingMethod.NEWTON_RAPHSON) {
+            parameters.setNewtonX0(Double.parseDouble(newtonX0.getText()));
+        }
+        if (all || method == RootFindingMethod.SECANT) {
+            parameters.setSecantX0(Double.parseDouble(secantX0.getText()));
+            parameters.setSecantX1(Double.parseDouble(secantX1.getText()));
+        }
+        if (all || method == RootFindingMethod.HALLEY) {
+            parameters.setHalleyX0(Double.parseDouble(halleyX0.getText()));
+        }
+        if (all || method == RootFindingMethod.BRENT) {
+            parameters.setBrentA(Double.parseDouble(brentA.getText()));
+            parameters.setBrentB(Double.parseDouble(brentB.getText()));
+        }
+        if (all || method == RootFindingMethod.ILLINOIS) {
+            parameters.setIllinoisA(Double.parseDouble(illinoisA.getText()));
+            parameters.setIllinoisB(Double.parseDouble(illinoisB.getText()));
+        }
+        if (all || method == RootFindingMethod.RIDDERS) {
+            parameters.setRiddersA(Double.parseDouble(riddersA.getText()));
+            parameters.setRiddersB(Double.parseDouble(riddersB.getText()));
+        }
+        if (method == RootFindingMethod.INTERVAL_SEARCH) {
+            parameters.setScanMin(Double.parseDouble(scanMin.getText()));
+            parameters.setScanMax(Double.parseDouble(scanMax.getText()));
+        }
+        if (method == RootFindingMethod.SCAN_ALL) {
+            parameters.setScanMin(Double.parseDouble(scanMin.getText()));
+            parameters.setScanMax(Double.parseDouble(scanMax.getText()));
+            parameters.setScanIntervals(Integer.parseInt(scanIntervals.getText()));
+        }
+        return parameters;
+    }
+
+    // An empty field means no limit
+    private static long parseLimit(String text) {
+        return text == null || text.isBlank() ? 0 : Long.parseLong(text.trim());
+    }
+
+    private void displaySingleMethodResult(MethodResult result) {
+        resultsTable.getColumns().clear();
+        resultsTable.setItems(FXCollections.observableArrayList());
+
+        if (result.getStopReason().isBudget()) {
+            // Out of time or evaluations: the iterations so far are still worth showing
+            resultsSummary.setText(result.getBestRoot() != null
+                    ? String.format("%s Best estimate: %.8f (after %d iterations, %d evaluations, %.3f ms)",
+                            result.getErrorMessage(), result.getBestRoot(), result.getTrace().getIterationCount(),
+                            result.getCacheMisses(), result.getDurationNanos() / 1e6)
+                    : result.getErrorMessage());
+        } else if (result.getErrorMessage() != null) {
+            resultsSummary.setText("Error: " + result.getErrorMessage());
+            return;
+        } else if (result.getMethod() == RootFindingMethod.SCAN_ALL) {
+            resultsSummary.setText(String.format("Found %d distinct roots (%d evaluations, %d cache hits, %.3f ms)",
+                    result.getRoots().size(), result.getCacheMisses(), result.getCacheHits(),
+                    result.getDurationNanos() / 1e6));
+        } else if (result.getMethod() == RootFindingMethod.INTERVAL_SEARCH) {
+            long certified = 0;
+            for (int i = 0; i < result.getTrace().size(); i++) {
+                certified += (long) result.getTrace().get(i, TraceColumn.CERTIFIED);
+            }
+            resultsSummary.setText(result.getTrace().isEmpty()
+                    ? String.format("Proved there is no root in the range (%d boxes, %.3f ms)",
+                            result.getCacheMisses(), result.getDurationNanos() / 1e6)
+                    : String.format("Enclosed %d roots, %d of them certified unique (%d boxes, %.3f ms)",
+                            result.getTrace().size(), certified, result.getCacheMisses(), result.getDurationNanos() / 1e6));
+        } else if (result.getMethod() == RootFindingMethod.POLYNOMIAL_ROOTS) {
+            resultsSummary.setText(String.format("Found %d roots, %d of them real (%.3f ms)",
+                    result.getTrace().size(), result.getRoots().size(), result.getDurationNanos() / 1e6));
+        } else if (result.getRoot() != null) {
+            resultsSummary.setText(String.format("Root found: %.8f (Converged in %d iterations, %d evaluations, %d cache hits, %.3f ms)",
+                    result.getRoot(), result.getTrace().getIterationCount(),
+                    result.getCacheMisses(), result.getCacheHits(), result.getDurationNanos() / 1e6));
+            if (result.getPolishedRoot() != null) {
+                resultsSummary.setText(resultsSummary.getText() + String.format("%nPolished: %s (|f| = %.1e)",
+                        result.getPolishedRoot(), result.getPolishedResidual()));
+            }
         } else {
             resultsSummary.setText("Method did not converge within maximum iterations");
         }
 
         // Create table columns based on method type
+        traceTable = new TraceTableModel(result.getTrace());
         setupResultsTableColumns(result.getMethod());
+        if (result.getTrace().hasColumn(TraceColumn.ITERATION_TIME)) {
+            addColumn("Time (µs)", TraceColumn.ITERATION_TIME, "%.1f");
+        }
 
-        // Populate table
-        ObservableList<IterationResult> items = FXCollections.observableArrayList(result.getIterations());
-        resultsTable.setItems(items);
+        // Populate table with a view over the trace; nothing is copied
+        resultsTable.setItems(traceTable.getRows());
     }
 
     private void setupResultsTableColumns(RootFindingMethod method) {
-        TableColumn<IterationResult, String> iterationCol = new TableColumn<>("Iteration");
-        iterationCol.setCellValueFactory(data -> new SimpleStringProperty(String.valueOf(data.getValue().getIteration())));
-        resultsTable.getColumns().add(iterationCol);
+        resultsTable.getColumns().add(traceTable.iterationColumn(method == RootFindingMethod.SCAN_ALL
+                || method == RootFindingMethod.POLYNOMIAL_ROOTS || method == RootFindingMethod.INTERVAL_SEARCH ? "Root #" : "Iteration"));
 
         switch (method) {
             case BISECTION:
             case FALSE_POSITION:
-                addColumn("a", "a", "%.6f");
-                addColumn("b", "b", "%.6f");
-                addColumn("Root", "root", "%.8f");
-                addColumn("f(Root)", "fRoot", "%.4e");
-                addColumn("Error %", "error", "%.6f");
+            case BRENT:
+            case ILLINOIS:
+            case RIDDERS:
+                addColumn("a", TraceColumn.A, "%.6f");
+                addColumn("b", TraceColumn.B, "%.6f");
+                addColumn("Root", TraceColumn.ROOT, "%.8f");
+                addColumn("f(Root)", TraceColumn.F_ROOT, "%.4e");
+                addColumn("Error %", TraceColumn.ERROR, "%.6f");
                 break;
             case FIXED_POINT:
-                addColumn("x_i", "x_i", "%.8f");
-                addColumn("x_i+1", "x_i1", "%.8f");
-                addColumn("g(x_i)", "g_x", "%.8f");
-                addColumn("Error %", "error", "%.6f");
+                addColumn("x_i", TraceColumn.X_I, "%.8f");
+                addColumn("x_i+1", TraceColumn.X_I1, "%.8f");
+                addColumn("g(x_i)", TraceColumn.G_X, "%.8f");
+                addColumn("Error %", TraceColumn.ERROR, "%.6f");
                 break;
             case NEWTON_RAPHSON:
-                addColumn("x_i", "x_i", "%.8f");
-                addColumn("x_i+1", "x_i1", "%.8f");
-                addColumn("f(x_i)", "f_x", "%.4e");
-                addColumn("f'(x_i)", "f_prime_x", "%.4e");
-                addColumn("Error %", "error", "%.6f");
+                addColumn("x_i", TraceColumn.X_I, "%.8f");
+                addColumn("x_i+1", TraceColumn.X_I1, "%.8f");
+                addColumn("f(x_i)", TraceColumn.F_X, "%.4e");
+                addColumn("f'(x_i)", TraceColumn.F_PRIME_X, "%.4e");
+                addColumn("Error %", TraceColumn.ERROR, "%.6f");
+                break;
+            case HALLEY:
+                addColumn("x_i", TraceColumn.X_I, "%.8f");
+                addColumn("x_i+1", TraceColumn.X_I1, "%.8f");
+                addColumn("f(x_i)", TraceColumn.F_X, "%.4e");
+                addColumn("f'(x_i)", TraceColumn.F_PRIME_X, "%.4e");
+                addColumn("f''(x_i)", TraceColumn.F_DOUBLE_PRIME_X, "%.4e");
+                addColumn("Error %", TraceColumn.ERROR, "%.6f");
+                break;
+            case SCAN_ALL:
+                addColumn("Bracket a", TraceColumn.A, "%.6f");
+                addColumn("Bracket b", TraceColumn.B, "%.6f");
+                addColumn("Root", TraceColumn.ROOT, "%.10f");
+                addColumn("f(Root)", TraceColumn.F_ROOT, "%.4e");
+                break;
+            case POLYNOMIAL_ROOTS:
+                addColumn("Re", TraceColumn.ROOT, "%.10f");
+                addColumn("Im", TraceColumn.IMAGINARY, "%.10f");
+                addColumn("|p(Root)|", TraceColumn.F_ROOT, "%.4e");
+                addColumn("Last step", TraceColumn.ERROR, "%.4e");
+                break;
+            case INTERVAL_SEARCH:
+                addColumn("Enclosure a", TraceColumn.A, "%.12f");
+                addColumn("Enclosure b", TraceColumn.B, "%.12f");
+                addColumn("Midpoint", TraceColumn.ROOT, "%.12f");
+                addColumn("f(Midpoint)", TraceColumn.F_ROOT, "%.4e");
+                addColumn("Width", TraceColumn.ERROR, "%.2e");
+                addColumn("Unique", TraceColumn.CERTIFIED, "%.0f");
                 break;
             case SECANT:
-                addColumn("x_i-1", "x_i1", "%.8f");
-                addColumn("x_i", "x_i", "%.8f");
-                addColumn("f(x_i-1)", "f_x_i1", "%.4e");
-                addColumn("f(x_i)", "f_x_i", "%.4e");
-                addColumn("Error %", "error", "%.6f");
+                addColumn("x_i-1", TraceColumn.X_I1, "%.8f");
+                addColumn("x_i", TraceColumn.X_I, "%.8f");
+                addColumn("f(x_i-1)", TraceColumn.F_X_I1, "%.4e");
+                addColumn("f(x_i)", TraceColumn.F_X_I, "%.4e");
+                addColumn("Error %", TraceColumn.ERROR, "%.6f");
                 break;
         }
     }
 
-    private void addColumn(String header, String property, String format) {
-        TableColumn<IterationResult, String> column = new TableColumn<>(header);
-        column.setCellValueFactory(data -> {
-            try {
-                java.lang.reflect.Method getter = IterationResult.class.getMethod("get" + property.substring(0, 1).toUpperCase() + property.substring(1));
-                Object value = getter.invoke(data.getValue());
-                if (value == null) return new SimpleStringProperty("-");
-                if (value instanceof Double) {
-                    return new SimpleStringProperty(String.format(format, (Double) value));
-                }
-                return new SimpleStringProperty(value.toString());
-            } catch (Exception e) {
-                return new SimpleStringProperty("-");
-            }
-        });
-        resultsTable.getColumns().add(column);
+    private void addColumn(String header, TraceColumn column, String format) {
+        resultsTable.getColumns().add(traceTable.column(header, column, format));
     }
 
     private void displayComparison(Map<RootFindingMethod, MethodResult> results) {
@@ -555,23 +1214,28 @@ public class RootFinderController implements Initializable {
             ComparisonData data = new ComparisonData();
 
             data.setMethod(entry.getKey().getDisplayName());
-            data.setRoot(result.getRoot() != null ? String.format("%.8f", result.getRoot()) : "-");
-            data.setIterations(String.valueOf(result.getIterations().size()));
-
-            if (!result.getIterations().isEmpty()) {
-                Double lastError = result.getIterations().get(result.getIterations().size() - 1).getError();
-                data.setError(lastError != null ? String.format("%.6f", lastError) : "-");
+            if (result.getRoot() != null) {
+                data.setRoot(String.format("%.8f", result.getRoot()));
+            } else if (result.getStopReason().isBudget() && result.getBestRoot() != null) {
+                // Marked as an estimate; the method stopped before converging
+                data.setRoot(String.format("~%.8f", result.getBestRoot()));
             } else {
-                data.setError("-");
+                data.setRoot("-");
             }
+            data.setIterations(String.valueOf(result.getTrace().getIterationCount()));
+            data.setEvaluations(String.valueOf(result.getFunctionEvaluations()));
+            data.setDerivativeEvaluations(String.valueOf(result.getDerivativeEvaluations()));
+            data.setTime(String.format("%.3f", result.getDurationNanos() / 1e6));
+            data.setFirstIteration(result.getTimeToFirstIterationNanos() >= 0
+                    ? String.format("%.1f", result.getTimeToFirstIterationNanos() / 1e3) : "-");
+            data.setAllocated(result.getAllocatedBytes() >= 0
+                    ? String.format("%.1f", result.getAllocatedBytes() / 1024.0) : "-");
 
-            if (result.getErrorMessage() != null) {
-                data.setStatus("Error");
-            } else if (result.isConverged()) {
-                data.setStatus("Converged");
-            } else {
-                data.setStatus("No Convergence");
-            }
+            // The last iteration is kept under every retention mode
+            double lastError = result.getTrace().getLast(TraceColumn.ERROR);
+            data.setError(!Double.isNaN(lastError) ? String.format("%.6f", lastError) : "-");
+
+            data.setStatus(result.getStopReason().getDisplayName());
 
             comparisonData.add(data);
         }
@@ -586,4 +1250,4 @@ public class RootFinderController implements Initializable {
         alert.setContentText(message);
         alert.showAndWait();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,24 @@
+package com.numerical.rootfinder.model;
+
+/**
+ * Checked by the solvers once per iteration. Cancelling is one-way and may be done from any thread.
+ */
+public class CancellationToken {
+
+    public static final CancellationToken NONE = new CancellationToken() {
+        @Override
+        public void cancel() {
+            throw new UnsupportedOperationException("The NONE token can not be cancelled");
+        }
+    };
+
+    private volatile boolean cancelled;
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,28 @@
+package com.numerical.rootfinder.model;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * The fork/join pool that the data-parallel kernels split their work over: plot sampling, the
+ * scan grid, the interval search, Aberth sweeps and Jacobian columns. It is kept apart from the
+ * common pool, where callers run whole solves whose threads may block, for instance handing
+ * events to the UI; a kernel queued behind them would wait for a free worker. Its workers are
+ * daemons and it is never shut down.
+ */
+final class ComputePool {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool -> {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("root-finder-compute-" + thread.getPoolIndex());
+        thread.setDaemon(true);
+        return thread;
+    }, null, false);
+
+    private ComputePool() {
+    }
+
+    static ForkJoinPool get() {
+        return POOL;
+    }
+}
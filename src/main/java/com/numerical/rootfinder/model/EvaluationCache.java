@@ -0,0 +1,88 @@
+package com.numerical.rootfinder.model;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Memo of f(x) values shared by every method of one solve request. Keys are the raw bits of x,
+ * stored in primitive arrays organized as 4-way sets; a full set evicts its entries round-robin.
+ * Sets are guarded by striped locks so methods running in parallel can share the cache, and
+ * the function itself is always called outside any lock.
+ */
+public class EvaluationCache {
+
+    private static final int WAYS = 4;
+    private static final int STRIPES = 64;
+
+    private final long[] keys;
+    private final double[] values;
+    private final boolean[] occupied;
+    private final byte[] nextVictim;
+    private final int setMask;
+    private final Object[] locks = new Object[STRIPES];
+
+    public EvaluationCache(int capacity) {
+        if (capacity < WAYS) {
+            throw new IllegalArgumentException("Cache capacity must be at least " + WAYS);
+        }
+        int sets = Integer.highestOneBit(capacity / WAYS);
+        this.setMask = sets - 1;
+        this.keys = new long[sets * WAYS];
+        this.values = new double[sets * WAYS];
+        this.occupied = new boolean[sets * WAYS];
+        this.nextVictim = new byte[sets];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    /** Returns the cached f(x), or calls {@code function} and caches its result. */
+    public double getOrCompute(double x, DoubleUnaryOperator function) {
+        long key = Double.doubleToRawLongBits(x);
+        int set = set(key);
+        synchronized (locks[set & (STRIPES - 1)]) {
+            int base = set * WAYS;
+            for (int i = base; i < base + WAYS; i++) {
+                if (occupied[i] && keys[i] == key) {
+                    return values[i];
+                }
+            }
+        }
+        double value = function.applyAsDouble(x);
+        put(key, set, value);
+        return value;
+    }
+
+    /** Records a value computed elsewhere, e.g. alongside derivatives. */
+    public void put(double x, double value) {
+        long key = Double.doubleToRawLongBits(x);
+        put(key, set(key), value);
+    }
+
+    private void put(long key, int set, double value) {
+        synchronized (locks[set & (STRIPES - 1)]) {
+            int base = set * WAYS;
+            for (int i = base; i < base + WAYS; i++) {
+                if (!occupied[i] || keys[i] == key) {
+                    occupied[i] = true;
+                    keys[i] = key;
+                    values[i] = value;
+                    return;
+                }
+            }
+            int victim = base + nextVictim[set];
+            nextVictim[set] = (byte) ((nextVictim[set] + 1) % WAYS);
+            keys[victim] = key;
+            values[victim] = value;
+        }
+    }
+
+    private int set(long key) {
+        // Nearby doubles differ only in low mantissa bits; mix so they spread across sets
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 40) & setMask;
+    }
+}
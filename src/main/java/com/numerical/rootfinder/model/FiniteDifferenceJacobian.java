@@ -0,0 +1,193 @@
+package com.numerical.rootfinder.model;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The Jacobian of a {@link SystemEquations} by forward differences, column by column. Columns
+ * whose unknowns never appear in the same equation are grouped (Curtis, Powell and Reid) and
+ * perturbed together, since each equation then sees only one of them; a banded or block system
+ * needs a handful of groups however many unknowns it has. A group only re-evaluates the
+ * equations that mention its columns. Groups are independent, so for larger systems they are
+ * spread over a {@link ForkJoinPool}, every worker thread evaluating through its own
+ * {@link SystemEquations.Evaluator} and point buffer.
+ */
+final class FiniteDifferenceJacobian {
+
+    // Groups from which the evaluation is split over the pool, and groups per fork/join leaf
+    private static final int PARALLEL_GROUPS = 4;
+    private static final int CHUNK = 2;
+
+    private static final double SQRT_EPSILON = Math.sqrt(Math.ulp(1.0));
+
+    private final int n;
+    private final ThreadLocal<Worker> workers;
+    // For group g, entries groupStart[g] until groupStart[g + 1] of the pairs are (row, column)
+    private final int[][] groupColumns;
+    private final int[] groupStart;
+    private final int[] pairRows;
+    private final int[] pairColumns;
+    private final LongAdder evaluations = new LongAdder();
+
+    FiniteDifferenceJacobian(SystemEquations equations) {
+        this.n = equations.size();
+        this.workers = ThreadLocal.withInitial(() -> new Worker(equations.evaluator(), n));
+        int[][] dependencies = equations.getDependencies();
+
+        int[] rowCount = new int[n];
+        for (int[] row : dependencies) {
+            for (int j : row) {
+                rowCount[j]++;
+            }
+        }
+        int[][] columnRows = new int[n][];
+        for (int j = 0; j < n; j++) {
+            columnRows[j] = new int[rowCount[j]];
+        }
+        int[] fill = new int[n];
+        for (int i = 0; i < n; i++) {
+            for (int j : dependencies[i]) {
+                columnRows[j][fill[j]++] = i;
+            }
+        }
+
+        // Greedy colouring: a column joins the first group with no column that shares an equation with it
+        int[] group = new int[n];
+        int[] forbidden = new int[n];
+        Arrays.fill(forbidden, -1);
+        int groups = 0;
+        for (int j = 0; j < n; j++) {
+            for (int i : columnRows[j]) {
+                for (int k : dependencies[i]) {
+                    if (k < j) {
+                        forbidden[group[k]] = j;
+                    }
+                }
+            }
+            int g = 0;
+            while (g < groups && forbidden[g] == j) {
+                g++;
+            }
+            if (g == groups) {
+                groups++;
+            }
+            group[j] = g;
+        }
+
+        int[] groupSize = new int[groups];
+        int[] pairCount = new int[groups];
+        for (int j = 0; j < n; j++) {
+            groupSize[group[j]]++;
+            pairCount[group[j]] += columnRows[j].length;
+        }
+        this.groupColumns = new int[groups][];
+        this.groupStart = new int[groups + 1];
+        for (int g = 0; g < groups; g++) {
+            groupColumns[g] = new int[groupSize[g]];
+            groupStart[g + 1] = groupStart[g] + pairCount[g];
+        }
+        this.pairRows = new int[groupStart[groups]];
+        this.pairColumns = new int[groupStart[groups]];
+        int[] columnFill = new int[groups];
+        int[] pairFill = groupStart.clone();
+        for (int j = 0; j < n; j++) {
+            int g = group[j];
+            groupColumns[g][columnFill[g]++] = j;
+            for (int i : columnRows[j]) {
+                pairRows[pairFill[g]] = i;
+                pairColumns[pairFill[g]] = j;
+                pairFill[g]++;
+            }
+        }
+    }
+
+    /** Columns perturbed together; equal to the number of F evaluations per Jacobian. */
+    int getGroupCount() {
+        return groupColumns.length;
+    }
+
+    /** Single-equation evaluations made so far, from every thread. */
+    long getEvaluations() {
+        return evaluations.sum();
+    }
+
+    /**
+     * Writes J(v) row-major into {@code jacobian}, given {@code f = F(v)}. Entries outside the
+     * sparsity pattern are 0. Runs on the pool when there are enough groups to share out.
+     */
+    void evaluate(double[] v, double[] f, double[] jacobian, ForkJoinPool pool) {
+        Arrays.fill(jacobian, 0);
+        int groups = groupColumns.length;
+        if (groups >= PARALLEL_GROUPS && pool.getParallelism() > 1) {
+            pool.invoke(new GroupTask(v, f, jacobian, 0, groups));
+        } else {
+            evaluateGroups(v, f, jacobian, 0, groups);
+        }
+    }
+
+    private void evaluateGroups(double[] v, double[] f, double[] jacobian, int from, int to) {
+        Worker worker = workers.get();
+        double[] point = worker.point;
+        double[] step = worker.step;
+        System.arraycopy(v, 0, point, 0, n);
+        long count = 0;
+        for (int g = from; g < to; g++) {
+            for (int j : groupColumns[g]) {
+                double h = SQRT_EPSILON * Math.max(Math.abs(v[j]), 1);
+                point[j] = v[j] + h;
+                // The step actually taken, after rounding v + h
+                step[j] = point[j] - v[j];
+            }
+            for (int k = groupStart[g]; k < groupStart[g + 1]; k++) {
+                int i = pairRows[k];
+                int j = pairColumns[k];
+                jacobian[i * n + j] = (worker.equations.evaluate(i, point) - f[i]) / step[j];
+                count++;
+            }
+            for (int j : groupColumns[g]) {
+                point[j] = v[j];
+            }
+        }
+        evaluations.add(count);
+    }
+
+    private static final class Worker {
+        final SystemEquations.Evaluator equations;
+        final double[] point;
+        final double[] step;
+
+        Worker(SystemEquations.Evaluator equations, int n) {
+            this.equations = equations;
+            this.point = new double[n];
+            this.step = new double[n];
+        }
+    }
+
+    private final class GroupTask extends RecursiveAction {
+        private final double[] v;
+        private final double[] f;
+        private final double[] jacobian;
+        private final int from;
+        private final int to;
+
+        GroupTask(double[] v, double[] f, double[] jacobian, int from, int to) {
+            this.v = v;
+            this.f = f;
+            this.jacobian = jacobian;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > CHUNK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new GroupTask(v, f, jacobian, from, mid), new GroupTask(v, f, jacobian, mid, to));
+                return;
+            }
+            evaluateGroups(v, f, jacobian, from, to);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.numerical.rootfinder.model;
+
+import com.numerical.rootfinder.model.expression.CompiledFunction;
+import com.numerical.rootfinder.model.expression.Interval;
+import com.numerical.rootfinder.model.expression.IntervalFunction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Encloses every root of f in [a, b] for {@link RootFindingMethod#INTERVAL_SEARCH}, by branch
+ * and bound in interval arithmetic. A box whose enclosure of f excludes 0 provably holds no
+ * root and is dropped; otherwise an interval Newton step {@code m - f(m) / f'(box)} contracts
+ * it, and a box the step cannot shrink by half is bisected. Boxes are fork/join tasks, so idle
+ * workers steal the unexplored halves and the search spreads over all cores.
+ * <p>
+ * Unlike sampling for sign changes, this cannot miss a root: double roots, which touch zero
+ * without crossing, and close pairs are still enclosed. When the Newton image lands inside the
+ * box, the box provably holds exactly one root and is reported as certified. A box that reaches
+ * the tolerance without that may hold several roots, around a multiple root or where f is flat,
+ * or none, where f jumps across 0 at a pole or a discontinuity; there |f| at the midpoint is
+ * large or undefined. Touching boxes, as around a root on a bisection point, are merged into one
+ * and the Newton test is repeated on the union.
+ */
+final class IntervalRootFinder {
+
+    // Boxes examined before the search gives up, for an f that is 0 on a whole interval
+    static final long MAX_BOXES = 1L << 22;
+
+    private final NumericalMethods solver;
+    private final CompiledFunction function;
+    private final double tolerance;
+    private final CancellationToken cancellation;
+    private final AtomicLong boxes = new AtomicLong();
+    private final ThreadLocal<IntervalFunction.Evaluator> evaluators;
+    private long deadlineNanos;
+    private volatile StopReason stopReason;
+
+    IntervalRootFinder(NumericalMethods solver, double tolerance, CancellationToken cancellation) {
+        this.solver = solver;
+        this.function = solver.getFunction();
+        this.tolerance = tolerance;
+        this.cancellation = cancellation;
+        IntervalFunction extension = function.getIntervalExtension();
+        this.evaluators = ThreadLocal.withInitial(extension::evaluator);
+    }
+
+    MethodResult search(double a, double b) {
+        MethodEvaluator f = solver.evaluator();
+        IterationTrace roots = new IterationTrace(TraceRetention.all(), TraceColumn.A, TraceColumn.B,
+                TraceColumn.ROOT, TraceColumn.F_ROOT, TraceColumn.ERROR, TraceColumn.CERTIFIED);
+        if (!(a < b) || !Double.isFinite(a) || !Double.isFinite(b)) {
+            return f.result(RootFindingMethod.INTERVAL_SEARCH, roots, null,
+                    "The search needs finite x min < x max.", false);
+        }
+        deadlineNanos = f.deadlineNanos();
+        List<Enclosure> found = ComputePool.get().invoke(new BoxTask(a, b));
+
+        if (stopReason != null && stopReason != StopReason.MAX_ITERATIONS) {
+            MethodResult result = f.result(RootFindingMethod.INTERVAL_SEARCH, roots, null,
+                    stopReason == StopReason.CANCELLED ? "Calculation cancelled." : "Time limit reached.", false);
+            result.setStopReason(stopReason);
+            return result;
+        }
+
+        // Subtrees come back in order; a root on a bisection point may be enclosed by both halves
+        List<Enclosure> merged = new ArrayList<>();
+        for (Enclosure enclosure : found) {
+            Enclosure last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && enclosure.lo <= last.hi) {
+                double hi = Math.max(last.hi, enclosure.hi);
+                merged.set(merged.size() - 1, new Enclosure(last.lo, hi, certifies(last.lo, hi)));
+            } else {
+                merged.add(enclosure);
+            }
+        }
+
+        List<Double> midpoints = new ArrayList<>();
+        for (Enclosure enclosure : merged) {
+            double x = enclosure.lo + (enclosure.hi - enclosure.lo) / 2;
+            double fx;
+            try {
+                fx = function.applyAsDouble(x);
+            } catch (ArithmeticException e) {
+                fx = Double.NaN;
+            }
+            roots.add(roots.size() + 1);
+            roots.set(TraceColumn.A, enclosure.lo);
+            roots.set(TraceColumn.B, enclosure.hi);
+            roots.set(TraceColumn.ROOT, x);
+            roots.set(TraceColumn.F_ROOT, fx);
+            roots.set(TraceColumn.ERROR, enclosure.hi - enclosure.lo);
+            roots.set(TraceColumn.CERTIFIED, enclosure.certified ? 1 : 0);
+            midpoints.add(x);
+        }
+        String errorMessage = stopReason == StopReason.MAX_ITERATIONS
+                ? "Gave up after " + MAX_BOXES + " boxes; f may be zero on a whole interval." : null;
+        MethodResult result = f.result(RootFindingMethod.INTERVAL_SEARCH, roots,
+                midpoints.isEmpty() ? null : midpoints.get(0), errorMessage, errorMessage == null);
+        result.setRoots(Collections.unmodifiableList(midpoints));
+        result.setCacheMisses(boxes.get());
+        return result;
+    }
+
+    // Whether one interval Newton step proves that [lo, hi] holds exactly one root
+    private boolean certifies(double lo, double hi) {
+        IntervalFunction.Evaluator f = evaluators.get();
+        Interval value = f.evaluate(lo, hi);
+        if (value.isEmpty() || !value.contains(0)) {
+            return false;
+        }
+        Interval step = new Interval().set(f.derivative());
+        if (step.isEmpty() || step.contains(0)) {
+            return false;
+        }
+        double m = lo + (hi - lo) / 2;
+        Interval fm = f.evaluate(m, m);
+        if (fm.isEmpty()) {
+            return false;
+        }
+        step.divide(fm, step);
+        step.subtract(m, step);
+        return step.lo() > lo && step.hi() < hi;
+    }
+
+    private boolean stopped() {
+        if (stopReason != null) {
+            return true;
+        }
+        if (cancellation.isCancelled()) {
+            stopReason = StopReason.CANCELLED;
+        } else if (deadlineNanos != Long.MAX_VALUE && System.nanoTime() >= deadlineNanos) {
+            stopReason = StopReason.TIME_LIMIT;
+        } else if (boxes.incrementAndGet() > MAX_BOXES) {
+            stopReason = StopReason.MAX_ITERATIONS;
+        }
+        return stopReason != null;
+    }
+
+    // The enclosures of the roots in [lo, hi], in increasing order
+    private final class BoxTask extends RecursiveTask<List<Enclosure>> {
+        private final double lo;
+        private final double hi;
+
+        BoxTask(double lo, double hi) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected List<Enclosure> compute() {
+            IntervalFunction.Evaluator f = evaluators.get();
+            Interval box = new Interval(lo, hi);
+            Interval step = new Interval();
+            boolean certified = false;
+            while (!stopped()) {
+                Interval value = f.evaluate(box.lo(), box.hi());
+                if (value.isEmpty() || !value.contains(0)) {
+                    return List.of();
+                }
+                if (box.width() <= tolerance) {
+                    return List.of(new Enclosure(box.lo(), box.hi(), certified));
+                }
+                Interval slope = f.derivative();
+                if (!slope.isEmpty() && !slope.contains(0)) {
+                    step.set(slope);
+                    double m = box.mid();
+                    Interval fm = f.evaluate(m, m);
+                    // f undefined at the midpoint says nothing about the rest of the box
+                    if (!fm.isEmpty()) {
+                        // Interval Newton: every root in the box lies in m - f(m) / f'(box)
+                        step.divide(fm, step);
+                        step.subtract(m, step);
+                        if (step.lo() > box.lo() && step.hi() < box.hi()) {
+                            certified = true;
+                        }
+                        double width = box.width();
+                        box.intersect(box, step);
+                        if (box.isEmpty()) {
+                            return List.of();
+                        }
+                        if (box.width() <= width / 2) {
+                            continue;
+                        }
+                    }
+                }
+                double mid = box.mid();
+                if (!(mid > box.lo() && mid < box.hi())) {
+                    // Adjacent doubles: no finer box exists
+                    return List.of(new Enclosure(box.lo(), box.hi(), certified));
+                }
+                BoxTask left = new BoxTask(box.lo(), mid);
+                BoxTask right = new BoxTask(mid, box.hi());
+                invokeAll(left, right);
+                List<Enclosure> enclosures = new ArrayList<>(left.join());
+                enclosures.addAll(right.join());
+                return enclosures;
+            }
+            return List.of();
+        }
+    }
+
+    private static final class Enclosure {
+        final double lo;
+        final double hi;
+        final boolean certified;
+
+        Enclosure(double lo, double hi, boolean certified) {
+            this.lo = lo;
+            this.hi = hi;
+            this.certified = certified;
+        }
+    }
+}
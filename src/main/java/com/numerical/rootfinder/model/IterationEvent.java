@@ -0,0 +1,43 @@
+package com.numerical.rootfinder.model;
+
+import java.util.Arrays;
+
+/**
+ * One finished iteration, copied out of the solver's {@link IterationTrace} so it can be handed
+ * to another thread while the solve goes on.
+ */
+public final class IterationEvent {
+    private final RootFindingMethod method;
+    private final int iteration;
+    private final double[] values;
+
+    IterationEvent(RootFindingMethod method, int iteration, double[] values) {
+        this.method = method;
+        this.iteration = iteration;
+        this.values = values;
+    }
+
+    public RootFindingMethod getMethod() { return method; }
+
+    public int getIteration() { return iteration; }
+
+    /** The value of a column, NaN if the method does not record it or did not set it. */
+    public double get(TraceColumn column) {
+        return values[column.ordinal()];
+    }
+
+    public IterationResult toResult() {
+        IterationResult result = new IterationResult(iteration);
+        for (TraceColumn column : TraceColumn.values()) {
+            if (!Double.isNaN(values[column.ordinal()])) {
+                column.copyTo(result, values[column.ordinal()]);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return method + " #" + iteration + " " + Arrays.toString(values);
+    }
+}
@@ -0,0 +1,15 @@
+package com.numerical.rootfinder.model;
+
+/**
+ * Receives each iteration of a solve as soon as it is complete, on the solving thread. The
+ * solver waits for the call to return, so a listener that cannot keep up slows the solver down
+ * instead of letting events pile up; hand events to another thread through a bounded queue to
+ * get the same effect there. When several methods run at once (e.g. {@link RootFindingMethod#ALL})
+ * the listener is called from several threads.
+ */
+@FunctionalInterface
+public interface IterationListener {
+
+    /** Returns false to stop the solve after this iteration. */
+    boolean onIteration(IterationEvent event);
+}
@@ -5,15 +5,19 @@ public class IterationResult {
     private Double a;
     private Double b;
     private Double root;
+    private Double imaginary;
     private Double fRoot;
     private Double error;
     private Double x_i;
     private Double x_i1;
     private Double f_x;
     private Double f_prime_x;
+    private Double f_double_prime_x;
     private Double g_x;
     private Double f_x_i1;  // Add this
     private Double f_x_i;   // Add this
+    private Double iterationTime;
+    private Double certified;
 
     public IterationResult(int iteration) {
         this.iteration = iteration;
@@ -32,6 +36,10 @@ public class IterationResult {
     public Double getRoot() { return root; }
     public void setRoot(Double root) { this.root = root; }
 
+    // Imaginary part of a complex root, for methods that find them
+    public Double getImaginary() { return imaginary; }
+    public void setImaginary(Double imaginary) { this.imaginary = imaginary; }
+
     public Double getfRoot() { return fRoot; }
     public void setfRoot(Double fRoot) { this.fRoot = fRoot; }
 
@@ -50,6 +58,9 @@ public class IterationResult {
     public Double getF_prime_x() { return f_prime_x; }
     public void setF_prime_x(Double f_prime_x) { this.f_prime_x = f_prime_x; }
 
+    public Double getF_double_prime_x() { return f_double_prime_x; }
+    public void setF_double_prime_x(Double f_double_prime_x) { this.f_double_prime_x = f_double_prime_x; }
+
     public Double getG_x() { return g_x; }
     public void setG_x(Double g_x) { this.g_x = g_x; }
 
@@ -59,4 +70,12 @@ public class IterationResult {
 
     public Double getF_x_i() { return f_x_i; }
     public void setF_x_i(Double f_x_i) { this.f_x_i = f_x_i; }
+
+    // Microseconds spent on this iteration, when the solve records iteration times
+    public Double getIterationTime() { return iterationTime; }
+    public void setIterationTime(Double iterationTime) { this.iterationTime = iterationTime; }
+
+    // 1 if the interval [a, b] provably holds exactly one root, 0 if it may hold several or none
+    public Double getCertified() { return certified; }
+    public void setCertified(Double certified) { this.certified = certified; }
 }
\ No newline at end of file
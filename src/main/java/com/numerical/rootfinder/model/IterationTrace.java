@@ -0,0 +1,251 @@
+package com.numerical.rootfinder.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Iteration history stored column by column in growable primitive arrays. A solver declares
+ * the columns it records, calls {@link #add(int)} once per iteration and then {@link #set} for
+ * each value, so recording a step allocates nothing beyond the occasional array growth.
+ * Values that were not set for a row read back as NaN, which {@link #getResult(int)} maps to null.
+ * <p>
+ * Rows are kept according to a {@link TraceRetention}. Bounded modes write into a ring buffer of
+ * recent rows; in {@link TraceRetention.Mode#DECIMATED} mode a row whose iteration number is a
+ * power of two is copied aside before the ring overwrites it. Row indexes are always in
+ * iteration order, and {@link #getIterationCount()} counts every iteration, kept or not.
+ * <p>
+ * If the trace has a {@link TraceColumn#ITERATION_TIME} column, {@link #add(int)} fills it with
+ * the microseconds since the previous row (or since the trace was created, for the first).
+ * <p>
+ * A trace given an {@link IterationListener} hands each row to it once the row is complete,
+ * which is when {@link #publish()} is called or the next row is added.
+ */
+public class IterationTrace {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final TraceColumn[] columns;
+    private final TraceRetention retention;
+
+    // Ring of the most recent rows; it only wraps once it has grown to retention.getLimit()
+    private final double[][] values = new double[TraceColumn.values().length][];
+    private int[] iterations;
+    private int start;
+    private int count;
+    private int last = -1;
+
+    // Power-of-two rows evicted from the ring in DECIMATED mode
+    private double[][] kept;
+    private int[] keptIterations;
+    private int keptCount;
+
+    private long iterationCount;
+
+    private RootFindingMethod method;
+    private IterationListener listener;
+    private long publishedCount;
+    private boolean stopRequested;
+
+    private final boolean timed;
+    private long previousNanos = System.nanoTime();
+    private long firstIterationNanos;
+
+    public IterationTrace(TraceColumn... columns) {
+        this(TraceRetention.all(), columns);
+    }
+
+    public IterationTrace(TraceRetention retention, TraceColumn... columns) {
+        this.columns = columns.clone();
+        this.retention = retention;
+        int capacity = Math.min(INITIAL_CAPACITY, retention.getLimit());
+        this.iterations = new int[capacity];
+        for (TraceColumn column : columns) {
+            values[column.ordinal()] = new double[capacity];
+        }
+        this.timed = hasColumn(TraceColumn.ITERATION_TIME);
+    }
+
+    public void add(int iteration) {
+        publish();
+        int slot;
+        if (count < iterations.length) {
+            slot = (start + count) % iterations.length;
+            count++;
+        } else if (count < retention.getLimit()) {
+            grow();
+            slot = count++;
+        } else {
+            slot = start;
+            if (retention.getMode() == TraceRetention.Mode.DECIMATED && Integer.bitCount(iterations[slot]) == 1) {
+                keep(slot);
+            }
+            start = (start + 1) % iterations.length;
+        }
+
+        iterations[slot] = iteration;
+        for (TraceColumn column : columns) {
+            values[column.ordinal()][slot] = Double.NaN;
+        }
+        if (timed || iterationCount == 0) {
+            long now = System.nanoTime();
+            if (iterationCount == 0) {
+                firstIterationNanos = now;
+            }
+            if (timed) {
+                values[TraceColumn.ITERATION_TIME.ordinal()][slot] = (now - previousNanos) / 1e3;
+                previousNanos = now;
+            }
+        }
+        last = slot;
+        iterationCount++;
+    }
+
+    void setListener(RootFindingMethod method, IterationListener listener) {
+        this.method = method;
+        this.listener = listener;
+    }
+
+    /**
+     * Hands the most recent row to the listener, if there is one and it has not seen the row yet.
+     * Returns true once the listener has asked to stop.
+     */
+    boolean publish() {
+        if (listener != null && publishedCount < iterationCount) {
+            publishedCount = iterationCount;
+            double[] row = new double[TraceColumn.values().length];
+            Arrays.fill(row, Double.NaN);
+            for (TraceColumn column : columns) {
+                row[column.ordinal()] = values[column.ordinal()][last];
+            }
+            if (!listener.onIteration(new IterationEvent(method, iterations[last], row))) {
+                stopRequested = true;
+            }
+        }
+        return stopRequested;
+    }
+
+    /** True if the listener asked the solver to stop. */
+    public boolean isStopRequested() { return stopRequested; }
+
+    /** Sets a value on the row most recently added. */
+    public void set(TraceColumn column, double value) {
+        values[column.ordinal()][last] = value;
+    }
+
+    /** Number of rows kept. */
+    public int size() { return keptCount + count; }
+
+    public boolean isEmpty() { return size() == 0; }
+
+    /** True if the rows are read from a file mapping, where reading every row pages the whole trace in. */
+    public boolean isMapped() { return false; }
+
+    /** Number of iterations recorded, including those the retention policy dropped. */
+    public long getIterationCount() { return iterationCount; }
+
+    /** {@link System#nanoTime()} when the first row was added; meaningless while the trace is empty. */
+    public long getFirstIterationNanos() { return firstIterationNanos; }
+
+    public TraceRetention getRetention() { return retention; }
+
+    public boolean hasColumn(TraceColumn column) {
+        return values[column.ordinal()] != null;
+    }
+
+    public TraceColumn[] getColumns() {
+        return columns.clone();
+    }
+
+    public int getIteration(int row) {
+        checkRow(row);
+        if (row < keptCount) {
+            return keptIterations[row];
+        }
+        return iterations[slot(row)];
+    }
+
+    public double get(int row, TraceColumn column) {
+        checkRow(row);
+        if (!hasColumn(column)) {
+            return Double.NaN;
+        }
+        if (row < keptCount) {
+            return kept[column.ordinal()][row];
+        }
+        return values[column.ordinal()][slot(row)];
+    }
+
+    /** Value of a column in the most recent iteration, NaN if there is none. */
+    public double getLast(TraceColumn column) {
+        if (last < 0 || !hasColumn(column)) {
+            return Double.NaN;
+        }
+        return values[column.ordinal()][last];
+    }
+
+    /** Materializes one row; nothing is cached, so callers that scroll should hold on to it. */
+    public IterationResult getResult(int row) {
+        IterationResult result = new IterationResult(getIteration(row));
+        for (TraceColumn column : columns) {
+            double value = get(row, column);
+            if (!Double.isNaN(value)) {
+                column.copyTo(result, value);
+            }
+        }
+        return result;
+    }
+
+    /** A read-only view of the rows as {@link IterationResult}s, built on access. */
+    public List<IterationResult> asList() {
+        return new ResultView();
+    }
+
+    private int slot(int row) {
+        return (start + row - keptCount) % iterations.length;
+    }
+
+    private void grow() {
+        // Only reached before the ring has wrapped, so rows are still contiguous from 0
+        int capacity = (int) Math.min((long) iterations.length * 2, retention.getLimit());
+        iterations = Arrays.copyOf(iterations, capacity);
+        for (TraceColumn column : columns) {
+            values[column.ordinal()] = Arrays.copyOf(values[column.ordinal()], capacity);
+        }
+    }
+
+    private void keep(int slot) {
+        if (kept == null) {
+            kept = new double[values.length][];
+            keptIterations = new int[Integer.SIZE];
+            for (TraceColumn column : columns) {
+                kept[column.ordinal()] = new double[Integer.SIZE];
+            }
+        }
+        // At most 31 powers of two fit in an int iteration number
+        keptIterations[keptCount] = iterations[slot];
+        for (TraceColumn column : columns) {
+            kept[column.ordinal()][keptCount] = values[column.ordinal()][slot];
+        }
+        keptCount++;
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size()) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + size());
+        }
+    }
+
+    private class ResultView extends AbstractList<IterationResult> implements RandomAccess {
+        @Override
+        public IterationResult get(int index) {
+            return getResult(index);
+        }
+
+        @Override
+        public int size() {
+            return IterationTrace.this.size();
+        }
+    }
+}
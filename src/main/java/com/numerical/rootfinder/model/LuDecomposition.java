@@ -0,0 +1,100 @@
+package com.numerical.rootfinder.model;
+
+/**
+ * LU decomposition with partial pivoting of an n by n matrix stored row-major in a double[],
+ * for the Newton steps of {@link NonlinearSystemSolver}. The factors and the pivot order live
+ * in arrays allocated once, so factoring and solving allocate nothing however often they run.
+ * Not thread-safe.
+ */
+final class LuDecomposition {
+
+    // A pivot this small relative to the largest entry of its column means a singular matrix
+    private static final double SINGULAR = 1e-14;
+
+    private final int n;
+    private final double[] lu;
+    private final int[] pivot;
+
+    LuDecomposition(int n) {
+        this.n = n;
+        this.lu = new double[n * n];
+        this.pivot = new int[n];
+    }
+
+    /** Factors the matrix, which is left unchanged; false if it is singular to working precision. */
+    boolean factor(double[] matrix) {
+        System.arraycopy(matrix, 0, lu, 0, n * n);
+        double scale = 0;
+        for (double value : matrix) {
+            scale = Math.max(scale, Math.abs(value));
+        }
+        if (!(scale > 0) || !Double.isFinite(scale)) {
+            return false;
+        }
+        for (int k = 0; k < n; k++) {
+            int p = k;
+            double max = Math.abs(lu[k * n + k]);
+            for (int i = k + 1; i < n; i++) {
+                double value = Math.abs(lu[i * n + k]);
+                if (value > max) {
+                    max = value;
+                    p = i;
+                }
+            }
+            if (max <= SINGULAR * scale) {
+                return false;
+            }
+            pivot[k] = p;
+            if (p != k) {
+                int rowK = k * n;
+                int rowP = p * n;
+                for (int j = 0; j < n; j++) {
+                    double t = lu[rowK + j];
+                    lu[rowK + j] = lu[rowP + j];
+                    lu[rowP + j] = t;
+                }
+            }
+            double diagonal = lu[k * n + k];
+            for (int i = k + 1; i < n; i++) {
+                int row = i * n;
+                double factor = lu[row + k] / diagonal;
+                lu[row + k] = factor;
+                if (factor != 0) {
+                    int rowK = k * n;
+                    for (int j = k + 1; j < n; j++) {
+                        lu[row + j] -= factor * lu[rowK + j];
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /** Solves A x = b in place for the last factored A: b holds x on return. */
+    void solve(double[] b) {
+        for (int k = 0; k < n; k++) {
+            int p = pivot[k];
+            if (p != k) {
+                double t = b[k];
+                b[k] = b[p];
+                b[p] = t;
+            }
+        }
+        for (int i = 1; i < n; i++) {
+            int row = i * n;
+            double sum = b[i];
+            for (int j = 0; j < i; j++) {
+                sum -= lu[row + j] * b[j];
+            }
+            b[i] = sum;
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            int row = i * n;
+            double sum = b[i];
+            for (int j = i + 1; j < n; j++) {
+                sum -= lu[row + j] * b[j];
+            }
+            b[i] = sum / lu[row + i];
+        }
+    }
+}
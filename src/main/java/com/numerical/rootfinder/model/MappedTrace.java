@@ -0,0 +1,113 @@
+package com.numerical.rootfinder.model;
+
+import java.io.IOException;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A read-only {@link IterationTrace} whose rows stay in a session file (see {@link SessionFile})
+ * and are read through memory mappings of its columns. Opening one costs nothing however long
+ * the trace is; the operating system pages rows in as they are read, so a table scrolling
+ * through a multi-gigabyte trace touches only the rows on screen.
+ * <p>
+ * A mapping addresses at most 2 GiB, so each column is mapped in segments.
+ */
+final class MappedTrace extends IterationTrace {
+
+    // Elements per mapped segment: 1 GiB of doubles
+    private static final int SEGMENT_SHIFT = 27;
+    private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+
+    private final int rows;
+    private final long iterationCount;
+    private final IntBuffer[] iterations;
+    private final DoubleBuffer[][] values = new DoubleBuffer[TraceColumn.values().length][];
+
+    /**
+     * Maps a trace written by {@link SessionFile}: the iteration numbers as ints from
+     * {@code offset}, padded to a multiple of 8 bytes, then one double column per trace column.
+     */
+    MappedTrace(FileChannel channel, long offset, int rows, long iterationCount, TraceRetention retention,
+                TraceColumn... columns) throws IOException {
+        super(retention, columns);
+        this.rows = rows;
+        this.iterationCount = iterationCount;
+        this.iterations = new IntBuffer[segments(rows)];
+        for (int s = 0; s < iterations.length; s++) {
+            iterations[s] = map(channel, offset + ((long) s << SEGMENT_SHIFT) * Integer.BYTES,
+                    segmentLength(rows, s) * Integer.BYTES).asIntBuffer();
+        }
+        long position = offset + SessionFile.align((long) rows * Integer.BYTES);
+        for (TraceColumn column : columns) {
+            DoubleBuffer[] segments = new DoubleBuffer[segments(rows)];
+            for (int s = 0; s < segments.length; s++) {
+                segments[s] = map(channel, position + ((long) s << SEGMENT_SHIFT) * Double.BYTES,
+                        segmentLength(rows, s) * Double.BYTES).asDoubleBuffer();
+            }
+            values[column.ordinal()] = segments;
+            position += (long) rows * Double.BYTES;
+        }
+    }
+
+    /** Bytes a trace of this shape takes in the file, from its offset. */
+    static long length(int rows, int columns) {
+        return SessionFile.align((long) rows * Integer.BYTES) + (long) rows * columns * Double.BYTES;
+    }
+
+    @Override
+    public void add(int iteration) {
+        throw new UnsupportedOperationException("A trace loaded from a session is read-only");
+    }
+
+    @Override
+    public void set(TraceColumn column, double value) {
+        throw new UnsupportedOperationException("A trace loaded from a session is read-only");
+    }
+
+    @Override
+    public int size() { return rows; }
+
+    @Override
+    public boolean isMapped() { return true; }
+
+    @Override
+    public long getIterationCount() { return iterationCount; }
+
+    @Override
+    public int getIteration(int row) {
+        checkRow(row);
+        return iterations[row >>> SEGMENT_SHIFT].get(row & SEGMENT_MASK);
+    }
+
+    @Override
+    public double get(int row, TraceColumn column) {
+        checkRow(row);
+        DoubleBuffer[] segments = values[column.ordinal()];
+        return segments == null ? Double.NaN : segments[row >>> SEGMENT_SHIFT].get(row & SEGMENT_MASK);
+    }
+
+    @Override
+    public double getLast(TraceColumn column) {
+        return rows == 0 ? Double.NaN : get(rows - 1, column);
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= rows) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + rows);
+        }
+    }
+
+    private static int segments(int rows) {
+        return (int) (((long) rows + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+    }
+
+    private static long segmentLength(int rows, int segment) {
+        return Math.min(rows - ((long) segment << SEGMENT_SHIFT), 1L << SEGMENT_SHIFT);
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+    }
+}
@@ -0,0 +1,181 @@
+package com.numerical.rootfinder.model;
+
+import com.numerical.rootfinder.model.expression.CompiledFunction;
+import com.numerical.rootfinder.model.expression.DifferentiableFunction;
+import com.numerical.rootfinder.model.expression.DoubleDouble;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Evaluates a function for one method run, going through the solve's {@link EvaluationCache}
+ * when there is one and counting lookups and actual evaluations for {@link MethodResult}.
+ * It also times the run and measures the solving thread's allocation from construction to
+ * {@link #result}. It keeps the point with the smallest |f| seen, reported as the best root
+ * if the method stops short, and enforces the method's time and evaluation limits together
+ * with those of the whole solve, and can polish a converged root in double-double precision
+ * with a {@link RootPolisher}. Not thread-safe; every method run gets its own, on the thread
+ * that runs it.
+ */
+final class MethodEvaluator implements DoubleUnaryOperator {
+
+    private static final com.sun.management.ThreadMXBean ALLOCATION = allocationBean();
+
+    private final DoubleUnaryOperator function;
+    private final EvaluationCache cache;
+    private final long startNanos = System.nanoTime();
+    private final long startAllocated = allocatedBytes();
+    private final SolveBudget budget;
+    private final long deadlineNanos;
+    private final long evaluationLimit;
+    private final CompiledFunction polishing;
+    private long lookups;
+    private long misses;
+    private long derivativeEvaluations;
+    private double bestX = Double.NaN;
+    private double bestResidual = Double.POSITIVE_INFINITY;
+
+    MethodEvaluator(DoubleUnaryOperator function, EvaluationCache cache) {
+        this(function, cache, SolveBudget.UNLIMITED, 0, 0, null);
+    }
+
+    /** Limits of 0 mean none; {@code polishing} is the f whose converged roots to polish, or null. */
+    MethodEvaluator(DoubleUnaryOperator function, EvaluationCache cache, SolveBudget budget,
+                    long timeLimitNanos, long evaluationLimit, CompiledFunction polishing) {
+        this.function = function;
+        this.cache = cache;
+        this.budget = budget;
+        this.deadlineNanos = Math.min(budget.getDeadlineNanos(),
+                timeLimitNanos > 0 ? startNanos + timeLimitNanos : Long.MAX_VALUE);
+        this.evaluationLimit = evaluationLimit > 0 ? evaluationLimit : Long.MAX_VALUE;
+        this.polishing = polishing;
+    }
+
+    double evaluate(double x) {
+        double value;
+        try {
+            value = evaluateRaw(x);
+        } catch (Exception e) {
+            throw new RuntimeException("Error evaluating function at x=" + x + ": " + e.getMessage());
+        }
+        track(x, value);
+        return value;
+    }
+
+    /** As {@link #evaluate(double)}, letting evaluation errors through unwrapped. */
+    double evaluateRaw(double x) {
+        lookups++;
+        return cache == null ? applyAsDouble(x) : cache.getOrCompute(x, this);
+    }
+
+    /** f(x) with its derivatives; always evaluated, and f(x) is offered to the cache. */
+    double evaluate(DifferentiableFunction.Evaluator derivatives, double x) {
+        lookups++;
+        misses++;
+        derivativeEvaluations++;
+        if (budget.countsEvaluations()) {
+            budget.addEvaluation();
+        }
+        double value;
+        try {
+            value = derivatives.evaluate(x);
+        } catch (Exception e) {
+            throw new RuntimeException("Error evaluating function at x=" + x + ": " + e.getMessage());
+        }
+        if (cache != null) {
+            cache.put(x, value);
+        }
+        track(x, value);
+        return value;
+    }
+
+    private void track(double x, double value) {
+        double residual = Math.abs(value);
+        if (residual < bestResidual) {
+            bestResidual = residual;
+            bestX = x;
+        }
+    }
+
+    /** The limit that has run out, or null; checked by the methods before each iteration. */
+    StopReason exhaustedLimit() {
+        if (misses >= evaluationLimit || budget.evaluationsExhausted()) {
+            return StopReason.EVALUATION_LIMIT;
+        }
+        if (deadlineNanos != Long.MAX_VALUE && System.nanoTime() >= deadlineNanos) {
+            return StopReason.TIME_LIMIT;
+        }
+        return null;
+    }
+
+    // Called on a cache miss, or directly when there is no cache
+    @Override
+    public double applyAsDouble(double x) {
+        misses++;
+        if (budget.countsEvaluations()) {
+            budget.addEvaluation();
+        }
+        return function.applyAsDouble(x);
+    }
+
+    /** When the method's time runs out, in {@link System#nanoTime()} terms; Long.MAX_VALUE for never. */
+    long deadlineNanos() { return deadlineNanos; }
+
+    long lookups() { return lookups; }
+
+    long misses() { return misses; }
+
+    MethodResult result(RootFindingMethod method, IterationTrace trace, Double root,
+                        String errorMessage, boolean converged) {
+        // The listener sees the last row before the solve returns
+        trace.publish();
+        MethodResult result = new MethodResult(method, trace, root, errorMessage, converged);
+        if (root == null) {
+            if (!Double.isNaN(bestX)) {
+                result.setBestRoot(bestX);
+                result.setBestResidual(bestResidual);
+            } else if (!Double.isNaN(trace.getLast(TraceColumn.X_I1))) {
+                // Fixed point iteration evaluates g, not f; its latest iterate is its best estimate
+                result.setBestRoot(trace.getLast(TraceColumn.X_I1));
+            }
+        } else if (root == bestX) {
+            result.setBestResidual(bestResidual);
+        }
+        if (converged && polishing != null && root != null && Double.isFinite(root)) {
+            RootPolisher polisher = new RootPolisher(polishing);
+            DoubleDouble polished = polisher.polish(root);
+            if (polished != null) {
+                result.setPolishedRoot(polished);
+                result.setPolishedResidual(polisher.getResidual());
+            }
+        }
+        result.setCacheHits(lookups - misses);
+        result.setCacheMisses(misses);
+        result.setDerivativeEvaluations(derivativeEvaluations);
+        result.setDurationNanos(System.nanoTime() - startNanos);
+        if (trace.getIterationCount() > 0) {
+            result.setTimeToFirstIterationNanos(trace.getFirstIterationNanos() - startNanos);
+        }
+        if (startAllocated >= 0) {
+            result.setAllocatedBytes(allocatedBytes() - startAllocated);
+        }
+        return result;
+    }
+
+    private static long allocatedBytes() {
+        return ALLOCATION == null ? -1 : ALLOCATION.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    // HotSpot's extension of ThreadMXBean, if this JVM has it with allocation tracking on
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean hotSpot = (com.sun.management.ThreadMXBean) bean;
+            if (hotSpot.isThreadAllocatedMemorySupported() && hotSpot.isThreadAllocatedMemoryEnabled()) {
+                return hotSpot;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,81 @@
+package com.numerical.rootfinder.model;
+
+public class MethodParameters {
+    private double bisectionA;
+    private double bisectionB;
+    private double falsePositionA;
+    private double falsePositionB;
+    private double fixedPointX0;
+    private String fixedPointG;
+    private double newtonX0;
+    private double secantX0;
+    private double secantX1;
+    private double halleyX0;
+    private double brentA;
+    private double brentB;
+    private double illinoisA;
+    private double illinoisB;
+    private double riddersA;
+    private double riddersB;
+    private double scanMin;
+    private double scanMax;
+    private int scanIntervals;
+
+    // Getters and setters
+    public double getBisectionA() { return bisectionA; }
+    public void setBisectionA(double bisectionA) { this.bisectionA = bisectionA; }
+
+    public double getBisectionB() { return bisectionB; }
+    public void setBisectionB(double bisectionB) { this.bisectionB = bisectionB; }
+
+    public double getFalsePositionA() { return falsePositionA; }
+    public void setFalsePositionA(double falsePositionA) { this.falsePositionA = falsePositionA; }
+
+    public double getFalsePositionB() { return falsePositionB; }
+    public void setFalsePositionB(double falsePositionB) { this.falsePositionB = falsePositionB; }
+
+    public double getFixedPointX0() { return fixedPointX0; }
+    public void setFixedPointX0(double fixedPointX0) { this.fixedPointX0 = fixedPointX0; }
+
+    public String getFixedPointG() { return fixedPointG; }
+    public void setFixedPointG(String fixedPointG) { this.fixedPointG = fixedPointG; }
+
+    public double getNewtonX0() { return newtonX0; }
+    public void setNewtonX0(double newtonX0) { this.newtonX0 = newtonX0; }
+
+    public double getSecantX0() { return secantX0; }
+    public void setSecantX0(double secantX0) { this.secantX0 = secantX0; }
+
+    public double getSecantX1() { return secantX1; }
+    public void setSecantX1(double secantX1) { this.secantX1 = secantX1; }
+
+    public double getHalleyX0() { return halleyX0; }
+    public void setHalleyX0(double halleyX0) { this.halleyX0 = halleyX0; }
+
+    public double getBrentA() { return brentA; }
+    public void setBrentA(double brentA) { this.brentA = brentA; }
+
+    public double getBrentB() { return brentB; }
+    public void setBrentB(double brentB) { this.brentB = brentB; }
+
+    public double getIllinoisA() { return illinoisA; }
+    public void setIllinoisA(double illinoisA) { this.illinoisA = illinoisA; }
+
+    public double getIllinoisB() { return illinoisB; }
+    public void setIllinoisB(double illinoisB) { this.illinoisB = illinoisB; }
+
+    public double getRiddersA() { return riddersA; }
+    public void setRiddersA(double riddersA) { this.riddersA = riddersA; }
+
+    public double getRiddersB() { return riddersB; }
+    public void setRiddersB(double riddersB) { this.riddersB = riddersB; }
+
+    public double getScanMin() { return scanMin; }
+    public void setScanMin(double scanMin) { this.scanMin = scanMin; }
+
+    public double getScanMax() { return scanMax; }
+    public void setScanMax(double scanMax) { this.scanMax = scanMax; }
+
+    public int getScanIntervals() { return scanIntervals; }
+    public void setScanIntervals(int scanIntervals) { this.scanIntervals = scanIntervals; }
+}
@@ -1,36 +1,109 @@
 package com.numerical.rootfinder.model;
 
+import com.numerical.rootfinder.model.expression.DoubleDouble;
+
+import java.util.Collections;
 import java.util.List;
 
 public class MethodResult {
     private RootFindingMethod method;
-    private List<IterationResult> iterations;
+    private IterationTrace trace;
     private Double root;
+    private List<Double> roots;
     private String errorMessage;
     private boolean converged;
+    private long cacheHits;
+    private long cacheMisses;
+    private long derivativeEvaluations;
+    private long durationNanos;
+    private long timeToFirstIterationNanos = -1;
+    private long allocatedBytes = -1;
+    private StopReason stopReason;
+    private Double bestRoot;
+    private double bestResidual = Double.NaN;
+    private DoubleDouble polishedRoot;
+    private double polishedResidual = Double.NaN;
 
-    public MethodResult(RootFindingMethod method, List<IterationResult> iterations,
+    public MethodResult(RootFindingMethod method, IterationTrace trace,
                         Double root, String errorMessage, boolean converged) {
         this.method = method;
-        this.iterations = iterations;
+        this.trace = trace;
         this.root = root;
         this.errorMessage = errorMessage;
         this.converged = converged;
+        this.stopReason = converged ? StopReason.CONVERGED
+                : errorMessage == null ? StopReason.MAX_ITERATIONS : StopReason.ERROR;
+        this.bestRoot = root;
     }
 
     // Getters and setters
     public RootFindingMethod getMethod() { return method; }
     public void setMethod(RootFindingMethod method) { this.method = method; }
 
-    public List<IterationResult> getIterations() { return iterations; }
-    public void setIterations(List<IterationResult> iterations) { this.iterations = iterations; }
+    public IterationTrace getTrace() { return trace; }
+    public void setTrace(IterationTrace trace) { this.trace = trace; }
+
+    // Row view over the trace for table code; rows are built on access
+    public List<IterationResult> getIterations() { return trace.asList(); }
 
     public Double getRoot() { return root; }
     public void setRoot(Double root) { this.root = root; }
 
+    // Every root found: the scan's full list, otherwise just the root above if there is one
+    public List<Double> getRoots() {
+        if (roots != null) return roots;
+        return root != null ? Collections.singletonList(root) : Collections.emptyList();
+    }
+    public void setRoots(List<Double> roots) { this.roots = roots; }
+
     public String getErrorMessage() { return errorMessage; }
     public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
 
     public boolean isConverged() { return converged; }
     public void setConverged(boolean converged) { this.converged = converged; }
-}
\ No newline at end of file
+
+    // f(x) lookups answered by the solve's evaluation cache, and those that had to evaluate
+    public long getCacheHits() { return cacheHits; }
+    public void setCacheHits(long cacheHits) { this.cacheHits = cacheHits; }
+
+    public long getCacheMisses() { return cacheMisses; }
+    public void setCacheMisses(long cacheMisses) { this.cacheMisses = cacheMisses; }
+
+    // f(x) values the method needed, whether the cache supplied them or not
+    public long getFunctionEvaluations() { return cacheHits + cacheMisses; }
+
+    // Of those, the ones that also computed derivatives (Newton-Raphson, Halley)
+    public long getDerivativeEvaluations() { return derivativeEvaluations; }
+    public void setDerivativeEvaluations(long derivativeEvaluations) { this.derivativeEvaluations = derivativeEvaluations; }
+
+    // Wall time of the whole method run, by System.nanoTime()
+    public long getDurationNanos() { return durationNanos; }
+    public void setDurationNanos(long durationNanos) { this.durationNanos = durationNanos; }
+
+    // Setup time before the first iteration was recorded; -1 if there was none
+    public long getTimeToFirstIterationNanos() { return timeToFirstIterationNanos; }
+    public void setTimeToFirstIterationNanos(long timeToFirstIterationNanos) { this.timeToFirstIterationNanos = timeToFirstIterationNanos; }
+
+    // Heap allocated by the solving thread during the run; -1 where the JVM cannot tell
+    public long getAllocatedBytes() { return allocatedBytes; }
+    public void setAllocatedBytes(long allocatedBytes) { this.allocatedBytes = allocatedBytes; }
+
+    public StopReason getStopReason() { return stopReason; }
+    public void setStopReason(StopReason stopReason) { this.stopReason = stopReason; }
+
+    // The root if converged, otherwise the point with the smallest |f| seen; null if there was none
+    public Double getBestRoot() { return bestRoot; }
+    public void setBestRoot(Double bestRoot) { this.bestRoot = bestRoot; }
+
+    // |f(bestRoot)|, NaN where unknown
+    public double getBestResidual() { return bestResidual; }
+    public void setBestResidual(double bestResidual) { this.bestResidual = bestResidual; }
+
+    // The root refined in double-double precision, when polishing is on and the method converged; else null
+    public DoubleDouble getPolishedRoot() { return polishedRoot; }
+    public void setPolishedRoot(DoubleDouble polishedRoot) { this.polishedRoot = polishedRoot; }
+
+    // |f(polishedRoot)| evaluated in double-double, NaN where not polished
+    public double getPolishedResidual() { return polishedResidual; }
+    public void setPolishedResidual(double polishedResidual) { this.polishedResidual = polishedResidual; }
+}
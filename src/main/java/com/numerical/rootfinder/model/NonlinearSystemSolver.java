@@ -0,0 +1,223 @@
+package com.numerical.rootfinder.model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Solves a system of equations F(v) = 0 in as many named unknowns by Newton's method. The
+ * Jacobian comes from forward differences, computed column group by column group in parallel
+ * (see {@link FiniteDifferenceJacobian}), and every step solves J d = -F with an LU
+ * decomposition whose storage is allocated once per solve. A step that does not reduce ||F||
+ * is halved until it does, which keeps Newton from diverging far from the solution; if no
+ * halving helps, the solve stops with a stalled line search rather than take the step.
+ * <p>
+ * The iteration stops when ||F|| (the 2-norm) is at most the tolerance, or when a full Newton
+ * step is below the tolerance relative to the unknowns and ||F|| is below the tolerance
+ * relative to its value at the initial guess. A small step alone proves nothing where F is
+ * steep or rough. The cancellation token, the trace
+ * retention and the per-method time and evaluation limits of {@link SolverOptions} apply; an
+ * evaluation is one equation at one point.
+ * <p>
+ * Immutable once constructed, so one instance can solve from several starting points at once.
+ */
+public class NonlinearSystemSolver {
+
+    // Halvings of a step before the line search gives up
+    private static final int MAX_HALVINGS = 30;
+
+    private final SystemEquations equations;
+    private final List<String> variables;
+    private final double tolerance;
+    private final int maxIterations;
+    private final CancellationToken cancellation;
+    private final TraceRetention retention;
+    private final long timeLimitNanos;
+    private final long evaluationLimit;
+
+    public NonlinearSystemSolver(List<String> equations, List<String> variables, double tolerance, int maxIterations) {
+        this(equations, variables, tolerance, maxIterations, new SolverOptions());
+    }
+
+    /** One equation per unknown; an unknown named x is the expression variable. */
+    public NonlinearSystemSolver(List<String> equations, List<String> variables, double tolerance,
+                                 int maxIterations, SolverOptions options) {
+        this.equations = new SystemEquations(equations, variables);
+        this.variables = List.copyOf(variables);
+        this.tolerance = tolerance;
+        this.maxIterations = maxIterations;
+        this.cancellation = options.getCancellation();
+        this.retention = options.getRetention();
+        this.timeLimitNanos = TimeUnit.MILLISECONDS.toNanos(options.getTimeLimitMillis());
+        this.evaluationLimit = options.getEvaluationLimit();
+    }
+
+    public List<String> getVariables() {
+        return variables;
+    }
+
+    public SystemResult solve(double[] initialGuess) {
+        return solve(initialGuess, ComputePool.get());
+    }
+
+    /** Newton iteration from the initial guess, computing Jacobians on the pool. */
+    public SystemResult solve(double[] initialGuess, ForkJoinPool pool) {
+        int n = equations.size();
+        if (initialGuess.length != n) {
+            throw new IllegalArgumentException("Expected " + n + " initial values, got " + initialGuess.length);
+        }
+        return new Run(n, pool).solve(initialGuess);
+    }
+
+    // The state of one solve: every buffer is allocated here, before the first iteration
+    private final class Run {
+        private final int n;
+        private final ForkJoinPool pool;
+        private final long startNanos = System.nanoTime();
+        private final FiniteDifferenceJacobian jacobian = new FiniteDifferenceJacobian(equations);
+        private final SystemEquations.Evaluator evaluator = equations.evaluator();
+        private final LuDecomposition lu;
+        private final double[] v;
+        private final double[] f;
+        private final double[] j;
+        private final double[] step;
+        private final double[] trial;
+        private final double[] fTrial;
+        private final IterationTrace trace = new IterationTrace(retention, TraceColumn.F_X, TraceColumn.ERROR);
+        private long evaluations;
+        private int jacobians;
+
+        Run(int n, ForkJoinPool pool) {
+            this.n = n;
+            this.pool = pool;
+            this.lu = new LuDecomposition(n);
+            this.v = new double[n];
+            this.f = new double[n];
+            this.j = new double[n * n];
+            this.step = new double[n];
+            this.trial = new double[n];
+            this.fTrial = new double[n];
+        }
+
+        SystemResult solve(double[] initialGuess) {
+            System.arraycopy(initialGuess, 0, v, 0, n);
+            try {
+                double norm = residual(v, f);
+                trace.add(0);
+                trace.set(TraceColumn.F_X, norm);
+                if (!Double.isFinite(norm)) {
+                    return result("F is not finite at the initial guess.", false);
+                }
+                // A step-converged iterate must also have cut ||F|| by the tolerance
+                double residualTolerance = tolerance * Math.max(1, norm);
+                for (int iteration = 1; iteration <= maxIterations; iteration++) {
+                    if (norm <= tolerance) {
+                        return result(null, true);
+                    }
+                    StopReason stop = stopReason();
+                    if (stop != null) {
+                        SystemResult result = result(stop == StopReason.CANCELLED ? "Calculation cancelled."
+                                : stop == StopReason.TIME_LIMIT ? "Time limit reached." : "Evaluation limit reached.", false);
+                        result.setStopReason(stop);
+                        return result;
+                    }
+
+                    jacobian.evaluate(v, f, j, pool);
+                    jacobians++;
+                    if (!lu.factor(j)) {
+                        return result("The Jacobian is singular at iteration " + iteration + ".", false);
+                    }
+                    for (int i = 0; i < n; i++) {
+                        step[i] = -f[i];
+                    }
+                    lu.solve(step);
+
+                    // Backtrack until ||F|| drops; the full step is kept near the solution
+                    double t = 1;
+                    double trialNorm = Double.NaN;
+                    boolean decreased = false;
+                    for (int halving = 0; halving <= MAX_HALVINGS; halving++) {
+                        for (int i = 0; i < n; i++) {
+                            trial[i] = v[i] + t * step[i];
+                        }
+                        trialNorm = residual(trial, fTrial);
+                        if (trialNorm < norm) {
+                            decreased = true;
+                            break;
+                        }
+                        t /= 2;
+                    }
+                    if (!decreased) {
+                        // v stays at the last accepted iterate
+                        return result(Double.isFinite(trialNorm)
+                                ? "Line search stalled at iteration " + iteration
+                                        + ": no fraction of the Newton step reduces ||F||."
+                                : "F is not finite along the Newton step at iteration " + iteration + ".", false);
+                    }
+                    double stepNorm = t * norm(step);
+                    System.arraycopy(trial, 0, v, 0, n);
+                    System.arraycopy(fTrial, 0, f, 0, n);
+                    norm = trialNorm;
+                    trace.add(iteration);
+                    trace.set(TraceColumn.F_X, norm);
+                    trace.set(TraceColumn.ERROR, stepNorm);
+                    if (t == 1 && stepNorm <= tolerance * (1 + norm(v)) && norm <= residualTolerance) {
+                        return result(null, true);
+                    }
+                }
+                return norm <= tolerance ? result(null, true) : result(null, false);
+            } catch (RuntimeException e) {
+                return result("Error evaluating the system: " + e.getMessage(), false);
+            }
+        }
+
+        // F(x) into fx, returning ||F||
+        private double residual(double[] x, double[] fx) {
+            for (int i = 0; i < n; i++) {
+                fx[i] = evaluator.evaluate(i, x);
+            }
+            evaluations += n;
+            return norm(fx);
+        }
+
+        private StopReason stopReason() {
+            if (cancellation.isCancelled()) {
+                return StopReason.CANCELLED;
+            }
+            if (timeLimitNanos > 0 && System.nanoTime() - startNanos >= timeLimitNanos) {
+                return StopReason.TIME_LIMIT;
+            }
+            if (evaluationLimit > 0 && evaluations + jacobian.getEvaluations() >= evaluationLimit) {
+                return StopReason.EVALUATION_LIMIT;
+            }
+            return null;
+        }
+
+        private SystemResult result(String errorMessage, boolean converged) {
+            SystemResult result = new SystemResult(variables, trace, Arrays.copyOf(v, n), errorMessage, converged);
+            result.setFunctionEvaluations(evaluations + jacobian.getEvaluations());
+            result.setJacobianEvaluations(jacobians);
+            result.setJacobianGroups(jacobian.getGroupCount());
+            result.setDurationNanos(System.nanoTime() - startNanos);
+            return result;
+        }
+    }
+
+    // Euclidean norm, scaled so squares of large entries do not overflow
+    private static double norm(double[] x) {
+        double scale = 0;
+        for (double value : x) {
+            scale = Math.max(scale, Math.abs(value));
+        }
+        if (scale == 0 || !Double.isFinite(scale)) {
+            return scale;
+        }
+        double sum = 0;
+        for (double value : x) {
+            double r = value / scale;
+            sum += r * r;
+        }
+        return scale * Math.sqrt(sum);
+    }
+}
@@ -1,66 +1,286 @@
 package com.numerical.rootfinder.model;
 
-import net.objecthunter.exp4j.Expression;
-import net.objecthunter.exp4j.ExpressionBuilder;
-import java.util.ArrayList;
+import com.numerical.rootfinder.model.expression.CompiledFunction;
+import com.numerical.rootfinder.model.expression.DifferentiableFunction;
+import com.numerical.rootfinder.model.expression.DoubleDouble;
+import com.numerical.rootfinder.model.expression.ExpressionCache;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
-
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Immutable once constructed: the compiled function keeps no evaluation state, so one
+ * instance can run several methods at the same time from different threads. The optional
+ * {@link EvaluationCache} is the only shared mutable state and is itself thread-safe.
+ * <p>
+ * The equation may use the named variables of {@link SolverOptions#getVariables()} besides x;
+ * their values are fixed for the life of the instance. {@link #sweep} solves for many values
+ * of one of them.
+ * <p>
+ * Besides the tolerance and iteration limit, a method stops when its time or evaluation limit
+ * runs out, or the total limits of the call; for {@link #solveAll} the totals are shared by all
+ * the methods. The result then carries the best root so far and the {@link StopReason}.
+ * <p>
+ * With {@link SolverOptions#setPolishRoots polishing} on, every converged root is refined in
+ * double-double precision (see {@link #polish}), for tolerances below what doubles resolve.
+ */
 public class NumericalMethods {
 
-    private Expression function;
-    private double tolerance;
-    private int maxIterations;
+    /** The methods run and compared by {@link RootFindingMethod#ALL}. */
+    public static final Set<RootFindingMethod> ALL_METHODS = Collections.unmodifiableSet(EnumSet.of(
+            RootFindingMethod.BISECTION,
+            RootFindingMethod.FALSE_POSITION,
+            RootFindingMethod.FIXED_POINT,
+            RootFindingMethod.NEWTON_RAPHSON,
+            RootFindingMethod.SECANT,
+            RootFindingMethod.HALLEY,
+            RootFindingMethod.BRENT,
+            RootFindingMethod.ILLINOIS,
+            RootFindingMethod.RIDDERS));
+
+    private final CompiledFunction function;
+    private final double tolerance;
+    private final int maxIterations;
+    private final CancellationToken cancellation;
+    private final TraceRetention retention;
+    private final EvaluationCache cache;
+    private final boolean recordIterationTimes;
+    private final IterationListener listener;
+    private final long timeLimitNanos;
+    private final long evaluationLimit;
+    private final long totalTimeLimitNanos;
+    private final long totalEvaluationLimit;
+    private final boolean polishRoots;
+    // The budget shared by the methods of one solveAll, or null to start one per method
+    private final SolveBudget run;
 
     public NumericalMethods(String equation, double tolerance, int maxIterations) {
+        this(equation, tolerance, maxIterations, new SolverOptions());
+    }
+
+    public NumericalMethods(String equation, double tolerance, int maxIterations, SolverOptions options) {
         try {
-            this.function = new ExpressionBuilder(equation)
-                    .variables("x")
-                    .build();
-            this.tolerance = tolerance;
-            this.maxIterations = maxIterations;
+            Map<String, Double> variables = options.getVariables();
+            this.function = ExpressionCache.shared().get(equation, variables.keySet().toArray(new String[0]));
+            int index = 0;
+            for (Double value : variables.values()) {
+                function.setParameter(index++, value);
+            }
         } catch (Exception e) {
             throw new IllegalArgumentException("Error parsing equation: " + e.getMessage());
         }
+        this.tolerance = tolerance;
+        this.maxIterations = maxIterations;
+        this.cancellation = options.getCancellation();
+        this.retention = options.getRetention();
+        this.cache = options.getEvaluationCacheSize() > 0 ? new EvaluationCache(options.getEvaluationCacheSize()) : null;
+        this.recordIterationTimes = options.isRecordIterationTimes();
+        this.listener = options.getIterationListener();
+        this.timeLimitNanos = TimeUnit.MILLISECONDS.toNanos(options.getTimeLimitMillis());
+        this.evaluationLimit = options.getEvaluationLimit();
+        this.totalTimeLimitNanos = TimeUnit.MILLISECONDS.toNanos(options.getTotalTimeLimitMillis());
+        this.totalEvaluationLimit = options.getTotalEvaluationLimit();
+        this.polishRoots = options.isPolishRoots();
+        this.run = null;
+    }
+
+    // A solver over an already compiled function that keeps no history, for one worker of a sweep
+    NumericalMethods(CompiledFunction function, double tolerance, int maxIterations, CancellationToken cancellation) {
+        this.function = function;
+        this.tolerance = tolerance;
+        this.maxIterations = maxIterations;
+        this.cancellation = cancellation;
+        this.retention = TraceRetention.none();
+        this.cache = null;
+        this.recordIterationTimes = false;
+        this.listener = null;
+        this.timeLimitNanos = 0;
+        this.evaluationLimit = 0;
+        this.totalTimeLimitNanos = 0;
+        this.totalEvaluationLimit = 0;
+        this.polishRoots = false;
+        this.run = null;
+    }
+
+    // The same solver with every method drawing on one budget
+    private NumericalMethods(NumericalMethods base, SolveBudget run) {
+        this.function = base.function;
+        this.tolerance = base.tolerance;
+        this.maxIterations = base.maxIterations;
+        this.cancellation = base.cancellation;
+        this.retention = base.retention;
+        this.cache = base.cache;
+        this.recordIterationTimes = base.recordIterationTimes;
+        this.listener = base.listener;
+        this.timeLimitNanos = base.timeLimitNanos;
+        this.evaluationLimit = base.evaluationLimit;
+        this.totalTimeLimitNanos = base.totalTimeLimitNanos;
+        this.totalEvaluationLimit = base.totalEvaluationLimit;
+        this.polishRoots = base.polishRoots;
+        this.run = run;
+    }
+
+    CompiledFunction getFunction() {
+        return function;
     }
 
     public double evaluate(double x) {
         try {
-            return function.setVariable("x", x).evaluate();
+            return cache == null ? function.applyAsDouble(x) : cache.getOrCompute(x, function);
         } catch (Exception e) {
             throw new RuntimeException("Error evaluating function at x=" + x + ": " + e.getMessage());
         }
     }
 
+    MethodEvaluator evaluator() {
+        return evaluator(function, cache);
+    }
+
+    private MethodEvaluator evaluator(CompiledFunction function, EvaluationCache cache) {
+        SolveBudget budget = run != null ? run : SolveBudget.start(totalTimeLimitNanos, totalEvaluationLimit);
+        // Fixed point iteration evaluates g, but it is f's root that gets polished
+        return new MethodEvaluator(function, cache, budget, timeLimitNanos, evaluationLimit,
+                polishRoots ? this.function : null);
+    }
+
+    private IterationTrace trace(RootFindingMethod method, TraceColumn... columns) {
+        if (recordIterationTimes) {
+            columns = Arrays.copyOf(columns, columns.length + 1);
+            columns[columns.length - 1] = TraceColumn.ITERATION_TIME;
+        }
+        IterationTrace trace = new IterationTrace(retention, columns);
+        if (listener != null) {
+            trace.setListener(method, listener);
+        }
+        return trace;
+    }
+
+    // Publishes the last iteration, then reports whether the solve was cancelled, its listener asked to stop or a limit ran out
+    private boolean stopped(MethodEvaluator evaluator, IterationTrace iterations) {
+        return iterations.publish() || cancellation.isCancelled() || evaluator.exhaustedLimit() != null;
+    }
+
+    public MethodResult solve(RootFindingMethod method, MethodParameters parameters) {
+        switch (method) {
+            case BISECTION:
+                return bisection(parameters.getBisectionA(), parameters.getBisectionB());
+            case FALSE_POSITION:
+                return falsePosition(parameters.getFalsePositionA(), parameters.getFalsePositionB());
+            case FIXED_POINT:
+                return fixedPoint(parameters.getFixedPointX0(), parameters.getFixedPointG());
+            case NEWTON_RAPHSON:
+                return newtonRaphson(parameters.getNewtonX0());
+            case SECANT:
+                return secant(parameters.getSecantX0(), parameters.getSecantX1());
+            case HALLEY:
+                return halley(parameters.getHalleyX0());
+            case BRENT:
+                return brent(parameters.getBrentA(), parameters.getBrentB());
+            case ILLINOIS:
+                return illinois(parameters.getIllinoisA(), parameters.getIllinoisB());
+            case RIDDERS:
+                return ridders(parameters.getRiddersA(), parameters.getRiddersB());
+            case SCAN_ALL:
+                return scanAll(parameters.getScanMin(), parameters.getScanMax(), parameters.getScanIntervals());
+            case POLYNOMIAL_ROOTS:
+                return polynomialRoots();
+            case INTERVAL_SEARCH:
+                return intervalSearch(parameters.getScanMin(), parameters.getScanMax());
+            default:
+                throw new IllegalArgumentException("Unsupported method: " + method);
+        }
+    }
+
+    public Map<RootFindingMethod, MethodResult> solveAll(MethodParameters parameters) {
+        return solveAll(parameters, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Runs every method on the executor and waits for all of them. The returned map iterates
+     * in {@link RootFindingMethod} declaration order.
+     */
+    public Map<RootFindingMethod, MethodResult> solveAll(MethodParameters parameters, Executor executor) {
+        return solveAll(parameters, executor, result -> { });
+    }
+
+    /**
+     * As {@link #solveAll(MethodParameters, Executor)}, calling {@code onMethodDone} from the
+     * worker thread as each method finishes.
+     */
+    public Map<RootFindingMethod, MethodResult> solveAll(MethodParameters parameters, Executor executor,
+                                                         Consumer<MethodResult> onMethodDone) {
+        NumericalMethods shared = new NumericalMethods(this, SolveBudget.start(totalTimeLimitNanos, totalEvaluationLimit));
+        Map<RootFindingMethod, CompletableFuture<MethodResult>> futures = new EnumMap<>(RootFindingMethod.class);
+        for (RootFindingMethod method : ALL_METHODS) {
+            futures.put(method, CompletableFuture.supplyAsync(() -> {
+                MethodResult result = shared.solve(method, parameters);
+                onMethodDone.accept(result);
+                return result;
+            }, executor));
+        }
+
+        Map<RootFindingMethod, MethodResult> results = new EnumMap<>(RootFindingMethod.class);
+        for (Map.Entry<RootFindingMethod, CompletableFuture<MethodResult>> entry : futures.entrySet()) {
+            try {
+                results.put(entry.getKey(), entry.getValue().join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+        return results;
+    }
+
     public MethodResult bisection(double a, double b) {
-        List<IterationResult> iterations = new ArrayList<>();
+        MethodEvaluator f = evaluator();
+        IterationTrace iterations = trace(RootFindingMethod.BISECTION,
+                TraceColumn.A, TraceColumn.B, TraceColumn.ROOT, TraceColumn.F_ROOT, TraceColumn.ERROR);
         Double root = null;
         String errorMessage = null;
         boolean converged = false;
 
-        double fa = evaluate(a);
-        double fb = evaluate(b);
+        double fa = f.evaluate(a);
+        double fb = f.evaluate(b);
 
-        if (fa * fb >= 0) {
+        if (fa == 0 || fb == 0) {
+            return endpointRoot(f, RootFindingMethod.BISECTION, iterations, a, b, fa);
+        }
+        if (!(fa * fb < 0)) {
             errorMessage = "f(a) and f(b) must have opposite signs for bisection method.";
-            return new MethodResult(RootFindingMethod.BISECTION, iterations, root, errorMessage, false);
+            return f.result(RootFindingMethod.BISECTION, iterations, root, errorMessage, false);
         }
 
+        double prevRoot = 0;
+
         for (int i = 0; i < maxIterations; i++) {
+            if (stopped(f, iterations)) {
+                return interrupted(f, RootFindingMethod.BISECTION, iterations);
+            }
             double c = (a + b) / 2;
-            double fc = evaluate(c);
+            double fc = f.evaluate(c);
 
-            IterationResult iteration = new IterationResult(i + 1);
-            iteration.setA(a);
-            iteration.setB(b);
-            iteration.setRoot(c);
-            iteration.setfRoot(fc);
+            iterations.add(i + 1);
+            iterations.set(TraceColumn.A, a);
+            iterations.set(TraceColumn.B, b);
+            iterations.set(TraceColumn.ROOT, c);
+            iterations.set(TraceColumn.F_ROOT, fc);
 
             if (i > 0) {
-                double prevRoot = iterations.get(i - 1).getRoot();
-                iteration.setError(Math.abs((c - prevRoot) / c) * 100);
+                iterations.set(TraceColumn.ERROR, Math.abs((c - prevRoot) / c) * 100);
             }
-
-            iterations.add(iteration);
+            prevRoot = c;
 
             if (Math.abs(fc) < tolerance || Math.abs(b - a) < tolerance) {
                 root = c;
@@ -77,71 +297,332 @@ public class NumericalMethods {
             }
         }
 
-        return new MethodResult(RootFindingMethod.BISECTION, iterations, root, errorMessage, converged);
+        return f.result(RootFindingMethod.BISECTION, iterations, root, errorMessage, converged);
     }
 
     public MethodResult falsePosition(double a, double b) {
-        List<IterationResult> iterations = new ArrayList<>();
+        MethodEvaluator f = evaluator();
+        IterationTrace iterations = trace(RootFindingMethod.FALSE_POSITION,
+                TraceColumn.A, TraceColumn.B, TraceColumn.ROOT, TraceColumn.F_ROOT, TraceColumn.ERROR);
         Double root = null;
         String errorMessage = null;
         boolean converged = false;
 
-        double fa = evaluate(a);
-        double fb = evaluate(b);
+        double fa = f.evaluate(a);
+        double fb = f.evaluate(b);
 
-        if (fa * fb >= 0) {
+        if (fa == 0 || fb == 0) {
+            return endpointRoot(f, RootFindingMethod.FALSE_POSITION, iterations, a, b, fa);
+        }
+        if (!(fa * fb < 0)) {
             errorMessage = "f(a) and f(b) must have opposite signs for false position method.";
-            return new MethodResult(RootFindingMethod.FALSE_POSITION, iterations, root, errorMessage, false);
+            return f.result(RootFindingMethod.FALSE_POSITION, iterations, root, errorMessage, false);
         }
 
-        Double prevC = null;
+        double prevC = Double.NaN;
 
         for (int i = 0; i < maxIterations; i++) {
-            fa = evaluate(a);
-            fb = evaluate(b);
+            if (stopped(f, iterations)) {
+                return interrupted(f, RootFindingMethod.FALSE_POSITION, iterations);
+            }
             double c = (a * fb - b * fa) / (fb - fa);
-            double fc = evaluate(c);
+            double fc = f.evaluate(c);
 
-            IterationResult iteration = new IterationResult(i + 1);
-            iteration.setA(a);
-            iteration.setB(b);
-            iteration.setRoot(c);
-            iteration.setfRoot(fc);
+            iterations.add(i + 1);
+            iterations.set(TraceColumn.A, a);
+            iterations.set(TraceColumn.B, b);
+            iterations.set(TraceColumn.ROOT, c);
+            iterations.set(TraceColumn.F_ROOT, fc);
 
-            if (prevC != null) {
-                iteration.setError(Math.abs((c - prevC) / c) * 100);
+            if (i > 0) {
+                iterations.set(TraceColumn.ERROR, Math.abs((c - prevC) / c) * 100);
             }
             prevC = c;
 
-            iterations.add(iteration);
-
             if (Math.abs(fc) < tolerance) {
                 root = c;
                 converged = true;
                 break;
             }
 
+            // Carry the endpoint values forward instead of re-evaluating them
+            if (fa * fc < 0) {
+                b = c;
+                fb = fc;
+            } else {
+                a = c;
+                fa = fc;
+            }
+        }
+
+        return f.result(RootFindingMethod.FALSE_POSITION, iterations, root, errorMessage, converged);
+    }
+
+    /**
+     * False position with the Illinois modification: when the same endpoint survives two steps
+     * in a row its stored f value is halved, so the secant swings over and that endpoint moves.
+     */
+    public MethodResult illinois(double a, double b) {
+        MethodEvaluator f = evaluator();
+        IterationTrace iterations = trace(RootFindingMethod.ILLINOIS,
+                TraceColumn.A, TraceColumn.B, TraceColumn.ROOT, TraceColumn.F_ROOT, TraceColumn.ERROR);
+        Double root = null;
+        String errorMessage = null;
+        boolean converged = false;
+
+        double fa = f.evaluate(a);
+        double fb = f.evaluate(b);
+
+        if (fa == 0 || fb == 0) {
+            return endpointRoot(f, RootFindingMethod.ILLINOIS, iterations, a, b, fa);
+        }
+        if (!(fa * fb < 0)) {
+            errorMessage = "f(a) and f(b) must have opposite signs for Illinois method.";
+            return f.result(RootFindingMethod.ILLINOIS, iterations, root, errorMessage, false);
+        }
+
+        double prevC = Double.NaN;
+        // Which endpoint the last step replaced: -1 for b, +1 for a, 0 before the first step
+        int side = 0;
+
+        for (int i = 0; i < maxIterations; i++) {
+            if (stopped(f, iterations)) {
+                return interrupted(f, RootFindingMethod.ILLINOIS, iterations);
+            }
+            double c = (a * fb - b * fa) / (fb - fa);
+            double fc = f.evaluate(c);
+
+            iterations.add(i + 1);
+            iterations.set(TraceColumn.A, a);
+            iterations.set(TraceColumn.B, b);
+            iterations.set(TraceColumn.ROOT, c);
+            iterations.set(TraceColumn.F_ROOT, fc);
+
+            if (i > 0) {
+                iterations.set(TraceColumn.ERROR, Math.abs((c - prevC) / c) * 100);
+            }
+            prevC = c;
+
+            if (Math.abs(fc) < tolerance || Math.abs(b - a) < tolerance) {
+                root = c;
+                converged = true;
+                break;
+            }
+
             if (fa * fc < 0) {
                 b = c;
+                fb = fc;
+                if (side == -1) {
+                    fa /= 2;
+                }
+                side = -1;
             } else {
                 a = c;
+                fa = fc;
+                if (side == 1) {
+                    fb /= 2;
+                }
+                side = 1;
+            }
+        }
+
+        return f.result(RootFindingMethod.ILLINOIS, iterations, root, errorMessage, converged);
+    }
+
+    /**
+     * Ridders' method: evaluates the midpoint, then fits an exponential through the bracket to
+     * place a second point. Two evaluations per step, with quadratic convergence.
+     */
+    public MethodResult ridders(double a, double b) {
+        MethodEvaluator f = evaluator();
+        IterationTrace iterations = trace(RootFindingMethod.RIDDERS,
+                TraceColumn.A, TraceColumn.B, TraceColumn.ROOT, TraceColumn.F_ROOT, TraceColumn.ERROR);
+        Double root = null;
+        String errorMessage = null;
+        boolean converged = false;
+
+        double fa = f.evaluate(a);
+        double fb = f.evaluate(b);
+
+        if (fa == 0 || fb == 0) {
+            return endpointRoot(f, RootFindingMethod.RIDDERS, iterations, a, b, fa);
+        }
+        if (!(fa * fb < 0)) {
+            errorMessage = "f(a) and f(b) must have opposite signs for Ridders' method.";
+            return f.result(RootFindingMethod.RIDDERS, iterations, root, errorMessage, false);
+        }
+
+        double prevX = Double.NaN;
+
+        for (int i = 0; i < maxIterations; i++) {
+            if (stopped(f, iterations)) {
+                return interrupted(f, RootFindingMethod.RIDDERS, iterations);
+            }
+            double m = (a + b) / 2;
+            double fm = f.evaluate(m);
+            double s = Math.sqrt(fm * fm - fa * fb);
+            double x = s == 0 ? m : m + (m - a) * Math.signum(fa - fb) * fm / s;
+            double fx = s == 0 ? fm : f.evaluate(x);
+
+            iterations.add(i + 1);
+            iterations.set(TraceColumn.A, a);
+            iterations.set(TraceColumn.B, b);
+            iterations.set(TraceColumn.ROOT, x);
+            iterations.set(TraceColumn.F_ROOT, fx);
+
+            if (i > 0) {
+                iterations.set(TraceColumn.ERROR, Math.abs((x - prevX) / x) * 100);
+            }
+            prevX = x;
+
+            if (Math.abs(fx) < tolerance || Math.abs(b - a) < tolerance) {
+                root = x;
+                converged = true;
+                break;
+            }
+
+            // Keep the tightest bracket among a, m, x and b
+            if (fm * fx < 0) {
+                a = Math.min(m, x);
+                b = Math.max(m, x);
+                fa = a == m ? fm : fx;
+                fb = b == m ? fm : fx;
+            } else if (fa * fx < 0) {
+                b = x;
+                fb = fx;
+            } else {
+                a = x;
+                fa = fx;
+            }
+        }
+
+        return f.result(RootFindingMethod.RIDDERS, iterations, root, errorMessage, converged);
+    }
+
+    /**
+     * Brent's method: inverse quadratic interpolation or secant steps while they make good
+     * progress, falling back to bisection otherwise, so it never does worse than bisection.
+     * b is the current estimate and c the opposite end of the bracket.
+     */
+    public MethodResult brent(double a, double b) {
+        MethodEvaluator f = evaluator();
+        IterationTrace iterations = trace(RootFindingMethod.BRENT,
+                TraceColumn.A, TraceColumn.B, TraceColumn.ROOT, TraceColumn.F_ROOT, TraceColumn.ERROR);
+        Double root = null;
+        String errorMessage = null;
+        boolean converged = false;
+
+        double fa = f.evaluate(a);
+        double fb = f.evaluate(b);
+
+        if (fa == 0 || fb == 0) {
+            return endpointRoot(f, RootFindingMethod.BRENT, iterations, a, b, fa);
+        }
+        if (!(fa * fb < 0)) {
+            errorMessage = "f(a) and f(b) must have opposite signs for Brent's method.";
+            return f.result(RootFindingMethod.BRENT, iterations, root, errorMessage, false);
+        }
+
+        double c = a;
+        double fc = fa;
+        double d = b - a;
+        double e = d;
+
+        for (int i = 0; i < maxIterations; i++) {
+            if (stopped(f, iterations)) {
+                return interrupted(f, RootFindingMethod.BRENT, iterations);
+            }
+            if (fb * fc > 0) {
+                c = a;
+                fc = fa;
+                d = b - a;
+                e = d;
+            }
+            if (Math.abs(fc) < Math.abs(fb)) {
+                a = b;
+                b = c;
+                c = a;
+                fa = fb;
+                fb = fc;
+                fc = fa;
+            }
+
+            double tol = 2 * Math.ulp(b) + 0.5 * tolerance;
+            double xm = (c - b) / 2;
+            if (Math.abs(e) >= tol && Math.abs(fa) > Math.abs(fb)) {
+                double s = fb / fa;
+                double p;
+                double q;
+                if (a == c) {
+                    // Secant step
+                    p = 2 * xm * s;
+                    q = 1 - s;
+                } else {
+                    // Inverse quadratic interpolation through a, b and c
+                    double qa = fa / fc;
+                    double r = fb / fc;
+                    p = s * (2 * xm * qa * (qa - r) - (b - a) * (r - 1));
+                    q = (qa - 1) * (r - 1) * (s - 1);
+                }
+                if (p > 0) {
+                    q = -q;
+                }
+                p = Math.abs(p);
+                if (2 * p < Math.min(3 * xm * q - Math.abs(tol * q), Math.abs(e * q))) {
+                    e = d;
+                    d = p / q;
+                } else {
+                    d = xm;
+                    e = d;
+                }
+            } else {
+                d = xm;
+                e = d;
+            }
+
+            double prevB = b;
+            a = b;
+            fa = fb;
+            b += Math.abs(d) > tol ? d : Math.copySign(tol, xm);
+            fb = f.evaluate(b);
+            // The bracket the next step starts from: c, unless f(b) took its sign and a, the last b, replaces it
+            double other = fb * fc > 0 ? a : c;
+
+            iterations.add(i + 1);
+            iterations.set(TraceColumn.A, Math.min(b, other));
+            iterations.set(TraceColumn.B, Math.max(b, other));
+            iterations.set(TraceColumn.ROOT, b);
+            iterations.set(TraceColumn.F_ROOT, fb);
+            if (i > 0) {
+                iterations.set(TraceColumn.ERROR, Math.abs((b - prevB) / b) * 100);
+            }
+
+            if (Math.abs(fb) < tolerance || Math.abs(xm) <= tol) {
+                root = b;
+                converged = true;
+                break;
             }
         }
 
-        return new MethodResult(RootFindingMethod.FALSE_POSITION, iterations, root, errorMessage, converged);
+        return f.result(RootFindingMethod.BRENT, iterations, root, errorMessage, converged);
     }
 
     public MethodResult fixedPoint(double x0, String gFunction) {
-        List<IterationResult> iterations = new ArrayList<>();
+        IterationTrace iterations = trace(RootFindingMethod.FIXED_POINT,
+                TraceColumn.X_I, TraceColumn.X_I1, TraceColumn.G_X, TraceColumn.ERROR);
         Double root = null;
         String errorMessage = null;
         boolean converged = false;
 
-        Expression g;
+        MethodEvaluator g;
         try {
-            g = new ExpressionBuilder(gFunction)
-                    .variables("x")
-                    .build();
+            // g(x) sees the same named variables as f(x)
+            List<String> names = function.getParameterNames();
+            CompiledFunction compiled = ExpressionCache.shared().get(gFunction, names.toArray(new String[0]));
+            for (int i = 0; i < names.size(); i++) {
+                compiled.setParameter(i, function.getParameter(i));
+            }
+            g = evaluator(compiled, null);
         } catch (Exception e) {
             errorMessage = "Error parsing g(x): " + e.getMessage();
             return new MethodResult(RootFindingMethod.FIXED_POINT, iterations, root, errorMessage, false);
@@ -150,25 +631,26 @@ public class NumericalMethods {
         double prevX = x0;
 
         for (int i = 0; i < maxIterations; i++) {
+            if (stopped(g, iterations)) {
+                return interrupted(g, RootFindingMethod.FIXED_POINT, iterations);
+            }
             double xNew;
             try {
-                xNew = g.setVariable("x", prevX).evaluate();
+                xNew = g.evaluateRaw(prevX);
             } catch (Exception e) {
                 errorMessage = "Error evaluating g(x) at x=" + prevX + ": " + e.getMessage();
-                return new MethodResult(RootFindingMethod.FIXED_POINT, iterations, root, errorMessage, false);
+                return g.result(RootFindingMethod.FIXED_POINT, iterations, root, errorMessage, false);
             }
 
-            IterationResult iteration = new IterationResult(i + 1);
-            iteration.setX_i(prevX);
-            iteration.setX_i1(xNew);
-            iteration.setG_x(xNew);
+            iterations.add(i + 1);
+            iterations.set(TraceColumn.X_I, prevX);
+            iterations.set(TraceColumn.X_I1, xNew);
+            iterations.set(TraceColumn.G_X, xNew);
 
             if (i > 0) {
-                iteration.setError(Math.abs((xNew - prevX) / xNew) * 100);
+                iterations.set(TraceColumn.ERROR, Math.abs((xNew - prevX) / xNew) * 100);
             }
 
-            iterations.add(iteration);
-
             if (Math.abs(xNew - prevX) < tolerance) {
                 root = xNew;
                 converged = true;
@@ -178,41 +660,107 @@ public class NumericalMethods {
             prevX = xNew;
         }
 
-        return new MethodResult(RootFindingMethod.FIXED_POINT, iterations, root, errorMessage, converged);
+        return g.result(RootFindingMethod.FIXED_POINT, iterations, root, errorMessage, converged);
     }
 
     public MethodResult newtonRaphson(double x0) {
-        List<IterationResult> iterations = new ArrayList<>();
+        MethodEvaluator f = evaluator();
+        IterationTrace iterations = trace(RootFindingMethod.NEWTON_RAPHSON,
+                TraceColumn.X_I, TraceColumn.X_I1, TraceColumn.F_X, TraceColumn.F_PRIME_X, TraceColumn.ERROR);
         Double root = null;
         String errorMessage = null;
         boolean converged = false;
 
-        double h = 1e-8; // For numerical differentiation
+        // f and f' come from one forward-mode pass, exact up to rounding
+        DifferentiableFunction.Evaluator derivatives = function.getDerivatives().firstOrderEvaluator();
         double xPrev = x0;
 
         for (int i = 0; i < maxIterations; i++) {
+            if (stopped(f, iterations)) {
+                return interrupted(f, RootFindingMethod.NEWTON_RAPHSON, iterations);
+            }
             try {
-                double fVal = evaluate(xPrev);
-                double fPrimeVal = (evaluate(xPrev + h) - evaluate(xPrev - h)) / (2 * h);
+                double fVal = f.evaluate(derivatives, xPrev);
+                double fPrimeVal = derivatives.first();
 
                 if (Math.abs(fPrimeVal) < 1e-15) {
                     errorMessage = "Derivative too close to zero in Newton-Raphson method.";
-                    return new MethodResult(RootFindingMethod.NEWTON_RAPHSON, iterations, root, errorMessage, false);
+                    return f.result(RootFindingMethod.NEWTON_RAPHSON, iterations, root, errorMessage, false);
                 }
 
                 double xNew = xPrev - fVal / fPrimeVal;
 
-                IterationResult iteration = new IterationResult(i + 1);
-                iteration.setX_i(xPrev);
-                iteration.setX_i1(xNew);
-                iteration.setF_x(fVal);
-                iteration.setF_prime_x(fPrimeVal);
+                iterations.add(i + 1);
+                iterations.set(TraceColumn.X_I, xPrev);
+                iterations.set(TraceColumn.X_I1, xNew);
+                iterations.set(TraceColumn.F_X, fVal);
+                iterations.set(TraceColumn.F_PRIME_X, fPrimeVal);
 
                 if (i > 0) {
-                    iteration.setError(Math.abs((xNew - xPrev) / xNew) * 100);
+                    iterations.set(TraceColumn.ERROR, Math.abs((xNew - xPrev) / xNew) * 100);
+                }
+
+                if (Math.abs(xNew - xPrev) < tolerance) {
+                    root = xNew;
+                    converged = true;
+                    break;
+                }
+
+                xPrev = xNew;
+            } catch (Exception e) {
+                errorMessage = "Error in iteration " + (i + 1) + ": " + e.getMessage();
+                return f.result(RootFindingMethod.NEWTON_RAPHSON, iterations, root, errorMessage, false);
+            }
+        }
+
+        return f.result(RootFindingMethod.NEWTON_RAPHSON, iterations, root, errorMessage, converged);
+    }
+
+    public MethodResult halley(double x0) {
+        MethodEvaluator f = evaluator();
+        IterationTrace iterations = trace(RootFindingMethod.HALLEY,
+                TraceColumn.X_I, TraceColumn.X_I1, TraceColumn.F_X, TraceColumn.F_PRIME_X,
+                TraceColumn.F_DOUBLE_PRIME_X, TraceColumn.ERROR);
+        Double root = null;
+        String errorMessage = null;
+        boolean converged = false;
+
+        DifferentiableFunction.Evaluator derivatives = function.getDerivatives().evaluator();
+        double xPrev = x0;
+
+        for (int i = 0; i < maxIterations; i++) {
+            if (stopped(f, iterations)) {
+                return interrupted(f, RootFindingMethod.HALLEY, iterations);
+            }
+            try {
+                double fVal = f.evaluate(derivatives, xPrev);
+                double fPrimeVal = derivatives.first();
+                double fDoublePrimeVal = derivatives.second();
+
+                // The step is a multiple of f', so it would stall and pass for convergence
+                if (Math.abs(fPrimeVal) < 1e-15) {
+                    errorMessage = "Derivative too close to zero in Halley's method.";
+                    return f.result(RootFindingMethod.HALLEY, iterations, root, errorMessage, false);
+                }
+
+                double denominator = 2 * fPrimeVal * fPrimeVal - fVal * fDoublePrimeVal;
+                if (Math.abs(denominator) < 1e-15) {
+                    errorMessage = "Denominator too close to zero in Halley's method.";
+                    return f.result(RootFindingMethod.HALLEY, iterations, root, errorMessage, false);
                 }
 
-                iterations.add(iteration);
+                double xNew = xPrev - 2 * fVal * fPrimeVal / denominator;
+
+                iterations.add(i + 1);
+                iterations.set(TraceColumn.X_I, xPrev);
+                iterations.set(TraceColumn.X_I1, xNew);
+                iterations.set(TraceColumn.F_X, fVal);
+                iterations.set(TraceColumn.F_PRIME_X, fPrimeVal);
+                iterations.set(TraceColumn.F_DOUBLE_PRIME_X, fDoublePrimeVal);
+
+                if (i > 0) {
+                    iterations.set(TraceColumn.ERROR, Math.abs((xNew - xPrev) / xNew) * 100);
+                }
 
                 if (Math.abs(xNew - xPrev) < tolerance) {
                     root = xNew;
@@ -223,51 +771,52 @@ public class NumericalMethods {
                 xPrev = xNew;
             } catch (Exception e) {
                 errorMessage = "Error in iteration " + (i + 1) + ": " + e.getMessage();
-                return new MethodResult(RootFindingMethod.NEWTON_RAPHSON, iterations, root, errorMessage, false);
+                return f.result(RootFindingMethod.HALLEY, iterations, root, errorMessage, false);
             }
         }
 
-        return new MethodResult(RootFindingMethod.NEWTON_RAPHSON, iterations, root, errorMessage, converged);
+        return f.result(RootFindingMethod.HALLEY, iterations, root, errorMessage, converged);
     }
 
     public MethodResult secant(double x0, double x1) {
-        List<IterationResult> iterations = new ArrayList<>();
+        MethodEvaluator f = evaluator();
+        IterationTrace iterations = trace(RootFindingMethod.SECANT,
+                TraceColumn.X_I1, TraceColumn.X_I, TraceColumn.F_X_I1, TraceColumn.F_X_I, TraceColumn.ERROR);
         Double root = null;
         String errorMessage = null;
         boolean converged = false;
 
         double xPrev2 = x0;
         double xPrev1 = x1;
+        double fPrev2 = f.evaluate(xPrev2);
+        double fPrev1 = f.evaluate(xPrev1);
 
         // First iteration
-        IterationResult firstIteration = new IterationResult(1);
-        firstIteration.setX_i1(xPrev2);
-        firstIteration.setX_i(xPrev1);
-        firstIteration.setF_x_i1(evaluate(xPrev2));
-        firstIteration.setF_x_i(evaluate(xPrev1));
-        iterations.add(firstIteration);
+        iterations.add(1);
+        iterations.set(TraceColumn.X_I1, xPrev2);
+        iterations.set(TraceColumn.X_I, xPrev1);
+        iterations.set(TraceColumn.F_X_I1, fPrev2);
+        iterations.set(TraceColumn.F_X_I, fPrev1);
 
         for (int i = 1; i < maxIterations; i++) {
+            if (stopped(f, iterations)) {
+                return interrupted(f, RootFindingMethod.SECANT, iterations);
+            }
             try {
-                double fPrev2 = evaluate(xPrev2);
-                double fPrev1 = evaluate(xPrev1);
-
                 if (Math.abs(fPrev1 - fPrev2) < 1e-15) {
                     errorMessage = "Division by zero in secant method.";
-                    return new MethodResult(RootFindingMethod.SECANT, iterations, root, errorMessage, false);
+                    return f.result(RootFindingMethod.SECANT, iterations, root, errorMessage, false);
                 }
 
                 double xNew = xPrev1 - fPrev1 * (xPrev1 - xPrev2) / (fPrev1 - fPrev2);
-                double fNew = evaluate(xNew);
-
-                IterationResult iteration = new IterationResult(i + 1);
-                iteration.setX_i1(xPrev1);
-                iteration.setX_i(xNew);
-                iteration.setF_x_i1(fPrev1);
-                iteration.setF_x_i(fNew);
-                iteration.setError(Math.abs((xNew - xPrev1) / xNew) * 100);
+                double fNew = f.evaluate(xNew);
 
-                iterations.add(iteration);
+                iterations.add(i + 1);
+                iterations.set(TraceColumn.X_I1, xPrev1);
+                iterations.set(TraceColumn.X_I, xNew);
+                iterations.set(TraceColumn.F_X_I1, fPrev1);
+                iterations.set(TraceColumn.F_X_I, fNew);
+                iterations.set(TraceColumn.ERROR, Math.abs((xNew - xPrev1) / xNew) * 100);
 
                 if (Math.abs(xNew - xPrev1) < tolerance) {
                     root = xNew;
@@ -277,12 +826,114 @@ public class NumericalMethods {
 
                 xPrev2 = xPrev1;
                 xPrev1 = xNew;
+                fPrev2 = fPrev1;
+                fPrev1 = fNew;
             } catch (Exception e) {
                 errorMessage = "Error in iteration " + (i + 1) + ": " + e.getMessage();
-                return new MethodResult(RootFindingMethod.SECANT, iterations, root, errorMessage, false);
+                return f.result(RootFindingMethod.SECANT, iterations, root, errorMessage, false);
             }
         }
 
-        return new MethodResult(RootFindingMethod.SECANT, iterations, root, errorMessage, converged);
+        return f.result(RootFindingMethod.SECANT, iterations, root, errorMessage, converged);
+    }
+
+    /**
+     * Refines a root found in double precision with a few Newton steps in double-double
+     * precision, good to about 32 digits for a simple root. Returns null if f can not be
+     * evaluated there.
+     */
+    public DoubleDouble polish(double root) {
+        return new RootPolisher(function).polish(root);
+    }
+
+    public SweepResult sweep(String variable, double[] values, RootFindingMethod method, double x0, double x1) {
+        return sweep(variable, values, method, x0, x1, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Solves f for every value of one named variable, with the other variables as configured.
+     * {@code method} is {@link RootFindingMethod#NEWTON_RAPHSON}, {@link RootFindingMethod#HALLEY}
+     * (both start at {@code x0}) or {@link RootFindingMethod#SECANT} (from {@code x0} and
+     * {@code x1}). The values are split into contiguous chunks solved in parallel on the
+     * executor; within a chunk each solve starts from the roots found for the previous values,
+     * so neighbouring values should be close for the warm start to pay off.
+     */
+    public SweepResult sweep(String variable, double[] values, RootFindingMethod method, double x0, double x1,
+                             Executor executor) {
+        return new ParameterSweep(this, tolerance, maxIterations, cancellation)
+                .sweep(variable, values, method, x0, x1, executor);
+    }
+
+    /**
+     * Samples f over [xMin, xMax] for plotting, refining where the curve needs it and returning
+     * at most about {@code maxPoints} points. Runs on a fork/join pool of its own, not the common
+     * pool; call it off the UI thread. Samples bypass the evaluation cache, which they would
+     * only flush.
+     */
+    public PlotData samplePlot(double xMin, double xMax, int maxPoints, CancellationToken cancellation) {
+        return new PlotSampler(function, cancellation).sample(xMin, xMax, maxPoints);
+    }
+
+    public MethodResult scanAll(double xMin, double xMax, int intervals) {
+        return scanAll(xMin, xMax, intervals, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Samples [xMin, xMax] at {@code intervals + 1} evenly spaced points and solves every bracket
+     * and near-tangent dip found, on the executor. The result has one trace row per distinct root,
+     * in increasing order, and {@link MethodResult#getRoots()} lists them all.
+     */
+    public MethodResult scanAll(double xMin, double xMax, int intervals, Executor executor) {
+        return new RootScanner(this, tolerance, maxIterations, cancellation).scan(xMin, xMax, intervals, executor);
+    }
+
+    /**
+     * All real and complex roots of a polynomial equation, by Aberth-Ehrlich iteration; no
+     * starting values are needed. The trace has one row per root in order of real part, multiple
+     * roots repeated; {@link MethodResult#getRoots()} lists the
+     * real roots. Equations that are not polynomials in x give an error result.
+     */
+    public MethodResult polynomialRoots() {
+        return new PolynomialRootFinder(this, tolerance, maxIterations, cancellation).solve(function.getPolynomial());
+    }
+
+    /**
+     * Encloses every root in [xMin, xMax] to within the tolerance by interval branch and bound on
+     * a fork/join pool of its own; none can be missed. The result has one trace row per enclosure
+     * [a, b], in increasing order, with its midpoint as the root and whether it provably holds
+     * exactly one; {@link MethodResult#getRoots()} lists the midpoints. No rows means f has no root there.
+     */
+    public MethodResult intervalSearch(double xMin, double xMax) {
+        return new IntervalRootFinder(this, tolerance, cancellation).search(xMin, xMax);
+    }
+
+    // A bracket with a root at one end: that end is the answer, and the trace's only row
+    private static MethodResult endpointRoot(MethodEvaluator f, RootFindingMethod method, IterationTrace iterations,
+                                             double a, double b, double fa) {
+        double root = fa == 0 ? a : b;
+        iterations.add(1);
+        iterations.set(TraceColumn.A, a);
+        iterations.set(TraceColumn.B, b);
+        iterations.set(TraceColumn.ROOT, root);
+        iterations.set(TraceColumn.F_ROOT, 0);
+        return f.result(method, iterations, root, null, true);
+    }
+
+    private MethodResult interrupted(MethodEvaluator evaluator, RootFindingMethod method, IterationTrace iterations) {
+        StopReason reason;
+        String message;
+        if (iterations.isStopRequested()) {
+            reason = StopReason.LISTENER;
+            message = "Stopped by the iteration listener.";
+        } else if (cancellation.isCancelled()) {
+            reason = StopReason.CANCELLED;
+            message = "Calculation cancelled.";
+        } else {
+            reason = evaluator.exhaustedLimit();
+            message = reason == StopReason.TIME_LIMIT ? "Time limit reached." : "Evaluation limit reached.";
+        }
+        MethodResult result = evaluator.result(method, iterations, null, message, false);
+        result.setStopReason(reason);
+        return result;
     }
-}
\ No newline at end of file
+}
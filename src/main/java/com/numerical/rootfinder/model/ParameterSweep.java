@@ -0,0 +1,130 @@
+package com.numerical.rootfinder.model;
+
+import com.numerical.rootfinder.model.expression.CompiledFunction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Solves f for each value of one named variable for {@link NumericalMethods#sweep}. The values
+ * are cut into contiguous chunks, one task each, and every task works on its own copy of the
+ * compiled function, so the expression is parsed once and no state is shared between threads.
+ * Inside a chunk the solves run in order and each starts from a linear extrapolation of the
+ * last two roots, which typically saves most of the iterations of a cold start.
+ */
+final class ParameterSweep {
+
+    // Smallest chunk worth a task of its own
+    private static final int MIN_CHUNK = 64;
+
+    private final NumericalMethods solver;
+    private final double tolerance;
+    private final int maxIterations;
+    private final CancellationToken cancellation;
+
+    ParameterSweep(NumericalMethods solver, double tolerance, int maxIterations, CancellationToken cancellation) {
+        this.solver = solver;
+        this.tolerance = tolerance;
+        this.maxIterations = maxIterations;
+        this.cancellation = cancellation;
+    }
+
+    SweepResult sweep(String variable, double[] values, RootFindingMethod method, double x0, double x1,
+                      Executor executor) {
+        if (method != RootFindingMethod.NEWTON_RAPHSON && method != RootFindingMethod.SECANT
+                && method != RootFindingMethod.HALLEY) {
+            throw new IllegalArgumentException("A sweep supports Newton-Raphson, secant and Halley's method, not " + method);
+        }
+        int index = solver.getFunction().parameterIndex(variable);
+        if (index < 0) {
+            throw new IllegalArgumentException("The equation has no variable named '" + variable + "'");
+        }
+
+        int n = values.length;
+        double[] roots = new double[n];
+        boolean[] converged = new boolean[n];
+        int[] iterations = new int[n];
+        Arrays.fill(roots, Double.NaN);
+
+        int parallelism = executor instanceof ForkJoinPool
+                ? ((ForkJoinPool) executor).getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        int chunk = Math.max(MIN_CHUNK, (n + parallelism - 1) / Math.max(1, parallelism));
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int from = 0; from < n; from += chunk) {
+            int lo = from;
+            int hi = Math.min(n, from + chunk);
+            futures.add(CompletableFuture.runAsync(() -> solveChunk(index, values, lo, hi, method, x0, x1,
+                    roots, converged, iterations), executor));
+        }
+        for (CompletableFuture<Void> future : futures) {
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+        return new SweepResult(values, roots, converged, iterations);
+    }
+
+    private void solveChunk(int index, double[] values, int lo, int hi, RootFindingMethod method,
+                            double x0, double x1, double[] roots, boolean[] converged, int[] iterations) {
+        CompiledFunction function = solver.getFunction().copy();
+        NumericalMethods local = new NumericalMethods(function, tolerance, maxIterations, cancellation);
+
+        // The last two converged (value, root) pairs, for the predictor
+        double p0 = Double.NaN;
+        double r0 = Double.NaN;
+        double p1 = Double.NaN;
+        double r1 = Double.NaN;
+
+        for (int i = lo; i < hi; i++) {
+            if (cancellation.isCancelled()) {
+                return;
+            }
+            double p = values[i];
+            function.setParameter(index, p);
+
+            double start = x0;
+            double second = x1;
+            if (!Double.isNaN(r1)) {
+                start = r1;
+                if (!Double.isNaN(r0) && p1 != p0) {
+                    double predicted = r1 + (r1 - r0) * (p - p1) / (p1 - p0);
+                    if (Double.isFinite(predicted)) {
+                        start = predicted;
+                    }
+                }
+                // The secant needs a second point near the first; the previous root is the natural one
+                double step = Math.max(Math.abs(start), 1.0) * 1e-4;
+                second = Math.abs(r1 - start) > step * 1e-4 ? r1 : start + step;
+            }
+
+            MethodResult result;
+            switch (method) {
+                case NEWTON_RAPHSON: result = local.newtonRaphson(start); break;
+                case HALLEY: result = local.halley(start); break;
+                default: result = local.secant(start, second); break;
+            }
+
+            iterations[i] = (int) result.getTrace().getIterationCount();
+            if (result.isConverged() && result.getRoot() != null) {
+                roots[i] = result.getRoot();
+                converged[i] = true;
+                p0 = p1;
+                r0 = r1;
+                p1 = p;
+                r1 = roots[i];
+            }
+        }
+    }
+}
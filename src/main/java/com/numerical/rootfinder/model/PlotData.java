@@ -0,0 +1,62 @@
+package com.numerical.rootfinder.model;
+
+/**
+ * Points of f(x) ready to draw, from {@link NumericalMethods#samplePlot}. A NaN y marks a break
+ * in the curve: f is undefined there or the curve jumps across a pole, so the points on either
+ * side must not be joined.
+ */
+public class PlotData {
+    private final double[] xs;
+    private final double[] ys;
+    private final int size;
+    private final double yLow;
+    private final double yHigh;
+    private final int evaluations;
+
+    PlotData(double[] xs, double[] ys, int size, double yLow, double yHigh, int evaluations) {
+        this.xs = xs;
+        this.ys = ys;
+        this.size = size;
+        this.yLow = yLow;
+        this.yHigh = yHigh;
+        this.evaluations = evaluations;
+    }
+
+    /**
+     * Thins the first {@code size} points of a line, such as an iteration path, to about
+     * {@code maxPoints} with the Largest-Triangle-Three-Buckets pass the sampler ends with. A NaN y
+     * breaks the line.
+     */
+    public static PlotData thin(double[] xs, double[] ys, int size, int maxPoints) {
+        PlotSampler.Points points = new PlotSampler.Points();
+        points.xs = xs;
+        points.ys = ys;
+        points.size = size;
+        PlotSampler.Points shown = PlotSampler.decimate(points, maxPoints);
+        double low = Double.POSITIVE_INFINITY;
+        double high = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < shown.size; i++) {
+            if (!Double.isNaN(shown.ys[i])) {
+                low = Math.min(low, shown.ys[i]);
+                high = Math.max(high, shown.ys[i]);
+            }
+        }
+        return new PlotData(shown.xs, shown.ys, shown.size, low, high, size);
+    }
+
+    public int size() { return size; }
+
+    public double getX(int i) { return xs[i]; }
+
+    public double getY(int i) { return ys[i]; }
+
+    /** True if point i starts a new piece of the curve; NaN points are never drawn. */
+    public boolean isBreak(int i) { return Double.isNaN(ys[i]); }
+
+    // A y range that shows the body of the curve and clips the spikes near poles
+    public double getYLow() { return yLow; }
+    public double getYHigh() { return yHigh; }
+
+    /** How many times f was evaluated, before decimation. */
+    public int getEvaluations() { return evaluations; }
+}
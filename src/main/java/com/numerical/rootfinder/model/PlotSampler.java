@@ -0,0 +1,313 @@
+package com.numerical.rootfinder.model;
+
+import com.numerical.rootfinder.model.expression.CompiledFunction;
+
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Samples f(x) for plotting. A coarse uniform grid is evaluated first; every grid interval is
+ * then bisected where the curve bends away from a straight line by more than a fraction of its
+ * height, changes sign or runs into an undefined region, so roots, peaks and asymptotes get
+ * dense detail while straight stretches cost two points. Both passes run in parallel chunks on
+ * the {@link ComputePool}. Refinement stops after {@link #REFINE_PER_POINT} evaluations per point
+ * asked for, wherever they were spent, and both passes give up once the sampling is cancelled.
+ * The result is decimated with Largest-Triangle-Three-Buckets to about the number of points the
+ * chart can show.
+ */
+final class PlotSampler {
+
+    private static final int GRID = 512;
+    // Grid intervals refined by one fork/join leaf
+    private static final int CHUNK = 32;
+    // Each grid interval is halved at most this often, i.e. down to 1/1024 of its width
+    private static final int MAX_DEPTH = 10;
+    // Refinement evaluations allowed per requested point; without a cap a curve that wiggles
+    // everywhere costs GRID * 2^MAX_DEPTH, about half a million evaluations
+    static final int REFINE_PER_POINT = 16;
+    // Largest allowed gap between the curve and its chord, as a share of the visible y range
+    private static final double FLATNESS = 1e-3;
+
+    private final CompiledFunction function;
+    private final CancellationToken cancellation;
+
+    PlotSampler(CompiledFunction function, CancellationToken cancellation) {
+        this.function = function;
+        this.cancellation = cancellation;
+    }
+
+    PlotData sample(double xMin, double xMax, int maxPoints) {
+        if (!(xMin < xMax) || maxPoints < 3) {
+            throw new IllegalArgumentException("The plot needs x min < x max and at least 3 points");
+        }
+        double[] xs = new double[GRID + 1];
+        double[] fs = new double[GRID + 1];
+        double step = (xMax - xMin) / GRID;
+        for (int i = 0; i <= GRID; i++) {
+            xs[i] = i == GRID ? xMax : xMin + i * step;
+        }
+        ComputePool.get().invoke(new GridTask(xs, fs, 0, xs.length));
+        if (cancellation.isCancelled()) {
+            // Nobody will draw it
+            return new PlotData(new double[0], new double[0], 0, -1, 1, xs.length);
+        }
+
+        double[] range = visibleRange(fs);
+        double flatness = (range[1] - range[0]) * FLATNESS;
+        AtomicInteger budget = new AtomicInteger((int) Math.min(Integer.MAX_VALUE, (long) REFINE_PER_POINT * maxPoints));
+
+        Points[] chunks = new Points[(GRID + CHUNK - 1) / CHUNK];
+        ComputePool.get().invoke(new RefineTask(xs, fs, flatness, budget, chunks, 0, chunks.length));
+        Points all = new Points();
+        int evaluations = xs.length;
+        for (Points chunk : chunks) {
+            if (chunk != null) {
+                all.addAll(chunk);
+                evaluations += chunk.evaluations;
+            }
+        }
+        all.add(xMax, fs[GRID]);
+
+        Points shown = decimate(all, maxPoints);
+        return new PlotData(shown.xs, shown.ys, shown.size, range[0], range[1], evaluations);
+    }
+
+    private double evaluate(double x) {
+        try {
+            double y = function.applyAsDouble(x);
+            return Double.isFinite(y) ? y : Double.NaN;
+        } catch (RuntimeException e) {
+            return Double.NaN;
+        }
+    }
+
+    // The 2nd to 98th percentile of the grid values, padded by 10%, so a pole does not flatten the rest
+    private static double[] visibleRange(double[] fs) {
+        double[] finite = Arrays.stream(fs).filter(Double::isFinite).sorted().toArray();
+        if (finite.length == 0) {
+            return new double[] {-1, 1};
+        }
+        double low = finite[(int) (0.02 * (finite.length - 1))];
+        double high = finite[(int) Math.ceil(0.98 * (finite.length - 1))];
+        double pad = (high - low) * 0.1;
+        if (pad == 0) {
+            pad = Math.max(1, Math.abs(low));
+        }
+        return new double[] {low - pad, high + pad};
+    }
+
+    // Adds the points strictly inside (a, b) that the curve needs there, while the budget lasts
+    private void refine(double a, double fa, double b, double fb, double flatness, int depth,
+                        AtomicInteger budget, Points out) {
+        if (budget.getAndDecrement() <= 0) {
+            return;
+        }
+        double m = (a + b) / 2;
+        double fm = evaluate(m);
+        out.evaluations++;
+
+        boolean aDefined = !Double.isNaN(fa);
+        boolean bDefined = !Double.isNaN(fb);
+        boolean mDefined = !Double.isNaN(fm);
+        boolean refine;
+        if (!aDefined && !bDefined) {
+            refine = mDefined;
+        } else if (aDefined != bDefined || !mDefined) {
+            refine = true;
+        } else {
+            refine = fa * fb < 0 || Math.abs(fm - (fa + fb) / 2) > flatness;
+        }
+
+        if (!refine || depth >= MAX_DEPTH) {
+            double jump = Math.abs(fb - fa);
+            if (aDefined && bDefined && mDefined && depth >= MAX_DEPTH && jump * FLATNESS > flatness
+                    && Math.max(Math.abs(fm - fa), Math.abs(fb - fm)) > 0.9 * jump) {
+                // Jumps by more than the visible range in the finest step, nearly all of it in one
+                // half: a pole or a discontinuity, where a steep but smooth curve would split evenly
+                out.add(m, Double.NaN);
+            } else {
+                out.add(m, fm);
+            }
+            return;
+        }
+        refine(a, fa, m, fm, flatness, depth + 1, budget, out);
+        out.add(m, fm);
+        refine(m, fm, b, fb, flatness, depth + 1, budget, out);
+    }
+
+    // Largest-Triangle-Three-Buckets, run on each unbroken piece of the curve in proportion to its
+    // size; runs of undefined points collapse into one break
+    static Points decimate(Points in, int maxPoints) {
+        int defined = 0;
+        for (int i = 0; i < in.size; i++) {
+            if (!Double.isNaN(in.ys[i])) {
+                defined++;
+            }
+        }
+        Points out = new Points();
+        int i = 0;
+        while (i < in.size) {
+            if (Double.isNaN(in.ys[i])) {
+                if (out.size > 0 && !Double.isNaN(out.ys[out.size - 1])) {
+                    out.add(in.xs[i], Double.NaN);
+                }
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < in.size && !Double.isNaN(in.ys[i])) {
+                i++;
+            }
+            int length = i - start;
+            int budget = Math.max(2, (int) ((long) maxPoints * length / defined));
+            lttb(in, start, length, budget, out);
+        }
+        return out;
+    }
+
+    private static void lttb(Points in, int start, int length, int budget, Points out) {
+        if (length <= budget) {
+            for (int i = start; i < start + length; i++) {
+                out.add(in.xs[i], in.ys[i]);
+            }
+            return;
+        }
+        double[] x = in.xs;
+        double[] y = in.ys;
+        int last = start + length - 1;
+        out.add(x[start], y[start]);
+        // The first and last points are kept; the rest fall into budget - 2 buckets
+        double bucket = (double) (length - 2) / (budget - 2);
+        int selected = start;
+        for (int b = 0; b < budget - 2; b++) {
+            int from = start + 1 + (int) (b * bucket);
+            int to = start + 1 + (int) ((b + 1) * bucket);
+            // The next bucket's centroid stands in for the point still to be chosen
+            int nextFrom = to;
+            int nextTo = Math.min(last + 1, start + 1 + (int) ((b + 2) * bucket));
+            double cx = 0;
+            double cy = 0;
+            if (nextFrom >= nextTo) {
+                cx = x[last];
+                cy = y[last];
+            } else {
+                for (int j = nextFrom; j < nextTo; j++) {
+                    cx += x[j];
+                    cy += y[j];
+                }
+                cx /= nextTo - nextFrom;
+                cy /= nextTo - nextFrom;
+            }
+            double ax = x[selected];
+            double ay = y[selected];
+            double bestArea = -1;
+            int best = from;
+            for (int j = from; j < to; j++) {
+                double area = Math.abs((ax - cx) * (y[j] - ay) - (ax - x[j]) * (cy - ay));
+                if (area > bestArea) {
+                    bestArea = area;
+                    best = j;
+                }
+            }
+            out.add(x[best], y[best]);
+            selected = best;
+        }
+        out.add(x[last], y[last]);
+    }
+
+    // A growable list of (x, y) pairs in two primitive arrays
+    static final class Points {
+        double[] xs = new double[256];
+        double[] ys = new double[256];
+        int size;
+        int evaluations;
+
+        void add(double x, double y) {
+            if (size == xs.length) {
+                xs = Arrays.copyOf(xs, size * 2);
+                ys = Arrays.copyOf(ys, size * 2);
+            }
+            xs[size] = x;
+            ys[size] = y;
+            size++;
+        }
+
+        void addAll(Points other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.xs[i], other.ys[i]);
+            }
+        }
+    }
+
+    private final class GridTask extends RecursiveAction {
+        private final double[] xs;
+        private final double[] fs;
+        private final int from;
+        private final int to;
+
+        GridTask(double[] xs, double[] fs, int from, int to) {
+            this.xs = xs;
+            this.fs = fs;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > CHUNK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new GridTask(xs, fs, from, mid), new GridTask(xs, fs, mid, to));
+                return;
+            }
+            if (cancellation.isCancelled()) {
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                fs[i] = evaluate(xs[i]);
+            }
+        }
+    }
+
+    // Refines grid chunks [from, to), each into its own slot of out, so the pieces join in order
+    private final class RefineTask extends RecursiveAction {
+        private final double[] xs;
+        private final double[] fs;
+        private final double flatness;
+        // Refinement evaluations left for the whole sampling
+        private final AtomicInteger budget;
+        private final Points[] out;
+        private final int from;
+        private final int to;
+
+        RefineTask(double[] xs, double[] fs, double flatness, AtomicInteger budget, Points[] out, int from, int to) {
+            this.xs = xs;
+            this.fs = fs;
+            this.flatness = flatness;
+            this.budget = budget;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new RefineTask(xs, fs, flatness, budget, out, from, mid),
+                        new RefineTask(xs, fs, flatness, budget, out, mid, to));
+                return;
+            }
+            if (cancellation.isCancelled()) {
+                return;
+            }
+            Points points = new Points();
+            int end = Math.min(GRID, (from + 1) * CHUNK);
+            for (int i = from * CHUNK; i < end && !cancellation.isCancelled(); i++) {
+                points.add(xs[i], fs[i]);
+                refine(xs[i], fs[i], xs[i + 1], fs[i + 1], flatness, 0, budget, points);
+            }
+            out[from] = points;
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.numerical.rootfinder.model;
+
+import com.numerical.rootfinder.model.expression.Polynomial;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Finds all real and complex roots of a polynomial at once for
+ * {@link RootFindingMethod#POLYNOMIAL_ROOTS}, by Aberth-Ehrlich iteration. Every root estimate
+ * takes a Newton step corrected by the repulsion of the other estimates, so they converge to
+ * different roots (cubically for simple ones) without deflation. The updates of one sweep only
+ * read the previous sweep's estimates, so for high degrees they run in parallel chunks.
+ * <p>
+ * An estimate stops moving once its step is below the tolerance or |p| is below the rounding
+ * error of evaluating p there, which is as close as doubles can tell. Roots at 0 are split off
+ * first and reported exactly.
+ */
+final class PolynomialRootFinder {
+
+    // Degree from which a sweep is split over the compute pool, and roots per fork/join leaf
+    private static final int PARALLEL_DEGREE = 64;
+    private static final int CHUNK = 32;
+
+    private final NumericalMethods solver;
+    private final double tolerance;
+    private final int maxIterations;
+    private final CancellationToken cancellation;
+
+    PolynomialRootFinder(NumericalMethods solver, double tolerance, int maxIterations, CancellationToken cancellation) {
+        this.solver = solver;
+        this.tolerance = tolerance;
+        this.maxIterations = maxIterations;
+        this.cancellation = cancellation;
+    }
+
+    MethodResult solve(Polynomial polynomial) {
+        MethodEvaluator f = solver.evaluator();
+        IterationTrace roots = new IterationTrace(TraceRetention.all(),
+                TraceColumn.ROOT, TraceColumn.IMAGINARY, TraceColumn.F_ROOT, TraceColumn.ERROR);
+        if (polynomial == null) {
+            return f.result(RootFindingMethod.POLYNOMIAL_ROOTS, roots, null, "Equation is not a polynomial in x.", false);
+        }
+        int degree = polynomial.getDegree();
+        if (degree == 0) {
+            return f.result(RootFindingMethod.POLYNOMIAL_ROOTS, roots, null,
+                    polynomial.getCoefficient(0) == 0 ? "Every x is a root." : "A nonzero constant has no roots.", false);
+        }
+
+        int zeros = 0;
+        while (polynomial.getCoefficient(zeros) == 0) {
+            zeros++;
+        }
+        Polynomial reduced = Polynomial.of(Arrays.copyOfRange(polynomial.getCoefficients(), zeros, degree + 1));
+        Iteration iteration = new Iteration(reduced);
+        boolean settled = iteration.size() == 0 || iteration.run(f);
+        if (iteration.stopReason != null) {
+            MethodResult result = f.result(RootFindingMethod.POLYNOMIAL_ROOTS, roots, null,
+                    iteration.stopReason == StopReason.CANCELLED ? "Calculation cancelled."
+                            : iteration.stopReason == StopReason.TIME_LIMIT ? "Time limit reached." : "Evaluation limit reached.",
+                    false);
+            result.setStopReason(iteration.stopReason);
+            return result;
+        }
+        String errorMessage = settled ? null : "Not all roots converged within the iteration limit.";
+
+        List<Root> found = new ArrayList<>();
+        for (int i = 0; i < zeros; i++) {
+            found.add(new Root(0, 0, 0, 0, true));
+        }
+        for (int k = 0; k < iteration.size(); k++) {
+            found.add(iteration.root(k));
+        }
+        found.sort(Comparator.comparingDouble((Root r) -> r.re).thenComparingDouble(r -> r.im));
+
+        List<Double> real = new ArrayList<>();
+        for (Root root : found) {
+            roots.add(roots.size() + 1);
+            roots.set(TraceColumn.ROOT, root.re);
+            roots.set(TraceColumn.IMAGINARY, root.real ? 0 : root.im);
+            roots.set(TraceColumn.F_ROOT, root.residual);
+            roots.set(TraceColumn.ERROR, root.step);
+            if (root.real) {
+                real.add(root.re);
+            }
+        }
+        MethodResult result = f.result(RootFindingMethod.POLYNOMIAL_ROOTS, roots,
+                real.isEmpty() ? null : real.get(0), errorMessage, errorMessage == null);
+        result.setRoots(Collections.unmodifiableList(real));
+        return result;
+    }
+
+    /*
+     * The estimates of the nonzero roots. Sweeps alternate between two buffers: every update
+     * reads only the current estimates and writes the next ones, and an estimate that has
+     * settled is copied across unchanged.
+     */
+    private final class Iteration {
+        private final Polynomial p;
+        private final double[] a;
+        private final int n;
+        private double[] re;
+        private double[] im;
+        private double[] nextRe;
+        private double[] nextIm;
+        private final double[] step;
+        private final boolean[] done;
+        private StopReason stopReason;
+
+        Iteration(Polynomial p) {
+            this.p = p;
+            this.a = p.getCoefficients();
+            this.n = p.getDegree();
+            this.re = new double[n];
+            this.im = new double[n];
+            this.nextRe = new double[n];
+            this.nextIm = new double[n];
+            this.step = new double[n];
+            this.done = new boolean[n];
+            // On a circle whose radius is the geometric mean of the root moduli; the offset keeps
+            // the estimates off the real axis, where conjugate pairs could not separate
+            double radius = Math.pow(Math.abs(a[0] / a[n]), 1.0 / n);
+            if (!(radius > 0 && Double.isFinite(radius))) {
+                radius = 1;
+            }
+            for (int k = 0; k < n; k++) {
+                double angle = 2 * Math.PI * k / n + 0.4;
+                re[k] = radius * Math.cos(angle);
+                im[k] = radius * Math.sin(angle);
+            }
+        }
+
+        int size() {
+            return n;
+        }
+
+        // True when every root has settled; false at the iteration limit or, with stopReason set, when stopped
+        boolean run(MethodEvaluator f) {
+            if (n == 1) {
+                re[0] = -a[0] / a[1];
+                im[0] = 0;
+                return true;
+            }
+            for (int sweep = 0; sweep < maxIterations; sweep++) {
+                stopReason = cancellation.isCancelled() ? StopReason.CANCELLED : f.exhaustedLimit();
+                if (stopReason != null) {
+                    return false;
+                }
+                if (n >= PARALLEL_DEGREE) {
+                    ComputePool.get().invoke(new SweepTask(0, n));
+                } else {
+                    update(0, n);
+                }
+                double[] t = re;
+                re = nextRe;
+                nextRe = t;
+                t = im;
+                im = nextIm;
+                nextIm = t;
+                boolean settled = true;
+                for (boolean d : done) {
+                    settled &= d;
+                }
+                if (settled) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // One Aberth step for the estimates in [from, to)
+        void update(int from, int to) {
+            for (int k = from; k < to; k++) {
+                double zr = re[k];
+                double zi = im[k];
+                if (done[k]) {
+                    nextRe[k] = zr;
+                    nextIm[k] = zi;
+                    continue;
+                }
+                // p and p' at z by complex Horner
+                double pr = a[n];
+                double pi = 0;
+                double dr = 0;
+                double di = 0;
+                for (int j = n - 1; j >= 0; j--) {
+                    double t = dr * zr - di * zi + pr;
+                    di = dr * zi + di * zr + pi;
+                    dr = t;
+                    t = pr * zr - pi * zi + a[j];
+                    pi = pr * zi + pi * zr;
+                    pr = t;
+                }
+                double modulus = Math.hypot(zr, zi);
+                if (Math.hypot(pr, pi) <= 2 * p.errorBound(modulus)) {
+                    done[k] = true;
+                    step[k] = 0;
+                    nextRe[k] = zr;
+                    nextIm[k] = zi;
+                    continue;
+                }
+                // Newton ratio p/p'
+                double dd = dr * dr + di * di;
+                double nr = (pr * dr + pi * di) / dd;
+                double ni = (pi * dr - pr * di) / dd;
+                // Sum of 1/(z_k - z_j) over the other estimates
+                double sr = 0;
+                double si = 0;
+                for (int j = 0; j < n; j++) {
+                    if (j == k) {
+                        continue;
+                    }
+                    double xr = zr - re[j];
+                    double xi = zi - im[j];
+                    double xx = xr * xr + xi * xi;
+                    sr += xr / xx;
+                    si -= xi / xx;
+                }
+                // w = ratio / (1 - ratio * sum)
+                double qr = 1 - (nr * sr - ni * si);
+                double qi = -(nr * si + ni * sr);
+                double qq = qr * qr + qi * qi;
+                double wr = (nr * qr + ni * qi) / qq;
+                double wi = (ni * qr - nr * qi) / qq;
+                if (!Double.isFinite(wr) || !Double.isFinite(wi)) {
+                    // p' vanished or two estimates met; a plain Newton step still makes progress
+                    wr = Double.isFinite(nr) ? nr : tolerance;
+                    wi = Double.isFinite(ni) ? ni : tolerance;
+                }
+                nextRe[k] = zr - wr;
+                nextIm[k] = zi - wi;
+                step[k] = Math.hypot(wr, wi);
+                if (step[k] <= tolerance * (1 + modulus)) {
+                    done[k] = true;
+                }
+            }
+        }
+
+        Root root(int k) {
+            double r = re[k];
+            double i = im[k];
+            // A complex estimate this close to the axis is a real root that rounding kept off it
+            double onAxis = Math.abs(p.evaluate(r));
+            boolean real = Math.abs(i) <= tolerance * (1 + Math.abs(r)) || onAxis <= 2 * p.errorBound(Math.abs(r));
+            return new Root(r, i, real ? onAxis : modulusAt(r, i), step[k], real);
+        }
+
+        // |p(z)| at a complex point
+        private double modulusAt(double zr, double zi) {
+            double pr = a[n];
+            double pi = 0;
+            for (int j = n - 1; j >= 0; j--) {
+                double t = pr * zr - pi * zi + a[j];
+                pi = pr * zi + pi * zr;
+                pr = t;
+            }
+            return Math.hypot(pr, pi);
+        }
+
+        private final class SweepTask extends RecursiveAction {
+            private final int from;
+            private final int to;
+
+            SweepTask(int from, int to) {
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected void compute() {
+                if (to - from > CHUNK) {
+                    int mid = (from + to) >>> 1;
+                    invokeAll(new SweepTask(from, mid), new SweepTask(mid, to));
+                    return;
+                }
+                update(from, to);
+            }
+        }
+    }
+
+    private static final class Root {
+        final double re;
+        final double im;
+        final double residual;
+        final double step;
+        final boolean real;
+
+        Root(double re, double im, double residual, double step, boolean real) {
+            this.re = re;
+            this.im = im;
+            this.residual = residual;
+            this.step = step;
+            this.real = real;
+        }
+    }
+}
@@ -0,0 +1,612 @@
+package com.numerical.rootfinder.model;
+
+import com.numerical.rootfinder.model.expression.ExpressionCache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Finished {@link MethodResult}s keyed by everything that determines them (see {@link #key}), so
+ * a solve that was run before is answered without solving. Results live in two tiers: an
+ * in-memory map with least recently used eviction beyond a budget of heap bytes, and optionally
+ * a directory holding an append-only log of results plus an index of where each one starts,
+ * which survives restarts. A result found on disk, or once written there, is kept in memory with
+ * its trace mapped from the log, as {@link SessionFile} maps the traces of a session, so it
+ * costs the memory tier almost nothing.
+ * <p>
+ * The log is kept under a size in bytes. When an append would pass it, the least recently used
+ * results are dropped and the rest are copied into the log and index of a new generation. Files
+ * of older generations are deleted once nothing maps them any more; where the platform refuses
+ * to delete a mapped file, the deletion is retried at the next compaction or opening. The index
+ * is only trusted as far as the log agrees and every record is checked before it is used, so a
+ * crash loses at most the results being written at the time. Appends are not forced to disk;
+ * compactions and {@link #close()} are.
+ * <p>
+ * One cache at a time owns a directory: it holds an exclusive lock on a lock file there until
+ * it is closed. A cache that finds the directory owned, by another process or another cache in
+ * this one, keeps its results in memory only rather than truncate or compact files the owner
+ * is writing and mapping.
+ * <p>
+ * Only results that any later solve with the same key would reproduce are stored: those that
+ * converged, ran out of iterations or failed. A method stopped by a time or evaluation limit,
+ * by cancellation or by its listener is not cached. Thread-safe; disk I/O happens under a lock
+ * of its own, so a lookup answered from memory never waits for a write.
+ */
+public final class ResultCache implements Closeable {
+
+    // results-<generation>.log and .idx
+    private static final String LOCK_FILE = "results.lock";
+    private static final Pattern GENERATION = Pattern.compile("results-(\\d+)\\.(log|idx)(\\.tmp)?");
+    // "RFCR", at the start of every log record
+    private static final int RECORD_MAGIC = 0x52464352;
+    private static final int RECORD_PREAMBLE = 2 * Integer.BYTES;
+    private static final int WRITE_BUFFER = 1 << 16;
+    // Longer keys are kept in memory only; the log stores keys as modified UTF-8, at most 64 KiB
+    private static final int MAX_DISK_KEY = 1 << 14;
+    // Rough heap cost of a result apart from its trace rows and roots
+    private static final long ENTRY_BYTES = 1024;
+
+    private final long memoryBytes;
+    private final Map<String, MethodResult> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryUsed;
+
+    private final Path directory;
+    private final long diskBytes;
+    // Guards every field below, and all file access
+    private final Object diskLock = new Object();
+    // Where each result's record lies in the log, {offset, length}, least recently used first
+    private final Map<String, long[]> disk = new LinkedHashMap<>(16, 0.75f, true);
+    private final ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER);
+    // Holds the directory's lock from opening to close(); null when another cache owns the directory
+    private FileChannel lockChannel;
+    private long generation;
+    private FileChannel log;
+    private FileChannel index;
+    private long logEnd;
+    private volatile boolean persistent;
+
+    private long memoryHits;
+    private long diskHits;
+    private long misses;
+    private long evictions;
+
+    /** A cache kept in memory only, holding about {@code memoryBytes} of results. */
+    public ResultCache(long memoryBytes) {
+        this.memoryBytes = checkSize(memoryBytes);
+        this.directory = null;
+        this.diskBytes = 0;
+    }
+
+    /**
+     * A cache that also keeps up to {@code diskBytes} of results in {@code directory}, creating it
+     * if needed. If another cache owns the directory this one is memory-only; see
+     * {@link #isPersistent()}.
+     */
+    public ResultCache(long memoryBytes, Path directory, long diskBytes) throws IOException {
+        this.memoryBytes = checkSize(memoryBytes);
+        this.directory = directory;
+        this.diskBytes = checkSize(diskBytes);
+        Files.createDirectories(directory);
+        synchronized (diskLock) {
+            if (!lockDirectory()) {
+                return;
+            }
+            try {
+                openDisk(latestGeneration());
+            } catch (IOException e) {
+                closeDisk();
+                unlockDirectory();
+                throw e;
+            }
+            deleteOldGenerations();
+        }
+    }
+
+    /**
+     * The key for one method's result: the equation as parsed, which ignores spacing and
+     * redundant parentheses, the method and its starting values, the tolerance and iteration
+     * limit, and the options that change what a result holds. Null if the equation does not parse.
+     */
+    public static String key(String equation, RootFindingMethod method, MethodParameters parameters,
+                             double tolerance, int maxIterations, SolverOptions options) {
+        String[] names = options.getVariables().keySet().toArray(new String[0]);
+        String canonical = canonical(equation, names);
+        if (canonical == null) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder(canonical.length() + 128);
+        key.append(canonical);
+        // Sorted, so the order the variables were given in does not matter
+        for (Map.Entry<String, Double> variable : new TreeMap<>(options.getVariables()).entrySet()) {
+            key.append('|').append(variable.getKey()).append('=').append(variable.getValue());
+        }
+        key.append('|').append(method.name()).append('|');
+        switch (method) {
+            case BISECTION:
+                key.append(parameters.getBisectionA()).append(',').append(parameters.getBisectionB());
+                break;
+            case FALSE_POSITION:
+                key.append(parameters.getFalsePositionA()).append(',').append(parameters.getFalsePositionB());
+                break;
+            case FIXED_POINT:
+                String g = canonical(parameters.getFixedPointG(), names);
+                key.append(parameters.getFixedPointX0()).append(',')
+                        .append(g != null ? g : parameters.getFixedPointG());
+                break;
+            case NEWTON_RAPHSON:
+                key.append(parameters.getNewtonX0());
+                break;
+            case SECANT:
+                key.append(parameters.getSecantX0()).append(',').append(parameters.getSecantX1());
+                break;
+            case HALLEY:
+                key.append(parameters.getHalleyX0());
+                break;
+            case BRENT:
+                key.append(parameters.getBrentA()).append(',').append(parameters.getBrentB());
+                break;
+            case ILLINOIS:
+                key.append(parameters.getIllinoisA()).append(',').append(parameters.getIllinoisB());
+                break;
+            case RIDDERS:
+                key.append(parameters.getRiddersA()).append(',').append(parameters.getRiddersB());
+                break;
+            case SCAN_ALL:
+                key.append(parameters.getScanMin()).append(',').append(parameters.getScanMax())
+                        .append(',').append(parameters.getScanIntervals());
+                break;
+            case INTERVAL_SEARCH:
+                key.append(parameters.getScanMin()).append(',').append(parameters.getScanMax());
+                break;
+            case POLYNOMIAL_ROOTS:
+                break;
+            default:
+                throw new IllegalArgumentException("No single result for " + method.getDisplayName());
+        }
+        key.append('|').append(tolerance).append('|').append(maxIterations)
+                .append('|').append(options.getRetention())
+                .append('|').append(options.isPolishRoots())
+                .append('|').append(options.isRecordIterationTimes());
+        return key.toString();
+    }
+
+    /** The cached result for the key, or null; a null key is always a miss. */
+    public MethodResult get(String key) {
+        if (key == null) {
+            synchronized (this) {
+                misses++;
+            }
+            return null;
+        }
+        synchronized (this) {
+            MethodResult result = memory.get(key);
+            if (result != null) {
+                memoryHits++;
+                return result;
+            }
+        }
+        MethodResult result = null;
+        synchronized (diskLock) {
+            long[] record = log == null ? null : disk.get(key);
+            if (record != null) {
+                try {
+                    result = read(key, record[0], record[1]);
+                } catch (IOException e) {
+                    result = null;
+                }
+                if (result == null) {
+                    // Damaged, or lost to a crash before it reached the disk
+                    disk.remove(key);
+                }
+            }
+        }
+        synchronized (this) {
+            if (result == null) {
+                misses++;
+            } else {
+                diskHits++;
+                remember(key, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Stores a result if it is one a solve would reproduce; see the class description. Writes
+     * the whole trace to the log, so callers that should not wait for that call it off the UI thread.
+     */
+    public void put(String key, MethodResult result) {
+        if (key == null || !isReproducible(result.getStopReason())) {
+            return;
+        }
+        synchronized (this) {
+            remember(key, result);
+        }
+        if (key.length() > MAX_DISK_KEY) {
+            return;
+        }
+        MethodResult mapped = null;
+        synchronized (diskLock) {
+            if (log == null || disk.containsKey(key)) {
+                return;
+            }
+            try {
+                long[] record = append(key, result);
+                if (record != null) {
+                    mapped = read(key, record[0], record[1]);
+                }
+            } catch (IOException e) {
+                // The memory tier carries on alone
+                closeDisk();
+            }
+        }
+        if (mapped != null) {
+            synchronized (this) {
+                // Swap the heap trace for the mapped one, unless the entry has gone or changed meanwhile
+                if (memory.get(key) == result) {
+                    remember(key, mapped);
+                }
+            }
+        }
+    }
+
+    /** Drops every result from both tiers; the statistics are kept. */
+    public void clear() throws IOException {
+        synchronized (this) {
+            memory.clear();
+            memoryUsed = 0;
+        }
+        synchronized (diskLock) {
+            if (log != null) {
+                // A new, empty generation: results handed out earlier may still map the old log
+                long next = generation + 1;
+                closeDisk();
+                Files.write(directory.resolve(fileName(next, "idx")), new byte[0]);
+                openDisk(next);
+                deleteOldGenerations();
+            }
+        }
+    }
+
+    /** Forces the log to disk, closes it and gives up the directory; the memory tier stays usable. */
+    @Override
+    public void close() {
+        synchronized (diskLock) {
+            if (log != null) {
+                try {
+                    log.force(false);
+                    index.force(false);
+                } catch (IOException e) {
+                    // Closed anyway below
+                }
+            }
+            closeDisk();
+            unlockDirectory();
+        }
+    }
+
+    public synchronized long getMemoryHits() { return memoryHits; }
+
+    public synchronized long getDiskHits() { return diskHits; }
+
+    public synchronized long getMisses() { return misses; }
+
+    // Results dropped from memory to make room; they may still be on disk
+    public synchronized long getEvictions() { return evictions; }
+
+    /** Hits in either tier as a share of all lookups, 0 before the first. */
+    public synchronized double getHitRate() {
+        long hits = memoryHits + diskHits;
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public synchronized int getMemorySize() { return memory.size(); }
+
+    // Estimated heap held by the memory tier, counted against its budget
+    public synchronized long getMemoryBytes() { return memoryUsed; }
+
+    public int getDiskSize() {
+        synchronized (diskLock) {
+            return log == null ? 0 : disk.size();
+        }
+    }
+
+    public long getDiskBytes() {
+        synchronized (diskLock) {
+            return log == null ? 0 : logEnd;
+        }
+    }
+
+    /** False for a memory-only cache, one whose directory another cache owns, and once the disk tier has failed. */
+    public boolean isPersistent() { return persistent; }
+
+    private static long checkSize(long bytes) {
+        if (bytes < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 1 byte");
+        }
+        return bytes;
+    }
+
+    private static boolean isReproducible(StopReason reason) {
+        return reason == StopReason.CONVERGED || reason == StopReason.MAX_ITERATIONS || reason == StopReason.ERROR;
+    }
+
+    // The parse tree printed back, fully parenthesized; null if it does not parse
+    private static String canonical(String expression, String[] names) {
+        try {
+            return ExpressionCache.shared().get(expression, names).getTree().toString();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    // Heap a result holds: its trace rows unless they are mapped, and its roots
+    private static long weight(MethodResult result) {
+        IterationTrace trace = result.getTrace();
+        long rows = trace == null || trace.isMapped() ? 0
+                : (long) trace.size() * (Integer.BYTES + (long) Double.BYTES * trace.getColumns().length);
+        return ENTRY_BYTES + rows + 16L * result.getRoots().size();
+    }
+
+    // Under this cache's lock: stores the entry and evicts the least recently used beyond the budget
+    private void remember(String key, MethodResult result) {
+        MethodResult previous = memory.put(key, result);
+        if (previous != null) {
+            memoryUsed -= weight(previous);
+        }
+        memoryUsed += weight(result);
+        for (Iterator<MethodResult> it = memory.values().iterator(); it.hasNext() && memoryUsed > memoryBytes; ) {
+            memoryUsed -= weight(it.next());
+            it.remove();
+            evictions++;
+        }
+    }
+
+    private static String fileName(long generation, String extension) {
+        return "results-" + generation + "." + extension;
+    }
+
+    // The newest generation with an index, 0 if there is none yet
+    private long latestGeneration() throws IOException {
+        long latest = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Matcher m = GENERATION.matcher(file.getFileName().toString());
+                if (m.matches() && m.group(2).equals("idx") && m.group(3) == null) {
+                    latest = Math.max(latest, Long.parseLong(m.group(1)));
+                }
+            }
+        }
+        return latest;
+    }
+
+    // Best effort: a file still mapped on a platform that forbids deleting it stays until next time
+    private void deleteOldGenerations() {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Matcher m = GENERATION.matcher(file.getFileName().toString());
+                if (m.matches() && Long.parseLong(m.group(1)) != generation) {
+                    try {
+                        Files.deleteIfExists(file);
+                    } catch (IOException e) {
+                        // Retried at the next compaction or opening
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // Retried at the next compaction or opening
+        }
+    }
+
+    // Takes the directory's lock without waiting; false if another cache holds it
+    private boolean lockDirectory() throws IOException {
+        lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Held by another cache in this process
+            lock = null;
+        }
+        if (lock == null) {
+            unlockDirectory();
+            return false;
+        }
+        return true;
+    }
+
+    private void unlockDirectory() {
+        if (lockChannel == null) {
+            return;
+        }
+        try {
+            // Closing the channel releases the lock
+            lockChannel.close();
+        } catch (IOException e) {
+            // Released when the process exits
+        }
+        lockChannel = null;
+    }
+
+    private void openDisk(long generation) throws IOException {
+        this.generation = generation;
+        log = FileChannel.open(directory.resolve(fileName(generation, "log")), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        index = FileChannel.open(directory.resolve(fileName(generation, "idx")), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        byte[] bytes = new byte[(int) index.size()];
+        SessionFile.readFully(index, ByteBuffer.wrap(bytes), 0);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        long logSize = log.size();
+        long indexEnd = 0;
+        disk.clear();
+        logEnd = 0;
+        try {
+            while (true) {
+                String key = in.readUTF();
+                long offset = in.readLong();
+                long length = in.readLong();
+                // Records are indexed in the order they were written, so the rest are missing too
+                if (offset < 0 || length <= 0 || offset + length > logSize) {
+                    break;
+                }
+                disk.put(key, new long[]{offset, length});
+                logEnd = Math.max(logEnd, offset + length);
+                indexEnd = bytes.length - in.available();
+            }
+        } catch (EOFException e) {
+            // A torn last entry
+        }
+        // Drop what a crash left half written, so appends follow the last whole entry. Nothing
+        // maps this generation yet: it was just written, or the process that wrote it has gone.
+        index.truncate(indexEnd);
+        log.truncate(logEnd);
+        persistent = true;
+    }
+
+    private void closeDisk() {
+        persistent = false;
+        if (log == null) {
+            return;
+        }
+        try {
+            log.close();
+            index.close();
+        } catch (IOException e) {
+            // Nothing more to write
+        }
+        log = null;
+        index = null;
+        disk.clear();
+    }
+
+    // Writes the record at the end of the log; its {offset, length}, or null if it is too big to keep
+    private long[] append(String key, MethodResult result) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(bytes);
+        header.writeUTF(key);
+        SessionFile.writeResult(header, result);
+        SessionFile.writeTraceHeader(header, result.getTrace());
+        header.flush();
+        IterationTrace trace = result.getTrace();
+        long length = SessionFile.align(RECORD_PREAMBLE + bytes.size())
+                + MappedTrace.length(trace.size(), trace.getColumns().length);
+        // A record that would crowd out most of the others is not worth keeping
+        if (length > diskBytes / 2) {
+            return null;
+        }
+        if (logEnd + length > diskBytes) {
+            compact(diskBytes / 2 - length);
+        }
+
+        long offset = logEnd;
+        log.position(offset);
+        buffer.clear();
+        buffer.putInt(RECORD_MAGIC).putInt(bytes.size());
+        SessionFile.write(log, buffer, bytes.toByteArray());
+        SessionFile.pad(log, buffer, RECORD_PREAMBLE + bytes.size());
+        SessionFile.writeTrace(log, buffer, trace);
+        SessionFile.flush(log, buffer);
+        logEnd = offset + length;
+        index.write(indexEntry(key, offset, length), index.size());
+        long[] record = {offset, length};
+        disk.put(key, record);
+        return record.clone();
+    }
+
+    // Keeps the most recently used records that fit in the budget, in the log and index of a new generation
+    private void compact(long budget) throws IOException {
+        long live = 0;
+        for (long[] record : disk.values()) {
+            live += record[1];
+        }
+        for (Iterator<long[]> it = disk.values().iterator(); it.hasNext() && live > budget; ) {
+            live -= it.next()[1];
+            it.remove();
+        }
+
+        long next = generation + 1;
+        Path newIndex = directory.resolve(fileName(next, "idx"));
+        Path indexTemp = directory.resolve(fileName(next, "idx") + ".tmp");
+        List<Map.Entry<String, long[]>> kept = new ArrayList<>(disk.entrySet());
+        long position = 0;
+        try (FileChannel logOut = FileChannel.open(directory.resolve(fileName(next, "log")), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             FileChannel indexOut = FileChannel.open(indexTemp, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (Map.Entry<String, long[]> entry : kept) {
+                long[] record = entry.getValue();
+                for (long copied = 0; copied < record[1]; ) {
+                    copied += log.transferTo(record[0] + copied, record[1] - copied, logOut.position(position + copied));
+                }
+                indexOut.write(indexEntry(entry.getKey(), position, record[1]));
+                position += record[1];
+            }
+            logOut.force(false);
+            indexOut.force(false);
+        }
+        // The new index appears whole, and only after its log: this makes the generation current
+        Files.move(indexTemp, newIndex, StandardCopyOption.ATOMIC_MOVE);
+        closeDisk();
+        openDisk(next);
+        deleteOldGenerations();
+    }
+
+    private static ByteBuffer indexEntry(String key, long offset, long length) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(key.length() + 32);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeUTF(key);
+        out.writeLong(offset);
+        out.writeLong(length);
+        out.flush();
+        return ByteBuffer.wrap(bytes.toByteArray());
+    }
+
+    // The record at the offset, or null if it is not the one the key expects
+    private MethodResult read(String key, long offset, long length) throws IOException {
+        ByteBuffer preamble = ByteBuffer.allocate(RECORD_PREAMBLE);
+        SessionFile.readFully(log, preamble, offset);
+        int headerLength = preamble.getInt(4);
+        if (preamble.getInt(0) != RECORD_MAGIC || headerLength < 0 || RECORD_PREAMBLE + (long) headerLength > length) {
+            return null;
+        }
+        ByteBuffer bytes = ByteBuffer.allocate(headerLength);
+        SessionFile.readFully(log, bytes, offset + RECORD_PREAMBLE);
+        DataInputStream header = new DataInputStream(new ByteArrayInputStream(bytes.array()));
+        if (!header.readUTF().equals(key)) {
+            return null;
+        }
+        MethodResult result = SessionFile.readResult(header);
+        SessionFile.TraceHeader trace = SessionFile.readTraceHeader(header);
+        long traceOffset = offset + SessionFile.align(RECORD_PREAMBLE + (long) headerLength);
+        if (traceOffset + trace.length() > offset + length) {
+            return null;
+        }
+        result.setTrace(trace.map(log, traceOffset));
+        return result;
+    }
+}
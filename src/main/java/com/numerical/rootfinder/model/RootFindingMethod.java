@@ -6,6 +6,13 @@ public enum RootFindingMethod {
     FIXED_POINT("Fixed Point Iteration"),
     NEWTON_RAPHSON("Newton-Raphson Method"),
     SECANT("Secant Method"),
+    HALLEY("Halley's Method"),
+    BRENT("Brent's Method"),
+    ILLINOIS("Illinois Method"),
+    RIDDERS("Ridders' Method"),
+    SCAN_ALL("Scan for All Roots"),
+    POLYNOMIAL_ROOTS("Polynomial Roots (Aberth)"),
+    INTERVAL_SEARCH("Certified Root Isolation (Interval)"),
     ALL("All Methods");
 
     private final String displayName;
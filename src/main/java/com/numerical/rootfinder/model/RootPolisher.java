@@ -0,0 +1,82 @@
+package com.numerical.rootfinder.model;
+
+import com.numerical.rootfinder.model.expression.CompiledFunction;
+import com.numerical.rootfinder.model.expression.DifferentiableFunction;
+import com.numerical.rootfinder.model.expression.DoubleDouble;
+import com.numerical.rootfinder.model.expression.DoubleDoubleFunction;
+
+/**
+ * Refines a double root with Newton steps in double-double precision. f is evaluated in
+ * double-double; f' only needs to be good to double precision, since each step multiplies
+ * the error by the relative error of f', so a simple root gains about 16 digits per step and
+ * is done after two. A step is kept only if it lowers |f|, which stops the refinement where
+ * f itself runs out of precision or, at a multiple root, where Newton crawls.
+ * <p>
+ * Not thread-safe; every solve gets its own.
+ */
+final class RootPolisher {
+
+    static final int MAX_STEPS = 4;
+
+    // Relative step below which another step cannot change a double-double
+    private static final double RESOLUTION = 1e-32;
+
+    private final DoubleDoubleFunction.Evaluator f;
+    private final DifferentiableFunction.Evaluator derivatives;
+    private final DoubleDouble x = new DoubleDouble();
+    private final DoubleDouble fx = new DoubleDouble();
+    private final DoubleDouble next = new DoubleDouble();
+    private double residual = Double.NaN;
+    private int steps;
+
+    RootPolisher(CompiledFunction function) {
+        this.f = function.getExtendedPrecision().evaluator();
+        this.derivatives = function.getDerivatives().firstOrderEvaluator();
+    }
+
+    /** The polished root, or null if f can not be evaluated there. */
+    DoubleDouble polish(double root) {
+        steps = 0;
+        try {
+            x.set(root, 0);
+            fx.set(f.evaluate(x));
+            if (!fx.isFinite()) {
+                return null;
+            }
+            while (steps < MAX_STEPS && fx.hi() != 0) {
+                derivatives.evaluate(x.hi());
+                double slope = derivatives.first();
+                if (slope == 0 || !Double.isFinite(slope)) {
+                    break;
+                }
+                next.divide(fx, slope);
+                double step = next.hi();
+                next.subtract(x, next);
+                DoubleDouble fNext = f.evaluate(next);
+                if (!(Math.abs(fNext.hi()) < Math.abs(fx.hi()))) {
+                    break;
+                }
+                x.set(next);
+                fx.set(fNext);
+                steps++;
+                if (Math.abs(step) <= RESOLUTION * Math.abs(x.hi())) {
+                    break;
+                }
+            }
+        } catch (ArithmeticException e) {
+            return null;
+        }
+        residual = Math.abs(fx.hi());
+        return new DoubleDouble(x.hi(), x.lo());
+    }
+
+    /** |f| at the last polished root, in double-double evaluation. */
+    double getResidual() {
+        return residual;
+    }
+
+    /** Newton steps the last polish kept. */
+    int getSteps() {
+        return steps;
+    }
+}
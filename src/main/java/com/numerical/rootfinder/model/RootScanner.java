@@ -0,0 +1,244 @@
+package com.numerical.rootfinder.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Finds every root of f in [xMin, xMax] for {@link RootFindingMethod#SCAN_ALL}. The interval
+ * is sampled on a uniform grid in parallel chunks; each sign change becomes a bracket and each
+ * local dip of |f| that does not cross zero becomes a near-tangent candidate. Candidates are
+ * then solved concurrently, brackets with {@link NumericalMethods#brent}, and the roots merged,
+ * so one pass reports all of them.
+ */
+final class RootScanner {
+
+    // Grid points evaluated by one fork/join leaf
+    private static final int CHUNK = 256;
+    private static final double GOLDEN = (Math.sqrt(5) - 1) / 2;
+
+    private final NumericalMethods solver;
+    private final double tolerance;
+    private final int maxIterations;
+    private final CancellationToken cancellation;
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final long startNanos = System.nanoTime();
+
+    RootScanner(NumericalMethods solver, double tolerance, int maxIterations, CancellationToken cancellation) {
+        this.solver = solver;
+        this.tolerance = tolerance;
+        this.maxIterations = maxIterations;
+        this.cancellation = cancellation;
+    }
+
+    MethodResult scan(double xMin, double xMax, int intervals, Executor executor) {
+        IterationTrace roots = new IterationTrace(TraceRetention.all(),
+                TraceColumn.A, TraceColumn.B, TraceColumn.ROOT, TraceColumn.F_ROOT);
+        if (!(xMin < xMax) || intervals < 1) {
+            return result(roots, null, "The scan needs x min < x max and at least one subinterval.");
+        }
+
+        double[] xs = new double[intervals + 1];
+        double[] fs = new double[intervals + 1];
+        double step = (xMax - xMin) / intervals;
+        for (int i = 0; i <= intervals; i++) {
+            xs[i] = i == intervals ? xMax : xMin + i * step;
+        }
+        ComputePool.get().invoke(new SampleTask(xs, fs, 0, xs.length));
+        if (cancellation.isCancelled()) {
+            return result(roots, null, "Calculation cancelled.");
+        }
+
+        List<CompletableFuture<List<Root>>> futures = new ArrayList<>();
+        for (int i = 0; i <= intervals; i++) {
+            if (fs[i] == 0) {
+                futures.add(CompletableFuture.completedFuture(List.of(new Root(xs[i], xs[i], xs[i], 0))));
+            } else if (i < intervals && fs[i] * fs[i + 1] < 0) {
+                int lo = i;
+                futures.add(CompletableFuture.supplyAsync(() -> solveBracket(xs[lo], xs[lo + 1], fs[lo], fs[lo + 1]), executor));
+            } else if (i > 0 && i < intervals && isDip(fs[i - 1], fs[i], fs[i + 1])) {
+                int mid = i;
+                futures.add(CompletableFuture.supplyAsync(() -> solveDip(xs[mid - 1], xs[mid + 1], fs[mid]), executor));
+            }
+        }
+
+        List<Root> found = new ArrayList<>();
+        for (CompletableFuture<List<Root>> future : futures) {
+            try {
+                found.addAll(future.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+        if (cancellation.isCancelled()) {
+            return result(roots, null, "Calculation cancelled.");
+        }
+
+        // Candidates come out in grid order; a root on a bracket edge can be reported twice
+        found.sort((r1, r2) -> Double.compare(r1.x, r2.x));
+        Root previous = null;
+        List<Double> distinct = new ArrayList<>();
+        for (Root root : found) {
+            if (previous != null && Math.abs(root.x - previous.x) <= 2 * tolerance) {
+                continue;
+            }
+            roots.add(roots.size() + 1);
+            roots.set(TraceColumn.A, root.a);
+            roots.set(TraceColumn.B, root.b);
+            roots.set(TraceColumn.ROOT, root.x);
+            roots.set(TraceColumn.F_ROOT, root.fx);
+            distinct.add(root.x);
+            previous = root;
+        }
+        MethodResult result = result(roots, distinct.isEmpty() ? null : distinct.get(0),
+                distinct.isEmpty() ? "No roots found in [" + xMin + ", " + xMax + "]." : null);
+        result.setRoots(Collections.unmodifiableList(distinct));
+        return result;
+    }
+
+    // |f| has a local minimum at the middle sample without changing sign
+    private static boolean isDip(double left, double mid, double right) {
+        return Double.isFinite(left) && Double.isFinite(right)
+                && left * mid > 0 && mid * right > 0
+                && Math.abs(mid) < Math.abs(left) && Math.abs(mid) <= Math.abs(right);
+    }
+
+    private List<Root> solveBracket(double a, double b, double fa, double fb) {
+        // Brent's hybrid converges superlinearly on smooth brackets and never worse than bisection
+        MethodResult result = solver.brent(a, b);
+        count(result);
+        if (!result.isConverged()) {
+            return List.of();
+        }
+        double fx = result.getTrace().getLast(TraceColumn.F_ROOT);
+        // A sign change across a pole shrinks onto the pole with |f| growing, not onto a root
+        if (!(Math.abs(fx) <= Math.max(Math.abs(fa), Math.abs(fb)))) {
+            return List.of();
+        }
+        return List.of(new Root(a, b, result.getRoot(), fx));
+    }
+
+    /*
+     * Golden-section search for the minimum of |f| between the neighbours of a dip. A tangent
+     * root shows up as |f| falling below the tolerance; a probe with the opposite sign means two
+     * close roots fell between grid points, and both halves are solved as brackets.
+     */
+    private List<Root> solveDip(double lo, double hi, double fMid) {
+        MethodEvaluator f = solver.evaluator();
+        try {
+            double a = lo;
+            double b = hi;
+            double c = b - GOLDEN * (b - a);
+            double d = a + GOLDEN * (b - a);
+            double fc = f.evaluateRaw(c);
+            double fd = f.evaluateRaw(d);
+            for (int i = 0; i < maxIterations && b - a > tolerance && !cancellation.isCancelled(); i++) {
+                if (fc * fMid < 0 || fd * fMid < 0) {
+                    double p = fc * fMid < 0 ? c : d;
+                    double fp = fc * fMid < 0 ? fc : fd;
+                    double fLo = f.evaluateRaw(lo);
+                    double fHi = f.evaluateRaw(hi);
+                    List<Root> pair = new ArrayList<>(solveBracket(lo, p, fLo, fp));
+                    pair.addAll(solveBracket(p, hi, fp, fHi));
+                    return pair;
+                }
+                if (Math.abs(fc) < Math.abs(fd)) {
+                    b = d;
+                    d = c;
+                    fd = fc;
+                    c = b - GOLDEN * (b - a);
+                    fc = f.evaluateRaw(c);
+                } else {
+                    a = c;
+                    c = d;
+                    fc = fd;
+                    d = a + GOLDEN * (b - a);
+                    fd = f.evaluateRaw(d);
+                }
+            }
+            double x = (a + b) / 2;
+            double fx = f.evaluateRaw(x);
+            return Math.abs(fx) < tolerance ? List.of(new Root(lo, hi, x, fx)) : List.of();
+        } catch (Exception e) {
+            // Undefined somewhere in the dip; no root is reported for it
+            return List.of();
+        } finally {
+            lookups.add(f.lookups());
+            misses.add(f.misses());
+        }
+    }
+
+    private void count(MethodResult result) {
+        lookups.add(result.getCacheHits() + result.getCacheMisses());
+        misses.add(result.getCacheMisses());
+    }
+
+    private MethodResult result(IterationTrace roots, Double first, String errorMessage) {
+        MethodResult result = new MethodResult(RootFindingMethod.SCAN_ALL, roots, first, errorMessage, errorMessage == null);
+        result.setCacheHits(lookups.sum() - misses.sum());
+        result.setCacheMisses(misses.sum());
+        // Work is spread over pool threads, so only the wall time is meaningful here
+        result.setDurationNanos(System.nanoTime() - startNanos);
+        return result;
+    }
+
+    // Fills fs[from, to) with f(xs[i]); NaN where f is undefined
+    private final class SampleTask extends RecursiveAction {
+        private final double[] xs;
+        private final double[] fs;
+        private final int from;
+        private final int to;
+
+        SampleTask(double[] xs, double[] fs, int from, int to) {
+            this.xs = xs;
+            this.fs = fs;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > CHUNK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new SampleTask(xs, fs, from, mid), new SampleTask(xs, fs, mid, to));
+                return;
+            }
+            if (cancellation.isCancelled()) {
+                return;
+            }
+            MethodEvaluator f = solver.evaluator();
+            for (int i = from; i < to; i++) {
+                try {
+                    fs[i] = f.evaluateRaw(xs[i]);
+                } catch (Exception e) {
+                    fs[i] = Double.NaN;
+                }
+            }
+            lookups.add(f.lookups());
+            misses.add(f.misses());
+        }
+    }
+
+    private static final class Root {
+        final double a;
+        final double b;
+        final double x;
+        final double fx;
+
+        Root(double a, double b, double x, double fx) {
+            this.a = a;
+            this.b = b;
+            this.x = x;
+            this.fx = fx;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.numerical.rootfinder.model;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One run of the application: the equation and settings it was solved with and the result of
+ * every method, in the order they were reported. Saved and opened by {@link SessionFile}.
+ */
+public class Session {
+    private final String equation;
+    private final RootFindingMethod method;
+    private final double tolerance;
+    private final int maxIterations;
+    private final MethodParameters parameters;
+    private final Map<RootFindingMethod, MethodResult> results;
+
+    public Session(String equation, RootFindingMethod method, double tolerance, int maxIterations,
+                   MethodParameters parameters, Map<RootFindingMethod, MethodResult> results) {
+        this.equation = equation;
+        this.method = method;
+        this.tolerance = tolerance;
+        this.maxIterations = maxIterations;
+        this.parameters = parameters;
+        this.results = Collections.unmodifiableMap(new LinkedHashMap<>(results));
+    }
+
+    public String getEquation() { return equation; }
+
+    // The method chosen for the run, ALL for a comparison
+    public RootFindingMethod getMethod() { return method; }
+
+    public double getTolerance() { return tolerance; }
+
+    public int getMaxIterations() { return maxIterations; }
+
+    public MethodParameters getParameters() { return parameters; }
+
+    public Map<RootFindingMethod, MethodResult> getResults() { return results; }
+}
@@ -0,0 +1,362 @@
+package com.numerical.rootfinder.model;
+
+import com.numerical.rootfinder.model.expression.DoubleDouble;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Saves a {@link Session} to a compact binary file and opens it again. The file starts with a
+ * header holding the equation, the settings, the method parameters and every result's summary
+ * fields; the iteration traces follow column by column as raw ints and doubles, each trace at an
+ * offset the header records. All values are big-endian, as {@link DataOutputStream} and
+ * {@link ByteBuffer} write them.
+ * <p>
+ * Opening reads only the header. Traces come back as {@link MappedTrace}s, which read their rows
+ * from memory mappings of the file, so a session with a multi-gigabyte trace opens at once and
+ * uses no heap for its rows. The file must not change while a session opened from it is in use.
+ */
+public final class SessionFile {
+
+    // "RFS1"
+    private static final int MAGIC = 0x52465331;
+    private static final int VERSION = 1;
+    // Magic, version and header length
+    private static final int PREAMBLE = 3 * Integer.BYTES;
+    private static final int WRITE_BUFFER = 1 << 20;
+
+    private SessionFile() {
+    }
+
+    /** Writes the session, replacing the file only once it is complete. */
+    public static void save(Session session, Path path) throws IOException {
+        List<MethodResult> results = new ArrayList<>(session.getResults().values());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(bytes);
+        header.writeUTF(session.getEquation());
+        header.writeUTF(session.getMethod().name());
+        header.writeDouble(session.getTolerance());
+        header.writeInt(session.getMaxIterations());
+        writeParameters(header, session.getParameters());
+        header.writeInt(results.size());
+        // Trace offsets are relative to the first 8-byte boundary after the header
+        long offset = 0;
+        for (MethodResult result : results) {
+            writeResult(header, result);
+            writeTraceHeader(header, result.getTrace());
+            header.writeLong(offset);
+            offset += MappedTrace.length(result.getTrace().size(), result.getTrace().getColumns().length);
+        }
+        header.flush();
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(bytes.size());
+            write(channel, buffer, bytes.toByteArray());
+            pad(channel, buffer, PREAMBLE + bytes.size());
+            for (MethodResult result : results) {
+                writeTrace(channel, buffer, result.getTrace());
+            }
+            flush(channel, buffer);
+            channel.force(false);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Reads the header and maps the traces; no trace rows are read. */
+    public static Session open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer preamble = ByteBuffer.allocate(PREAMBLE);
+            readFully(channel, preamble, 0);
+            if (preamble.getInt(0) != MAGIC) {
+                throw new IOException(path.getFileName() + " is not a session file");
+            }
+            if (preamble.getInt(4) != VERSION) {
+                throw new IOException("Unsupported session file version " + preamble.getInt(4));
+            }
+            int headerLength = preamble.getInt(8);
+            if (headerLength < 0 || PREAMBLE + (long) headerLength > channel.size()) {
+                throw new IOException(path.getFileName() + " is truncated");
+            }
+            ByteBuffer bytes = ByteBuffer.allocate(headerLength);
+            readFully(channel, bytes, PREAMBLE);
+            long dataStart = align(PREAMBLE + (long) headerLength);
+
+            DataInputStream header = new DataInputStream(new ByteArrayInputStream(bytes.array()));
+            String equation = header.readUTF();
+            RootFindingMethod method = valueOf(RootFindingMethod.class, header.readUTF());
+            double tolerance = header.readDouble();
+            int maxIterations = header.readInt();
+            MethodParameters parameters = readParameters(header);
+            int count = header.readInt();
+            Map<RootFindingMethod, MethodResult> results = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                MethodResult result = readResult(header);
+                TraceHeader trace = readTraceHeader(header);
+                long offset = dataStart + header.readLong();
+                if (offset + trace.length() > channel.size()) {
+                    throw new IOException(path.getFileName() + " is truncated");
+                }
+                result.setTrace(trace.map(channel, offset));
+                results.put(result.getMethod(), result);
+            }
+            return new Session(equation, method, tolerance, maxIterations, parameters, results);
+        }
+    }
+
+    /** Rounds a file position up to a multiple of 8 bytes. */
+    static long align(long position) {
+        return (position + 7) & ~7L;
+    }
+
+    private static void writeParameters(DataOutputStream out, MethodParameters p) throws IOException {
+        double[] values = {
+                p.getBisectionA(), p.getBisectionB(), p.getFalsePositionA(), p.getFalsePositionB(),
+                p.getFixedPointX0(), p.getNewtonX0(), p.getSecantX0(), p.getSecantX1(), p.getHalleyX0(),
+                p.getBrentA(), p.getBrentB(), p.getIllinoisA(), p.getIllinoisB(), p.getRiddersA(), p.getRiddersB(),
+                p.getScanMin(), p.getScanMax()
+        };
+        for (double value : values) {
+            out.writeDouble(value);
+        }
+        writeString(out, p.getFixedPointG());
+        out.writeInt(p.getScanIntervals());
+    }
+
+    private static MethodParameters readParameters(DataInputStream in) throws IOException {
+        MethodParameters p = new MethodParameters();
+        p.setBisectionA(in.readDouble());
+        p.setBisectionB(in.readDouble());
+        p.setFalsePositionA(in.readDouble());
+        p.setFalsePositionB(in.readDouble());
+        p.setFixedPointX0(in.readDouble());
+        p.setNewtonX0(in.readDouble());
+        p.setSecantX0(in.readDouble());
+        p.setSecantX1(in.readDouble());
+        p.setHalleyX0(in.readDouble());
+        p.setBrentA(in.readDouble());
+        p.setBrentB(in.readDouble());
+        p.setIllinoisA(in.readDouble());
+        p.setIllinoisB(in.readDouble());
+        p.setRiddersA(in.readDouble());
+        p.setRiddersB(in.readDouble());
+        p.setScanMin(in.readDouble());
+        p.setScanMax(in.readDouble());
+        p.setFixedPointG(readString(in));
+        p.setScanIntervals(in.readInt());
+        return p;
+    }
+
+    /** The summary fields of a result, without its trace. */
+    static void writeResult(DataOutputStream out, MethodResult r) throws IOException {
+        out.writeUTF(r.getMethod().name());
+        writeDouble(out, r.getRoot());
+        List<Double> roots = r.getRoots();
+        out.writeInt(roots.size());
+        for (double root : roots) {
+            out.writeDouble(root);
+        }
+        writeString(out, r.getErrorMessage());
+        out.writeBoolean(r.isConverged());
+        out.writeUTF(r.getStopReason().name());
+        out.writeLong(r.getCacheHits());
+        out.writeLong(r.getCacheMisses());
+        out.writeLong(r.getDerivativeEvaluations());
+        out.writeLong(r.getDurationNanos());
+        out.writeLong(r.getTimeToFirstIterationNanos());
+        out.writeLong(r.getAllocatedBytes());
+        writeDouble(out, r.getBestRoot());
+        out.writeDouble(r.getBestResidual());
+        DoubleDouble polished = r.getPolishedRoot();
+        out.writeBoolean(polished != null);
+        if (polished != null) {
+            out.writeDouble(polished.hi());
+            out.writeDouble(polished.lo());
+        }
+        out.writeDouble(r.getPolishedResidual());
+    }
+
+    // The trace is set by the caller once it is mapped
+    static MethodResult readResult(DataInputStream in) throws IOException {
+        RootFindingMethod method = valueOf(RootFindingMethod.class, in.readUTF());
+        Double root = readDouble(in);
+        List<Double> roots = new ArrayList<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            roots.add(in.readDouble());
+        }
+        String errorMessage = readString(in);
+        boolean converged = in.readBoolean();
+        MethodResult r = new MethodResult(method, null, root, errorMessage, converged);
+        r.setRoots(Collections.unmodifiableList(roots));
+        r.setStopReason(valueOf(StopReason.class, in.readUTF()));
+        r.setCacheHits(in.readLong());
+        r.setCacheMisses(in.readLong());
+        r.setDerivativeEvaluations(in.readLong());
+        r.setDurationNanos(in.readLong());
+        r.setTimeToFirstIterationNanos(in.readLong());
+        r.setAllocatedBytes(in.readLong());
+        r.setBestRoot(readDouble(in));
+        r.setBestResidual(in.readDouble());
+        if (in.readBoolean()) {
+            r.setPolishedRoot(new DoubleDouble(in.readDouble(), in.readDouble()));
+        }
+        r.setPolishedResidual(in.readDouble());
+        return r;
+    }
+
+    /** The shape of a trace, from which {@link TraceHeader#map} finds its columns. */
+    static void writeTraceHeader(DataOutputStream out, IterationTrace trace) throws IOException {
+        TraceColumn[] columns = trace.getColumns();
+        out.writeUTF(trace.getRetention().getMode().name());
+        out.writeInt(trace.getRetention().getLimit());
+        out.writeLong(trace.getIterationCount());
+        out.writeInt(trace.size());
+        out.writeInt(columns.length);
+        for (TraceColumn column : columns) {
+            out.writeUTF(column.name());
+        }
+    }
+
+    static TraceHeader readTraceHeader(DataInputStream in) throws IOException {
+        TraceRetention.Mode mode = valueOf(TraceRetention.Mode.class, in.readUTF());
+        TraceRetention retention = TraceRetention.of(mode, in.readInt());
+        long iterationCount = in.readLong();
+        int rows = in.readInt();
+        int count = in.readInt();
+        if (rows < 0 || count < 0 || count > TraceColumn.values().length) {
+            throw new IOException("Corrupt trace header in session file");
+        }
+        TraceColumn[] columns = new TraceColumn[count];
+        for (int c = 0; c < columns.length; c++) {
+            columns[c] = valueOf(TraceColumn.class, in.readUTF());
+        }
+        return new TraceHeader(retention, iterationCount, rows, columns);
+    }
+
+    /** The columns of a trace as raw values from the buffer's position, ending on an 8-byte boundary. */
+    static void writeTrace(FileChannel channel, ByteBuffer buffer, IterationTrace trace) throws IOException {
+        int rows = trace.size();
+        for (int row = 0; row < rows; row++) {
+            if (buffer.remaining() < Integer.BYTES) {
+                flush(channel, buffer);
+            }
+            buffer.putInt(trace.getIteration(row));
+        }
+        pad(channel, buffer, (long) rows * Integer.BYTES);
+        for (TraceColumn column : trace.getColumns()) {
+            for (int row = 0; row < rows; row++) {
+                if (buffer.remaining() < Double.BYTES) {
+                    flush(channel, buffer);
+                }
+                buffer.putDouble(trace.get(row, column));
+            }
+        }
+    }
+
+    static void write(FileChannel channel, ByteBuffer buffer, byte[] bytes) throws IOException {
+        for (int from = 0; from < bytes.length; ) {
+            if (!buffer.hasRemaining()) {
+                flush(channel, buffer);
+            }
+            int length = Math.min(buffer.remaining(), bytes.length - from);
+            buffer.put(bytes, from, length);
+            from += length;
+        }
+    }
+
+    // Zero bytes up to the next multiple of 8, given how much was written since the last boundary
+    static void pad(FileChannel channel, ByteBuffer buffer, long written) throws IOException {
+        if (buffer.remaining() < Long.BYTES) {
+            flush(channel, buffer);
+        }
+        for (long i = written; i < align(written); i++) {
+            buffer.put((byte) 0);
+        }
+    }
+
+    static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Session file is truncated");
+            }
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeDouble(DataOutputStream out, Double value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeDouble(value);
+        }
+    }
+
+    private static Double readDouble(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readDouble() : null;
+    }
+
+    private static <E extends Enum<E>> E valueOf(Class<E> type, String name) throws IOException {
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unknown " + type.getSimpleName() + " '" + name + "' in session file");
+        }
+    }
+
+    /** What the header records about a trace written by {@link #writeTrace}. */
+    static final class TraceHeader {
+        private final TraceRetention retention;
+        private final long iterationCount;
+        private final int rows;
+        private final TraceColumn[] columns;
+
+        TraceHeader(TraceRetention retention, long iterationCount, int rows, TraceColumn[] columns) {
+            this.retention = retention;
+            this.iterationCount = iterationCount;
+            this.rows = rows;
+            this.columns = columns;
+        }
+
+        /** Bytes the trace's columns take in the file. */
+        long length() {
+            return MappedTrace.length(rows, columns.length);
+        }
+
+        MappedTrace map(FileChannel channel, long offset) throws IOException {
+            return new MappedTrace(channel, offset, rows, iterationCount, retention, columns);
+        }
+    }
+}
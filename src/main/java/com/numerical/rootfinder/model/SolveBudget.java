@@ -0,0 +1,46 @@
+package com.numerical.rootfinder.model;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The time and function evaluations left to one call into {@link NumericalMethods}, shared by
+ * every method it runs; for {@link NumericalMethods#solveAll} that is all of them together.
+ * Per-method limits are applied by each {@link MethodEvaluator} on top of this.
+ */
+final class SolveBudget {
+
+    static final SolveBudget UNLIMITED = new SolveBudget(Long.MAX_VALUE, Long.MAX_VALUE);
+
+    private final long deadlineNanos;
+    private final long evaluationLimit;
+    private final LongAdder evaluations = new LongAdder();
+
+    private SolveBudget(long deadlineNanos, long evaluationLimit) {
+        this.deadlineNanos = deadlineNanos;
+        this.evaluationLimit = evaluationLimit;
+    }
+
+    /** A budget starting now; a limit of 0 means none. */
+    static SolveBudget start(long timeLimitNanos, long evaluationLimit) {
+        if (timeLimitNanos <= 0 && evaluationLimit <= 0) {
+            return UNLIMITED;
+        }
+        return new SolveBudget(
+                timeLimitNanos > 0 ? System.nanoTime() + timeLimitNanos : Long.MAX_VALUE,
+                evaluationLimit > 0 ? evaluationLimit : Long.MAX_VALUE);
+    }
+
+    long getDeadlineNanos() { return deadlineNanos; }
+
+    boolean countsEvaluations() {
+        return evaluationLimit != Long.MAX_VALUE;
+    }
+
+    void addEvaluation() {
+        evaluations.increment();
+    }
+
+    boolean evaluationsExhausted() {
+        return countsEvaluations() && evaluations.sum() >= evaluationLimit;
+    }
+}
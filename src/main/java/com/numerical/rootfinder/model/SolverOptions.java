@@ -0,0 +1,61 @@
+package com.numerical.rootfinder.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class SolverOptions {
+    private CancellationToken cancellation = CancellationToken.NONE;
+    private TraceRetention retention = TraceRetention.all();
+    private int evaluationCacheSize;
+    private boolean recordIterationTimes;
+    private Map<String, Double> variables = new LinkedHashMap<>();
+    private IterationListener iterationListener;
+    private long timeLimitMillis;
+    private long evaluationLimit;
+    private long totalTimeLimitMillis;
+    private long totalEvaluationLimit;
+    private boolean polishRoots;
+
+    // Getters and setters
+    public CancellationToken getCancellation() { return cancellation; }
+    public void setCancellation(CancellationToken cancellation) { this.cancellation = cancellation; }
+
+    public TraceRetention getRetention() { return retention; }
+    public void setRetention(TraceRetention retention) { this.retention = retention; }
+
+    // Entries in the f(x) cache shared by the methods of one solve; 0 disables it
+    public int getEvaluationCacheSize() { return evaluationCacheSize; }
+    public void setEvaluationCacheSize(int evaluationCacheSize) { this.evaluationCacheSize = evaluationCacheSize; }
+
+    // Adds an ITERATION_TIME column to every trace
+    public boolean isRecordIterationTimes() { return recordIterationTimes; }
+    public void setRecordIterationTimes(boolean recordIterationTimes) { this.recordIterationTimes = recordIterationTimes; }
+
+    // Named variables the equation may use besides x, with their values
+    public Map<String, Double> getVariables() { return variables; }
+    public void setVariables(Map<String, Double> variables) { this.variables = variables; }
+
+    // Receives every iteration while the methods run; null for none
+    public IterationListener getIterationListener() { return iterationListener; }
+    public void setIterationListener(IterationListener iterationListener) { this.iterationListener = iterationListener; }
+
+    // Wall-clock limit for each method; 0 for none
+    public long getTimeLimitMillis() { return timeLimitMillis; }
+    public void setTimeLimitMillis(long timeLimitMillis) { this.timeLimitMillis = timeLimitMillis; }
+
+    // Function evaluations allowed to each method, cache hits not counted; 0 for none
+    public long getEvaluationLimit() { return evaluationLimit; }
+    public void setEvaluationLimit(long evaluationLimit) { this.evaluationLimit = evaluationLimit; }
+
+    // Wall-clock limit for one solve, or for all the methods of one solveAll together; 0 for none
+    public long getTotalTimeLimitMillis() { return totalTimeLimitMillis; }
+    public void setTotalTimeLimitMillis(long totalTimeLimitMillis) { this.totalTimeLimitMillis = totalTimeLimitMillis; }
+
+    // Function evaluations allowed to one solve, or to all the methods of one solveAll together; 0 for none
+    public long getTotalEvaluationLimit() { return totalEvaluationLimit; }
+    public void setTotalEvaluationLimit(long totalEvaluationLimit) { this.totalEvaluationLimit = totalEvaluationLimit; }
+
+    // Refines every converged root with Newton steps in double-double precision, to about 32 digits
+    public boolean isPolishRoots() { return polishRoots; }
+    public void setPolishRoots(boolean polishRoots) { this.polishRoots = polishRoots; }
+}
@@ -0,0 +1,34 @@
+package com.numerical.rootfinder.model;
+
+/**
+ * Why a method stopped iterating.
+ */
+public enum StopReason {
+    CONVERGED("Converged"),
+    MAX_ITERATIONS("Iteration limit"),
+    TIME_LIMIT("Time limit"),
+    EVALUATION_LIMIT("Evaluation limit"),
+    CANCELLED("Cancelled"),
+    LISTENER("Stopped by listener"),
+    ERROR("Error");
+
+    private final String displayName;
+
+    StopReason(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /** True for the hard limits, where the best estimate so far is reported instead of a root. */
+    public boolean isBudget() {
+        return this == TIME_LIMIT || this == EVALUATION_LIMIT;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
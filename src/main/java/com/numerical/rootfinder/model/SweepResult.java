@@ -0,0 +1,41 @@
+package com.numerical.rootfinder.model;
+
+/**
+ * Roots from {@link NumericalMethods#sweep}, one per swept value and in the same order, kept in
+ * primitive arrays so a sweep over millions of values stays compact. The root is NaN wherever
+ * the solve did not converge.
+ */
+public class SweepResult {
+    private final double[] values;
+    private final double[] roots;
+    private final boolean[] converged;
+    private final int[] iterations;
+
+    SweepResult(double[] values, double[] roots, boolean[] converged, int[] iterations) {
+        this.values = values;
+        this.roots = roots;
+        this.converged = converged;
+        this.iterations = iterations;
+    }
+
+    public int size() { return roots.length; }
+
+    /** The swept values, as passed in. */
+    public double[] getValues() { return values; }
+
+    public double[] getRoots() { return roots; }
+
+    public boolean[] getConverged() { return converged; }
+
+    public int[] getIterations() { return iterations; }
+
+    public int getConvergedCount() {
+        int count = 0;
+        for (boolean c : converged) {
+            if (c) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,137 @@
+package com.numerical.rootfinder.model;
+
+import com.numerical.rootfinder.model.expression.CompiledFunction;
+import com.numerical.rootfinder.model.expression.ExpressionCache;
+import com.numerical.rootfinder.model.expression.ExpressionParser;
+import com.numerical.rootfinder.model.expression.Node;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The equations F(v) = 0 of a {@link NonlinearSystemSolver}, each compiled once over the named
+ * unknowns. An unknown called x is the expression variable; the others are parameters. Each
+ * equation also records which unknowns it mentions, the sparsity pattern of the Jacobian.
+ * <p>
+ * Immutable; the compiled functions carry parameter values, so every thread evaluates through
+ * its own {@link Evaluator}, which holds copies.
+ */
+final class SystemEquations {
+
+    private final String[] variables;
+    private final CompiledFunction[] functions;
+    // Unknown read by parameter i, parameter holding unknown j, and the unknown that is x or -1
+    private final int[] parameterVariable;
+    private final int[] variableParameter;
+    private final int xVariable;
+    // The unknowns each equation mentions, in increasing order
+    private final int[][] dependencies;
+
+    SystemEquations(List<String> equations, List<String> variables) {
+        if (equations.isEmpty() || equations.size() != variables.size()) {
+            throw new IllegalArgumentException("A system needs as many equations as unknowns, got "
+                    + equations.size() + " equations and " + variables.size() + " unknowns");
+        }
+        int n = variables.size();
+        this.variables = variables.toArray(new String[0]);
+        List<String> parameters = new ArrayList<>();
+        int x = -1;
+        int[] parameterVariable = new int[n];
+        int[] variableParameter = new int[n];
+        for (int j = 0; j < n; j++) {
+            if (this.variables[j].equals(ExpressionParser.VARIABLE)) {
+                x = j;
+                variableParameter[j] = -1;
+            } else {
+                parameterVariable[parameters.size()] = j;
+                variableParameter[j] = parameters.size();
+                parameters.add(this.variables[j]);
+            }
+        }
+        this.xVariable = x;
+        this.parameterVariable = parameterVariable;
+        this.variableParameter = variableParameter;
+        this.functions = new CompiledFunction[n];
+        this.dependencies = new int[n][];
+        String[] names = parameters.toArray(new String[0]);
+        for (int i = 0; i < n; i++) {
+            boolean[] used = new boolean[n];
+            try {
+                functions[i] = ExpressionCache.shared().get(equations.get(i), names);
+                mark(functions[i].getTree(), used);
+            } catch (Exception e) {
+                throw new IllegalArgumentException("Error parsing equation " + (i + 1) + ": " + e.getMessage());
+            }
+            int count = 0;
+            for (boolean u : used) {
+                count += u ? 1 : 0;
+            }
+            dependencies[i] = new int[count];
+            for (int j = 0, k = 0; j < n; j++) {
+                if (used[j]) {
+                    dependencies[i][k++] = j;
+                }
+            }
+        }
+    }
+
+    int size() {
+        return variables.length;
+    }
+
+    String[] getVariables() {
+        return variables.clone();
+    }
+
+    int[][] getDependencies() {
+        return dependencies;
+    }
+
+    Evaluator evaluator() {
+        return new Evaluator();
+    }
+
+    private void mark(Node node, boolean[] used) {
+        if (node instanceof Node.Variable) {
+            if (xVariable < 0) {
+                throw new IllegalArgumentException("'" + ExpressionParser.VARIABLE + "' is not one of the unknowns");
+            }
+            used[xVariable] = true;
+        } else if (node instanceof Node.Parameter) {
+            used[parameterVariable[((Node.Parameter) node).getIndex()]] = true;
+        } else if (node instanceof Node.Negate) {
+            mark(((Node.Negate) node).getOperand(), used);
+        } else if (node instanceof Node.Binary) {
+            mark(((Node.Binary) node).getLeft(), used);
+            mark(((Node.Binary) node).getRight(), used);
+        } else if (node instanceof Node.Call) {
+            Node.Call call = (Node.Call) node;
+            for (int k = 0; k < call.getArgumentCount(); k++) {
+                mark(call.getArgument(k), used);
+            }
+        }
+    }
+
+    /** Evaluates equations at points; not thread-safe. */
+    final class Evaluator {
+        private final CompiledFunction[] local = new CompiledFunction[functions.length];
+
+        private Evaluator() {
+            for (int i = 0; i < functions.length; i++) {
+                local[i] = functions[i].copy();
+            }
+        }
+
+        /** Equation {@code row} at the unknowns {@code v}; an evaluation error propagates. */
+        double evaluate(int row, double[] v) {
+            CompiledFunction f = local[row];
+            // Only the unknowns the equation mentions; the other parameters are never read
+            for (int j : dependencies[row]) {
+                if (j != xVariable) {
+                    f.setParameter(variableParameter[j], v[j]);
+                }
+            }
+            return f.applyAsDouble(xVariable >= 0 ? v[xVariable] : 0);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.numerical.rootfinder.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of {@link NonlinearSystemSolver#solve}: the unknowns at the last iterate and the
+ * trace of the Newton iteration, one row per iteration with the residual norm ||F|| in
+ * {@link TraceColumn#F_X} and the norm of the step taken in {@link TraceColumn#ERROR}. Row 0
+ * is the starting point.
+ */
+public class SystemResult {
+    private final List<String> variables;
+    private final IterationTrace trace;
+    private final double[] solution;
+    private final String errorMessage;
+    private final boolean converged;
+    private StopReason stopReason;
+    private long functionEvaluations;
+    private int jacobianEvaluations;
+    private int jacobianGroups;
+    private long durationNanos;
+
+    public SystemResult(List<String> variables, IterationTrace trace, double[] solution,
+                        String errorMessage, boolean converged) {
+        this.variables = Collections.unmodifiableList(variables);
+        this.trace = trace;
+        this.solution = solution;
+        this.errorMessage = errorMessage;
+        this.converged = converged;
+        this.stopReason = converged ? StopReason.CONVERGED
+                : errorMessage == null ? StopReason.MAX_ITERATIONS : StopReason.ERROR;
+    }
+
+    public List<String> getVariables() { return variables; }
+
+    public IterationTrace getTrace() { return trace; }
+
+    /** The unknowns in the order of {@link #getVariables()}; the last iterate if not converged. */
+    public double[] getSolution() { return solution.clone(); }
+
+    /** The value of one unknown, by name. */
+    public double getValue(String variable) {
+        int index = variables.indexOf(variable);
+        if (index < 0) {
+            throw new IllegalArgumentException("No unknown named '" + variable + "'");
+        }
+        return solution[index];
+    }
+
+    /** ||F|| at the start and after every iteration, as far as the trace retention kept them. */
+    public double[] getResidualNorms() {
+        double[] norms = new double[trace.size()];
+        for (int i = 0; i < norms.length; i++) {
+            norms[i] = trace.get(i, TraceColumn.F_X);
+        }
+        return norms;
+    }
+
+    public double getResidualNorm() { return trace.getLast(TraceColumn.F_X); }
+
+    public String getErrorMessage() { return errorMessage; }
+
+    public boolean isConverged() { return converged; }
+
+    public StopReason getStopReason() { return stopReason; }
+    public void setStopReason(StopReason stopReason) { this.stopReason = stopReason; }
+
+    // Single-equation evaluations, including those for the Jacobian
+    public long getFunctionEvaluations() { return functionEvaluations; }
+    public void setFunctionEvaluations(long functionEvaluations) { this.functionEvaluations = functionEvaluations; }
+
+    public int getJacobianEvaluations() { return jacobianEvaluations; }
+    public void setJacobianEvaluations(int jacobianEvaluations) { this.jacobianEvaluations = jacobianEvaluations; }
+
+    // Column groups perturbed together, so F evaluations per Jacobian; the number of unknowns for a dense system
+    public int getJacobianGroups() { return jacobianGroups; }
+    public void setJacobianGroups(int jacobianGroups) { this.jacobianGroups = jacobianGroups; }
+
+    public long getDurationNanos() { return durationNanos; }
+    public void setDurationNanos(long durationNanos) { this.durationNanos = durationNanos; }
+}
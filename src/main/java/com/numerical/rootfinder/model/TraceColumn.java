@@ -0,0 +1,44 @@
+package com.numerical.rootfinder.model;
+
+/**
+ * The per-iteration values a solver can record, one for each nullable field of {@link IterationResult}.
+ */
+public enum TraceColumn {
+    A,
+    B,
+    ROOT,
+    IMAGINARY,
+    F_ROOT,
+    ERROR,
+    X_I,
+    X_I1,
+    F_X,
+    F_PRIME_X,
+    F_DOUBLE_PRIME_X,
+    G_X,
+    F_X_I1,
+    F_X_I,
+    ITERATION_TIME,
+    CERTIFIED;
+
+    void copyTo(IterationResult result, Double value) {
+        switch (this) {
+            case A: result.setA(value); break;
+            case B: result.setB(value); break;
+            case ROOT: result.setRoot(value); break;
+            case IMAGINARY: result.setImaginary(value); break;
+            case F_ROOT: result.setfRoot(value); break;
+            case ERROR: result.setError(value); break;
+            case X_I: result.setX_i(value); break;
+            case X_I1: result.setX_i1(value); break;
+            case F_X: result.setF_x(value); break;
+            case F_PRIME_X: result.setF_prime_x(value); break;
+            case F_DOUBLE_PRIME_X: result.setF_double_prime_x(value); break;
+            case G_X: result.setG_x(value); break;
+            case F_X_I1: result.setF_x_i1(value); break;
+            case F_X_I: result.setF_x_i(value); break;
+            case ITERATION_TIME: result.setIterationTime(value); break;
+            case CERTIFIED: result.setCertified(value); break;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.numerical.rootfinder.model;
+
+/**
+ * How much of the iteration history an {@link IterationTrace} keeps. Every mode except
+ * {@link Mode#ALL} uses a fixed amount of memory however many iterations are run, and every
+ * mode keeps the most recent iteration, so the final root and error are always available.
+ */
+public final class TraceRetention {
+
+    public enum Mode {
+        ALL("Full history"),
+        NONE("Summary only"),
+        LAST_K("Last iterations"),
+        DECIMATED("Decimated history");
+
+        private final String displayName;
+
+        Mode(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+
+    private static final TraceRetention ALL = new TraceRetention(Mode.ALL, Integer.MAX_VALUE);
+    private static final TraceRetention NONE = new TraceRetention(Mode.NONE, 1);
+
+    private final Mode mode;
+    private final int limit;
+
+    private TraceRetention(Mode mode, int limit) {
+        this.mode = mode;
+        this.limit = limit;
+    }
+
+    public static TraceRetention all() {
+        return ALL;
+    }
+
+    /** Only the final iteration, i.e. the root, its error and the iteration count. */
+    public static TraceRetention none() {
+        return NONE;
+    }
+
+    /** The last {@code k} iterations, in a ring buffer. */
+    public static TraceRetention lastK(int k) {
+        return new TraceRetention(Mode.LAST_K, checkLimit(k));
+    }
+
+    /** Iterations 1, 2, 4, 8, ... plus the last {@code tail} iterations. */
+    public static TraceRetention decimated(int tail) {
+        return new TraceRetention(Mode.DECIMATED, checkLimit(tail));
+    }
+
+    public static TraceRetention of(Mode mode, int k) {
+        switch (mode) {
+            case NONE: return none();
+            case LAST_K: return lastK(k);
+            case DECIMATED: return decimated(k);
+            default: return all();
+        }
+    }
+
+    public Mode getMode() { return mode; }
+
+    /** Size of the ring buffer of recent iterations, {@link Integer#MAX_VALUE} for {@link Mode#ALL}. */
+    public int getLimit() { return limit; }
+
+    private static int checkLimit(int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("Number of iterations to keep must be at least 1");
+        }
+        return k;
+    }
+
+    @Override
+    public String toString() {
+        return mode == Mode.ALL || mode == Mode.NONE ? mode.getDisplayName() : mode.getDisplayName() + " (" + limit + ")";
+    }
+}
@@ -0,0 +1,46 @@
+package com.numerical.rootfinder.model.expression;
+
+public enum BinaryOperator {
+    ADD('+'),
+    SUBTRACT('-'),
+    MULTIPLY('*'),
+    DIVIDE('/'),
+    MODULO('%'),
+    POWER('^');
+
+    private final char symbol;
+
+    BinaryOperator(char symbol) {
+        this.symbol = symbol;
+    }
+
+    public char getSymbol() { return symbol; }
+
+    public double apply(double a, double b) {
+        switch (this) {
+            case ADD: return a + b;
+            case SUBTRACT: return a - b;
+            case MULTIPLY: return a * b;
+            case DIVIDE: return divide(a, b);
+            case MODULO: return modulo(a, b);
+            case POWER: return Math.pow(a, b);
+            default:
+                throw new IllegalStateException("Unknown operator " + symbol);
+        }
+    }
+
+    // Same checks exp4j performs, so error messages and plot gaps stay as they were
+    static double divide(double a, double b) {
+        if (b == 0.0) {
+            throw new ArithmeticException("Division by zero!");
+        }
+        return a / b;
+    }
+
+    static double modulo(double a, double b) {
+        if (b == 0.0) {
+            throw new ArithmeticException("Division by zero!");
+        }
+        return a % b;
+    }
+}
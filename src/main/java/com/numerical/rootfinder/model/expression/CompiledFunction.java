@@ -0,0 +1,117 @@
+package com.numerical.rootfinder.model.expression;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * A function of x compiled from its source text, optionally with named parameters.
+ * <p>
+ * Parameter values are the only mutable state: they are read on every evaluation, so changing
+ * one takes effect immediately without recompiling. Share an instance between threads only
+ * while its parameters stay fixed; otherwise give each thread its own {@link #copy()}, which
+ * shares the compiled code and has its own parameter values.
+ */
+public final class CompiledFunction implements DoubleUnaryOperator {
+
+    private final String expression;
+    private final Node tree;
+    private final String[] parameterNames;
+    private final double[] parameters;
+    // Shared by every copy; only the backends' parameter arrays differ
+    private final ExpressionCompiler.ParameterizedOperator compiled;
+    private final DifferentiableFunction derivatives;
+    private final DoubleDoubleFunction extended;
+    private final IntervalFunction interval;
+
+    private CompiledFunction(String expression, Node tree, String[] parameterNames, double[] parameters) {
+        this.expression = expression;
+        this.tree = tree;
+        this.parameterNames = parameterNames;
+        this.parameters = parameters;
+        this.compiled = ExpressionCompiler.compileParameterized(tree);
+        this.derivatives = DifferentiableFunction.compile(tree, parameters);
+        this.extended = DoubleDoubleFunction.compile(tree, parameters);
+        this.interval = IntervalFunction.compile(tree, parameters);
+    }
+
+    private CompiledFunction(CompiledFunction original, double[] parameters) {
+        this.expression = original.expression;
+        this.tree = original.tree;
+        this.parameterNames = original.parameterNames;
+        this.parameters = parameters;
+        this.compiled = original.compiled;
+        this.derivatives = original.derivatives.withParameters(parameters);
+        this.extended = original.extended.withParameters(parameters);
+        this.interval = original.interval.withParameters(parameters);
+    }
+
+    public static CompiledFunction compile(String expression) {
+        return compile(expression, new String[0]);
+    }
+
+    /** Compiles an expression in x and the named parameters, which all start at 0. */
+    public static CompiledFunction compile(String expression, String... parameterNames) {
+        String[] names = parameterNames.clone();
+        return new CompiledFunction(expression, ExpressionParser.parse(expression, names), names,
+                new double[names.length]);
+    }
+
+    /**
+     * An independent function with the same expression and current parameter values. Nothing is
+     * parsed or compiled again; the copy only gets its own parameter values.
+     */
+    public CompiledFunction copy() {
+        return new CompiledFunction(this, parameters.clone());
+    }
+
+    @Override
+    public double applyAsDouble(double x) {
+        return compiled.applyAsDouble(x, parameters);
+    }
+
+    public String getExpression() { return expression; }
+
+    public Node getTree() { return tree; }
+
+    public List<String> getParameterNames() {
+        return Arrays.asList(parameterNames.clone());
+    }
+
+    /** The position of a parameter, or -1 if the function has none by that name. */
+    public int parameterIndex(String name) {
+        for (int i = 0; i < parameterNames.length; i++) {
+            if (parameterNames[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public double getParameter(int index) {
+        return parameters[index];
+    }
+
+    public void setParameter(int index, double value) {
+        parameters[index] = value;
+    }
+
+    /** Exact first and second derivatives of this function by forward-mode differentiation. */
+    public DifferentiableFunction getDerivatives() { return derivatives; }
+
+    /** This function in double-double precision, for polishing roots past double accuracy. */
+    public DoubleDoubleFunction getExtendedPrecision() { return extended; }
+
+    /** This function in interval arithmetic, for enclosures that provably contain every value. */
+    public IntervalFunction getIntervalExtension() { return interval; }
+
+    /** The polynomial this function is, or null if it is not one or uses parameters. */
+    public Polynomial getPolynomial() {
+        return parameterNames.length == 0 ? Polynomial.fromTree(tree) : null;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
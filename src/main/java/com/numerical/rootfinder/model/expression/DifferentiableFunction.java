@@ -0,0 +1,490 @@
+package com.numerical.rootfinder.model.expression;
+
+/**
+ * Forward-mode automatic differentiation of a parsed expression. An {@link Evaluator} mirrors
+ * the folded syntax tree with nodes that each carry a truncated Taylor jet (f, f', f''), so one
+ * pass over the tree yields the value and both derivatives exactly, with no step size. A
+ * polynomial written as a sum of terms gets all three from one Horner pass instead.
+ * <p>
+ * This object is immutable and can be shared. The jets live in the evaluator, so give every
+ * thread (or every solve) its own. Parameters are read from the array given to
+ * {@link #compile(Node, double[])} and have zero derivative.
+ */
+public final class DifferentiableFunction {
+
+    private static final double LN2 = Math.log(2.0);
+    private static final double LN10 = Math.log(10.0);
+
+    private final Node tree;
+    private final double[] parameters;
+    private final Polynomial polynomial;
+
+    private DifferentiableFunction(Node tree, double[] parameters, Polynomial polynomial) {
+        this.tree = tree;
+        this.parameters = parameters;
+        this.polynomial = polynomial;
+    }
+
+    public static DifferentiableFunction compile(Node tree) {
+        return compile(tree, new double[0]);
+    }
+
+    public static DifferentiableFunction compile(Node tree, double[] parameters) {
+        return new DifferentiableFunction(ExpressionCompiler.fold(tree), parameters, Polynomial.forEvaluation(tree));
+    }
+
+    // The same folded tree reading its parameters from another array, without folding again
+    DifferentiableFunction withParameters(double[] parameters) {
+        return new DifferentiableFunction(tree, parameters, polynomial);
+    }
+
+    public Evaluator evaluator() {
+        return new Evaluator(true);
+    }
+
+    /** An evaluator that skips the second derivative, for methods that only need f'. */
+    public Evaluator firstOrderEvaluator() {
+        return new Evaluator(false);
+    }
+
+    public final class Evaluator {
+        private final boolean second;
+        private final Jet root;
+
+        private Evaluator(boolean second) {
+            this.second = second;
+            this.root = polynomial != null ? new PolynomialJet(polynomial) : build(tree, second, parameters);
+        }
+
+        /** Evaluates f(x); the derivatives are then available from {@link #first()} and {@link #second()}. */
+        public double evaluate(double x) {
+            root.eval(x);
+            return root.v;
+        }
+
+        public double value() { return root.v; }
+
+        public double first() { return root.d; }
+
+        /** f''(x); NaN for a {@link #firstOrderEvaluator() first-order} evaluator. */
+        public double second() { return second ? root.dd : Double.NaN; }
+    }
+
+    private static Jet build(Node node, boolean second, double[] p) {
+        if (node instanceof Node.Constant) {
+            return new ConstantJet(((Node.Constant) node).getValue());
+        }
+        if (node instanceof Node.Variable) {
+            return new VariableJet();
+        }
+        if (node instanceof Node.Parameter) {
+            return new ParameterJet(p, ((Node.Parameter) node).getIndex());
+        }
+        if (node instanceof Node.Negate) {
+            return new NegateJet(build(((Node.Negate) node).getOperand(), second, p));
+        }
+        if (node instanceof Node.Binary) {
+            Node.Binary binary = (Node.Binary) node;
+            Jet left = build(binary.getLeft(), second, p);
+            if (binary.getOperator() == BinaryOperator.POWER && binary.getRight().isConstant()) {
+                return new ConstantPowerJet(left, ((Node.Constant) binary.getRight()).getValue(), second);
+            }
+            Jet right = build(binary.getRight(), second, p);
+            switch (binary.getOperator()) {
+                case ADD: return new AddJet(left, right, false);
+                case SUBTRACT: return new AddJet(left, right, true);
+                case MULTIPLY: return new MultiplyJet(left, right, second);
+                case DIVIDE: return new DivideJet(left, right, second);
+                case MODULO: return new ModuloJet(left, right);
+                default: return new PowerJet(left, right, second);
+            }
+        }
+        Node.Call call = (Node.Call) node;
+        if (call.getFunction() == MathFunction.POW) {
+            return new PowerJet(build(call.getArgument(0), second, p), build(call.getArgument(1), second, p), second);
+        }
+        return new CallJet(call.getFunction(), build(call.getArgument(0), second, p), second);
+    }
+
+    // A node's value and first two derivatives with respect to x, refreshed by eval
+    private abstract static class Jet {
+        double v;
+        double d;
+        double dd;
+
+        abstract void eval(double x);
+    }
+
+    private static final class PolynomialJet extends Jet {
+        private final Polynomial polynomial;
+        private final double[] out = new double[3];
+
+        PolynomialJet(Polynomial polynomial) {
+            this.polynomial = polynomial;
+        }
+
+        @Override
+        void eval(double x) {
+            polynomial.evaluate(x, out);
+            v = out[0];
+            d = out[1];
+            dd = out[2];
+        }
+    }
+
+    private static final class ConstantJet extends Jet {
+        ConstantJet(double value) {
+            v = value;
+        }
+
+        @Override
+        void eval(double x) {
+        }
+    }
+
+    private static final class VariableJet extends Jet {
+        VariableJet() {
+            d = 1;
+        }
+
+        @Override
+        void eval(double x) {
+            v = x;
+        }
+    }
+
+    private static final class ParameterJet extends Jet {
+        private final double[] p;
+        private final int index;
+
+        ParameterJet(double[] p, int index) {
+            this.p = p;
+            this.index = index;
+        }
+
+        @Override
+        void eval(double x) {
+            v = p[index];
+        }
+    }
+
+    private static final class NegateJet extends Jet {
+        private final Jet a;
+
+        NegateJet(Jet a) {
+            this.a = a;
+        }
+
+        @Override
+        void eval(double x) {
+            a.eval(x);
+            v = -a.v;
+            d = -a.d;
+            dd = -a.dd;
+        }
+    }
+
+    private static final class AddJet extends Jet {
+        private final Jet a;
+        private final Jet b;
+        private final boolean subtract;
+
+        AddJet(Jet a, Jet b, boolean subtract) {
+            this.a = a;
+            this.b = b;
+            this.subtract = subtract;
+        }
+
+        @Override
+        void eval(double x) {
+            a.eval(x);
+            b.eval(x);
+            if (subtract) {
+                v = a.v - b.v;
+                d = a.d - b.d;
+                dd = a.dd - b.dd;
+            } else {
+                v = a.v + b.v;
+                d = a.d + b.d;
+                dd = a.dd + b.dd;
+            }
+        }
+    }
+
+    private static final class MultiplyJet extends Jet {
+        private final Jet a;
+        private final Jet b;
+        private final boolean second;
+
+        MultiplyJet(Jet a, Jet b, boolean second) {
+            this.a = a;
+            this.b = b;
+            this.second = second;
+        }
+
+        @Override
+        void eval(double x) {
+            a.eval(x);
+            b.eval(x);
+            v = a.v * b.v;
+            d = a.d * b.v + a.v * b.d;
+            if (second) {
+                dd = a.dd * b.v + 2 * a.d * b.d + a.v * b.dd;
+            }
+        }
+    }
+
+    private static final class DivideJet extends Jet {
+        private final Jet a;
+        private final Jet b;
+        private final boolean second;
+
+        DivideJet(Jet a, Jet b, boolean second) {
+            this.a = a;
+            this.b = b;
+            this.second = second;
+        }
+
+        @Override
+        void eval(double x) {
+            a.eval(x);
+            b.eval(x);
+            v = BinaryOperator.divide(a.v, b.v);
+            d = (a.d - v * b.d) / b.v;
+            if (second) {
+                dd = (a.dd - 2 * d * b.d - v * b.dd) / b.v;
+            }
+        }
+    }
+
+    private static final class ModuloJet extends Jet {
+        private final Jet a;
+        private final Jet b;
+
+        ModuloJet(Jet a, Jet b) {
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        void eval(double x) {
+            a.eval(x);
+            b.eval(x);
+            // a % b = a - k*b with k = trunc(a/b), locally constant
+            v = BinaryOperator.modulo(a.v, b.v);
+            double k = (a.v - v) / b.v;
+            d = a.d - k * b.d;
+            dd = a.dd - k * b.dd;
+        }
+    }
+
+    private static final class ConstantPowerJet extends Jet {
+        private final Jet a;
+        private final double c;
+        private final boolean second;
+
+        ConstantPowerJet(Jet a, double c, boolean second) {
+            this.a = a;
+            this.c = c;
+            this.second = second;
+        }
+
+        @Override
+        void eval(double x) {
+            a.eval(x);
+            power(this, a, c, second);
+        }
+    }
+
+    private static final class PowerJet extends Jet {
+        private final Jet a;
+        private final Jet b;
+        private final boolean second;
+
+        PowerJet(Jet a, Jet b, boolean second) {
+            this.a = a;
+            this.b = b;
+            this.second = second;
+        }
+
+        @Override
+        void eval(double x) {
+            a.eval(x);
+            b.eval(x);
+            if (b.d == 0 && b.dd == 0) {
+                // Exponent constant here; avoids log(a) so negative bases with integer exponents work
+                power(this, a, b.v, second);
+                return;
+            }
+            // a^b = exp(g) with g = b*ln(a)
+            double ln = Math.log(a.v);
+            double g1 = b.d * ln + b.v * a.d / a.v;
+            v = Math.pow(a.v, b.v);
+            d = v * g1;
+            if (second) {
+                double g2 = b.dd * ln + 2 * b.d * a.d / a.v + b.v * (a.dd / a.v - a.d * a.d / (a.v * a.v));
+                dd = v * (g2 + g1 * g1);
+            }
+        }
+    }
+
+    private static void power(Jet out, Jet a, double c, boolean second) {
+        double u = a.v;
+        if (c == 2) {
+            out.v = u * u;
+            out.d = 2 * u * a.d;
+            if (second) {
+                out.dd = 2 * (a.d * a.d + u * a.dd);
+            }
+            return;
+        }
+        if (c == 3) {
+            double u2 = u * u;
+            out.v = u2 * u;
+            out.d = 3 * u2 * a.d;
+            if (second) {
+                out.dd = 6 * u * a.d * a.d + 3 * u2 * a.dd;
+            }
+            return;
+        }
+        out.v = Math.pow(u, c);
+        if (c == 0) {
+            out.d = 0;
+            out.dd = 0;
+            return;
+        }
+        double g1 = c * Math.pow(u, c - 1);
+        out.d = g1 * a.d;
+        if (second) {
+            double g2 = c == 1 ? 0 : c * (c - 1) * Math.pow(u, c - 2);
+            out.dd = g2 * a.d * a.d + g1 * a.dd;
+        }
+    }
+
+    private static final class CallJet extends Jet {
+        private final MathFunction function;
+        private final Jet a;
+        private final boolean second;
+
+        CallJet(MathFunction function, Jet a, boolean second) {
+            this.function = function;
+            this.a = a;
+            this.second = second;
+        }
+
+        @Override
+        void eval(double x) {
+            a.eval(x);
+            double u = a.v;
+            double g1;
+            double g2;
+            switch (function) {
+                case SIN:
+                    v = Math.sin(u);
+                    g1 = Math.cos(u);
+                    g2 = -v;
+                    break;
+                case COS:
+                    v = Math.cos(u);
+                    g1 = -Math.sin(u);
+                    g2 = -v;
+                    break;
+                case TAN:
+                    v = Math.tan(u);
+                    g1 = 1 + v * v;
+                    g2 = 2 * v * g1;
+                    break;
+                case COT:
+                    v = MathFunction.cot(u);
+                    g1 = -(1 + v * v);
+                    g2 = -2 * v * g1;
+                    break;
+                case ASIN:
+                    v = Math.asin(u);
+                    g1 = 1 / Math.sqrt(1 - u * u);
+                    g2 = u * g1 * g1 * g1;
+                    break;
+                case ACOS:
+                    v = Math.acos(u);
+                    g1 = -1 / Math.sqrt(1 - u * u);
+                    g2 = u * g1 * g1 * g1;
+                    break;
+                case ATAN:
+                    v = Math.atan(u);
+                    g1 = 1 / (1 + u * u);
+                    g2 = -2 * u * g1 * g1;
+                    break;
+                case SINH:
+                    v = Math.sinh(u);
+                    g1 = Math.cosh(u);
+                    g2 = v;
+                    break;
+                case COSH:
+                    v = Math.cosh(u);
+                    g1 = Math.sinh(u);
+                    g2 = v;
+                    break;
+                case TANH:
+                    v = Math.tanh(u);
+                    g1 = 1 - v * v;
+                    g2 = -2 * v * g1;
+                    break;
+                case ABS:
+                    v = Math.abs(u);
+                    g1 = Math.signum(u);
+                    g2 = 0;
+                    break;
+                case LOG:
+                    v = Math.log(u);
+                    g1 = 1 / u;
+                    g2 = -g1 * g1;
+                    break;
+                case LOG10:
+                    v = Math.log10(u);
+                    g1 = 1 / (u * LN10);
+                    g2 = -g1 / u;
+                    break;
+                case LOG2:
+                    v = function.apply(u);
+                    g1 = 1 / (u * LN2);
+                    g2 = -g1 / u;
+                    break;
+                case LOG1P:
+                    v = Math.log1p(u);
+                    g1 = 1 / (1 + u);
+                    g2 = -g1 * g1;
+                    break;
+                case SQRT:
+                    v = Math.sqrt(u);
+                    g1 = 0.5 / v;
+                    g2 = -0.5 * g1 / u;
+                    break;
+                case CBRT:
+                    v = Math.cbrt(u);
+                    g1 = 1 / (3 * v * v);
+                    g2 = -2 * g1 / (3 * u);
+                    break;
+                case EXP:
+                    v = Math.exp(u);
+                    g1 = v;
+                    g2 = v;
+                    break;
+                case EXPM1:
+                    v = Math.expm1(u);
+                    g1 = v + 1;
+                    g2 = g1;
+                    break;
+                default:
+                    // ceil, floor, signum: piecewise constant
+                    v = function.apply(u);
+                    g1 = 0;
+                    g2 = 0;
+                    break;
+            }
+            d = g1 * a.d;
+            if (second) {
+                dd = g2 * a.d * a.d + g1 * a.dd;
+            }
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.numerical.rootfinder.model.expression;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+/**
+ * A mutable double-double number: the unevaluated sum {@code hi + lo} of two doubles with
+ * {@code |lo| <= ulp(hi) / 2}, good for about 106 bits (32 decimal digits). Operations write
+ * their result into the receiver, so a computation reuses a few instances and allocates
+ * nothing; the arguments may be the receiver itself.
+ * <p>
+ * The arithmetic is the usual error-free transformation scheme (Dekker, Knuth), with the
+ * product error from {@link Math#fma}. Not thread-safe.
+ */
+public final class DoubleDouble {
+
+    /** Decimal digits a double-double carries. */
+    public static final int DIGITS = 32;
+
+    private static final MathContext CONTEXT = new MathContext(DIGITS);
+
+    double hi;
+    double lo;
+
+    public DoubleDouble() {
+    }
+
+    public DoubleDouble(double hi, double lo) {
+        set(hi, lo);
+    }
+
+    /** The double-double nearest a decimal number, e.g. from a literal or a saved result. */
+    public static DoubleDouble valueOf(BigDecimal value) {
+        double hi = value.doubleValue();
+        if (!Double.isFinite(hi)) {
+            return new DoubleDouble(hi, 0);
+        }
+        return new DoubleDouble(hi, value.subtract(new BigDecimal(hi)).doubleValue());
+    }
+
+    public double hi() { return hi; }
+
+    public double lo() { return lo; }
+
+    /** The nearest double, which is {@link #hi()}. */
+    public double doubleValue() {
+        return hi;
+    }
+
+    public boolean isFinite() {
+        return Double.isFinite(hi);
+    }
+
+    /** Sets the value to hi + lo, renormalized. */
+    public DoubleDouble set(double hi, double lo) {
+        double s = hi + lo;
+        if (!Double.isFinite(s)) {
+            this.hi = s;
+            this.lo = 0;
+            return this;
+        }
+        this.hi = s;
+        this.lo = lo - (s - hi);
+        return this;
+    }
+
+    public DoubleDouble set(DoubleDouble a) {
+        hi = a.hi;
+        lo = a.lo;
+        return this;
+    }
+
+    public DoubleDouble add(DoubleDouble a, DoubleDouble b) {
+        return setSum(a.hi, a.lo, b.hi, b.lo);
+    }
+
+    public DoubleDouble add(DoubleDouble a, double b) {
+        return setSum(a.hi, a.lo, b, 0);
+    }
+
+    public DoubleDouble subtract(DoubleDouble a, DoubleDouble b) {
+        return setSum(a.hi, a.lo, -b.hi, -b.lo);
+    }
+
+    public DoubleDouble multiply(DoubleDouble a, DoubleDouble b) {
+        return setProduct(a.hi, a.lo, b.hi, b.lo);
+    }
+
+    public DoubleDouble multiply(DoubleDouble a, double b) {
+        return setProduct(a.hi, a.lo, b, 0);
+    }
+
+    /** a / b; like double division it gives an infinity or NaN for a zero divisor rather than throwing. */
+    public DoubleDouble divide(DoubleDouble a, DoubleDouble b) {
+        return setQuotient(a.hi, a.lo, b.hi, b.lo);
+    }
+
+    public DoubleDouble divide(DoubleDouble a, double b) {
+        return setQuotient(a.hi, a.lo, b, 0);
+    }
+
+    /** Multiplies by 2^n, which is exact. */
+    public DoubleDouble scale(DoubleDouble a, int n) {
+        hi = Math.scalb(a.hi, n);
+        lo = Math.scalb(a.lo, n);
+        return this;
+    }
+
+    public DoubleDouble negate(DoubleDouble a) {
+        hi = -a.hi;
+        lo = -a.lo;
+        return this;
+    }
+
+    public DoubleDouble abs(DoubleDouble a) {
+        return a.hi < 0 ? negate(a) : set(a);
+    }
+
+    public DoubleDouble floor(DoubleDouble a) {
+        double h = Math.floor(a.hi);
+        return h == a.hi ? set(h, Math.floor(a.lo)) : set(h, 0);
+    }
+
+    public DoubleDouble ceil(DoubleDouble a) {
+        double h = Math.ceil(a.hi);
+        return h == a.hi ? set(h, Math.ceil(a.lo)) : set(h, 0);
+    }
+
+    /** Rounds toward zero. */
+    public DoubleDouble truncate(DoubleDouble a) {
+        return a.hi < 0 ? ceil(a) : floor(a);
+    }
+
+    public DoubleDouble sqrt(DoubleDouble a) {
+        double ah = a.hi;
+        double al = a.lo;
+        if (ah <= 0 || !Double.isFinite(ah)) {
+            return set(Math.sqrt(ah), 0);
+        }
+        // One Newton step from the double square root doubles its digits (Karp and Markstein)
+        double y = Math.sqrt(ah);
+        double yy = y * y;
+        setSum(ah, al, -yy, -Math.fma(y, y, -yy));
+        return setSum(y, 0, hi * (0.5 / y), 0);
+    }
+
+    /** Compares values, treating -0 as 0; NaN compares as Double.compare does. */
+    public int compareTo(DoubleDouble other) {
+        int c = Double.compare(hi + 0.0, other.hi + 0.0);
+        return c != 0 ? c : Double.compare(lo + 0.0, other.lo + 0.0);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return new BigDecimal(hi).add(new BigDecimal(lo));
+    }
+
+    /** The value to {@link #DIGITS} significant digits. */
+    @Override
+    public String toString() {
+        if (!Double.isFinite(hi)) {
+            return Double.toString(hi);
+        }
+        return toBigDecimal().round(CONTEXT).stripTrailingZeros().toString();
+    }
+
+    // (ah + al) + (bh + bl), with both error terms carried
+    private DoubleDouble setSum(double ah, double al, double bh, double bl) {
+        double s = ah + bh;
+        if (!Double.isFinite(s)) {
+            hi = s;
+            lo = 0;
+            return this;
+        }
+        double v = s - ah;
+        double e = (ah - (s - v)) + (bh - v);
+        double t = al + bl;
+        double w = t - al;
+        double f = (al - (t - w)) + (bl - w);
+        e += t;
+        double s2 = s + e;
+        e = e - (s2 - s);
+        e += f;
+        hi = s2 + e;
+        lo = e - (hi - s2);
+        return this;
+    }
+
+    // Long division, one double-sized digit at a time
+    private DoubleDouble setQuotient(double ah, double al, double bh, double bl) {
+        double q1 = ah / bh;
+        if (!Double.isFinite(q1) || q1 == 0) {
+            return set(q1, 0);
+        }
+        setProduct(bh, bl, q1, 0);
+        setSum(ah, al, -hi, -lo);
+        double rh = hi;
+        double rl = lo;
+        double q2 = rh / bh;
+        setProduct(bh, bl, q2, 0);
+        setSum(rh, rl, -hi, -lo);
+        double q3 = hi / bh;
+        double s = q1 + q2;
+        return setSum(s, q2 - (s - q1), q3, 0);
+    }
+
+    private DoubleDouble setProduct(double ah, double al, double bh, double bl) {
+        double p = ah * bh;
+        if (!Double.isFinite(p)) {
+            hi = p;
+            lo = 0;
+            return this;
+        }
+        double e = Math.fma(ah, bh, -p) + (ah * bl + al * bh);
+        hi = p + e;
+        lo = e - (hi - p);
+        return this;
+    }
+}
@@ -0,0 +1,247 @@
+package com.numerical.rootfinder.model.expression;
+
+/**
+ * Evaluates a parsed expression in {@link DoubleDouble} precision, about 32 significant digits
+ * instead of 16. An {@link Evaluator} mirrors the syntax tree with nodes that each hold their
+ * value in a preallocated double-double, so evaluation allocates nothing. Constants keep the
+ * low part the parser recorded, so {@code 0.1} and {@code pi} are exact to 32 digits rather
+ * than rounded doubles; parameter values are doubles.
+ * <p>
+ * This object is immutable and can be shared. Give every thread its own evaluator. Errors
+ * match the double evaluation: division by zero and cot at a multiple of pi throw
+ * {@link ArithmeticException}, other domain errors give NaN.
+ */
+public final class DoubleDoubleFunction {
+
+    private final Node tree;
+    private final double[] parameters;
+
+    private DoubleDoubleFunction(Node tree, double[] parameters) {
+        this.tree = tree;
+        this.parameters = parameters;
+    }
+
+    public static DoubleDoubleFunction compile(Node tree) {
+        return compile(tree, new double[0]);
+    }
+
+    /** Compiles a tree whose parameter {@code i} reads {@code parameters[i]} on every evaluation. */
+    public static DoubleDoubleFunction compile(Node tree, double[] parameters) {
+        return new DoubleDoubleFunction(tree, parameters);
+    }
+
+    // The same tree reading its parameters from another array
+    DoubleDoubleFunction withParameters(double[] parameters) {
+        return new DoubleDoubleFunction(tree, parameters);
+    }
+
+    public Evaluator evaluator() {
+        return new Evaluator();
+    }
+
+    public final class Evaluator {
+        private final DoubleDoubleMath math = new DoubleDoubleMath();
+        private final Term root;
+
+        private Evaluator() {
+            this.root = build(tree, math, parameters);
+        }
+
+        /** f(x); the returned value belongs to the evaluator and is overwritten by the next call. */
+        public DoubleDouble evaluate(DoubleDouble x) {
+            root.eval(x.hi, x.lo);
+            return root.v;
+        }
+
+        public DoubleDouble evaluate(double x) {
+            root.eval(x, 0);
+            return root.v;
+        }
+    }
+
+    private static Term build(Node node, DoubleDoubleMath math, double[] p) {
+        if (node instanceof Node.Constant) {
+            Node.Constant constant = (Node.Constant) node;
+            return new ConstantTerm(constant.getValue(), constant.getLow());
+        }
+        if (node instanceof Node.Variable) {
+            return new VariableTerm();
+        }
+        if (node instanceof Node.Parameter) {
+            return new ParameterTerm(p, ((Node.Parameter) node).getIndex());
+        }
+        if (node instanceof Node.Negate) {
+            return fold(new NegateTerm(build(((Node.Negate) node).getOperand(), math, p)));
+        }
+        if (node instanceof Node.Binary) {
+            Node.Binary binary = (Node.Binary) node;
+            return fold(new BinaryTerm(binary.getOperator(), build(binary.getLeft(), math, p),
+                    build(binary.getRight(), math, p), math));
+        }
+        Node.Call call = (Node.Call) node;
+        Term argument = build(call.getArgument(0), math, p);
+        if (call.getFunction() == MathFunction.POW) {
+            return fold(new BinaryTerm(BinaryOperator.POWER, argument, build(call.getArgument(1), math, p), math));
+        }
+        return fold(new CallTerm(call.getFunction(), argument, math));
+    }
+
+    // Evaluates a term of constants once; one that throws is kept so the error surfaces on evaluation
+    private static Term fold(Term term) {
+        if (!term.isConstant()) {
+            return term;
+        }
+        try {
+            term.eval(0, 0);
+        } catch (ArithmeticException e) {
+            return term;
+        }
+        return new ConstantTerm(term.v.hi, term.v.lo);
+    }
+
+    // A node's value, refreshed by eval
+    private abstract static class Term {
+        final DoubleDouble v = new DoubleDouble();
+
+        abstract void eval(double xHi, double xLo);
+
+        boolean isConstant() {
+            return false;
+        }
+    }
+
+    private static final class ConstantTerm extends Term {
+        ConstantTerm(double hi, double lo) {
+            v.set(hi, lo);
+        }
+
+        @Override
+        void eval(double xHi, double xLo) {
+        }
+
+        @Override
+        boolean isConstant() {
+            return true;
+        }
+    }
+
+    private static final class VariableTerm extends Term {
+        @Override
+        void eval(double xHi, double xLo) {
+            v.hi = xHi;
+            v.lo = xLo;
+        }
+    }
+
+    private static final class ParameterTerm extends Term {
+        private final double[] p;
+        private final int index;
+
+        ParameterTerm(double[] p, int index) {
+            this.p = p;
+            this.index = index;
+        }
+
+        @Override
+        void eval(double xHi, double xLo) {
+            v.hi = p[index];
+            v.lo = 0;
+        }
+    }
+
+    private static final class NegateTerm extends Term {
+        private final Term a;
+
+        NegateTerm(Term a) {
+            this.a = a;
+        }
+
+        @Override
+        void eval(double xHi, double xLo) {
+            a.eval(xHi, xLo);
+            v.negate(a.v);
+        }
+
+        @Override
+        boolean isConstant() {
+            return a.isConstant();
+        }
+    }
+
+    private static final class BinaryTerm extends Term {
+        private final BinaryOperator operator;
+        private final Term a;
+        private final Term b;
+        private final DoubleDoubleMath math;
+
+        BinaryTerm(BinaryOperator operator, Term a, Term b, DoubleDoubleMath math) {
+            this.operator = operator;
+            this.a = a;
+            this.b = b;
+            this.math = math;
+        }
+
+        @Override
+        void eval(double xHi, double xLo) {
+            a.eval(xHi, xLo);
+            b.eval(xHi, xLo);
+            switch (operator) {
+                case ADD:
+                    v.add(a.v, b.v);
+                    break;
+                case SUBTRACT:
+                    v.subtract(a.v, b.v);
+                    break;
+                case MULTIPLY:
+                    v.multiply(a.v, b.v);
+                    break;
+                case DIVIDE:
+                    checkDivisor();
+                    v.divide(a.v, b.v);
+                    break;
+                case MODULO:
+                    checkDivisor();
+                    math.remainder(a.v, b.v, v);
+                    break;
+                default:
+                    math.pow(a.v, b.v, v);
+                    break;
+            }
+        }
+
+        // The same check as BinaryOperator, so errors match the double evaluation
+        private void checkDivisor() {
+            if (b.v.hi == 0.0) {
+                throw new ArithmeticException("Division by zero!");
+            }
+        }
+
+        @Override
+        boolean isConstant() {
+            return a.isConstant() && b.isConstant();
+        }
+    }
+
+    private static final class CallTerm extends Term {
+        private final MathFunction function;
+        private final Term a;
+        private final DoubleDoubleMath math;
+
+        CallTerm(MathFunction function, Term a, DoubleDoubleMath math) {
+            this.function = function;
+            this.a = a;
+            this.math = math;
+        }
+
+        @Override
+        void eval(double xHi, double xLo) {
+            a.eval(xHi, xLo);
+            math.apply(function, a.v, v);
+        }
+
+        @Override
+        boolean isConstant() {
+            return a.isConstant();
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package com.numerical.rootfinder.model.expression;
+
+/**
+ * The elementary functions of {@link MathFunction} in double-double precision. Each starts
+ * from the double result or a range-reduced argument and corrects it with a Newton step or a
+ * short Taylor series, so the cost is a few dozen double-double operations.
+ * <p>
+ * The working registers are fields, so evaluation allocates nothing; one instance serves
+ * one evaluator on one thread. Arguments may be the output. Very large arguments to the
+ * trigonometric functions lose digits in the reduction, as {@code x mod pi/2} needs more
+ * bits of pi than a double-double has.
+ */
+final class DoubleDoubleMath {
+
+    static final DoubleDouble PI = new DoubleDouble(3.141592653589793116e+00, 1.224646799147353207e-16);
+    static final DoubleDouble HALF_PI = new DoubleDouble(1.570796326794896558e+00, 6.123233995736766036e-17);
+    static final DoubleDouble E = new DoubleDouble(2.718281828459045091e+00, 1.445646891729250158e-16);
+    static final DoubleDouble LN2 = new DoubleDouble(6.931471805599452862e-01, 2.319046813846299558e-17);
+    static final DoubleDouble LN10 = new DoubleDouble(2.302585092994045901e+00, -2.170756223382249351e-16);
+
+    // Below this a series term no longer changes a double-double near 1
+    private static final double NEGLIGIBLE = 1e-33;
+    // exp reduces its argument by 2^9 before the series and squares back up
+    private static final int EXP_HALVINGS = 9;
+    // 1/n!, so the series multiply rather than divide
+    private static final DoubleDouble[] INVERSE_FACTORIALS = inverseFactorials(32);
+
+    // Registers, split by function so exp, log and sin/cos can call each other
+    private final DoubleDouble e0 = new DoubleDouble();
+    private final DoubleDouble e1 = new DoubleDouble();
+    private final DoubleDouble e2 = new DoubleDouble();
+    private final DoubleDouble e3 = new DoubleDouble();
+    private final DoubleDouble l0 = new DoubleDouble();
+    private final DoubleDouble l1 = new DoubleDouble();
+    private final DoubleDouble t0 = new DoubleDouble();
+    private final DoubleDouble t1 = new DoubleDouble();
+    private final DoubleDouble t2 = new DoubleDouble();
+    private final DoubleDouble s0 = new DoubleDouble();
+    private final DoubleDouble s1 = new DoubleDouble();
+    private final DoubleDouble c0 = new DoubleDouble();
+    private final DoubleDouble c1 = new DoubleDouble();
+    private final DoubleDouble h0 = new DoubleDouble();
+    private final DoubleDouble h1 = new DoubleDouble();
+
+    /** Applies a one-argument function, with exp4j's semantics (NaN outside the domain, cot's error). */
+    void apply(MathFunction function, DoubleDouble a, DoubleDouble out) {
+        switch (function) {
+            case SIN:
+                sinCos(a, out, null);
+                break;
+            case COS:
+                sinCos(a, null, out);
+                break;
+            case TAN:
+                sinCos(a, s1, c0);
+                out.divide(s1, c0);
+                break;
+            case COT:
+                sinCos(a, s1, c0);
+                if (s1.hi == 0) {
+                    throw new ArithmeticException("Division by zero in cotangent!");
+                }
+                out.divide(c0, s1);
+                break;
+            case ASIN:
+                asin(a, out);
+                break;
+            case ACOS:
+                acos(a, out);
+                break;
+            case ATAN:
+                atan(a, out);
+                break;
+            case SINH:
+                sinh(a, out);
+                break;
+            case COSH:
+                exp(a, h0);
+                h1.divide(one(h1), h0);
+                out.add(h0, h1).scale(out, -1);
+                break;
+            case TANH:
+                tanh(a, out);
+                break;
+            case ABS:
+                out.abs(a);
+                break;
+            case LOG:
+                log(a, out);
+                break;
+            case LOG10:
+                log(a, out);
+                out.divide(out, LN10);
+                break;
+            case LOG2:
+                log(a, out);
+                out.divide(out, LN2);
+                break;
+            case LOG1P:
+                log1p(a, out);
+                break;
+            case CEIL:
+                out.ceil(a);
+                break;
+            case FLOOR:
+                out.floor(a);
+                break;
+            case SQRT:
+                out.sqrt(a);
+                break;
+            case CBRT:
+                cbrt(a, out);
+                break;
+            case EXP:
+                exp(a, out);
+                break;
+            case EXPM1:
+                expm1(a, out);
+                break;
+            case SIGNUM:
+                out.set(Math.signum(a.hi), 0);
+                break;
+            default:
+                throw new IllegalStateException(function.getName() + " expects " + function.getArity() + " arguments");
+        }
+    }
+
+    void exp(DoubleDouble a, DoubleDouble out) {
+        int k = expReduce(a);
+        if (k == Integer.MAX_VALUE) {
+            out.set(e0);
+            return;
+        }
+        // out = (1 + expm1(r)) * 2^k
+        out.add(e0, 1).scale(out, k);
+    }
+
+    void expm1(DoubleDouble a, DoubleDouble out) {
+        int k = expReduce(a);
+        if (k == Integer.MAX_VALUE) {
+            out.set(e0).add(out, -1);
+        } else if (k == 0) {
+            // Small arguments: the series result keeps its relative precision
+            out.set(e0);
+        } else {
+            out.add(e0, 1).scale(out, k).add(out, -1);
+        }
+    }
+
+    // Leaves expm1(a - k ln2) in e0 and returns k, or MAX_VALUE with exp(a) itself in e0 where it over- or underflows
+    private int expReduce(DoubleDouble a) {
+        double x = a.hi;
+        if (Double.isNaN(x) || x > 709.8) {
+            e0.set(Double.isNaN(x) ? x : Double.POSITIVE_INFINITY, 0);
+            return Integer.MAX_VALUE;
+        }
+        if (x < -745.2) {
+            e0.set(0, 0);
+            return Integer.MAX_VALUE;
+        }
+        int k = (int) Math.rint(x / LN2.hi);
+        // r = (a - k ln2) / 2^9
+        e1.multiply(LN2, k);
+        e1.subtract(a, e1).scale(e1, -EXP_HALVINGS);
+        // expm1(r) = r + r^2/2! + r^3/3! + ...; e2 holds r^n
+        e0.set(e1);
+        e2.set(e1);
+        for (int n = 2; n < INVERSE_FACTORIALS.length; n++) {
+            e2.multiply(e2, e1);
+            e3.multiply(e2, INVERSE_FACTORIALS[n]);
+            e0.add(e0, e3);
+            if (Math.abs(e3.hi) <= NEGLIGIBLE * Math.abs(e0.hi)) {
+                break;
+            }
+        }
+        // expm1(2r) = 2 expm1(r) + expm1(r)^2, which keeps the small result exact
+        for (int i = 0; i < EXP_HALVINGS; i++) {
+            e2.multiply(e0, e0);
+            e0.scale(e0, 1).add(e0, e2);
+        }
+        return k;
+    }
+
+    void log(DoubleDouble a, DoubleDouble out) {
+        double x = a.hi;
+        if (x <= 0 || !Double.isFinite(x)) {
+            out.set(Math.log(x), 0);
+            return;
+        }
+        // Newton on exp(y) = a: y += a exp(-y) - 1, from the double logarithm
+        l0.set(Math.log(x), 0);
+        l1.negate(l0);
+        exp(l1, l1);
+        l1.multiply(l1, a).add(l1, -1);
+        out.add(l0, l1);
+    }
+
+    void log1p(DoubleDouble a, DoubleDouble out) {
+        if (!(Math.abs(a.hi) < 0.25)) {
+            out.add(a, 1);
+            log(out, out);
+            return;
+        }
+        // log(1 + a) = 2 atanh(s) = 2 (s + s^3/3 + s^5/5 + ...) with s = a / (2 + a)
+        l0.add(a, 2);
+        l0.divide(a, l0);
+        l1.multiply(l0, l0);
+        t0.set(l0);
+        t1.set(l0);
+        for (int n = 3; n < 80; n += 2) {
+            t1.multiply(t1, l1);
+            t2.divide(t1, n);
+            t0.add(t0, t2);
+            if (Math.abs(t2.hi) <= NEGLIGIBLE * Math.abs(t0.hi)) {
+                break;
+            }
+        }
+        out.scale(t0, 1);
+    }
+
+    /** Either output may be null. */
+    void sinCos(DoubleDouble a, DoubleDouble sin, DoubleDouble cos) {
+        double x = a.hi;
+        if (!Double.isFinite(x)) {
+            if (sin != null) {
+                sin.set(Double.NaN, 0);
+            }
+            if (cos != null) {
+                cos.set(Double.NaN, 0);
+            }
+            return;
+        }
+        // r = a - j pi/2 with |r| <= pi/4; j mod 4 picks the quadrant
+        double j = Math.rint(x / HALF_PI.hi);
+        t0.multiply(HALF_PI, j);
+        t0.subtract(a, t0);
+        // sin r = r - r^3/3! + r^5/5! - ...; t2 holds (-1)^k r^(2k+1)
+        t1.multiply(t0, t0).negate(t1);
+        t2.set(t0);
+        s0.set(t0);
+        for (int n = 3; n < INVERSE_FACTORIALS.length; n += 2) {
+            t2.multiply(t2, t1);
+            c1.multiply(t2, INVERSE_FACTORIALS[n]);
+            s0.add(s0, c1);
+            if (Math.abs(c1.hi) <= NEGLIGIBLE * Math.abs(s0.hi)) {
+                break;
+            }
+        }
+        // cos r = sqrt(1 - sin^2 r), well conditioned while |r| <= pi/4
+        t2.multiply(s0, s0);
+        t2.negate(t2).add(t2, 1);
+        t2.sqrt(t2);
+        int quadrant = (int) (((long) j) & 3);
+        if (sin != null) {
+            switch (quadrant) {
+                case 0: sin.set(s0); break;
+                case 1: sin.set(t2); break;
+                case 2: sin.negate(s0); break;
+                default: sin.negate(t2); break;
+            }
+        }
+        if (cos != null) {
+            switch (quadrant) {
+                case 0: cos.set(t2); break;
+                case 1: cos.negate(s0); break;
+                case 2: cos.negate(t2); break;
+                default: cos.set(s0); break;
+            }
+        }
+    }
+
+    private void asin(DoubleDouble a, DoubleDouble out) {
+        double x = a.hi;
+        if (!(Math.abs(x) < 1)) {
+            if (Math.abs(x) == 1 && a.lo == 0) {
+                out.set(x > 0 ? HALF_PI : h0.negate(HALF_PI));
+            } else {
+                out.set(Double.NaN, 0);
+            }
+            return;
+        }
+        // Newton on sin(y) = a: y -= (sin y - a) / cos y
+        double y = Math.asin(x);
+        h0.set(y, 0);
+        sinCos(h0, s1, c0);
+        s1.subtract(s1, a).divide(s1, c0);
+        out.subtract(h0, s1);
+    }
+
+    private void acos(DoubleDouble a, DoubleDouble out) {
+        double x = a.hi;
+        if (!(Math.abs(x) < 1)) {
+            if (x == 1 && a.lo == 0) {
+                out.set(0, 0);
+            } else if (x == -1 && a.lo == 0) {
+                out.set(PI);
+            } else {
+                out.set(Double.NaN, 0);
+            }
+            return;
+        }
+        // Newton on cos(y) = a: y += (cos y - a) / sin y
+        double y = Math.acos(x);
+        h0.set(y, 0);
+        sinCos(h0, s1, c0);
+        c0.subtract(c0, a).divide(c0, s1);
+        out.add(h0, c0);
+    }
+
+    private void atan(DoubleDouble a, DoubleDouble out) {
+        double x = a.hi;
+        if (Double.isInfinite(x)) {
+            out.set(x > 0 ? HALF_PI : h0.negate(HALF_PI));
+            return;
+        }
+        // Newton on tan(y) = a, rearranged to avoid tan: y += cos y (a cos y - sin y)
+        double y = Math.atan(x);
+        h0.set(y, 0);
+        sinCos(h0, s1, c0);
+        h1.multiply(a, c0).subtract(h1, s1).multiply(h1, c0);
+        out.add(h0, h1);
+    }
+
+    private void sinh(DoubleDouble a, DoubleDouble out) {
+        if (Math.abs(a.hi) < 0.5) {
+            // (u + u / (u + 1)) / 2 with u = expm1(a) avoids cancelling e^a - e^-a
+            expm1(a, h0);
+            h1.add(h0, 1);
+            h1.divide(h0, h1);
+            out.add(h0, h1).scale(out, -1);
+            return;
+        }
+        exp(a, h0);
+        h1.divide(one(h1), h0);
+        out.subtract(h0, h1).scale(out, -1);
+    }
+
+    private void tanh(DoubleDouble a, DoubleDouble out) {
+        double x = a.hi;
+        if (Math.abs(x) > 40) {
+            // 1 - tanh(40) is below a double-double's resolution at 1
+            out.set(Math.signum(x), 0);
+            return;
+        }
+        // u / (u + 2) with u = expm1(2a)
+        h0.scale(a, 1);
+        expm1(h0, h0);
+        h1.add(h0, 2);
+        out.divide(h0, h1);
+    }
+
+    private void cbrt(DoubleDouble a, DoubleDouble out) {
+        double x = a.hi;
+        if (x == 0 || !Double.isFinite(x)) {
+            out.set(Math.cbrt(x), 0);
+            return;
+        }
+        // Newton on y^3 = a: y -= (y^3 - a) / (3 y^2)
+        double y = Math.cbrt(x);
+        h0.set(y, 0);
+        h1.multiply(h0, h0).multiply(h1, h0).subtract(h1, a);
+        h1.divide(h1, c0.set(3 * y * y, 0));
+        out.subtract(h0, h1);
+    }
+
+    /** a^b with Math.pow's special cases; integer exponents are exact repeated products. */
+    void pow(DoubleDouble a, DoubleDouble b, DoubleDouble out) {
+        double n = b.hi;
+        if (n == 0) {
+            out.set(1, 0);
+            return;
+        }
+        if (b.lo == 0 && n == Math.rint(n) && Math.abs(n) < (1L << 31)) {
+            // Binary powering; negative exponents take the reciprocal at the end
+            long m = (long) Math.abs(n);
+            h0.set(a);
+            h1.set(1, 0);
+            while (m > 0) {
+                if ((m & 1) != 0) {
+                    h1.multiply(h1, h0);
+                }
+                m >>= 1;
+                if (m > 0) {
+                    h0.multiply(h0, h0);
+                }
+            }
+            if (n < 0) {
+                out.divide(one(h0), h1);
+            } else {
+                out.set(h1);
+            }
+            return;
+        }
+        if (!(a.hi > 0) || !Double.isFinite(a.hi) || !Double.isFinite(n)) {
+            // Zero, negative, infinite or NaN operands: the double result is exact or NaN
+            out.set(Math.pow(a.hi, n), 0);
+            return;
+        }
+        log(a, h0);
+        h0.multiply(h0, b);
+        exp(h0, out);
+    }
+
+    /** a % b, truncated like Java's remainder; the caller checks for a zero divisor. */
+    void remainder(DoubleDouble a, DoubleDouble b, DoubleDouble out) {
+        h0.divide(a, b).truncate(h0);
+        h0.multiply(h0, b);
+        out.subtract(a, h0);
+    }
+
+    private static DoubleDouble[] inverseFactorials(int count) {
+        DoubleDouble[] table = new DoubleDouble[count];
+        table[0] = new DoubleDouble(1, 0);
+        for (int n = 1; n < count; n++) {
+            table[n] = new DoubleDouble().divide(table[n - 1], n);
+        }
+        return table;
+    }
+
+    private static DoubleDouble one(DoubleDouble register) {
+        return register.set(1, 0);
+    }
+}
@@ -0,0 +1,130 @@
+package com.numerical.rootfinder.model.expression;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compiled functions keyed by normalized expression text and parameter names, so an equation
+ * is parsed once however many solves, plots, sweeps or batch jobs use it. Least recently used
+ * entries are evicted beyond the size bound. Thread-safe; {@link #shared()} is the instance the
+ * solvers use.
+ * <p>
+ * A function without parameters is immutable and handed out as is. One with parameters is
+ * handed out as a {@link CompiledFunction#copy() copy}, so callers can set its values without
+ * affecting each other; a copy shares the compiled code and costs little more than its values.
+ */
+public final class ExpressionCache {
+
+    private static final int DEFAULT_SIZE = 256;
+    private static final ExpressionCache SHARED = new ExpressionCache(DEFAULT_SIZE);
+
+    private final int maximumSize;
+    private final Map<String, CompiledFunction> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ExpressionCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 1");
+        }
+        this.maximumSize = maximumSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompiledFunction> eldest) {
+                if (size() > ExpressionCache.this.maximumSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public static ExpressionCache shared() {
+        return SHARED;
+    }
+
+    /** The compiled function for an expression, parsing it only if it is not cached. */
+    public CompiledFunction get(String expression, String... parameterNames) {
+        if (expression == null) {
+            throw new IllegalArgumentException("Expression can not be empty");
+        }
+        String key = key(expression, parameterNames);
+        CompiledFunction function;
+        synchronized (entries) {
+            function = entries.get(key);
+        }
+        if (function != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            // Parse outside the lock; errors propagate and are not cached
+            function = CompiledFunction.compile(expression, parameterNames);
+            synchronized (entries) {
+                CompiledFunction raced = entries.putIfAbsent(key, function);
+                if (raced != null) {
+                    function = raced;
+                }
+            }
+        }
+        return parameterNames.length == 0 ? function : function.copy();
+    }
+
+    // Whitespace only matters between two characters of a name or number, e.g. "2 x" is not "2x"
+    static String key(String expression, String... parameterNames) {
+        StringBuilder key = new StringBuilder(expression.length() + 16);
+        char previous = 0;
+        boolean space = false;
+        for (int i = 0; i < expression.length(); i++) {
+            char c = expression.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = true;
+                continue;
+            }
+            if (space && isWordPart(previous) && isWordPart(c)) {
+                key.append(' ');
+            }
+            key.append(c);
+            previous = c;
+            space = false;
+        }
+        // Parameter order fixes their indices, so it is part of the key
+        key.append('|');
+        key.append(String.join(",", parameterNames));
+        return key.toString();
+    }
+
+    private static boolean isWordPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '.';
+    }
+
+    public long getHits() { return hits.get(); }
+
+    public long getMisses() { return misses.get(); }
+
+    public long getEvictions() { return evictions.get(); }
+
+    /** Hits as a share of all lookups, 0 before the first. */
+    public double getHitRate() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int getMaximumSize() { return maximumSize; }
+
+    /** Drops every entry; the statistics are kept. */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.numerical.rootfinder.model.expression;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Turns a parsed expression into a tree of closures. Constant subtrees are folded ahead of
+ * time, small integer powers become multiplications and leaves that are the variable or a
+ * constant are inlined into their parent, so evaluating f(x) is a handful of direct calls
+ * with no variable map and no operand stack. A polynomial written as a sum of terms is
+ * instead evaluated with Horner's scheme from its coefficients; that changes the rounding, and
+ * can change results where the written terms cancel (see {@link Polynomial}).
+ * <p>
+ * {@link Node.Parameter Parameters} read their value from an array passed with x, so one
+ * compiled tree serves every set of parameter values and a caller can change them between
+ * evaluations without recompiling.
+ */
+public final class ExpressionCompiler {
+
+    private static final ParameterizedOperator IDENTITY = (x, p) -> x;
+
+    /** f(x) with the parameter values {@code p}; immutable, so one instance serves any number of value sets. */
+    @FunctionalInterface
+    interface ParameterizedOperator {
+        double applyAsDouble(double x, double[] p);
+    }
+
+    private ExpressionCompiler() {
+    }
+
+    public static DoubleUnaryOperator compile(String expression) {
+        return compile(ExpressionParser.parse(expression));
+    }
+
+    public static DoubleUnaryOperator compile(Node node) {
+        return compile(node, new double[0]);
+    }
+
+    /** Compiles a tree whose parameter {@code i} reads {@code parameters[i]} on every evaluation. */
+    public static DoubleUnaryOperator compile(Node node, double[] parameters) {
+        Polynomial polynomial = Polynomial.forEvaluation(node);
+        if (polynomial != null) {
+            return polynomial::evaluate;
+        }
+        ParameterizedOperator f = emit(fold(node));
+        return x -> f.applyAsDouble(x, parameters);
+    }
+
+    /** Compiles a tree whose parameter {@code i} reads {@code p[i]} of the array passed with x. */
+    static ParameterizedOperator compileParameterized(Node node) {
+        Polynomial polynomial = Polynomial.forEvaluation(node);
+        if (polynomial != null) {
+            return (x, p) -> polynomial.evaluate(x);
+        }
+        return emit(fold(node));
+    }
+
+    /**
+     * Evaluates every subtree that does not depend on x. Subtrees that would throw
+     * (e.g. 1/0) are left in place so the error surfaces at evaluation time, as with exp4j.
+     */
+    public static Node fold(Node node) {
+        if (node instanceof Node.Negate) {
+            Node operand = fold(((Node.Negate) node).getOperand());
+            if (operand.isConstant()) {
+                return new Node.Constant(-((Node.Constant) operand).getValue());
+            }
+            return new Node.Negate(operand);
+        }
+        if (node instanceof Node.Binary) {
+            Node.Binary binary = (Node.Binary) node;
+            Node left = fold(binary.getLeft());
+            Node right = fold(binary.getRight());
+            Node folded = new Node.Binary(binary.getOperator(), left, right);
+            return left.isConstant() && right.isConstant() ? tryConstant(folded) : folded;
+        }
+        if (node instanceof Node.Call) {
+            Node.Call call = (Node.Call) node;
+            Node[] arguments = new Node[call.getArgumentCount()];
+            boolean constant = true;
+            for (int i = 0; i < arguments.length; i++) {
+                arguments[i] = fold(call.getArgument(i));
+                constant &= arguments[i].isConstant();
+            }
+            Node folded = new Node.Call(call.getFunction(), arguments);
+            return constant ? tryConstant(folded) : folded;
+        }
+        return node;
+    }
+
+    private static Node tryConstant(Node node) {
+        try {
+            return new Node.Constant(node.evaluate(0.0));
+        } catch (ArithmeticException e) {
+            return node;
+        }
+    }
+
+    private static ParameterizedOperator emit(Node node) {
+        if (node instanceof Node.Constant) {
+            double value = ((Node.Constant) node).getValue();
+            return (x, p) -> value;
+        }
+        if (node instanceof Node.Variable) {
+            return IDENTITY;
+        }
+        if (node instanceof Node.Parameter) {
+            int index = ((Node.Parameter) node).getIndex();
+            return (x, p) -> p[index];
+        }
+        if (node instanceof Node.Negate) {
+            Node operand = ((Node.Negate) node).getOperand();
+            if (operand instanceof Node.Variable) {
+                return (x, p) -> -x;
+            }
+            ParameterizedOperator f = emit(operand);
+            return (x, p) -> -f.applyAsDouble(x, p);
+        }
+        if (node instanceof Node.Binary) {
+            return emitBinary((Node.Binary) node);
+        }
+        return emitCall((Node.Call) node);
+    }
+
+    private static ParameterizedOperator emitBinary(Node.Binary node) {
+        Node left = node.getLeft();
+        Node right = node.getRight();
+
+        if (node.getOperator() == BinaryOperator.POWER && right.isConstant()) {
+            ParameterizedOperator power = emitConstantPower(left, ((Node.Constant) right).getValue());
+            if (power != null) {
+                return power;
+            }
+        }
+
+        if (left.isConstant()) {
+            double c = ((Node.Constant) left).getValue();
+            ParameterizedOperator r = emit(right);
+            switch (node.getOperator()) {
+                case ADD: return (x, p) -> c + r.applyAsDouble(x, p);
+                case SUBTRACT: return (x, p) -> c - r.applyAsDouble(x, p);
+                case MULTIPLY: return (x, p) -> c * r.applyAsDouble(x, p);
+                case DIVIDE: return (x, p) -> BinaryOperator.divide(c, r.applyAsDouble(x, p));
+                case MODULO: return (x, p) -> BinaryOperator.modulo(c, r.applyAsDouble(x, p));
+                default: return (x, p) -> Math.pow(c, r.applyAsDouble(x, p));
+            }
+        }
+        if (right.isConstant()) {
+            double c = ((Node.Constant) right).getValue();
+            ParameterizedOperator l = emit(left);
+            switch (node.getOperator()) {
+                case ADD: return (x, p) -> l.applyAsDouble(x, p) + c;
+                case SUBTRACT: return (x, p) -> l.applyAsDouble(x, p) - c;
+                case MULTIPLY: return (x, p) -> l.applyAsDouble(x, p) * c;
+                case DIVIDE:
+                    if (c == 0.0) {
+                        return (x, p) -> BinaryOperator.divide(l.applyAsDouble(x, p), 0.0);
+                    }
+                    return (x, p) -> l.applyAsDouble(x, p) / c;
+                case MODULO: return (x, p) -> BinaryOperator.modulo(l.applyAsDouble(x, p), c);
+                default: return (x, p) -> Math.pow(l.applyAsDouble(x, p), c);
+            }
+        }
+
+        ParameterizedOperator l = emit(left);
+        ParameterizedOperator r = emit(right);
+        switch (node.getOperator()) {
+            case ADD: return (x, p) -> l.applyAsDouble(x, p) + r.applyAsDouble(x, p);
+            case SUBTRACT: return (x, p) -> l.applyAsDouble(x, p) - r.applyAsDouble(x, p);
+            case MULTIPLY: return (x, p) -> l.applyAsDouble(x, p) * r.applyAsDouble(x, p);
+            case DIVIDE: return (x, p) -> BinaryOperator.divide(l.applyAsDouble(x, p), r.applyAsDouble(x, p));
+            case MODULO: return (x, p) -> BinaryOperator.modulo(l.applyAsDouble(x, p), r.applyAsDouble(x, p));
+            default: return (x, p) -> Math.pow(l.applyAsDouble(x, p), r.applyAsDouble(x, p));
+        }
+    }
+
+    private static ParameterizedOperator emitConstantPower(Node base, double exponent) {
+        boolean variable = base instanceof Node.Variable;
+        ParameterizedOperator b = variable ? IDENTITY : emit(base);
+        if (exponent == 1.0) {
+            return b;
+        }
+        if (exponent == 2.0) {
+            if (variable) return (x, p) -> x * x;
+            return (x, p) -> {
+                double v = b.applyAsDouble(x, p);
+                return v * v;
+            };
+        }
+        if (exponent == 3.0) {
+            if (variable) return (x, p) -> x * x * x;
+            return (x, p) -> {
+                double v = b.applyAsDouble(x, p);
+                return v * v * v;
+            };
+        }
+        if (exponent == 4.0) {
+            return (x, p) -> {
+                double v = b.applyAsDouble(x, p);
+                double v2 = v * v;
+                return v2 * v2;
+            };
+        }
+        if (exponent == 0.5) {
+            // Math.pow(x, 0.5) and sqrt only disagree at -0 and -Infinity
+            return (x, p) -> {
+                double v = b.applyAsDouble(x, p);
+                return v == Double.NEGATIVE_INFINITY || v == 0.0 ? Math.pow(v, 0.5) : Math.sqrt(v);
+            };
+        }
+        return null;
+    }
+
+    private static ParameterizedOperator emitCall(Node.Call node) {
+        MathFunction function = node.getFunction();
+        if (node.getArgumentCount() == 2) {
+            ParameterizedOperator a = emit(node.getArgument(0));
+            ParameterizedOperator b = emit(node.getArgument(1));
+            return (x, p) -> Math.pow(a.applyAsDouble(x, p), b.applyAsDouble(x, p));
+        }
+        Node argument = node.getArgument(0);
+        ParameterizedOperator a = argument instanceof Node.Variable ? IDENTITY : emit(argument);
+        switch (function) {
+            case SIN: return (x, p) -> Math.sin(a.applyAsDouble(x, p));
+            case COS: return (x, p) -> Math.cos(a.applyAsDouble(x, p));
+            case TAN: return (x, p) -> Math.tan(a.applyAsDouble(x, p));
+            case EXP: return (x, p) -> Math.exp(a.applyAsDouble(x, p));
+            case LOG: return (x, p) -> Math.log(a.applyAsDouble(x, p));
+            case SQRT: return (x, p) -> Math.sqrt(a.applyAsDouble(x, p));
+            case ABS: return (x, p) -> Math.abs(a.applyAsDouble(x, p));
+            default: return (x, p) -> function.apply(a.applyAsDouble(x, p));
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.numerical.rootfinder.model.expression;
+
+import java.math.BigDecimal;
+
+/**
+ * Recursive-descent parser for the exp4j expression syntax: + - * / % ^, unary signs,
+ * implicit multiplication ("2x", "3(x+1)"), the exp4j built-in functions and the
+ * constants pi, π, e and φ. Precedence and associativity follow exp4j, so
+ * {@code -x^2} is {@code -(x^2)} and {@code ^} is right-associative.
+ * <p>
+ * Besides x, an expression may use named parameters declared by the caller; each becomes a
+ * {@link Node.Parameter} holding its position in the declared list.
+ */
+public class ExpressionParser {
+
+    public static final String VARIABLE = "x";
+
+    private final String text;
+    private final String[] parameters;
+    private int pos;
+
+    private ExpressionParser(String text, String[] parameters) {
+        this.text = text;
+        this.parameters = parameters;
+    }
+
+    public static Node parse(String expression) {
+        return parse(expression, new String[0]);
+    }
+
+    public static Node parse(String expression, String... parameters) {
+        if (expression == null || expression.trim().isEmpty()) {
+            throw new IllegalArgumentException("Expression can not be empty");
+        }
+        for (int i = 0; i < parameters.length; i++) {
+            String name = parameters[i];
+            if (name == null || name.isEmpty() || !isNameStart(name.charAt(0))
+                    || !name.chars().allMatch(c -> isNamePart((char) c))) {
+                throw new IllegalArgumentException("Invalid variable name '" + name + "'");
+            }
+            if (name.equals(VARIABLE)) {
+                throw new IllegalArgumentException("'" + VARIABLE + "' is the solve variable and can not be a parameter");
+            }
+            for (int j = 0; j < i; j++) {
+                if (parameters[j].equals(name)) {
+                    throw new IllegalArgumentException("Variable '" + name + "' is declared twice");
+                }
+            }
+        }
+        ExpressionParser parser = new ExpressionParser(expression, parameters);
+        Node node = parser.parseExpression();
+        parser.skipWhitespace();
+        if (parser.pos < parser.text.length()) {
+            throw parser.error("Unexpected '" + parser.text.charAt(parser.pos) + "'");
+        }
+        return node;
+    }
+
+    private Node parseExpression() {
+        Node node = parseTerm();
+        while (true) {
+            if (consume('+')) {
+                node = new Node.Binary(BinaryOperator.ADD, node, parseTerm());
+            } else if (consume('-')) {
+                node = new Node.Binary(BinaryOperator.SUBTRACT, node, parseTerm());
+            } else {
+                return node;
+            }
+        }
+    }
+
+    private Node parseTerm() {
+        Node node = parseUnary();
+        while (true) {
+            if (consume('*')) {
+                node = new Node.Binary(BinaryOperator.MULTIPLY, node, parseUnary());
+            } else if (consume('/')) {
+                node = new Node.Binary(BinaryOperator.DIVIDE, node, parseUnary());
+            } else if (consume('%')) {
+                node = new Node.Binary(BinaryOperator.MODULO, node, parseUnary());
+            } else if (startsOperand()) {
+                // Implicit multiplication, same precedence as '*'
+                node = new Node.Binary(BinaryOperator.MULTIPLY, node, parsePower());
+            } else {
+                return node;
+            }
+        }
+    }
+
+    private Node parseUnary() {
+        if (consume('-')) {
+            return new Node.Negate(parseUnary());
+        }
+        if (consume('+')) {
+            return parseUnary();
+        }
+        return parsePower();
+    }
+
+    private Node parsePower() {
+        Node base = parsePrimary();
+        if (consume('^')) {
+            return new Node.Binary(BinaryOperator.POWER, base, parseUnary());
+        }
+        return base;
+    }
+
+    private Node parsePrimary() {
+        skipWhitespace();
+        if (pos >= text.length()) {
+            throw error("Unexpected end of expression");
+        }
+        char c = text.charAt(pos);
+        if (c == '(') {
+            pos++;
+            Node inner = parseExpression();
+            expect(')');
+            return inner;
+        }
+        if (Character.isDigit(c) || c == '.') {
+            return parseNumber();
+        }
+        if (isNameStart(c)) {
+            return parseName();
+        }
+        throw error("Unable to parse char '" + c + "'");
+    }
+
+    private Node parseNumber() {
+        int start = pos;
+        while (pos < text.length() && (Character.isDigit(text.charAt(pos)) || text.charAt(pos) == '.')) {
+            pos++;
+        }
+        if (pos < text.length() && (text.charAt(pos) == 'e' || text.charAt(pos) == 'E')) {
+            int exponent = pos + 1;
+            if (exponent < text.length() && (text.charAt(exponent) == '+' || text.charAt(exponent) == '-')) {
+                exponent++;
+            }
+            // "2e" on its own is 2 times Euler's number, not a malformed exponent
+            if (exponent < text.length() && Character.isDigit(text.charAt(exponent))) {
+                pos = exponent;
+                while (pos < text.length() && Character.isDigit(text.charAt(pos))) {
+                    pos++;
+                }
+            }
+        }
+        String literal = text.substring(start, pos);
+        try {
+            return constant(literal);
+        } catch (NumberFormatException e) {
+            throw error("Invalid number '" + literal + "'");
+        }
+    }
+
+    private Node parseName() {
+        int start = pos;
+        while (pos < text.length() && isNamePart(text.charAt(pos))) {
+            pos++;
+        }
+        String name = text.substring(start, pos);
+
+        MathFunction function = MathFunction.forName(name);
+        if (function != null && peek('(')) {
+            expect('(');
+            Node[] arguments = new Node[function.getArity()];
+            for (int i = 0; i < arguments.length; i++) {
+                if (i > 0) {
+                    expect(',');
+                }
+                arguments[i] = parseExpression();
+            }
+            expect(')');
+            return new Node.Call(function, arguments);
+        }
+
+        for (int i = 0; i < parameters.length; i++) {
+            if (parameters[i].equals(name)) {
+                return new Node.Parameter(name, i);
+            }
+        }
+
+        switch (name) {
+            case VARIABLE:
+                return new Node.Variable(name);
+            case "pi":
+            case "π":
+                return constant(DoubleDoubleMath.PI);
+            case "e":
+                return constant(DoubleDoubleMath.E);
+            case "φ":
+                return constant("1.61803398874");
+            default:
+                throw new IllegalArgumentException("Unknown function or variable '" + name + "' at pos " + start
+                        + " in expression '" + text + "'");
+        }
+    }
+
+    // The double nearest the literal, and what it leaves out
+    private static Node constant(String literal) {
+        double value = Double.parseDouble(literal);
+        if (!Double.isFinite(value)) {
+            return new Node.Constant(value);
+        }
+        return new Node.Constant(value, new BigDecimal(literal).subtract(new BigDecimal(value)).doubleValue());
+    }
+
+    private static Node constant(DoubleDouble value) {
+        return new Node.Constant(value.hi(), value.lo());
+    }
+
+    private boolean startsOperand() {
+        skipWhitespace();
+        if (pos >= text.length()) {
+            return false;
+        }
+        char c = text.charAt(pos);
+        return c == '(' || Character.isDigit(c) || c == '.' || isNameStart(c);
+    }
+
+    private static boolean isNameStart(char c) {
+        return Character.isLetter(c) || c == '_';
+    }
+
+    private static boolean isNamePart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    private boolean peek(char expected) {
+        skipWhitespace();
+        return pos < text.length() && text.charAt(pos) == expected;
+    }
+
+    private boolean consume(char expected) {
+        if (peek(expected)) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char expected) {
+        if (!consume(expected)) {
+            throw error("Expected '" + expected + "'");
+        }
+    }
+
+    private void skipWhitespace() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at pos " + pos + " in expression '" + text + "'");
+    }
+}
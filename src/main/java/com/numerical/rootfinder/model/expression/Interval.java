@@ -0,0 +1,397 @@
+package com.numerical.rootfinder.model.expression;
+
+/**
+ * A mutable closed interval [lo, hi] of reals, for interval arithmetic. Every operation writes
+ * into the receiver an interval that contains the exact result for all points of the
+ * arguments: bounds are rounded outward, by one ulp after arithmetic and two after library
+ * functions, whose results are within one ulp. The arguments may be the receiver itself.
+ * <p>
+ * Bounds may be infinite. The empty interval, for example the logarithm of negative numbers,
+ * has NaN bounds and stays empty through every operation. Division by an interval containing 0
+ * gives the whole line rather than the pair of half-lines. Not thread-safe.
+ */
+public final class Interval {
+
+    private static final double TWO_PI = 2 * Math.PI;
+
+    double lo;
+    double hi;
+
+    public Interval() {
+    }
+
+    public Interval(double lo, double hi) {
+        set(lo, hi);
+    }
+
+    public double lo() { return lo; }
+
+    public double hi() { return hi; }
+
+    public boolean isEmpty() {
+        return Double.isNaN(lo);
+    }
+
+    public boolean contains(double x) {
+        return lo <= x && x <= hi;
+    }
+
+    public double width() {
+        return hi - lo;
+    }
+
+    /** The midpoint, finite for any nonempty interval. */
+    public double mid() {
+        if (lo == Double.NEGATIVE_INFINITY) {
+            return hi == Double.POSITIVE_INFINITY ? 0 : hi <= 0 ? -Double.MAX_VALUE : 0;
+        }
+        if (hi == Double.POSITIVE_INFINITY) {
+            return lo >= 0 ? Double.MAX_VALUE : 0;
+        }
+        double m = lo + (hi - lo) / 2;
+        return Double.isFinite(m) ? m : lo / 2 + hi / 2;
+    }
+
+    public Interval set(double lo, double hi) {
+        this.lo = lo;
+        this.hi = hi;
+        return this;
+    }
+
+    public Interval set(Interval a) {
+        return set(a.lo, a.hi);
+    }
+
+    public Interval setWhole() {
+        return set(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+    }
+
+    public Interval setEmpty() {
+        return set(Double.NaN, Double.NaN);
+    }
+
+    /** The interval holding the real number {@code value + low}, as the parser records a literal. */
+    public Interval setExact(double value, double low) {
+        if (low > 0) {
+            return set(value, Math.nextUp(value));
+        }
+        return low < 0 ? set(Math.nextDown(value), value) : set(value, value);
+    }
+
+    public Interval intersect(Interval a, Interval b) {
+        double l = Math.max(a.lo, b.lo);
+        double h = Math.min(a.hi, b.hi);
+        return l <= h ? set(l, h) : setEmpty();
+    }
+
+    public Interval add(Interval a, Interval b) {
+        return set(down(a.lo + b.lo), up(a.hi + b.hi));
+    }
+
+    public Interval add(Interval a, double b) {
+        return set(down(a.lo + b), up(a.hi + b));
+    }
+
+    public Interval subtract(Interval a, Interval b) {
+        return set(down(a.lo - b.hi), up(a.hi - b.lo));
+    }
+
+    public Interval subtract(double a, Interval b) {
+        return set(down(a - b.hi), up(a - b.lo));
+    }
+
+    public Interval negate(Interval a) {
+        return set(-a.hi, -a.lo);
+    }
+
+    public Interval multiply(Interval a, Interval b) {
+        if (isEmpty(a) || isEmpty(b)) {
+            return setEmpty();
+        }
+        double p1 = product(a.lo, b.lo);
+        double p2 = product(a.lo, b.hi);
+        double p3 = product(a.hi, b.lo);
+        double p4 = product(a.hi, b.hi);
+        return set(down(Math.min(Math.min(p1, p2), Math.min(p3, p4))),
+                up(Math.max(Math.max(p1, p2), Math.max(p3, p4))));
+    }
+
+    public Interval multiply(Interval a, double b) {
+        if (isEmpty(a)) {
+            return setEmpty();
+        }
+        double p1 = product(a.lo, b);
+        double p2 = product(a.hi, b);
+        return set(down(Math.min(p1, p2)), up(Math.max(p1, p2)));
+    }
+
+    /** a / b; empty if b is exactly 0, where the double evaluation throws. */
+    public Interval divide(Interval a, Interval b) {
+        if (b.lo == 0 && b.hi == 0) {
+            return setEmpty();
+        }
+        if (b.lo <= 0 && b.hi >= 0) {
+            return isEmpty(a) ? setEmpty() : setWhole();
+        }
+        double q1 = a.lo / b.lo;
+        double q2 = a.lo / b.hi;
+        double q3 = a.hi / b.lo;
+        double q4 = a.hi / b.hi;
+        return set(down(Math.min(Math.min(q1, q2), Math.min(q3, q4))),
+                up(Math.max(Math.max(q1, q2), Math.max(q3, q4))));
+    }
+
+    public Interval reciprocal(Interval a) {
+        if (a.lo <= 0 && a.hi >= 0) {
+            return a.lo == 0 && a.hi == 0 ? setEmpty() : setWhole();
+        }
+        return set(down(1 / a.hi), up(1 / a.lo));
+    }
+
+    public Interval square(Interval a) {
+        double m = magnitude(a);
+        double n = mignitude(a);
+        return set(down(n * n), up(m * m));
+    }
+
+    /** a^n for an integer n, tighter than {@link #pow} because odd powers keep their sign. */
+    public Interval powInt(Interval a, int n) {
+        if (n < 0) {
+            powInt(a, -n);
+            return reciprocal(this);
+        }
+        if (n == 0) {
+            return isEmpty(a) ? setEmpty() : set(1, 1);
+        }
+        if ((n & 1) == 1) {
+            return set(down2(Math.pow(a.lo, n)), up2(Math.pow(a.hi, n)));
+        }
+        return set(down2(Math.pow(mignitude(a), n)), up2(Math.pow(magnitude(a), n)));
+    }
+
+    /** a^b as {@link Math#pow}: an integer point exponent allows negative a, otherwise a is cut to a >= 0. */
+    public Interval pow(Interval a, Interval b) {
+        if (b.lo == b.hi && b.lo == Math.rint(b.lo) && Math.abs(b.lo) <= Integer.MAX_VALUE) {
+            return powInt(a, (int) b.lo);
+        }
+        double l = Math.max(a.lo, 0);
+        double h = a.hi;
+        if (!(l <= h) || isEmpty(b)) {
+            return setEmpty();
+        }
+        // For a >= 0, a^b is monotone in each argument, so its extremes are at the corners
+        double p1 = Math.pow(l, b.lo);
+        double p2 = Math.pow(l, b.hi);
+        double p3 = Math.pow(h, b.lo);
+        double p4 = Math.pow(h, b.hi);
+        return set(Math.max(0, down2(Math.min(Math.min(p1, p2), Math.min(p3, p4)))),
+                up2(Math.max(Math.max(p1, p2), Math.max(p3, p4))));
+    }
+
+    /**
+     * The remainder a % b with the sign of a, as Java computes it. Returns true if the
+     * truncated quotient is the same integer on the whole interval, so the remainder has no jump.
+     */
+    public boolean remainder(Interval a, Interval b) {
+        if (isEmpty(a) || isEmpty(b) || (b.lo == 0 && b.hi == 0)) {
+            setEmpty();
+            return false;
+        }
+        if (b.lo <= 0 && b.hi >= 0) {
+            setWhole();
+            return false;
+        }
+        double m = magnitude(b);
+        double l = a.lo;
+        double h = a.hi;
+        if (Math.abs(l) < m && Math.abs(h) < m && b.lo == b.hi) {
+            set(l, h);
+            return true;
+        }
+        if (b.lo == b.hi) {
+            double q = truncate(l / b.lo);
+            if (q == truncate(h / b.lo) && Double.isFinite(q)) {
+                // q * b rounds once more. A quotient misjudged by rounding near a multiple of b
+                // puts the result about |b| out of range, so the check below catches it.
+                double p = q * b.lo;
+                double rl = Math.nextDown(down(l - p));
+                double rh = Math.nextUp(up(h - p));
+                if (l >= 0 && rl > -m / 2 && rh < m) {
+                    set(Math.max(rl, 0), rh);
+                    return true;
+                }
+                if (h <= 0 && rl > -m && rh < m / 2) {
+                    set(rl, Math.min(rh, 0));
+                    return true;
+                }
+            }
+        }
+        if (l >= 0) {
+            set(0, m);
+        } else if (h <= 0) {
+            set(-m, 0);
+        } else {
+            set(-m, m);
+        }
+        return false;
+    }
+
+    public Interval apply(MathFunction function, Interval a) {
+        if (isEmpty(a)) {
+            return setEmpty();
+        }
+        switch (function) {
+            case SIN: return sin(a);
+            case COS: return cos(a);
+            case TAN: return tan(a);
+            case COT: return cot(a);
+            case ASIN: return increasing(a, -1, 1, function);
+            case ACOS: return acos(a);
+            case ATAN: return increasing(a, function);
+            case SINH: return increasing(a, function);
+            case COSH: return cosh(a);
+            case TANH: return clamp(increasing(a, function), -1, 1);
+            case ABS: return set(mignitude(a), magnitude(a));
+            case LOG: return increasing(a, 0, Double.POSITIVE_INFINITY, function);
+            case LOG10: return increasing(a, 0, Double.POSITIVE_INFINITY, function);
+            case LOG2: return increasing(a, 0, Double.POSITIVE_INFINITY, function).widen();
+            case LOG1P: return increasing(a, -1, Double.POSITIVE_INFINITY, function);
+            case CEIL: return set(Math.ceil(a.lo), Math.ceil(a.hi));
+            case FLOOR: return set(Math.floor(a.lo), Math.floor(a.hi));
+            case SQRT: return clamp(increasing(a, 0, Double.POSITIVE_INFINITY, function), 0, Double.POSITIVE_INFINITY);
+            case CBRT: return increasing(a, function);
+            case EXP: return set(Math.max(0, lo(function, a.lo)), up2(function.apply(a.hi)));
+            case EXPM1: return set(Math.max(-1, lo(function, a.lo)), up2(function.apply(a.hi)));
+            case SIGNUM: return set(Math.signum(a.lo), Math.signum(a.hi));
+            default:
+                throw new IllegalStateException(function.getName() + " expects " + function.getArity() + " arguments");
+        }
+    }
+
+    public Interval sin(Interval a) {
+        return periodic(a, Math.PI / 2, -Math.PI / 2, Math.sin(a.lo), Math.sin(a.hi));
+    }
+
+    public Interval cos(Interval a) {
+        return periodic(a, 0, Math.PI, Math.cos(a.lo), Math.cos(a.hi));
+    }
+
+    public Interval cosh(Interval a) {
+        return set(Math.max(1, down2(Math.cosh(mignitude(a)))), up2(Math.cosh(magnitude(a))));
+    }
+
+    @Override
+    public String toString() {
+        return isEmpty() ? "[empty]" : "[" + lo + ", " + hi + "]";
+    }
+
+    private Interval tan(Interval a) {
+        if (!(a.hi - a.lo < Math.PI) || crosses(a, Math.PI / 2, Math.PI)) {
+            return setWhole();
+        }
+        return set(down2(Math.tan(a.lo)), up2(Math.tan(a.hi)));
+    }
+
+    // Decreasing between the poles at multiples of pi; 1/tan rounds twice
+    private Interval cot(Interval a) {
+        if (!(a.hi - a.lo < Math.PI) || crosses(a, 0, Math.PI)) {
+            return setWhole();
+        }
+        return set(down2(1 / Math.tan(a.hi)), up2(1 / Math.tan(a.lo))).widen();
+    }
+
+    private Interval acos(Interval a) {
+        double l = Math.max(a.lo, -1);
+        double h = Math.min(a.hi, 1);
+        if (!(l <= h)) {
+            return setEmpty();
+        }
+        return set(Math.max(0, down2(Math.acos(h))), up2(Math.acos(l)));
+    }
+
+    // A function with maxima at top + 2k pi and minima at bottom + 2k pi, values in [-1, 1]
+    private Interval periodic(Interval a, double top, double bottom, double atLo, double atHi) {
+        if (!(a.hi - a.lo < TWO_PI)) {
+            return set(-1, 1);
+        }
+        double l = crosses(a, bottom, TWO_PI) ? -1 : down2(Math.min(atLo, atHi));
+        double h = crosses(a, top, TWO_PI) ? 1 : up2(Math.max(atLo, atHi));
+        return clamp(set(l, h), -1, 1);
+    }
+
+    /*
+     * Whether a contains a point offset + k * period. The multiples of pi are rounded, so the
+     * test errs towards yes, which only loosens the enclosure.
+     */
+    private static boolean crosses(Interval a, double offset, double period) {
+        double margin = 4 * Math.ulp(Math.max(Math.abs(a.lo), Math.abs(a.hi))) + 4 * Math.ulp(offset + period);
+        double k = Math.ceil((a.lo - margin - offset) / period);
+        return offset + k * period <= a.hi + margin;
+    }
+
+    // f increasing on its whole domain
+    private Interval increasing(Interval a, MathFunction function) {
+        return set(lo(function, a.lo), up2(function.apply(a.hi)));
+    }
+
+    // f increasing on [min, max], with a cut to that domain first
+    private Interval increasing(Interval a, double min, double max, MathFunction function) {
+        double l = Math.max(a.lo, min);
+        double h = Math.min(a.hi, max);
+        if (!(l <= h)) {
+            return setEmpty();
+        }
+        return set(lo(function, l), up2(function.apply(h)));
+    }
+
+    private static double lo(MathFunction function, double x) {
+        return down2(function.apply(x));
+    }
+
+    private Interval clamp(Interval a, double min, double max) {
+        return set(Math.max(a.lo, min), Math.min(a.hi, max));
+    }
+
+    // One more ulp outward, for results rounded more than once
+    private Interval widen() {
+        return set(down(lo), up(hi));
+    }
+
+    private static boolean isEmpty(Interval a) {
+        return Double.isNaN(a.lo);
+    }
+
+    // The largest and smallest |x| over a
+    private static double magnitude(Interval a) {
+        return Math.max(Math.abs(a.lo), Math.abs(a.hi));
+    }
+
+    private static double mignitude(Interval a) {
+        return a.lo > 0 ? a.lo : a.hi < 0 ? -a.hi : 0;
+    }
+
+    // 0 * infinity is 0 here: an unbounded end times exactly zero contributes nothing
+    private static double product(double a, double b) {
+        return a == 0 || b == 0 ? 0 : a * b;
+    }
+
+    private static double truncate(double x) {
+        return x < 0 ? Math.ceil(x) : Math.floor(x);
+    }
+
+    private static double down(double x) {
+        return Math.nextDown(x);
+    }
+
+    private static double up(double x) {
+        return Math.nextUp(x);
+    }
+
+    private static double down2(double x) {
+        return Math.nextDown(Math.nextDown(x));
+    }
+
+    private static double up2(double x) {
+        return Math.nextUp(Math.nextUp(x));
+    }
+}
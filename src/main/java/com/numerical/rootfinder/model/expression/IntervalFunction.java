@@ -0,0 +1,365 @@
+package com.numerical.rootfinder.model.expression;
+
+/**
+ * Evaluates a parsed expression in {@link Interval} arithmetic: given an interval of x, the
+ * result contains f(x) for every x in it, and the derivative carried alongside in forward mode
+ * contains f'(x). An {@link Evaluator} mirrors the syntax tree with nodes that each hold their
+ * value and derivative in preallocated intervals, so evaluation allocates nothing.
+ * <p>
+ * The tree is used as parsed, not constant-folded in double precision: a literal becomes the
+ * interval around its decimal value, from the low part the parser recorded. Where f is
+ * undefined on part of the interval the enclosure covers the rest; where it is undefined on all
+ * of it the result is empty. At a possible pole or jump the result is the whole line, and the
+ * derivative is the whole line wherever f may jump.
+ * <p>
+ * This object is immutable and can be shared. Give every thread its own evaluator.
+ */
+public final class IntervalFunction {
+
+    // Enclosures of ln 10 and ln 2, for the derivatives of log10 and log2
+    private static final Interval LN10 = new Interval(Math.nextDown(Math.log(10)), Math.nextUp(Math.log(10)));
+    private static final Interval LN2 = new Interval(Math.nextDown(Math.log(2)), Math.nextUp(Math.log(2)));
+
+    private final Node tree;
+    private final double[] parameters;
+
+    private IntervalFunction(Node tree, double[] parameters) {
+        this.tree = tree;
+        this.parameters = parameters;
+    }
+
+    public static IntervalFunction compile(Node tree) {
+        return compile(tree, new double[0]);
+    }
+
+    /** Compiles a tree whose parameter {@code i} reads {@code parameters[i]} on every evaluation. */
+    public static IntervalFunction compile(Node tree, double[] parameters) {
+        return new IntervalFunction(tree, parameters);
+    }
+
+    // The same tree reading its parameters from another array
+    IntervalFunction withParameters(double[] parameters) {
+        return new IntervalFunction(tree, parameters);
+    }
+
+    public Evaluator evaluator() {
+        return new Evaluator();
+    }
+
+    public final class Evaluator {
+        private final Interval x = new Interval();
+        private final Term root;
+
+        private Evaluator() {
+            this.root = build(tree, parameters);
+        }
+
+        /**
+         * f over [lo, hi]; the returned interval belongs to the evaluator and is overwritten by
+         * the next call, as is {@link #derivative()}.
+         */
+        public Interval evaluate(double lo, double hi) {
+            x.set(lo, hi);
+            root.eval(x);
+            return root.v;
+        }
+
+        /** f' over the interval of the last evaluation. */
+        public Interval derivative() {
+            return root.d;
+        }
+    }
+
+    private static Term build(Node node, double[] p) {
+        if (node instanceof Node.Constant) {
+            Node.Constant constant = (Node.Constant) node;
+            return new ConstantTerm(new Interval().setExact(constant.getValue(), constant.getLow()));
+        }
+        if (node instanceof Node.Variable) {
+            return new VariableTerm();
+        }
+        if (node instanceof Node.Parameter) {
+            return new ParameterTerm(p, ((Node.Parameter) node).getIndex());
+        }
+        if (node instanceof Node.Negate) {
+            return fold(new NegateTerm(build(((Node.Negate) node).getOperand(), p)));
+        }
+        if (node instanceof Node.Binary) {
+            Node.Binary binary = (Node.Binary) node;
+            return binary(binary.getOperator(), build(binary.getLeft(), p), build(binary.getRight(), p));
+        }
+        Node.Call call = (Node.Call) node;
+        Term argument = build(call.getArgument(0), p);
+        if (call.getFunction() == MathFunction.POW) {
+            return binary(BinaryOperator.POWER, argument, build(call.getArgument(1), p));
+        }
+        return fold(new CallTerm(call.getFunction(), argument));
+    }
+
+    private static Term binary(BinaryOperator operator, Term a, Term b) {
+        if (operator == BinaryOperator.POWER && b.isConstant()) {
+            // x^n with a constant integer n keeps the sign of odd powers and needs no logarithm
+            b.eval(null);
+            if (b.v.lo == b.v.hi && b.v.lo == Math.rint(b.v.lo) && Math.abs(b.v.lo) <= 1024) {
+                return fold(new IntegerPowerTerm(a, (int) b.v.lo));
+            }
+        }
+        return fold(new BinaryTerm(operator, a, b));
+    }
+
+    // Evaluates a term of constants once; a constant interval does not depend on x
+    private static Term fold(Term term) {
+        if (!term.isConstant()) {
+            return term;
+        }
+        term.eval(null);
+        return new ConstantTerm(term.v);
+    }
+
+    // A node's value and derivative, refreshed by eval
+    private abstract static class Term {
+        final Interval v = new Interval();
+        final Interval d = new Interval();
+
+        abstract void eval(Interval x);
+
+        boolean isConstant() {
+            return false;
+        }
+    }
+
+    private static final class ConstantTerm extends Term {
+        ConstantTerm(Interval value) {
+            v.set(value);
+            d.set(0, 0);
+        }
+
+        @Override
+        void eval(Interval x) {
+        }
+
+        @Override
+        boolean isConstant() {
+            return true;
+        }
+    }
+
+    private static final class VariableTerm extends Term {
+        VariableTerm() {
+            d.set(1, 1);
+        }
+
+        @Override
+        void eval(Interval x) {
+            v.set(x);
+        }
+    }
+
+    private static final class ParameterTerm extends Term {
+        private final double[] p;
+        private final int index;
+
+        ParameterTerm(double[] p, int index) {
+            this.p = p;
+            this.index = index;
+            d.set(0, 0);
+        }
+
+        @Override
+        void eval(Interval x) {
+            v.set(p[index], p[index]);
+        }
+    }
+
+    private static final class NegateTerm extends Term {
+        private final Term a;
+
+        NegateTerm(Term a) {
+            this.a = a;
+        }
+
+        @Override
+        void eval(Interval x) {
+            a.eval(x);
+            v.negate(a.v);
+            d.negate(a.d);
+        }
+
+        @Override
+        boolean isConstant() {
+            return a.isConstant();
+        }
+    }
+
+    private static final class BinaryTerm extends Term {
+        private final BinaryOperator operator;
+        private final Term a;
+        private final Term b;
+        private final Interval t = new Interval();
+        private final Interval u = new Interval();
+
+        BinaryTerm(BinaryOperator operator, Term a, Term b) {
+            this.operator = operator;
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        void eval(Interval x) {
+            a.eval(x);
+            b.eval(x);
+            switch (operator) {
+                case ADD:
+                    v.add(a.v, b.v);
+                    d.add(a.d, b.d);
+                    break;
+                case SUBTRACT:
+                    v.subtract(a.v, b.v);
+                    d.subtract(a.d, b.d);
+                    break;
+                case MULTIPLY:
+                    v.multiply(a.v, b.v);
+                    t.multiply(a.d, b.v);
+                    d.multiply(a.v, b.d);
+                    d.add(d, t);
+                    break;
+                case DIVIDE:
+                    v.divide(a.v, b.v);
+                    // (a' - (a/b) b') / b
+                    t.multiply(v, b.d);
+                    t.subtract(a.d, t);
+                    d.divide(t, b.v);
+                    break;
+                case MODULO:
+                    // a - q b with q constant between jumps
+                    if (v.remainder(a.v, b.v) && b.d.lo == 0 && b.d.hi == 0) {
+                        d.set(a.d);
+                    } else {
+                        d.setWhole();
+                    }
+                    break;
+                default:
+                    v.pow(a.v, b.v);
+                    // a^b (b' log a + b a' / a)
+                    t.apply(MathFunction.LOG, a.v);
+                    t.multiply(t, b.d);
+                    u.divide(a.d, a.v);
+                    u.multiply(u, b.v);
+                    t.add(t, u);
+                    d.multiply(v, t);
+                    break;
+            }
+        }
+
+        @Override
+        boolean isConstant() {
+            return a.isConstant() && b.isConstant();
+        }
+    }
+
+    private static final class IntegerPowerTerm extends Term {
+        private final Term a;
+        private final int n;
+        private final Interval t = new Interval();
+
+        IntegerPowerTerm(Term a, int n) {
+            this.a = a;
+            this.n = n;
+        }
+
+        @Override
+        void eval(Interval x) {
+            a.eval(x);
+            v.powInt(a.v, n);
+            if (n == 0) {
+                d.set(0, 0);
+                return;
+            }
+            // n a^(n-1) a'
+            t.powInt(a.v, n - 1);
+            t.multiply(t, n);
+            d.multiply(t, a.d);
+        }
+
+        @Override
+        boolean isConstant() {
+            return a.isConstant();
+        }
+    }
+
+    private static final class CallTerm extends Term {
+        private final MathFunction function;
+        private final Term a;
+        private final Interval t = new Interval();
+
+        CallTerm(MathFunction function, Term a) {
+            this.function = function;
+            this.a = a;
+        }
+
+        @Override
+        void eval(Interval x) {
+            a.eval(x);
+            v.apply(function, a.v);
+            slope();
+            d.multiply(t, a.d);
+        }
+
+        // t = f'(a), from a and the value v = f(a)
+        private void slope() {
+            Interval x = a.v;
+            switch (function) {
+                case SIN: t.cos(x); break;
+                case COS: t.sin(x).negate(t); break;
+                case TAN:
+                case COT:
+                    if (unbounded(v)) {
+                        // Across a pole the slope formula holds on each side but not between them
+                        t.setWhole();
+                    } else {
+                        t.square(v).add(t, 1);
+                        if (function == MathFunction.COT) {
+                            t.negate(t);
+                        }
+                    }
+                    break;
+                case ASIN: t.square(x).subtract(1, t).apply(MathFunction.SQRT, t).reciprocal(t); break;
+                case ACOS: t.square(x).subtract(1, t).apply(MathFunction.SQRT, t).reciprocal(t).negate(t); break;
+                case ATAN: t.square(x).add(t, 1).reciprocal(t); break;
+                case SINH: t.cosh(x); break;
+                case COSH: t.apply(MathFunction.SINH, x); break;
+                case TANH: t.square(v).subtract(1, t); break;
+                case ABS: t.apply(MathFunction.SIGNUM, x); break;
+                case LOG: t.reciprocal(x); break;
+                case LOG10: t.multiply(x, LN10).reciprocal(t); break;
+                case LOG2: t.multiply(x, LN2).reciprocal(t); break;
+                case LOG1P: t.add(x, 1).reciprocal(t); break;
+                case SQRT: t.multiply(v, 2).reciprocal(t); break;
+                case CBRT: t.square(v).multiply(t, 3).reciprocal(t); break;
+                case EXP: t.set(v); break;
+                case EXPM1: t.add(v, 1); break;
+                case CEIL: jump(Math.ceil(x.lo) == Math.ceil(x.hi)); break;
+                case FLOOR: jump(Math.floor(x.lo) == Math.floor(x.hi)); break;
+                default: jump(x.lo > 0 || x.hi < 0); break;
+            }
+        }
+
+        private static boolean unbounded(Interval a) {
+            return a.lo == Double.NEGATIVE_INFINITY || a.hi == Double.POSITIVE_INFINITY;
+        }
+
+        // Piecewise constant: slope 0 between the jumps, anything across one
+        private void jump(boolean flat) {
+            if (flat) {
+                t.set(0, 0);
+            } else {
+                t.setWhole();
+            }
+        }
+
+        @Override
+        boolean isConstant() {
+            return a.isConstant();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.numerical.rootfinder.model.expression;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The built-in functions understood by exp4j 0.4.8, with the same names and semantics.
+ */
+public enum MathFunction {
+    SIN("sin"),
+    COS("cos"),
+    TAN("tan"),
+    COT("cot"),
+    ASIN("asin"),
+    ACOS("acos"),
+    ATAN("atan"),
+    SINH("sinh"),
+    COSH("cosh"),
+    TANH("tanh"),
+    ABS("abs"),
+    LOG("log"),
+    LOG10("log10"),
+    LOG2("log2"),
+    LOG1P("log1p"),
+    CEIL("ceil"),
+    FLOOR("floor"),
+    SQRT("sqrt"),
+    CBRT("cbrt"),
+    POW("pow", 2),
+    EXP("exp"),
+    EXPM1("expm1"),
+    SIGNUM("signum");
+
+    private static final Map<String, MathFunction> BY_NAME = new HashMap<>();
+
+    static {
+        for (MathFunction function : values()) {
+            BY_NAME.put(function.name, function);
+        }
+    }
+
+    private final String name;
+    private final int arity;
+
+    MathFunction(String name) {
+        this(name, 1);
+    }
+
+    MathFunction(String name, int arity) {
+        this.name = name;
+        this.arity = arity;
+    }
+
+    public static MathFunction forName(String name) {
+        return BY_NAME.get(name);
+    }
+
+    public String getName() { return name; }
+
+    public int getArity() { return arity; }
+
+    public double apply(double a) {
+        switch (this) {
+            case SIN: return Math.sin(a);
+            case COS: return Math.cos(a);
+            case TAN: return Math.tan(a);
+            case COT: return cot(a);
+            case ASIN: return Math.asin(a);
+            case ACOS: return Math.acos(a);
+            case ATAN: return Math.atan(a);
+            case SINH: return Math.sinh(a);
+            case COSH: return Math.cosh(a);
+            case TANH: return Math.tanh(a);
+            case ABS: return Math.abs(a);
+            case LOG: return Math.log(a);
+            case LOG10: return Math.log10(a);
+            case LOG2: return Math.log(a) / Math.log(2.0);
+            case LOG1P: return Math.log1p(a);
+            case CEIL: return Math.ceil(a);
+            case FLOOR: return Math.floor(a);
+            case SQRT: return Math.sqrt(a);
+            case CBRT: return Math.cbrt(a);
+            case EXP: return Math.exp(a);
+            case EXPM1: return Math.expm1(a);
+            case SIGNUM: return Math.signum(a);
+            default:
+                throw new IllegalStateException(name + " expects " + arity + " arguments");
+        }
+    }
+
+    public double apply(double a, double b) {
+        if (this == POW) {
+            return Math.pow(a, b);
+        }
+        throw new IllegalStateException(name + " expects " + arity + " argument");
+    }
+
+    static double cot(double a) {
+        double tan = Math.tan(a);
+        if (tan == 0.0) {
+            throw new ArithmeticException("Division by zero in cotangent!");
+        }
+        return 1.0 / tan;
+    }
+}
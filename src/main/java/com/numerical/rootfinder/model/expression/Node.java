@@ -0,0 +1,168 @@
+package com.numerical.rootfinder.model.expression;
+
+/**
+ * Immutable syntax tree produced by {@link ExpressionParser}.
+ */
+public abstract class Node {
+
+    public abstract double evaluate(double x);
+
+    public boolean isConstant() {
+        return false;
+    }
+
+    public static final class Constant extends Node {
+        private final double value;
+        private final double low;
+
+        public Constant(double value) {
+            this(value, 0);
+        }
+
+        /** A constant whose exact value is value + low, e.g. a decimal literal or pi; low is kept for double-double evaluation. */
+        public Constant(double value, double low) {
+            this.value = value;
+            this.low = low;
+        }
+
+        public double getValue() { return value; }
+        public double getLow() { return low; }
+
+        @Override
+        public double evaluate(double x) {
+            return value;
+        }
+
+        @Override
+        public boolean isConstant() {
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return Double.toString(value);
+        }
+    }
+
+    public static final class Variable extends Node {
+        private final String name;
+
+        public Variable(String name) {
+            this.name = name;
+        }
+
+        public String getName() { return name; }
+
+        @Override
+        public double evaluate(double x) {
+            return x;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /** A named parameter, bound by position to a value array when the tree is compiled. */
+    public static final class Parameter extends Node {
+        private final String name;
+        private final int index;
+
+        public Parameter(String name, int index) {
+            this.name = name;
+            this.index = index;
+        }
+
+        public String getName() { return name; }
+        public int getIndex() { return index; }
+
+        @Override
+        public double evaluate(double x) {
+            throw new IllegalStateException("Parameter '" + name + "' has no value outside a compiled function");
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    public static final class Negate extends Node {
+        private final Node operand;
+
+        public Negate(Node operand) {
+            this.operand = operand;
+        }
+
+        public Node getOperand() { return operand; }
+
+        @Override
+        public double evaluate(double x) {
+            return -operand.evaluate(x);
+        }
+
+        @Override
+        public String toString() {
+            return "(-" + operand + ")";
+        }
+    }
+
+    public static final class Binary extends Node {
+        private final BinaryOperator operator;
+        private final Node left;
+        private final Node right;
+
+        public Binary(BinaryOperator operator, Node left, Node right) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        public BinaryOperator getOperator() { return operator; }
+        public Node getLeft() { return left; }
+        public Node getRight() { return right; }
+
+        @Override
+        public double evaluate(double x) {
+            return operator.apply(left.evaluate(x), right.evaluate(x));
+        }
+
+        @Override
+        public String toString() {
+            return "(" + left + " " + operator.getSymbol() + " " + right + ")";
+        }
+    }
+
+    public static final class Call extends Node {
+        private final MathFunction function;
+        private final Node[] arguments;
+
+        public Call(MathFunction function, Node... arguments) {
+            this.function = function;
+            this.arguments = arguments.clone();
+        }
+
+        public MathFunction getFunction() { return function; }
+        public int getArgumentCount() { return arguments.length; }
+        public Node getArgument(int index) { return arguments[index]; }
+
+        @Override
+        public double evaluate(double x) {
+            if (arguments.length == 2) {
+                return function.apply(arguments[0].evaluate(x), arguments[1].evaluate(x));
+            }
+            return function.apply(arguments[0].evaluate(x));
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(function.getName()).append('(');
+            for (int i = 0; i < arguments.length; i++) {
+                if (i > 0) sb.append(", ");
+                sb.append(arguments[i]);
+            }
+            return sb.append(')').toString();
+        }
+    }
+}
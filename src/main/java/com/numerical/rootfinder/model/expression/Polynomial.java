@@ -0,0 +1,277 @@
+package com.numerical.rootfinder.model.expression;
+
+import java.util.Arrays;
+
+/**
+ * A polynomial in x with constant coefficients, recognised from a parsed expression.
+ * {@link #fromTree} accepts sums, differences, products and negations of constants and x,
+ * division by a nonzero constant, and non-negative integer powers ({@code ^} or {@code pow}).
+ * Anything else, including named parameters, is not a polynomial.
+ * <p>
+ * Evaluation uses Horner's scheme, which also gives the derivatives in the same pass. It is
+ * as accurate as the expression itself only if the expression was already written as a sum
+ * of terms; multiplying out a form like {@code (x - 1)^10} cancels badly near its roots, so
+ * {@link #isExpanded()} tells callers when Horner can stand in for the tree.
+ * <p>
+ * Even then the rounding is not the tree's: like terms are collected into one coefficient
+ * before any x is seen, so they cancel exactly. {@code x^2 + 1 - x^2} is 1 at x = 1e9, where
+ * the tree rounds x^2 + 1 to x^2 and gives 0, and {@code x^2 - x^2} is 0 at x = 1e200, where
+ * the tree overflows and gives NaN. Both results stay within {@link #errorBound} of the exact
+ * value; they need not agree bit for bit.
+ */
+public final class Polynomial {
+
+    /** Highest degree recognised; beyond this the expression is treated as a general function. */
+    public static final int MAX_DEGREE = 1000;
+
+    // Above this a sparse form like x^500 - 1 is cheaper through pow than through every coefficient
+    private static final int HORNER_MAX_DEGREE = 64;
+
+    // Coefficient of x^k at index k, with a nonzero leading coefficient (or just a0)
+    private final double[] coefficients;
+    private final boolean expanded;
+
+    private Polynomial(double[] coefficients, boolean expanded) {
+        int degree = coefficients.length - 1;
+        while (degree > 0 && coefficients[degree] == 0) {
+            degree--;
+        }
+        this.coefficients = degree == coefficients.length - 1 ? coefficients : Arrays.copyOf(coefficients, degree + 1);
+        this.expanded = expanded;
+    }
+
+    /** The polynomial from constant coefficients, the constant term first. */
+    public static Polynomial of(double... coefficients) {
+        if (coefficients.length == 0) {
+            throw new IllegalArgumentException("A polynomial needs at least one coefficient");
+        }
+        return new Polynomial(coefficients.clone(), true);
+    }
+
+    /** The polynomial the tree computes, or null if it is not one. */
+    public static Polynomial fromTree(Node tree) {
+        try {
+            return convert(ExpressionCompiler.fold(tree));
+        } catch (NotPolynomial e) {
+            return null;
+        }
+    }
+
+    /**
+     * The polynomial if Horner's scheme can replace evaluating the tree: a plain sum of terms of
+     * modest degree. Null otherwise.
+     */
+    static Polynomial forEvaluation(Node tree) {
+        Polynomial polynomial = fromTree(tree);
+        if (polynomial == null || !polynomial.expanded || polynomial.getDegree() > HORNER_MAX_DEGREE) {
+            return null;
+        }
+        return polynomial;
+    }
+
+    public int getDegree() {
+        return coefficients.length - 1;
+    }
+
+    public double getCoefficient(int power) {
+        return power < coefficients.length ? coefficients[power] : 0;
+    }
+
+    /** The coefficients, the constant term first. */
+    public double[] getCoefficients() {
+        return coefficients.clone();
+    }
+
+    /** True if the expression was a plain sum of terms, so Horner evaluation matches it. */
+    public boolean isExpanded() {
+        return expanded;
+    }
+
+    public double evaluate(double x) {
+        double p = coefficients[coefficients.length - 1];
+        for (int k = coefficients.length - 2; k >= 0; k--) {
+            p = p * x + coefficients[k];
+        }
+        return p;
+    }
+
+    /**
+     * p(x), p'(x) and p''(x) in one Horner pass, written to {@code out[0..2]}.
+     */
+    public void evaluate(double x, double[] out) {
+        int n = coefficients.length - 1;
+        double p = coefficients[n];
+        double d = 0;
+        double dd = 0;
+        for (int k = n - 1; k >= 0; k--) {
+            dd = dd * x + d;
+            d = d * x + p;
+            p = p * x + coefficients[k];
+        }
+        out[0] = p;
+        out[1] = d;
+        out[2] = 2 * dd;
+    }
+
+    /**
+     * The rounding error bound of {@link #evaluate(double)} at |x| = r: Horner's result is
+     * within about this of the exact value, so a smaller |p(x)| is indistinguishable from 0.
+     */
+    public double errorBound(double r) {
+        double bound = Math.abs(coefficients[coefficients.length - 1]);
+        for (int k = coefficients.length - 2; k >= 0; k--) {
+            bound = bound * r + Math.abs(coefficients[k]);
+        }
+        return 2 * coefficients.length * Math.ulp(1.0) * bound;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int k = coefficients.length - 1; k >= 0; k--) {
+            double c = coefficients[k];
+            if (c == 0 && coefficients.length > 1) {
+                continue;
+            }
+            if (sb.length() > 0) {
+                sb.append(c < 0 ? " - " : " + ");
+                c = Math.abs(c);
+            }
+            if (k == 0 || c != 1) {
+                sb.append(c);
+                if (k > 0) {
+                    sb.append('*');
+                }
+            }
+            if (k > 0) {
+                sb.append('x');
+                if (k > 1) {
+                    sb.append('^').append(k);
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private static final class NotPolynomial extends Exception {
+        NotPolynomial() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static Polynomial convert(Node node) throws NotPolynomial {
+        if (node instanceof Node.Constant) {
+            return new Polynomial(new double[]{((Node.Constant) node).getValue()}, true);
+        }
+        if (node instanceof Node.Variable) {
+            return new Polynomial(new double[]{0, 1}, true);
+        }
+        if (node instanceof Node.Negate) {
+            return convert(((Node.Negate) node).getOperand()).scale(-1);
+        }
+        if (node instanceof Node.Binary) {
+            Node.Binary binary = (Node.Binary) node;
+            switch (binary.getOperator()) {
+                case ADD:
+                    return convert(binary.getLeft()).add(convert(binary.getRight()), 1);
+                case SUBTRACT:
+                    return convert(binary.getLeft()).add(convert(binary.getRight()), -1);
+                case MULTIPLY:
+                    return convert(binary.getLeft()).multiply(convert(binary.getRight()));
+                case DIVIDE:
+                    return convert(binary.getLeft()).divide(constant(binary.getRight()));
+                case POWER:
+                    return convert(binary.getLeft()).power(exponent(binary.getRight()));
+                default:
+                    throw new NotPolynomial();
+            }
+        }
+        if (node instanceof Node.Call && ((Node.Call) node).getFunction() == MathFunction.POW) {
+            Node.Call call = (Node.Call) node;
+            return convert(call.getArgument(0)).power(exponent(call.getArgument(1)));
+        }
+        throw new NotPolynomial();
+    }
+
+    // A divisor must be a nonzero constant; a zero one keeps its error at evaluation time
+    private static double constant(Node node) throws NotPolynomial {
+        if (!node.isConstant() || ((Node.Constant) node).getValue() == 0) {
+            throw new NotPolynomial();
+        }
+        return ((Node.Constant) node).getValue();
+    }
+
+    private static int exponent(Node node) throws NotPolynomial {
+        if (!node.isConstant()) {
+            throw new NotPolynomial();
+        }
+        double value = ((Node.Constant) node).getValue();
+        if (!(value >= 0 && value <= MAX_DEGREE && value == Math.rint(value))) {
+            throw new NotPolynomial();
+        }
+        return (int) value;
+    }
+
+    private int terms() {
+        int terms = 0;
+        for (double c : coefficients) {
+            if (c != 0) {
+                terms++;
+            }
+        }
+        return terms;
+    }
+
+    private Polynomial scale(double factor) {
+        double[] result = coefficients.clone();
+        for (int k = 0; k < result.length; k++) {
+            result[k] *= factor;
+        }
+        return new Polynomial(result, expanded);
+    }
+
+    private Polynomial divide(double divisor) {
+        double[] result = coefficients.clone();
+        for (int k = 0; k < result.length; k++) {
+            result[k] /= divisor;
+        }
+        return new Polynomial(result, expanded);
+    }
+
+    private Polynomial add(Polynomial other, double sign) {
+        double[] result = Arrays.copyOf(coefficients, Math.max(coefficients.length, other.coefficients.length));
+        for (int k = 0; k < other.coefficients.length; k++) {
+            result[k] += sign * other.coefficients[k];
+        }
+        return new Polynomial(result, expanded && other.expanded);
+    }
+
+    private Polynomial multiply(Polynomial other) throws NotPolynomial {
+        if (getDegree() + other.getDegree() > MAX_DEGREE) {
+            throw new NotPolynomial();
+        }
+        double[] result = new double[coefficients.length + other.coefficients.length - 1];
+        for (int i = 0; i < coefficients.length; i++) {
+            if (coefficients[i] == 0) {
+                continue;
+            }
+            for (int j = 0; j < other.coefficients.length; j++) {
+                result[i + j] += coefficients[i] * other.coefficients[j];
+            }
+        }
+        // A term times a term is still a term; a sum times a sum had to be multiplied out
+        boolean plain = expanded && other.expanded && (terms() <= 1 || other.terms() <= 1);
+        return new Polynomial(result, plain);
+    }
+
+    private Polynomial power(int exponent) throws NotPolynomial {
+        if ((long) getDegree() * exponent > MAX_DEGREE) {
+            throw new NotPolynomial();
+        }
+        Polynomial result = new Polynomial(new double[]{1}, true);
+        for (int i = 0; i < exponent; i++) {
+            result = result.multiply(this);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,503 @@
+package com.numerical.rootfinder.view;
+
+import com.numerical.rootfinder.model.CancellationToken;
+import com.numerical.rootfinder.model.PlotData;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Plots f(x) on a single {@link Canvas}, so the cost of a frame depends on the plot width and
+ * not on how many points were sampled. Draws the curve, the axes, root markers and optionally
+ * the iteration path of each method.
+ * <p>
+ * Scrolling zooms around the pointer, dragging pans and a double click restores the first
+ * view. Every change of view asks the {@link Sampler} for the visible range on the executor;
+ * until the samples arrive the old ones are redrawn in the new view. Redraws and sample
+ * requests are coalesced to at most one per frame. Use from the FX thread only.
+ */
+public class FunctionPlot extends Region {
+
+    /** Samples f over [xMin, xMax] for a plot {@code width} pixels wide. */
+    @FunctionalInterface
+    public interface Sampler {
+        PlotData sample(double xMin, double xMax, int width, CancellationToken cancellation);
+    }
+
+    /**
+     * The points a method visited, in order. A path extended point by point keeps every
+     * {@code stride}-th point plus the latest, and doubles the stride whenever it would outgrow
+     * {@link #MAX_LIVE_PATH_POINTS}, so a long solve costs a fixed amount of memory.
+     */
+    public static final class Path {
+        private final String name;
+        private double[] xs;
+        private double[] ys;
+        private int size;
+        private int stride = 1;
+        // Points added so far, and whether the last one kept is only a stand-in for the latest
+        private long added;
+        private boolean provisional;
+        // The points drawn, thinned for a plot shownWidth pixels wide after shownAdded points were added
+        private PlotData shown;
+        private long shownAdded = -1;
+        private int shownWidth;
+
+        public Path(String name, double[] xs, double[] ys) {
+            this.name = name;
+            this.xs = xs;
+            this.ys = ys;
+            this.size = xs.length;
+        }
+
+        private void add(double x, double y) {
+            if (provisional) {
+                size--;
+            }
+            if (size >= MAX_LIVE_PATH_POINTS) {
+                // Every other point is a multiple of twice the stride
+                for (int i = 0; i < size; i += 2) {
+                    xs[i / 2] = xs[i];
+                    ys[i / 2] = ys[i];
+                }
+                size = (size + 1) / 2;
+                stride *= 2;
+            }
+            provisional = added++ % stride != 0;
+            if (size == xs.length) {
+                xs = Arrays.copyOf(xs, Math.max(16, size * 2));
+                ys = Arrays.copyOf(ys, xs.length);
+            }
+            xs[size] = x;
+            ys[size] = y;
+            size++;
+        }
+
+        // About one point per pixel column; the thinning does not depend on the view, only on the width
+        private PlotData shown(int width) {
+            if (shownAdded != added || shownWidth != width) {
+                shown = PlotData.thin(xs, ys, size, Math.max(3, width));
+                shownAdded = added;
+                shownWidth = width;
+            }
+            return shown;
+        }
+    }
+
+    private static final Color CURVE = Color.web("#1f6fb2");
+    private static final Color GRID = Color.web("#eeeeee");
+    private static final Color AXIS = Color.web("#888888");
+    private static final Color[] PATH_COLORS = {
+            Color.web("#e67e22"), Color.web("#27ae60"), Color.web("#8e44ad"), Color.web("#c0392b"),
+            Color.web("#16a085"), Color.web("#d35400"), Color.web("#2c3e50"), Color.web("#7f8c8d"),
+            Color.web("#f1c40f")
+    };
+    // Pixel coordinates are clamped this far outside the canvas, where the canvas still draws reliably
+    private static final double MAX_OVERDRAW = 1e4;
+    private static final double ZOOM_PER_SCROLL_UNIT = 0.002;
+    private static final int MAX_TICKS = 20;
+    // Points a path extended during a solve keeps before it thins itself out
+    private static final int MAX_LIVE_PATH_POINTS = 4096;
+    // Paths with at most this many points mark each point
+    private static final int MAX_MARKED_POINTS = 200;
+
+    private final Canvas canvas = new Canvas();
+    private final Sampler sampler;
+    private final Executor executor;
+    private final String title;
+
+    private List<Double> roots = List.of();
+    private List<Path> paths = new ArrayList<>();
+    private boolean showPaths;
+
+    // The view; y follows the samples until the user zooms or pans
+    private double xMin;
+    private double xMax;
+    private double yMin = -1;
+    private double yMax = 1;
+    private boolean yFromData = true;
+    private double homeXMin;
+    private double homeXMax;
+
+    private PlotData data;
+    private String error;
+    private CancellationToken sampling;
+    private long requested;
+
+    private boolean redraw;
+    private boolean resample;
+    private final AnimationTimer frame = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            stop();
+            if (canvas.getWidth() <= 0) {
+                // Not laid out yet; sizing the canvas invalidates again
+                return;
+            }
+            if (resample) {
+                resample = false;
+                requestSamples();
+            }
+            if (redraw) {
+                redraw = false;
+                draw();
+            }
+        }
+    };
+
+    private double dragX;
+    private double dragY;
+
+    public FunctionPlot(String title, Sampler sampler, Executor executor) {
+        this.title = title;
+        this.sampler = sampler;
+        this.executor = executor;
+        getChildren().add(canvas);
+        setMinSize(200, 150);
+        setPrefSize(600, 400);
+
+        canvas.addEventHandler(ScrollEvent.SCROLL, this::onScroll);
+        canvas.addEventHandler(MouseEvent.MOUSE_PRESSED, e -> {
+            dragX = e.getX();
+            dragY = e.getY();
+        });
+        canvas.addEventHandler(MouseEvent.MOUSE_DRAGGED, this::onDrag);
+        canvas.addEventHandler(MouseEvent.MOUSE_CLICKED, e -> {
+            if (e.getButton() == MouseButton.PRIMARY && e.getClickCount() == 2) {
+                resetView();
+            }
+        });
+    }
+
+    /** Sets the first x range, which a double click returns to, and samples it. */
+    public void setView(double xMin, double xMax) {
+        homeXMin = xMin;
+        homeXMax = xMax;
+        resetView();
+    }
+
+    public void resetView() {
+        xMin = homeXMin;
+        xMax = homeXMax;
+        yFromData = true;
+        invalidate(true);
+    }
+
+    public void setRoots(List<Double> roots) {
+        this.roots = new ArrayList<>(roots);
+        invalidate(false);
+    }
+
+    public void setPaths(List<Path> paths) {
+        this.paths = new ArrayList<>(paths);
+        invalidate(false);
+    }
+
+    /** Extends the named path by one point, starting the path if it is new; for solves in progress. */
+    public void addPathPoint(String name, double x, double y) {
+        Path path = null;
+        for (Path candidate : paths) {
+            if (candidate.name.equals(name)) {
+                path = candidate;
+            }
+        }
+        if (path == null) {
+            path = new Path(name, new double[0], new double[0]);
+            paths.add(path);
+        }
+        path.add(x, y);
+        invalidate(false);
+    }
+
+    public void setShowPaths(boolean showPaths) {
+        this.showPaths = showPaths;
+        invalidate(false);
+    }
+
+    /** Stops any sampling in progress, e.g. when the plot is replaced. */
+    public void dispose() {
+        frame.stop();
+        if (sampling != null) {
+            sampling.cancel();
+        }
+    }
+
+    @Override
+    protected void layoutChildren() {
+        double width = snapSizeX(getWidth());
+        double height = snapSizeY(getHeight());
+        if (canvas.getWidth() != width || canvas.getHeight() != height) {
+            boolean wider = width > canvas.getWidth();
+            canvas.setWidth(width);
+            canvas.setHeight(height);
+            // A wider plot needs more samples; a narrower one can keep the ones it has
+            invalidate(wider);
+        }
+    }
+
+    private void invalidate(boolean needSamples) {
+        redraw = true;
+        resample |= needSamples;
+        frame.start();
+    }
+
+    private void requestSamples() {
+        if (sampling != null) {
+            sampling.cancel();
+        }
+        CancellationToken cancellation = new CancellationToken();
+        sampling = cancellation;
+        long request = ++requested;
+        double from = xMin;
+        double to = xMax;
+        int width = Math.max(3, (int) canvas.getWidth());
+        executor.execute(() -> {
+            if (cancellation.isCancelled()) {
+                return;
+            }
+            try {
+                PlotData samples = sampler.sample(from, to, width, cancellation);
+                Platform.runLater(() -> accept(request, samples, null));
+            } catch (RuntimeException e) {
+                Platform.runLater(() -> accept(request, null, e.getMessage()));
+            }
+        });
+    }
+
+    private void accept(long request, PlotData samples, String message) {
+        if (request != requested) {
+            return;
+        }
+        sampling = null;
+        data = samples;
+        error = message;
+        if (samples != null && yFromData) {
+            yMin = Math.min(samples.getYLow(), 0);
+            yMax = Math.max(samples.getYHigh(), 0);
+        }
+        invalidate(false);
+    }
+
+    private void onScroll(ScrollEvent e) {
+        double factor = Math.exp(-e.getDeltaY() * ZOOM_PER_SCROLL_UNIT);
+        double x = toX(e.getX());
+        double y = toY(e.getY());
+        if (factor < 1 && (tooNarrow((xMax - xMin) * factor, x) || tooNarrow((yMax - yMin) * factor, y))) {
+            // Doubles can not resolve a finer view
+            return;
+        }
+        xMin = x + (xMin - x) * factor;
+        xMax = x + (xMax - x) * factor;
+        yMin = y + (yMin - y) * factor;
+        yMax = y + (yMax - y) * factor;
+        yFromData = false;
+        invalidate(true);
+        e.consume();
+    }
+
+    private void onDrag(MouseEvent e) {
+        double dx = (e.getX() - dragX) * (xMax - xMin) / canvas.getWidth();
+        double dy = (e.getY() - dragY) * (yMax - yMin) / canvas.getHeight();
+        dragX = e.getX();
+        dragY = e.getY();
+        xMin -= dx;
+        xMax -= dx;
+        yMin += dy;
+        yMax += dy;
+        yFromData = false;
+        invalidate(true);
+    }
+
+    private static boolean tooNarrow(double range, double center) {
+        return range < Math.ulp(Math.max(Math.abs(center), Double.MIN_NORMAL)) * 1e4;
+    }
+
+    private double toPixelX(double x) {
+        return clamp((x - xMin) / (xMax - xMin) * canvas.getWidth(), canvas.getWidth());
+    }
+
+    private double toPixelY(double y) {
+        return clamp((yMax - y) / (yMax - yMin) * canvas.getHeight(), canvas.getHeight());
+    }
+
+    private double toX(double pixel) {
+        return xMin + pixel / canvas.getWidth() * (xMax - xMin);
+    }
+
+    private double toY(double pixel) {
+        return yMax - pixel / canvas.getHeight() * (yMax - yMin);
+    }
+
+    private static double clamp(double pixel, double size) {
+        return Math.max(-MAX_OVERDRAW, Math.min(size + MAX_OVERDRAW, pixel));
+    }
+
+    private void draw() {
+        double width = canvas.getWidth();
+        double height = canvas.getHeight();
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        g.setFill(Color.WHITE);
+        g.fillRect(0, 0, width, height);
+        if (width <= 0 || height <= 0 || !(xMin < xMax) || !(yMin < yMax)) {
+            return;
+        }
+
+        drawGrid(g, width, height);
+        drawCurve(g);
+        if (showPaths) {
+            drawPaths(g);
+        }
+
+        // Root markers sit on the x axis
+        g.setFill(Color.RED);
+        for (Double root : roots) {
+            if (root != null) {
+                g.fillOval(toPixelX(root) - 4, toPixelY(0) - 4, 8, 8);
+            }
+        }
+
+        g.setFill(Color.BLACK);
+        g.setFont(Font.font(13));
+        g.setTextAlign(TextAlignment.LEFT);
+        g.setTextBaseline(VPos.TOP);
+        g.fillText("Function: " + title, 8, 6);
+        if (error != null) {
+            g.setFill(Color.RED);
+            g.fillText("Could not sample f(x): " + error, 8, 24);
+        }
+    }
+
+    private void drawGrid(GraphicsContext g, double width, double height) {
+        g.setLineWidth(1);
+        g.setFont(Font.font(10));
+        g.setFill(Color.GRAY);
+
+        double xTick = niceTick(xMax - xMin);
+        g.setTextAlign(TextAlignment.CENTER);
+        g.setTextBaseline(VPos.BOTTOM);
+        double xFirst = Math.ceil(xMin / xTick) * xTick;
+        for (int i = 0; i <= MAX_TICKS && xFirst + i * xTick <= xMax; i++) {
+            double x = xFirst + i * xTick;
+            double px = Math.round(toPixelX(x)) + 0.5;
+            g.setStroke(GRID);
+            g.strokeLine(px, 0, px, height);
+            g.fillText(format(x, xTick), px, height - 2);
+        }
+
+        double yTick = niceTick(yMax - yMin);
+        g.setTextAlign(TextAlignment.LEFT);
+        g.setTextBaseline(VPos.CENTER);
+        double yFirst = Math.ceil(yMin / yTick) * yTick;
+        for (int i = 0; i <= MAX_TICKS && yFirst + i * yTick <= yMax; i++) {
+            double y = yFirst + i * yTick;
+            double py = Math.round(toPixelY(y)) + 0.5;
+            g.setStroke(GRID);
+            g.strokeLine(0, py, width, py);
+            g.fillText(format(y, yTick), 4, py);
+        }
+
+        g.setStroke(AXIS);
+        if (yMin <= 0 && yMax >= 0) {
+            double py = Math.round(toPixelY(0)) + 0.5;
+            g.strokeLine(0, py, width, py);
+        }
+        if (xMin <= 0 && xMax >= 0) {
+            double px = Math.round(toPixelX(0)) + 0.5;
+            g.strokeLine(px, 0, px, height);
+        }
+    }
+
+    private void drawCurve(GraphicsContext g) {
+        if (data == null) {
+            return;
+        }
+        g.setStroke(CURVE);
+        g.setLineWidth(2);
+        g.beginPath();
+        boolean open = false;
+        for (int i = 0; i < data.size(); i++) {
+            if (data.isBreak(i)) {
+                open = false;
+                continue;
+            }
+            double px = toPixelX(data.getX(i));
+            double py = toPixelY(data.getY(i));
+            if (open) {
+                g.lineTo(px, py);
+            } else {
+                g.moveTo(px, py);
+                open = true;
+            }
+        }
+        g.stroke();
+    }
+
+    private void drawPaths(GraphicsContext g) {
+        g.setLineWidth(1.5);
+        g.setFont(Font.font(11));
+        g.setTextAlign(TextAlignment.RIGHT);
+        g.setTextBaseline(VPos.TOP);
+        for (int p = 0; p < paths.size(); p++) {
+            Path path = paths.get(p);
+            Color color = PATH_COLORS[p % PATH_COLORS.length];
+            g.setStroke(color);
+            g.setFill(color);
+            PlotData points = path.shown((int) canvas.getWidth());
+            boolean markers = path.size <= MAX_MARKED_POINTS;
+            g.beginPath();
+            boolean open = false;
+            for (int i = 0; i < points.size(); i++) {
+                if (points.isBreak(i)) {
+                    open = false;
+                    continue;
+                }
+                double px = toPixelX(points.getX(i));
+                double py = toPixelY(points.getY(i));
+                if (open) {
+                    g.lineTo(px, py);
+                } else {
+                    g.moveTo(px, py);
+                    open = true;
+                }
+                if (markers) {
+                    g.fillOval(px - 2.5, py - 2.5, 5, 5);
+                }
+            }
+            g.stroke();
+            // Legend, top right
+            g.fillText(path.name, canvas.getWidth() - 8, 6 + 14 * p);
+        }
+    }
+
+    // A 1, 2 or 5 times a power of ten that splits the range into about ten ticks
+    private static double niceTick(double range) {
+        double raw = range / 10;
+        double magnitude = Math.pow(10, Math.floor(Math.log10(raw)));
+        double scaled = raw / magnitude;
+        return (scaled < 1.5 ? 1 : scaled < 3.5 ? 2 : scaled < 7.5 ? 5 : 10) * magnitude;
+    }
+
+    private static String format(double value, double tick) {
+        if (Math.abs(value) < tick * 1e-9) {
+            return "0";
+        }
+        int decimals = Math.max(0, (int) -Math.floor(Math.log10(tick)));
+        return decimals > 6 || Math.abs(value) >= 1e7
+                ? String.format("%.2e", value)
+                : String.format("%." + decimals + "f", value);
+    }
+}
@@ -0,0 +1,62 @@
+package com.numerical.rootfinder.view;
+
+import javafx.application.Platform;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Carries items from a worker thread to the FX thread in batches. However fast items arrive,
+ * at most one drain is queued on the FX thread at a time, and it takes everything that has
+ * arrived by then. The queue is bounded: once it is full, {@link #offer} blocks until the FX
+ * thread catches up, which slows the producer down rather than flooding the UI.
+ */
+public final class FxBatcher<T> {
+
+    private final BlockingQueue<T> queue;
+    private final Consumer<List<T>> consumer;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile boolean closed;
+
+    public FxBatcher(int capacity, Consumer<List<T>> consumer) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.consumer = consumer;
+    }
+
+    /** Queues an item, waiting for room. Returns false once closed or if interrupted. */
+    public boolean offer(T item) {
+        if (closed) {
+            return false;
+        }
+        try {
+            queue.put(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        if (scheduled.compareAndSet(false, true)) {
+            Platform.runLater(this::drain);
+        }
+        return !closed;
+    }
+
+    /** Drops queued items and ignores new ones; call on the FX thread. */
+    public void close() {
+        closed = true;
+        queue.clear();
+    }
+
+    private void drain() {
+        // Cleared before polling, so an item queued during the drain schedules another one
+        scheduled.set(false);
+        List<T> batch = new ArrayList<>(queue.size());
+        queue.drainTo(batch);
+        if (!closed && !batch.isEmpty()) {
+            consumer.accept(batch);
+        }
+    }
+}
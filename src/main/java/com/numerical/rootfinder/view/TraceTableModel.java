@@ -0,0 +1,232 @@
+package com.numerical.rootfinder.view;
+
+import com.numerical.rootfinder.model.IterationEvent;
+import com.numerical.rootfinder.model.IterationTrace;
+import com.numerical.rootfinder.model.TraceColumn;
+import com.numerical.rootfinder.model.TraceRetention;
+import javafx.collections.ObservableList;
+import javafx.collections.ObservableListBase;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * Shows an {@link IterationTrace} in a {@code TableView<Integer>} without copying it. The
+ * table's items are the row numbers, served by a read-only list over the trace, and each cell
+ * reads its value straight from the trace's column arrays when it is shown. Text is formatted
+ * only for rows that become visible and kept in a small per-column cache, so scrolling back and
+ * forth does not format again, and memory does not grow with the length of the trace.
+ * <p>
+ * A {@link #live} model instead fills up from {@link IterationEvent}s while a solve runs, and
+ * like the solve's trace keeps only as many of them as its {@link TraceRetention} allows.
+ */
+public final class TraceTableModel {
+
+    // Cached cell texts per column; a power of two comfortably above the rows on screen
+    private static final int CACHE_SIZE = 512;
+    // Rows a live model keeps at most, even when the solve keeps its full history
+    private static final int MAX_LIVE_ROWS = 100_000;
+
+    // Where the rows come from: a finished trace, or the events of a running solve
+    private interface Source {
+        int size();
+
+        int getIteration(int row);
+
+        double get(int row, TraceColumn column);
+
+        // How many rows have gone from the front, so row r is row first() + r of the whole run
+        default long first() { return 0; }
+    }
+
+    private final Source source;
+    private final EventRing events;
+    private final Rows rows;
+
+    public TraceTableModel(IterationTrace trace) {
+        this(new Source() {
+            @Override
+            public int size() { return trace.size(); }
+
+            @Override
+            public int getIteration(int row) { return trace.getIteration(row); }
+
+            @Override
+            public double get(int row, TraceColumn column) { return trace.get(row, column); }
+        }, null);
+    }
+
+    private TraceTableModel(Source source, EventRing events) {
+        this.source = source;
+        this.events = events;
+        this.rows = new Rows();
+    }
+
+    /**
+     * An empty model that grows with {@link #append}. Once it holds the last
+     * {@code retention.getLimit()} rows, or {@link #MAX_LIVE_ROWS} for the full history, each new
+     * row pushes out the oldest.
+     */
+    public static TraceTableModel live(TraceRetention retention) {
+        EventRing events = new EventRing(Math.min(retention.getLimit(), MAX_LIVE_ROWS));
+        return new TraceTableModel(new Source() {
+            @Override
+            public int size() { return events.size; }
+
+            @Override
+            public int getIteration(int row) { return events.get(row).getIteration(); }
+
+            @Override
+            public double get(int row, TraceColumn column) { return events.get(row).get(column); }
+
+            @Override
+            public long first() { return events.dropped; }
+        }, events);
+    }
+
+    /** Adds rows to a live model, dropping the oldest beyond its limit, as one change of the row list. */
+    public void append(List<IterationEvent> batch) {
+        if (events == null) {
+            throw new IllegalStateException("Only a live model can grow");
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        int before = events.size;
+        long dropped = events.dropped;
+        for (IterationEvent event : batch) {
+            events.add(event);
+        }
+        int removed = (int) Math.min(events.dropped - dropped, before);
+        rows.changed(removed, before - removed, events.size);
+    }
+
+    /** The table items: row numbers 0 to size - 1, read-only. */
+    public ObservableList<Integer> getRows() {
+        return rows;
+    }
+
+    public TableColumn<Integer, String> iterationColumn(String header) {
+        return column(header, row -> String.valueOf(source.getIteration(row)));
+    }
+
+    /** A column showing one trace column with a {@link String#format} pattern, or "-" where it has no value. */
+    public TableColumn<Integer, String> column(String header, TraceColumn column, String format) {
+        return column(header, row -> {
+            double value = source.get(row, column);
+            return Double.isNaN(value) ? "-" : String.format(format, value);
+        });
+    }
+
+    private TableColumn<Integer, String> column(String header, IntFunction<String> text) {
+        TableColumn<Integer, String> column = new TableColumn<>(header);
+        // Sorting would need a copy of the trace
+        column.setSortable(false);
+        TextCache cache = new TextCache(text, source::first);
+        column.setCellFactory(c -> new TableCell<>() {
+            @Override
+            protected void updateItem(String item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty ? null : cache.get(getIndex()));
+            }
+        });
+        return column;
+    }
+
+    // Direct-mapped: row r lives in slot r mod CACHE_SIZE until another row needs the slot. Rows
+    // are counted from the start of the run, so a text stays valid when a live model drops rows.
+    private static final class TextCache {
+        private final IntFunction<String> text;
+        private final LongSupplier first;
+        private final long[] rows = new long[CACHE_SIZE];
+        private final String[] texts = new String[CACHE_SIZE];
+
+        TextCache(IntFunction<String> text, LongSupplier first) {
+            this.text = text;
+            this.first = first;
+            Arrays.fill(rows, -1);
+        }
+
+        String get(int row) {
+            long key = first.getAsLong() + row;
+            int slot = (int) (key & (CACHE_SIZE - 1));
+            if (rows[slot] != key) {
+                texts[slot] = text.apply(row);
+                rows[slot] = key;
+            }
+            return texts[slot];
+        }
+    }
+
+    // The last events of a live model, oldest first, in an array that grows up to the limit and
+    // then wraps
+    private static final class EventRing {
+        private final int limit;
+        private IterationEvent[] ring;
+        private int head;
+        private int size;
+        private long dropped;
+
+        EventRing(int limit) {
+            this.limit = limit;
+            this.ring = new IterationEvent[Math.min(limit, 256)];
+        }
+
+        IterationEvent get(int row) {
+            return ring[(head + row) % ring.length];
+        }
+
+        void add(IterationEvent event) {
+            if (size == limit) {
+                ring[head] = event;
+                head = (head + 1) % ring.length;
+                dropped++;
+                return;
+            }
+            if (size == ring.length) {
+                IterationEvent[] grown = new IterationEvent[(int) Math.min(limit, 2L * ring.length)];
+                for (int i = 0; i < size; i++) {
+                    grown[i] = get(i);
+                }
+                ring = grown;
+                head = 0;
+            }
+            ring[(head + size) % ring.length] = event;
+            size++;
+        }
+    }
+
+    private final class Rows extends ObservableListBase<Integer> {
+        @Override
+        public Integer get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Row " + index + " of " + size());
+            }
+            return index;
+        }
+
+        @Override
+        public int size() {
+            return source.size();
+        }
+
+        // The first removed rows went from the front, then rows from..to were added at the end
+        void changed(int removed, int from, int to) {
+            beginChange();
+            if (removed > 0) {
+                List<Integer> gone = new ArrayList<>(removed);
+                for (int i = 0; i < removed; i++) {
+                    gone.add(i);
+                }
+                nextRemove(0, gone);
+            }
+            nextAdd(from, to);
+            endChange();
+        }
+    }
+}
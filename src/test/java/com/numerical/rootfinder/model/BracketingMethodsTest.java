@@ -0,0 +1,133 @@
+package com.numerical.rootfinder.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BracketingMethodsTest {
+
+    private static final double TOLERANCE = 1e-12;
+
+    @Test
+    void bracketWithoutASignChangeIsAnError() {
+        for (Method method : Method.values()) {
+            MethodResult result = method.run(solver("x^2 + 1"), -1, 1);
+            assertFalse(result.isConverged(), method.name());
+            assertEquals(StopReason.ERROR, result.getStopReason(), method.name());
+            assertTrue(result.getErrorMessage().contains("opposite signs"), method.name());
+            assertEquals(0, result.getTrace().size(), method.name());
+        }
+    }
+
+    @Test
+    void undefinedEndpointIsAnError() {
+        // sqrt(-1) is NaN, which has no sign to compare
+        for (Method method : Method.values()) {
+            MethodResult result = method.run(solver("sqrt(x) - 1"), -1, 4);
+            assertFalse(result.isConverged(), method.name());
+            assertTrue(result.getErrorMessage().contains("opposite signs"), method.name());
+        }
+    }
+
+    @Test
+    void endpointThatIsARootIsTheAnswer() {
+        for (Method method : Method.values()) {
+            for (double[] bracket : new double[][] {{2, 5}, {-1, 2}}) {
+                MethodResult result = method.run(solver("x^2 - 4"), bracket[0], bracket[1]);
+                assertTrue(result.isConverged(), method.name());
+                assertEquals(2, result.getRoot(), method.name());
+                assertEquals(1, result.getTrace().size(), method.name());
+            }
+        }
+    }
+
+    @Test
+    void superlinearMethodsBeatBisection() {
+        String[] equations = {"x^3 - 2x - 5", "exp(x) - 1e6", "atan(100(x - 0.7))"};
+        double[][] brackets = {{2, 3}, {0, 20}, {-4, 5}};
+        double[] roots = {2.0945514815423265, Math.log(1e6), 0.7};
+        for (int k = 0; k < equations.length; k++) {
+            NumericalMethods solver = solver(equations[k]);
+            int bisection = solver.bisection(brackets[k][0], brackets[k][1]).getTrace().size();
+            for (Method method : new Method[] {Method.ILLINOIS, Method.RIDDERS, Method.BRENT}) {
+                MethodResult result = method.run(solver, brackets[k][0], brackets[k][1]);
+                assertTrue(result.isConverged(), method.name() + " on " + equations[k]);
+                assertEquals(roots[k], result.getRoot(), 1e-10 * Math.max(1, roots[k]), method.name() + " on " + equations[k]);
+                int iterations = result.getTrace().size();
+                assertTrue(iterations <= bisection / 2,
+                        method.name() + " on " + equations[k] + ": " + iterations + " steps, bisection " + bisection);
+            }
+        }
+    }
+
+    @Test
+    void brentConvergesFasterOnceItIsClose() {
+        // Superlinear: the error at least squares every two steps near a simple root
+        MethodResult result = solver("x^3 - 2x - 5").brent(2, 3);
+        IterationTrace trace = result.getTrace();
+        double root = 2.0945514815423265;
+        int steps = trace.size();
+        double last = Math.abs(trace.get(steps - 1, TraceColumn.ROOT) - root);
+        double earlier = Math.abs(trace.get(steps - 3, TraceColumn.ROOT) - root);
+        assertTrue(last <= Math.max(Math.ulp(root), 10 * earlier * earlier), last + " after " + earlier);
+    }
+
+    @Test
+    void brentAndRiddersFallBackToBisectionWhereInterpolationFails() {
+        // A step function: every interpolation through its values is useless
+        NumericalMethods solver = solver("signum(x - 0.3)");
+        int bisection = solver.bisection(-1, 2).getTrace().size();
+        MethodResult brent = solver.brent(-1, 2);
+        assertTrue(brent.isConverged());
+        assertEquals(0.3, brent.getRoot(), 1e-11);
+        assertTrue(brent.getTrace().size() <= bisection + 2, brent.getTrace().size() + " steps, bisection " + bisection);
+        MethodResult ridders = solver.ridders(-1, 2);
+        assertTrue(ridders.isConverged());
+        assertEquals(0.3, ridders.getRoot(), 1e-11);
+        assertTrue(ridders.getTrace().size() <= bisection);
+        MethodResult illinois = solver.illinois(-1, 2);
+        assertTrue(illinois.isConverged());
+        assertEquals(0.3, illinois.getRoot(), 1e-11);
+    }
+
+    @Test
+    void bracketIsKeptEveryStep() {
+        for (Method method : new Method[] {Method.ILLINOIS, Method.RIDDERS, Method.BRENT}) {
+            IterationTrace trace = method.run(solver("atan(100(x - 0.7))"), -4, 5).getTrace();
+            for (int row = 0; row < trace.size(); row++) {
+                double a = trace.get(row, TraceColumn.A);
+                double b = trace.get(row, TraceColumn.B);
+                assertTrue(a <= 0.7 && 0.7 <= b, method.name() + " lost the root at step " + (row + 1));
+            }
+        }
+    }
+
+    private static NumericalMethods solver(String equation) {
+        return new NumericalMethods(equation, TOLERANCE, 500, new SolverOptions());
+    }
+
+    private enum Method {
+        BISECTION(NumericalMethods::bisection),
+        FALSE_POSITION(NumericalMethods::falsePosition),
+        ILLINOIS(NumericalMethods::illinois),
+        RIDDERS(NumericalMethods::ridders),
+        BRENT(NumericalMethods::brent);
+
+        private final Bracketing method;
+
+        Method(Bracketing method) {
+            this.method = method;
+        }
+
+        MethodResult run(NumericalMethods solver, double a, double b) {
+            return method.run(solver, a, b);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Bracketing {
+        MethodResult run(NumericalMethods solver, double a, double b);
+    }
+}
@@ -0,0 +1,88 @@
+package com.numerical.rootfinder.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntervalRootFinderTest {
+
+    @Test
+    void doubleRootIsEnclosed() {
+        // (x - 1)^2 touches 0 without a sign change, so sampling for sign changes misses it
+        MethodResult result = search("(x - 1)^2", 1e-8, -3, 4);
+        assertTrue(result.isConverged());
+        IterationTrace trace = result.getTrace();
+        assertEquals(1, trace.size());
+        assertTrue(trace.get(0, TraceColumn.A) <= 1 && 1 <= trace.get(0, TraceColumn.B));
+        assertTrue(trace.get(0, TraceColumn.ERROR) < 1e-3);
+    }
+
+    @Test
+    void closeRootsAreSeparatedAndCertified() {
+        MethodResult result = search("(x - 1) * (x - 1.0001)", 1e-8, -3, 4);
+        IterationTrace trace = result.getTrace();
+        assertEquals(2, trace.size());
+        assertEnclosed(trace, 0, 1);
+        assertEnclosed(trace, 1, 1.0001);
+        assertEquals(1, trace.get(0, TraceColumn.CERTIFIED));
+        assertEquals(1, trace.get(1, TraceColumn.CERTIFIED));
+    }
+
+    @Test
+    void poleIsNotCertifiedAsARoot() {
+        // f changes sign across the pole at 1.5 without a root there
+        MethodResult result = search("(x - 0.5) / (x - 1.5)", 1e-8, 0, 2);
+        IterationTrace trace = result.getTrace();
+        boolean rootFound = false;
+        for (int row = 0; row < trace.size(); row++) {
+            double a = trace.get(row, TraceColumn.A);
+            double b = trace.get(row, TraceColumn.B);
+            if (a <= 0.5 && 0.5 <= b) {
+                assertEquals(1, trace.get(row, TraceColumn.CERTIFIED));
+                rootFound = true;
+            }
+            if (a <= 1.5 && 1.5 <= b) {
+                assertEquals(0, trace.get(row, TraceColumn.CERTIFIED));
+                assertFalse(Math.abs(trace.get(row, TraceColumn.F_ROOT)) < 1);
+            }
+        }
+        assertTrue(rootFound);
+    }
+
+    @Test
+    void noRootsAreProvedAbsent() {
+        MethodResult result = search("x^2 + 1", 1e-8, -10, 10);
+        assertTrue(result.isConverged());
+        assertTrue(result.getRoots().isEmpty());
+    }
+
+    @Test
+    void everyRootOfAnOscillatingFunction() {
+        MethodResult result = search("sin(x)", 1e-10, -10, 10);
+        IterationTrace trace = result.getTrace();
+        assertEquals(7, trace.size());
+        for (int k = -3; k <= 3; k++) {
+            assertEnclosed(trace, k + 3, k * Math.PI);
+            assertEquals(1, trace.get(k + 3, TraceColumn.CERTIFIED));
+        }
+    }
+
+    @Test
+    void invalidRangeIsAnError() {
+        MethodResult result = search("x", 1e-8, 2, 1);
+        assertFalse(result.isConverged());
+        assertEquals(StopReason.ERROR, result.getStopReason());
+    }
+
+    private static MethodResult search(String equation, double tolerance, double a, double b) {
+        return new NumericalMethods(equation, tolerance, 100, new SolverOptions()).intervalSearch(a, b);
+    }
+
+    private static void assertEnclosed(IterationTrace trace, int row, double root) {
+        double a = trace.get(row, TraceColumn.A);
+        double b = trace.get(row, TraceColumn.B);
+        assertTrue(a <= root && root <= b, "[" + a + ", " + b + "] misses " + root);
+    }
+}
@@ -0,0 +1,62 @@
+package com.numerical.rootfinder.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NonlinearSystemSolverTest {
+
+    private static final List<String> XY = List.of("x", "y");
+
+    @Test
+    void circleMeetsHyperbola() {
+        SystemResult result = solve(List.of("x^2 + y^2 - 4", "x*y - 1"), 1e-12, 2, 0.3);
+        assertTrue(result.isConverged());
+        double x = Math.sqrt(2 + Math.sqrt(3));
+        assertArrayEquals(new double[] {x, 1 / x}, result.getSolution(), 1e-12);
+        assertTrue(result.getResidualNorm() <= 1e-12);
+    }
+
+    @Test
+    void stalledLineSearchStopsWithAnError() {
+        // At x = 1e-9 the Newton step for x^2 + 1 overshoots by 1e8, and no halving brings ||F|| below 1
+        SystemResult result = solve(List.of("x^2 + 1", "y"), 1e-10, 1e-9, 0);
+        assertFalse(result.isConverged());
+        assertEquals(StopReason.ERROR, result.getStopReason());
+        assertTrue(result.getErrorMessage().contains("Line search stalled"), result.getErrorMessage());
+        // The rejected step is not taken
+        assertArrayEquals(new double[] {1e-9, 0}, result.getSolution());
+    }
+
+    @Test
+    void smallStepIsNotConvergenceWhileTheResidualIsLarge() {
+        // A steep ripple makes the Newton steps tiny long before ||F|| is
+        SystemResult result = solve(List.of("x + 1e-3*sin(1e9*x)", "y - 1"), 1e-5, 1, 0);
+        assertFalse(result.isConverged());
+        assertTrue(result.getResidualNorm() > 0.5);
+    }
+
+    @Test
+    void residualIsJudgedRelativeToTheStart() {
+        // ||F|| can not get below about 1e12 ulps, but it falls by 16 orders from 1e12
+        SystemResult result = solve(List.of("1e12*(x - 1)", "y - 2"), 1e-10, 0, 0);
+        assertTrue(result.isConverged());
+        assertArrayEquals(new double[] {1, 2}, result.getSolution(), 1e-12);
+    }
+
+    @Test
+    void singularJacobianIsAnError() {
+        SystemResult result = solve(List.of("x + y - 1", "2x + 2y - 3"), 1e-10, 0, 0);
+        assertFalse(result.isConverged());
+        assertTrue(result.getErrorMessage().contains("singular"));
+    }
+
+    private static SystemResult solve(List<String> equations, double tolerance, double x0, double y0) {
+        return new NonlinearSystemSolver(equations, XY, tolerance, 50).solve(new double[] {x0, y0});
+    }
+}
@@ -0,0 +1,56 @@
+package com.numerical.rootfinder.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlotSamplerTest {
+
+    // The grid evaluated before any refinement
+    private static final int GRID_POINTS = 513;
+
+    @Test
+    void smoothCurveIsSampledAccurately() {
+        PlotData data = sample("sin(x)", -10, 10, 800, CancellationToken.NONE);
+        assertTrue(data.size() > 100 && data.size() <= 800 + 2, "size " + data.size());
+        for (int i = 0; i < data.size(); i++) {
+            assertEquals(Math.sin(data.getX(i)), data.getY(i), 1e-15);
+        }
+        assertEquals(-10, data.getX(0));
+        assertEquals(10, data.getX(data.size() - 1));
+    }
+
+    @Test
+    void poleBecomesABreak() {
+        PlotData data = sample("1 / (x - 0.3)", -2, 2, 800, CancellationToken.NONE);
+        boolean broken = false;
+        for (int i = 0; i < data.size(); i++) {
+            broken |= data.isBreak(i) && Math.abs(data.getX(i) - 0.3) < 0.01;
+        }
+        assertTrue(broken);
+    }
+
+    @Test
+    void refinementIsBoundedByThePointsAskedFor() {
+        // Wiggles in every grid interval, so every one of them wants refining to the full depth
+        for (int maxPoints : new int[] {100, 800, 3000}) {
+            PlotData data = sample("sin(1000x)", 0, 100, maxPoints, CancellationToken.NONE);
+            int limit = GRID_POINTS + PlotSampler.REFINE_PER_POINT * maxPoints;
+            assertTrue(data.getEvaluations() <= limit, data.getEvaluations() + " evaluations for " + maxPoints + " points");
+        }
+    }
+
+    @Test
+    void cancelledSamplingStopsAfterTheGrid() {
+        CancellationToken cancellation = new CancellationToken();
+        cancellation.cancel();
+        PlotData data = sample("sin(1000x)", 0, 100, 3000, cancellation);
+        assertEquals(0, data.size());
+        assertTrue(data.getEvaluations() <= GRID_POINTS);
+    }
+
+    private static PlotData sample(String equation, double xMin, double xMax, int maxPoints, CancellationToken cancellation) {
+        return new NumericalMethods(equation, 1e-10, 100, new SolverOptions()).samplePlot(xMin, xMax, maxPoints, cancellation);
+    }
+}
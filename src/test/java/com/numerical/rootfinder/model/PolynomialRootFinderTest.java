@@ -0,0 +1,105 @@
+package com.numerical.rootfinder.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PolynomialRootFinderTest {
+
+    @Test
+    void realRoots() {
+        MethodResult result = roots("x^3 - 6x^2 + 11x - 6");
+        assertTrue(result.isConverged());
+        assertRoots(result.getRoots(), 1e-10, 1, 2, 3);
+        assertEquals(3, result.getTrace().size());
+    }
+
+    @Test
+    void complexRootsComeInConjugatePairs() {
+        // x^4 - 1 = (x - 1)(x + 1)(x - i)(x + i)
+        MethodResult result = roots("x^4 - 1");
+        assertRoots(result.getRoots(), 1e-12, -1, 1);
+        IterationTrace trace = result.getTrace();
+        assertEquals(4, trace.size());
+        assertRoot(trace, 1, 0, -1);
+        assertRoot(trace, 2, 0, 1);
+
+        // x^2 + 2x + 5 = 0 at -1 +- 2i: no real roots
+        MethodResult pair = roots("x^2 + 2x + 5");
+        assertTrue(pair.isConverged());
+        assertTrue(pair.getRoots().isEmpty());
+        assertRoot(pair.getTrace(), 0, -1, -2);
+        assertRoot(pair.getTrace(), 1, -1, 2);
+    }
+
+    @Test
+    void zeroRootsAreExact() {
+        MethodResult result = roots("x^4 - x^2");
+        IterationTrace trace = result.getTrace();
+        assertEquals(4, trace.size());
+        assertRoots(result.getRoots(), 1e-12, -1, 0, 0, 1);
+        assertEquals(0, trace.get(1, TraceColumn.ROOT));
+        assertEquals(0, trace.get(2, TraceColumn.ROOT));
+    }
+
+    @Test
+    void factoredFormsAreMultipliedOut() {
+        assertRoots(roots("(x - 1)*(x + 2)*(x - 0.5)").getRoots(), 1e-10, -2, 0.5, 1);
+        assertRoots(roots("2*(x^2 - 9)/4").getRoots(), 1e-12, -3, 3);
+    }
+
+    @Test
+    void wilkinsonPolynomialOfDegreeTen() {
+        // prod (x - k) for k = 1..10, ill-conditioned in the monomial basis
+        StringBuilder product = new StringBuilder();
+        for (int k = 1; k <= 10; k++) {
+            product.append(k > 1 ? "*" : "").append("(x - ").append(k).append(')');
+        }
+        MethodResult result = roots(product.toString());
+        assertTrue(result.isConverged());
+        assertRoots(result.getRoots(), 1e-6, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+    }
+
+    @Test
+    void highDegreeRunsInParallel() {
+        // The 100 roots of unity; above the parallel degree every sweep is split across threads
+        MethodResult result = roots("x^100 - 1");
+        assertTrue(result.isConverged());
+        assertRoots(result.getRoots(), 1e-12, -1, 1);
+        IterationTrace trace = result.getTrace();
+        assertEquals(100, trace.size());
+        for (int row = 0; row < trace.size(); row++) {
+            double modulus = Math.hypot(trace.get(row, TraceColumn.ROOT), trace.get(row, TraceColumn.IMAGINARY));
+            assertEquals(1, modulus, 1e-12);
+        }
+    }
+
+    @Test
+    void notAPolynomial() {
+        for (String equation : new String[] {"sin(x)", "x^0.5 - 1", "1/x", "3"}) {
+            MethodResult result = roots(equation);
+            assertFalse(result.isConverged(), equation);
+            assertTrue(result.getRoots() == null || result.getRoots().isEmpty(), equation);
+        }
+    }
+
+    private static MethodResult roots(String equation) {
+        return new NumericalMethods(equation, 1e-14, 200, new SolverOptions()).polynomialRoots();
+    }
+
+    private static void assertRoot(IterationTrace trace, int row, double re, double im) {
+        assertEquals(re, trace.get(row, TraceColumn.ROOT), 1e-12);
+        assertEquals(im, trace.get(row, TraceColumn.IMAGINARY), 1e-12);
+    }
+
+    private static void assertRoots(List<Double> actual, double tolerance, double... expected) {
+        assertEquals(expected.length, actual.size(), actual.toString());
+        for (int k = 0; k < expected.length; k++) {
+            assertEquals(expected[k], actual.get(k), tolerance * Math.max(1, Math.abs(expected[k])), actual.toString());
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.numerical.rootfinder.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResultCacheTest {
+
+    private static final String EQUATION = "x^3 - 2*x - 5";
+
+    @TempDir
+    Path directory;
+
+    private final SolverOptions options = new SolverOptions();
+    private final NumericalMethods solver = new NumericalMethods(EQUATION, 1e-6, 100, options);
+
+    @Test
+    void keyIgnoresSpacingAndParentheses() {
+        MethodParameters parameters = bisection(-2);
+        assertEquals(key(parameters), ResultCache.key("((x^3))-2*x -5", RootFindingMethod.BISECTION,
+                parameters, 1e-6, 100, options));
+        assertNull(ResultCache.key("x^3 -", RootFindingMethod.BISECTION, parameters, 1e-6, 100, options));
+    }
+
+    @Test
+    void resultsSurviveReopening() throws IOException {
+        MethodParameters parameters = bisection(-2);
+        MethodResult result = solver.solve(RootFindingMethod.BISECTION, parameters);
+        try (ResultCache cache = new ResultCache(1 << 20, directory, 1 << 20)) {
+            assertNull(cache.get(key(parameters)));
+            cache.put(key(parameters), result);
+        }
+        try (ResultCache cache = new ResultCache(1 << 20, directory, 1 << 20)) {
+            MethodResult cached = cache.get(key(parameters));
+            assertNotNull(cached);
+            assertEquals(1, cache.getDiskHits());
+            assertEquals(result.getRoot(), cached.getRoot());
+            assertRowsEqual(result.getTrace(), cached.getTrace());
+        }
+    }
+
+    @Test
+    void mappedResultStaysReadableAcrossCompactionAndClear() throws IOException {
+        MethodParameters first = bisection(-2);
+        MethodResult expected = solver.solve(RootFindingMethod.BISECTION, first);
+        try (ResultCache cache = new ResultCache(1 << 20, directory, 16 << 10)) {
+            cache.put(key(first), expected);
+            MethodResult mapped = cache.get(key(first));
+            assertTrue(mapped.getTrace().isMapped());
+
+            // Enough results to compact the log several times over
+            for (int i = 1; i <= 60; i++) {
+                MethodParameters parameters = bisection(-2 - i);
+                cache.put(key(parameters), solver.solve(RootFindingMethod.BISECTION, parameters));
+            }
+            assertTrue(cache.isPersistent());
+            assertTrue(cache.getDiskBytes() <= 16 << 10);
+            assertRowsEqual(expected.getTrace(), mapped.getTrace());
+
+            cache.clear();
+            assertTrue(cache.isPersistent());
+            assertEquals(0, cache.getDiskSize());
+            assertRowsEqual(expected.getTrace(), mapped.getTrace());
+
+            cache.put(key(first), expected);
+            assertEquals(1, cache.getDiskSize());
+        }
+        try (ResultCache cache = new ResultCache(1 << 20, directory, 16 << 10);
+             Stream<Path> files = Files.list(directory)) {
+            assertNotNull(cache.get(key(first)));
+            // Older generations are gone once nothing maps them
+            assertEquals(2, files.filter(file -> file.getFileName().toString().startsWith("results-")).count());
+        }
+    }
+
+    @Test
+    void secondOpenerInTheSameProcessKeepsToMemory() throws IOException {
+        MethodParameters first = bisection(-2);
+        MethodParameters second = bisection(-3);
+        try (ResultCache owner = new ResultCache(1 << 20, directory, 1 << 20)) {
+            owner.put(key(first), solver.solve(RootFindingMethod.BISECTION, first));
+            try (ResultCache other = new ResultCache(1 << 20, directory, 1 << 20)) {
+                assertFalse(other.isPersistent());
+                assertNull(other.get(key(first)));
+                other.put(key(second), solver.solve(RootFindingMethod.BISECTION, second));
+                assertNotNull(other.get(key(second)));
+            }
+            assertTrue(owner.isPersistent());
+            assertEquals(1, owner.getDiskSize());
+        }
+        try (ResultCache reopened = new ResultCache(1 << 20, directory, 1 << 20)) {
+            assertTrue(reopened.isPersistent());
+            assertNotNull(reopened.get(key(first)));
+            assertNull(reopened.get(key(second)));
+        }
+    }
+
+    @Test
+    void secondOpenerInAnotherProcessKeepsToMemory() throws Exception {
+        MethodParameters parameters = bisection(-2);
+        MethodResult result = solver.solve(RootFindingMethod.BISECTION, parameters);
+        try (ResultCache cache = new ResultCache(1 << 20, directory, 1 << 20)) {
+            cache.put(key(parameters), result);
+        }
+        Process owner = new ProcessBuilder(Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"), Owner.class.getName(), directory.toString())
+                .redirectErrorStream(true)
+                .start();
+        try {
+            BufferedReader out = new BufferedReader(new InputStreamReader(owner.getInputStream(), StandardCharsets.UTF_8));
+            assertEquals("open", out.readLine());
+            try (ResultCache cache = new ResultCache(1 << 20, directory, 1 << 20)) {
+                assertFalse(cache.isPersistent());
+                assertNull(cache.get(key(parameters)));
+            }
+            // Closing its input tells the owner to close the cache and exit
+            owner.getOutputStream().close();
+            assertTrue(owner.waitFor(30, TimeUnit.SECONDS));
+            assertEquals(0, owner.exitValue());
+        } finally {
+            owner.destroyForcibly();
+        }
+        try (ResultCache cache = new ResultCache(1 << 20, directory, 1 << 20)) {
+            assertTrue(cache.isPersistent());
+            MethodResult cached = cache.get(key(parameters));
+            assertNotNull(cached);
+            assertRowsEqual(result.getTrace(), cached.getTrace());
+        }
+    }
+
+    @Test
+    void memoryTierStaysWithinItsBudget() {
+        long budget = 64 << 10;
+        ResultCache cache = new ResultCache(budget);
+        for (int i = 0; i < 100; i++) {
+            MethodParameters parameters = bisection(-2 - i);
+            cache.put(key(parameters), solver.solve(RootFindingMethod.BISECTION, parameters));
+            assertTrue(cache.getMemoryBytes() <= budget);
+        }
+        assertTrue(cache.getEvictions() > 0);
+        assertTrue(cache.getMemorySize() > 1);
+    }
+
+    @Test
+    void resultsStoppedByALimitAreNotCached() {
+        SolverOptions limited = new SolverOptions();
+        limited.setEvaluationLimit(2);
+        MethodParameters parameters = bisection(-2);
+        MethodResult result = new NumericalMethods(EQUATION, 1e-12, 100, limited)
+                .solve(RootFindingMethod.BISECTION, parameters);
+        assertEquals(StopReason.EVALUATION_LIMIT, result.getStopReason());
+        ResultCache cache = new ResultCache(1 << 20);
+        cache.put(key(parameters), result);
+        assertNull(cache.get(key(parameters)));
+    }
+
+    private String key(MethodParameters parameters) {
+        return ResultCache.key(EQUATION, RootFindingMethod.BISECTION, parameters, 1e-6, 100, options);
+    }
+
+    private static MethodParameters bisection(double a) {
+        MethodParameters parameters = new MethodParameters();
+        parameters.setBisectionA(a);
+        parameters.setBisectionB(3);
+        return parameters;
+    }
+
+    // Opens the cache in the directory given, reports it, and holds it until its input closes
+    static final class Owner {
+        public static void main(String[] args) throws IOException {
+            try (ResultCache cache = new ResultCache(1 << 20, Paths.get(args[0]), 1 << 20)) {
+                System.out.println(cache.isPersistent() ? "open" : "not open");
+                System.out.flush();
+                while (System.in.read() >= 0) {
+                    // Wait for the test to close our input
+                }
+            }
+        }
+    }
+
+    private static void assertRowsEqual(IterationTrace expected, IterationTrace actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int row = 0; row < expected.size(); row++) {
+            assertEquals(expected.getIteration(row), actual.getIteration(row));
+            for (TraceColumn column : expected.getColumns()) {
+                assertEquals(expected.get(row, column), actual.get(row, column));
+            }
+        }
+    }
+}
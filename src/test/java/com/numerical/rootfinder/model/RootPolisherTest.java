@@ -0,0 +1,87 @@
+package com.numerical.rootfinder.model;
+
+import com.numerical.rootfinder.model.expression.DoubleDouble;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RootPolisherTest {
+
+    // Double-double carries about 32 digits; a polished simple root must be good to 30
+    private static final BigDecimal ACCURACY = new BigDecimal("1e-30");
+
+    @Test
+    void simpleRootsGainDoubleDoublePrecision() {
+        assertPolished("x^2 - 2", 1, 2, BigDecimal.valueOf(2).sqrt(new MathContext(50)));
+        assertPolished("exp(x) - 3", 0, 2, new BigDecimal("1.09861228866810969139524523692252570464749055782275"));
+        // The Dottie number, where cos(x) = x
+        assertPolished("cos(x) - x", 0, 1, new BigDecimal("0.73908513321516064165531208767387340401341175890076"));
+    }
+
+    @Test
+    void literalsKeepTheirDecimalValue() {
+        // 0.1 is not a double; the parser keeps the low part, so the root is 0.1 itself and not the nearest double
+        assertPolished("x - 0.1", 0, 1, new BigDecimal("0.1"));
+        assertPolished("3x - 1", 0, 1, BigDecimal.ONE.divide(BigDecimal.valueOf(3), new MathContext(50)));
+    }
+
+    @Test
+    void multipleRootIsNotMadeWorse() {
+        // Newton crawls at a triple root; steps that do not lower |f| are refused
+        MethodResult result = solver("(x - 1)^3").brent(0.5, 2);
+        DoubleDouble polished = result.getPolishedRoot();
+        assertNotNull(polished);
+        assertTrue(result.getPolishedResidual() <= Math.abs(Math.pow(result.getRoot() - 1, 3)));
+        assertTrue(Math.abs(polished.doubleValue() - 1) <= Math.abs(result.getRoot() - 1));
+    }
+
+    @Test
+    void onlyConvergedRootsArePolished() {
+        MethodResult unpolished = new NumericalMethods("x^2 - 2", 1e-12, 100, new SolverOptions()).brent(1, 2);
+        assertNull(unpolished.getPolishedRoot());
+        MethodResult failed = solver("x^2 - 2").brent(2, 3);
+        assertFalse(failed.isConverged());
+        assertNull(failed.getPolishedRoot());
+    }
+
+    @Test
+    void everyMethodPolishes() {
+        NumericalMethods solver = solver("x^2 - 2");
+        BigDecimal root = BigDecimal.valueOf(2).sqrt(new MathContext(50));
+        for (MethodResult result : new MethodResult[] {solver.bisection(1, 2), solver.newtonRaphson(1),
+                solver.secant(1, 2), solver.halley(1), solver.illinois(1, 2), solver.ridders(1, 2)}) {
+            assertTrue(result.isConverged());
+            assertClose(root, result.getPolishedRoot());
+        }
+    }
+
+    private static SolverOptions polishing() {
+        SolverOptions options = new SolverOptions();
+        options.setPolishRoots(true);
+        return options;
+    }
+
+    private static NumericalMethods solver(String equation) {
+        return new NumericalMethods(equation, 1e-12, 100, polishing());
+    }
+
+    private static void assertPolished(String equation, double a, double b, BigDecimal root) {
+        MethodResult result = solver(equation).brent(a, b);
+        assertTrue(result.isConverged(), equation);
+        assertClose(root, result.getPolishedRoot());
+        assertTrue(result.getPolishedResidual() < 1e-30, equation + " residual " + result.getPolishedResidual());
+    }
+
+    private static void assertClose(BigDecimal expected, DoubleDouble actual) {
+        assertNotNull(actual);
+        BigDecimal error = actual.toBigDecimal().subtract(expected).abs();
+        assertTrue(error.compareTo(ACCURACY.multiply(expected.abs().max(BigDecimal.ONE))) <= 0,
+                actual + " is " + error + " from " + expected);
+    }
+}
@@ -0,0 +1,163 @@
+package com.numerical.rootfinder.model.expression;
+
+import com.numerical.rootfinder.model.MethodResult;
+import com.numerical.rootfinder.model.NumericalMethods;
+import com.numerical.rootfinder.model.SolverOptions;
+import com.numerical.rootfinder.model.StopReason;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.DoubleUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DifferentiableFunctionTest {
+
+    private static final double[] XS = {-1.3, -0.4, 0.35, 0.9, 2.2};
+
+    @Test
+    void products() {
+        // (x^2 + 1) * sin(x)
+        assertDerivatives("(x^2 + 1) * sin(x)",
+                x -> 2 * x * Math.sin(x) + (x * x + 1) * Math.cos(x),
+                x -> 2 * Math.sin(x) + 4 * x * Math.cos(x) - (x * x + 1) * Math.sin(x));
+        assertDerivatives("x * x * x", x -> 3 * x * x, x -> 6 * x);
+    }
+
+    @Test
+    void quotients() {
+        // exp(x) / (x^2 + 2) = u / v
+        assertDerivatives("exp(x) / (x^2 + 2)",
+                x -> Math.exp(x) * (x * x - 2 * x + 2) / Math.pow(x * x + 2, 2),
+                x -> {
+                    double v = x * x + 2;
+                    double p = x * x - 2 * x + 2;
+                    return Math.exp(x) * ((p + 2 * x - 2) * v - 4 * x * p) / Math.pow(v, 3);
+                });
+        assertDerivatives("1 / x", x -> -1 / (x * x), x -> 2 / (x * x * x));
+    }
+
+    @Test
+    void powers() {
+        // Constant exponents, including negative and fractional ones
+        assertDerivatives("x^5", x -> 5 * Math.pow(x, 4), x -> 20 * Math.pow(x, 3));
+        assertDerivatives("x^-2", x -> -2 * Math.pow(x, -3), x -> 6 * Math.pow(x, -4));
+        assertDerivatives("(x^2 + 1)^1.5", x -> 3 * x * Math.sqrt(x * x + 1),
+                x -> 3 * Math.sqrt(x * x + 1) + 3 * x * x / Math.sqrt(x * x + 1));
+        // A variable exponent: x^x = exp(x ln x), for x > 0
+        assertDerivatives("x^x", new double[] {0.35, 0.9, 2.2},
+                x -> Math.pow(x, x) * (Math.log(x) + 1),
+                x -> Math.pow(x, x) * (Math.pow(Math.log(x) + 1, 2) + 1 / x));
+        assertDerivatives("pow(2, x)", x -> Math.log(2) * Math.pow(2, x), x -> Math.log(2) * Math.log(2) * Math.pow(2, x));
+        assertDerivatives("pow(x, 3)", x -> 3 * x * x, x -> 6 * x);
+    }
+
+    @Test
+    void everyFunctionByTheChainRule() {
+        // g(u) with u = x/2 + 0.1, so f' = g'(u)/2 and f'' = g''(u)/4
+        Map<MathFunction, DoubleUnaryOperator[]> derivatives = new EnumMap<>(MathFunction.class);
+        derivatives.put(MathFunction.SIN, of(Math::cos, u -> -Math.sin(u)));
+        derivatives.put(MathFunction.COS, of(u -> -Math.sin(u), u -> -Math.cos(u)));
+        derivatives.put(MathFunction.TAN, of(u -> 1 / Math.pow(Math.cos(u), 2), u -> 2 * Math.tan(u) / Math.pow(Math.cos(u), 2)));
+        derivatives.put(MathFunction.COT, of(u -> -1 / Math.pow(Math.sin(u), 2), u -> 2 * Math.cos(u) / Math.pow(Math.sin(u), 3)));
+        derivatives.put(MathFunction.ASIN, of(u -> 1 / Math.sqrt(1 - u * u), u -> u / Math.pow(1 - u * u, 1.5)));
+        derivatives.put(MathFunction.ACOS, of(u -> -1 / Math.sqrt(1 - u * u), u -> -u / Math.pow(1 - u * u, 1.5)));
+        derivatives.put(MathFunction.ATAN, of(u -> 1 / (1 + u * u), u -> -2 * u / Math.pow(1 + u * u, 2)));
+        derivatives.put(MathFunction.SINH, of(Math::cosh, Math::sinh));
+        derivatives.put(MathFunction.COSH, of(Math::sinh, Math::cosh));
+        derivatives.put(MathFunction.TANH, of(u -> 1 / Math.pow(Math.cosh(u), 2), u -> -2 * Math.tanh(u) / Math.pow(Math.cosh(u), 2)));
+        derivatives.put(MathFunction.ABS, of(Math::signum, u -> 0));
+        derivatives.put(MathFunction.LOG, of(u -> 1 / u, u -> -1 / (u * u)));
+        derivatives.put(MathFunction.LOG10, of(u -> 1 / (u * Math.log(10)), u -> -1 / (u * u * Math.log(10))));
+        derivatives.put(MathFunction.LOG2, of(u -> 1 / (u * Math.log(2)), u -> -1 / (u * u * Math.log(2))));
+        derivatives.put(MathFunction.LOG1P, of(u -> 1 / (1 + u), u -> -1 / Math.pow(1 + u, 2)));
+        derivatives.put(MathFunction.CEIL, of(u -> 0, u -> 0));
+        derivatives.put(MathFunction.FLOOR, of(u -> 0, u -> 0));
+        derivatives.put(MathFunction.SQRT, of(u -> 0.5 / Math.sqrt(u), u -> -0.25 / Math.pow(u, 1.5)));
+        derivatives.put(MathFunction.CBRT, of(u -> 1 / (3 * Math.cbrt(u * u)), u -> -2 / (9 * Math.cbrt(Math.pow(u, 5)))));
+        derivatives.put(MathFunction.EXP, of(Math::exp, Math::exp));
+        derivatives.put(MathFunction.EXPM1, of(Math::exp, Math::exp));
+        derivatives.put(MathFunction.SIGNUM, of(u -> 0, u -> 0));
+
+        for (MathFunction function : MathFunction.values()) {
+            if (function == MathFunction.POW) {
+                continue;
+            }
+            DoubleUnaryOperator[] g = derivatives.get(function);
+            assertTrue(g != null, "No analytic derivative for " + function.getName());
+            // Points inside every domain: u in (0.15, 0.55)
+            double[] xs = {0.1, 0.4, 0.9};
+            assertDerivatives(function.getName() + "(x/2 + 0.1)", xs,
+                    x -> g[0].applyAsDouble(x / 2 + 0.1) / 2,
+                    x -> g[1].applyAsDouble(x / 2 + 0.1) / 4);
+        }
+    }
+
+    @Test
+    void polynomialsGetTheirDerivativesFromHorner() {
+        assertDerivatives("3x^4 - x^2 + 0.5x - 7", x -> 12 * x * x * x - 2 * x + 0.5, x -> 36 * x * x - 2);
+    }
+
+    @Test
+    void firstOrderEvaluatorLeavesTheSecondDerivativeOut() {
+        DifferentiableFunction.Evaluator evaluator = DifferentiableFunction.compile(ExpressionParser.parse("sin(x) * x"))
+                .firstOrderEvaluator();
+        evaluator.evaluate(0.7);
+        assertEquals(Math.cos(0.7) * 0.7 + Math.sin(0.7), evaluator.first(), 1e-14);
+        assertTrue(Double.isNaN(evaluator.second()));
+    }
+
+    @Test
+    void undefinedDerivatives() {
+        // f itself is undefined: the division throws, as the plain evaluation does
+        DifferentiableFunction.Evaluator reciprocal = evaluator("1 / x");
+        assertThrows(ArithmeticException.class, () -> reciprocal.evaluate(0));
+        // f is defined but f' is not: the jet says so instead of inventing a slope
+        DifferentiableFunction.Evaluator root = evaluator("sqrt(x)");
+        assertEquals(0, root.evaluate(0));
+        assertEquals(Double.POSITIVE_INFINITY, root.first());
+        DifferentiableFunction.Evaluator log = evaluator("log(x)");
+        log.evaluate(-1);
+        assertTrue(Double.isNaN(log.value()));
+
+        // Newton stops with an error where f' vanishes, rather than dividing by it
+        NumericalMethods solver = new NumericalMethods("x^2 + 1", 1e-10, 50, new SolverOptions());
+        MethodResult result = solver.newtonRaphson(0);
+        assertFalse(result.isConverged());
+        assertEquals(StopReason.ERROR, result.getStopReason());
+        assertTrue(result.getErrorMessage().contains("Derivative"));
+        // So does Halley, whose step is a multiple of f' and would stall at x = 0 instead
+        MethodResult halley = solver.halley(0);
+        assertFalse(halley.isConverged());
+        assertEquals(StopReason.ERROR, halley.getStopReason());
+    }
+
+    private static DoubleUnaryOperator[] of(DoubleUnaryOperator first, DoubleUnaryOperator second) {
+        return new DoubleUnaryOperator[] {first, second};
+    }
+
+    private static DifferentiableFunction.Evaluator evaluator(String text) {
+        return DifferentiableFunction.compile(ExpressionParser.parse(text)).evaluator();
+    }
+
+    private static void assertDerivatives(String text, DoubleUnaryOperator first, DoubleUnaryOperator second) {
+        assertDerivatives(text, XS, first, second);
+    }
+
+    private static void assertDerivatives(String text, double[] xs, DoubleUnaryOperator first, DoubleUnaryOperator second) {
+        DifferentiableFunction.Evaluator evaluator = evaluator(text);
+        Node tree = ExpressionParser.parse(text);
+        for (double x : xs) {
+            double value = evaluator.evaluate(x);
+            assertEquals(tree.evaluate(x), value, 1e-13 * Math.max(1, Math.abs(value)), text + " at " + x);
+            double d = first.applyAsDouble(x);
+            double dd = second.applyAsDouble(x);
+            assertEquals(d, evaluator.first(), 1e-12 * Math.max(1, Math.abs(d)), text + "' at " + x);
+            assertEquals(dd, evaluator.second(), 1e-11 * Math.max(1, Math.abs(dd)), text + "'' at " + x);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.numerical.rootfinder.model.expression;
+
+import net.objecthunter.exp4j.Expression;
+import net.objecthunter.exp4j.ExpressionBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.DoubleUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExpressionParserTest {
+
+    private static final double[] XS = {-3.5, -2, -1, -0.25, 0, 0.5, 1, 2, 3.75};
+
+    @Test
+    void unaryMinusBindsLooserThanPower() {
+        assertMatchesExp4j("-x^2");
+        assertMatchesExp4j("-2^2");
+        assertEquals(-4, evaluate("-2^2", 0));
+        assertEquals(-9, evaluate("-x^2", 3));
+    }
+
+    @Test
+    void powerIsRightAssociative() {
+        assertMatchesExp4j("x^2^3");
+        assertEquals(256, evaluate("x^2^3", 2));
+        assertMatchesExp4j("2^-x");
+        assertEquals(0.25, evaluate("2^-x", 2));
+    }
+
+    @Test
+    void precedenceOfTheOtherOperators() {
+        assertMatchesExp4j("1 + 2*x - 3/4");
+        assertMatchesExp4j("x - 1 - 2");
+        assertMatchesExp4j("8 / x / 2");
+        assertMatchesExp4j("2*x^2 + -x");
+        assertMatchesExp4j("-(x + 1)^2");
+        assertMatchesExp4j("3 + 7 % 4 * x");
+    }
+
+    @Test
+    void implicitMultiplication() {
+        assertMatchesExp4j("2x");
+        assertMatchesExp4j("3(x+1)");
+        assertMatchesExp4j("2sin(x)");
+        assertMatchesExp4j("2x^2");
+        assertEquals(18, evaluate("2x^2", 3));
+        assertEquals(12, evaluate("3(x+1)", 3));
+    }
+
+    @Test
+    void lettersAfterANumberAreEulersNumberUnlessAnExponentFollows() {
+        assertMatchesExp4j("2e");
+        assertMatchesExp4j("2e3");
+        assertMatchesExp4j("2e-3 * x");
+        assertMatchesExp4j("1.5E+2 + x");
+        assertEquals(2 * Math.E, evaluate("2e", 0));
+        assertEquals(2000, evaluate("2e3", 0));
+    }
+
+    @Test
+    void modulo() {
+        assertMatchesExp4j("x % 2");
+        assertMatchesExp4j("7 % x");
+        assertEquals(-1.5, evaluate("x % 2", -3.5));
+    }
+
+    @Test
+    void functionsAndConstants() {
+        for (MathFunction function : MathFunction.values()) {
+            String call = function.getArity() == 2 ? function.getName() + "(x, 3)" : function.getName() + "(x/4 + 0.1)";
+            if (function == MathFunction.COT) {
+                call = "cot(x/4 + 0.3)";
+            }
+            assertMatchesExp4j(call);
+        }
+        assertMatchesExp4j("pi*x + e");
+    }
+
+    @Test
+    void unknownNamesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ExpressionParser.parse("y + 1"));
+        assertThrows(IllegalArgumentException.class, () -> ExpressionParser.parse("foo(x)"));
+        assertThrows(IllegalArgumentException.class, () -> new ExpressionBuilder("y + 1").variable("x").build());
+        assertEquals(1.5, CompiledFunction.compile("y + x", "y").applyAsDouble(1.5));
+    }
+
+    @Test
+    void malformedExpressionsAreRejected() {
+        for (String text : new String[] {"", "x +", "(x", "x)", "2 ** x", "sin()", "pow(x)"}) {
+            assertThrows(IllegalArgumentException.class, () -> ExpressionParser.parse(text), text);
+        }
+    }
+
+    @Test
+    void divisionByZeroThrowsOnEvaluation() {
+        Expression reference = exp4j("1 / x");
+        assertThrows(ArithmeticException.class, () -> reference.setVariable("x", 0).evaluate());
+        for (String text : new String[] {"1 / x", "1 % x", "x / (x - x)", "cot(x)"}) {
+            assertThrows(ArithmeticException.class, () -> ExpressionParser.parse(text).evaluate(0), text);
+            assertThrows(ArithmeticException.class, () -> ExpressionCompiler.compile(text).applyAsDouble(0), text);
+        }
+        // A constant division by zero is not folded away, so it still fails when evaluated
+        assertThrows(ArithmeticException.class, () -> ExpressionCompiler.compile("x + 1/0").applyAsDouble(1));
+    }
+
+    @Test
+    void hornerAgreesWithTheTreeOnPolynomials() {
+        for (String text : new String[] {"x^3 - 2*x - 5", "3x^4 - x^2 + 0.5x - 7", "(x - 1)*(x + 2)", "x^2 - x^2 + 1"}) {
+            DoubleUnaryOperator compiled = ExpressionCompiler.compile(text);
+            Node tree = ExpressionParser.parse(text);
+            for (double x : XS) {
+                assertClose(tree.evaluate(x), compiled.applyAsDouble(x), text + " at " + x);
+            }
+        }
+    }
+
+    // The tree and the compiled closures against exp4j at every test point, failing where it fails
+    private static void assertMatchesExp4j(String text) {
+        Expression reference = exp4j(text);
+        Node tree = ExpressionParser.parse(text);
+        DoubleUnaryOperator compiled = ExpressionCompiler.compile(text);
+        for (double x : XS) {
+            double expected;
+            try {
+                expected = reference.setVariable("x", x).evaluate();
+            } catch (ArithmeticException e) {
+                assertThrows(ArithmeticException.class, () -> tree.evaluate(x), text + " at " + x);
+                assertThrows(ArithmeticException.class, () -> compiled.applyAsDouble(x), text + " at " + x);
+                continue;
+            }
+            assertClose(expected, tree.evaluate(x), text + " at " + x);
+            assertClose(expected, compiled.applyAsDouble(x), text + " at " + x);
+        }
+    }
+
+    private static void assertClose(double expected, double actual, String message) {
+        if (Double.isNaN(expected)) {
+            assertEquals(expected, actual, message);
+        } else {
+            assertEquals(expected, actual, 1e-12 * Math.max(1, Math.abs(expected)), message);
+        }
+    }
+
+    private static double evaluate(String text, double x) {
+        return ExpressionCompiler.compile(text).applyAsDouble(x);
+    }
+
+    private static Expression exp4j(String text) {
+        return new ExpressionBuilder(text).variable("x").build();
+    }
+}
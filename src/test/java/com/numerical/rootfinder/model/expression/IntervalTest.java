@@ -0,0 +1,164 @@
+package com.numerical.rootfinder.model.expression;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Random;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntervalTest {
+
+    private static final int TRIALS = 2000;
+    private static final int SAMPLES = 25;
+
+    private final Random random = new Random(42);
+
+    @Test
+    void arithmeticEnclosesTheExactResult() {
+        for (int t = 0; t < TRIALS; t++) {
+            Interval a = randomInterval(-100, 100);
+            Interval b = randomInterval(-100, 100);
+            assertEnclosesCorners(new Interval().add(a, b), a, b, BigDecimal::add, "add");
+            assertEnclosesCorners(new Interval().subtract(a, b), a, b, BigDecimal::subtract, "subtract");
+            assertEnclosesCorners(new Interval().multiply(a, b), a, b, BigDecimal::multiply, "multiply");
+            if (b.lo() > 0 || b.hi() < 0) {
+                assertEnclosesCorners(new Interval().divide(a, b), a, b,
+                        (x, y) -> x.divide(y, MathContext.DECIMAL128), "divide");
+            }
+        }
+    }
+
+    @Test
+    void roundingIsOutward() {
+        // 0.1 + 0.2 is not a double: the bounds must straddle the exact sum of the two doubles
+        Interval sum = new Interval().add(new Interval(0.1, 0.1), new Interval(0.2, 0.2));
+        BigDecimal exact = new BigDecimal(0.1).add(new BigDecimal(0.2));
+        assertTrue(new BigDecimal(sum.lo()).compareTo(exact) < 0);
+        assertTrue(new BigDecimal(sum.hi()).compareTo(exact) > 0);
+
+        // Library functions are only good to an ulp, so their bounds lie beyond it
+        Interval exp = new Interval().apply(MathFunction.EXP, new Interval(1, 1));
+        assertTrue(exp.lo() < Math.nextDown(Math.E) && exp.hi() > Math.nextUp(Math.E));
+        Interval sin = new Interval().sin(new Interval(1, 2));
+        assertTrue(sin.lo() < Math.nextDown(Math.sin(1)) && sin.hi() >= 1);
+    }
+
+    @Test
+    void divisionByAnIntervalAroundZero() {
+        Interval whole = new Interval().divide(new Interval(1, 2), new Interval(-1, 1));
+        assertEquals(Double.NEGATIVE_INFINITY, whole.lo());
+        assertEquals(Double.POSITIVE_INFINITY, whole.hi());
+        assertTrue(new Interval().divide(new Interval(1, 2), new Interval(0, 0)).isEmpty());
+    }
+
+    @Test
+    void functionsEncloseEveryValueOnTheInterval() {
+        for (MathFunction function : MathFunction.values()) {
+            if (function.getArity() != 1) {
+                continue;
+            }
+            boolean restricted = function == MathFunction.ASIN || function == MathFunction.ACOS
+                    || function == MathFunction.LOG || function == MathFunction.LOG10 || function == MathFunction.LOG2
+                    || function == MathFunction.SQRT || function == MathFunction.LOG1P;
+            for (int t = 0; t < TRIALS / 10; t++) {
+                // Inside every domain, or across zero and several periods where the function allows it
+                Interval a = restricted ? randomInterval(0.01, 0.99) : randomInterval(-7, 7);
+                Interval result = new Interval().apply(function, a);
+                for (int s = 0; s <= SAMPLES; s++) {
+                    double x = sample(a, s);
+                    double y;
+                    try {
+                        y = function.apply(x);
+                    } catch (ArithmeticException e) {
+                        // cot at a multiple of pi
+                        continue;
+                    }
+                    assertTrue(result.contains(y), function.getName() + a + " = " + result + " misses " + y + " at " + x);
+                }
+            }
+        }
+    }
+
+    @Test
+    void powersEncloseEveryValue() {
+        for (int t = 0; t < TRIALS / 10; t++) {
+            Interval a = randomInterval(-3, 3);
+            Interval positive = randomInterval(0.01, 3);
+            Interval exponent = randomInterval(-2, 2);
+            for (int n = -3; n <= 5; n++) {
+                Interval power = new Interval().powInt(a, n);
+                for (int s = 0; s <= SAMPLES; s++) {
+                    double x = sample(a, s);
+                    if (x != 0 || n >= 0) {
+                        assertTrue(power.contains(Math.pow(x, n)), a + "^" + n + " = " + power);
+                    }
+                }
+            }
+            Interval pow = new Interval().pow(positive, exponent);
+            Interval square = new Interval().square(a);
+            for (int s = 0; s <= SAMPLES; s++) {
+                double x = sample(positive, s);
+                double y = sample(exponent, s);
+                assertTrue(pow.contains(Math.pow(x, y)));
+                double z = sample(a, s);
+                assertTrue(square.contains(z * z));
+            }
+        }
+    }
+
+    @Test
+    void extensionOfAnExpressionEnclosesItsValues() {
+        for (String text : new String[] {"x^3 - 2*x - 5", "sin(3x) * exp(-x) + x/7", "(x - 1)^2 - 1e-9", "abs(x) % 0.7"}) {
+            IntervalFunction.Evaluator f = IntervalFunction.compile(ExpressionParser.parse(text)).evaluator();
+            Node tree = ExpressionParser.parse(text);
+            for (int t = 0; t < TRIALS / 10; t++) {
+                Interval a = randomInterval(-4, 4);
+                Interval value = f.evaluate(a.lo(), a.hi());
+                double lo = value.lo();
+                double hi = value.hi();
+                for (int s = 0; s <= SAMPLES; s++) {
+                    double x = sample(a, s);
+                    double y = tree.evaluate(x);
+                    assertTrue(lo <= y && y <= hi, text + " on " + a + " = [" + lo + ", " + hi + "] misses " + y);
+                }
+            }
+        }
+    }
+
+    @Test
+    void emptyOutsideTheDomain() {
+        assertTrue(new Interval().apply(MathFunction.LOG, new Interval(-2, -1)).isEmpty());
+        assertTrue(new Interval().apply(MathFunction.SQRT, new Interval(-2, -1)).isEmpty());
+        Interval empty = new Interval().apply(MathFunction.LOG, new Interval(-2, -1));
+        assertTrue(new Interval().add(empty, new Interval(1, 2)).isEmpty());
+    }
+
+    // The s-th of SAMPLES + 1 evenly spaced points, kept inside a despite rounding
+    private static double sample(Interval a, int s) {
+        return Math.min(a.lo() + (a.hi() - a.lo()) * s / SAMPLES, a.hi());
+    }
+
+    private Interval randomInterval(double min, double max) {
+        double a = min + (max - min) * random.nextDouble();
+        double b = random.nextInt(8) == 0 ? a : min + (max - min) * random.nextDouble();
+        return new Interval(Math.min(a, b), Math.max(a, b));
+    }
+
+    // The exact results at the four corners, which hold the extremes of + - * /, lie in the result
+    private static void assertEnclosesCorners(Interval result, Interval a, Interval b,
+                                              BiFunction<BigDecimal, BigDecimal, BigDecimal> op, String name) {
+        BigDecimal lo = new BigDecimal(result.lo());
+        BigDecimal hi = new BigDecimal(result.hi());
+        for (double x : new double[] {a.lo(), a.hi()}) {
+            for (double y : new double[] {b.lo(), b.hi()}) {
+                BigDecimal exact = op.apply(new BigDecimal(x), new BigDecimal(y));
+                assertTrue(lo.compareTo(exact) <= 0 && exact.compareTo(hi) <= 0,
+                        name + " of " + a + " and " + b + " = " + result + " misses " + exact);
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.numerical.rootfinder.model.expression;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.function.DoubleUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PolynomialTest {
+
+    private static final double[] XS = {-7.5, -2, -1, -0.3, 0, 0.25, 1, 1.7, 4, 12};
+
+    @Test
+    void recognisesPolynomials() {
+        assertArrayEquals(new double[] {-5, -2, 0, 1}, Polynomial.fromTree(ExpressionParser.parse("x^3 - 2*x - 5")).getCoefficients());
+        assertArrayEquals(new double[] {-2, 1, 1}, Polynomial.fromTree(ExpressionParser.parse("(x - 1)*(x + 2)")).getCoefficients());
+        assertArrayEquals(new double[] {0.5, 0, 1.5}, Polynomial.fromTree(ExpressionParser.parse("(3x^2 + 1)/2")).getCoefficients());
+        for (String text : new String[] {"sin(x)", "x^0.5", "1/x", "x^-1", "x % 2", "x / (1 - 1)"}) {
+            assertNull(Polynomial.fromTree(ExpressionParser.parse(text)), text);
+        }
+    }
+
+    @Test
+    void hornerAgreesWithTheTree() {
+        for (String text : new String[] {"x^3 - 2*x - 5", "3x^4 - x^2 + 0.5x - 7", "0.1x^5 - x^3/3 + 2", "-x^2 + 4x"}) {
+            Polynomial polynomial = Polynomial.fromTree(ExpressionParser.parse(text));
+            assertTrue(polynomial.isExpanded(), text);
+            Node tree = ExpressionParser.parse(text);
+            DoubleUnaryOperator compiled = ExpressionCompiler.compile(text);
+            for (double x : XS) {
+                double expected = tree.evaluate(x);
+                // Both round differently, each within the error bound of its sum of terms
+                double bound = 2 * polynomial.errorBound(Math.abs(x));
+                assertEquals(expected, polynomial.evaluate(x), bound, text + " at " + x);
+                assertEquals(polynomial.evaluate(x), compiled.applyAsDouble(x), 0, text + " at " + x);
+            }
+        }
+    }
+
+    @Test
+    void derivativesInTheSamePass() {
+        Polynomial polynomial = Polynomial.fromTree(ExpressionParser.parse("3x^4 - x^2 + 0.5x - 7"));
+        double[] out = new double[3];
+        for (double x : XS) {
+            polynomial.evaluate(x, out);
+            assertEquals(polynomial.evaluate(x), out[0], 0);
+            assertEquals(12 * x * x * x - 2 * x + 0.5, out[1], 1e-12 * Math.max(1, Math.abs(out[1])));
+            assertEquals(36 * x * x - 2, out[2], 1e-12 * Math.max(1, Math.abs(out[2])));
+        }
+    }
+
+    @Test
+    void factoredFormsKeepTheTree() {
+        // Multiplied out, (x - 1)^10 cancels badly near 1, so it is not evaluated by Horner
+        Polynomial polynomial = Polynomial.fromTree(ExpressionParser.parse("(x - 1)^10"));
+        assertFalse(polynomial.isExpanded());
+        assertEquals(Math.pow(1e-3, 10), ExpressionCompiler.compile("(x - 1)^10").applyAsDouble(1.001), 1e-40);
+        assertTrue(Math.abs(polynomial.evaluate(1.001) - Math.pow(1e-3, 10)) > 1e-20);
+    }
+
+    @Test
+    void hornerCombinesLikeTermsExactly() {
+        // The coefficients are collected before evaluation, so terms that cancel never round
+        DoubleUnaryOperator compiled = ExpressionCompiler.compile("x^2 + 1 - x^2");
+        Node tree = ExpressionParser.parse("x^2 + 1 - x^2");
+        assertEquals(1, compiled.applyAsDouble(1e9));
+        assertEquals(0, tree.evaluate(1e9));
+        assertEquals(0, ExpressionCompiler.compile("x^2 - x^2").applyAsDouble(1e200));
+        assertTrue(Double.isNaN(ExpressionParser.parse("x^2 - x^2").evaluate(1e200)));
+    }
+}